@@ -0,0 +1,196 @@
+package redis.clients.jedis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.jedis.BinaryClient.LIST_POSITION;
+
+/**
+ * The commands of {@link BinaryJedisCommands}, sent without waiting for their
+ * replies: each method returns a {@link JedisFuture} of what the
+ * synchronous command returns.
+ */
+public interface AsyncBinaryJedisCommands {
+    JedisFuture<String> set(byte[] key, byte[] value);
+
+    JedisFuture<byte[]> get(byte[] key);
+
+    JedisFuture<Boolean> exists(byte[] key);
+
+    JedisFuture<String> type(byte[] key);
+
+    JedisFuture<Long> expire(byte[] key, int seconds);
+
+    JedisFuture<Long> expireAt(byte[] key, long unixTime);
+
+    JedisFuture<Long> ttl(byte[] key);
+
+    JedisFuture<byte[]> getSet(byte[] key, byte[] value);
+
+    JedisFuture<Long> setnx(byte[] key, byte[] value);
+
+    JedisFuture<String> setex(byte[] key, int seconds, byte[] value);
+
+    JedisFuture<Long> decrBy(byte[] key, long integer);
+
+    JedisFuture<Long> decr(byte[] key);
+
+    JedisFuture<Long> incrBy(byte[] key, long integer);
+
+    JedisFuture<Long> incr(byte[] key);
+
+    JedisFuture<Long> append(byte[] key, byte[] value);
+
+    JedisFuture<byte[]> substr(byte[] key, int start, int end);
+
+    JedisFuture<Long> hset(byte[] key, byte[] field, byte[] value);
+
+    JedisFuture<byte[]> hget(byte[] key, byte[] field);
+
+    JedisFuture<Long> hsetnx(byte[] key, byte[] field, byte[] value);
+
+    JedisFuture<String> hmset(byte[] key, Map<byte[], byte[]> hash);
+
+    JedisFuture<List<byte[]>> hmget(byte[] key, byte[]... fields);
+
+    JedisFuture<Long> hincrBy(byte[] key, byte[] field, long value);
+
+    JedisFuture<Boolean> hexists(byte[] key, byte[] field);
+
+    JedisFuture<Long> hdel(byte[] key, byte[]... field);
+
+    JedisFuture<Long> hlen(byte[] key);
+
+    JedisFuture<Set<byte[]>> hkeys(byte[] key);
+
+    JedisFuture<List<byte[]>> hvals(byte[] key);
+
+    JedisFuture<Map<byte[], byte[]>> hgetAll(byte[] key);
+
+    JedisFuture<Long> rpush(byte[] key, byte[]... string);
+
+    JedisFuture<Long> lpush(byte[] key, byte[]... string);
+
+    JedisFuture<Long> llen(byte[] key);
+
+    JedisFuture<List<byte[]>> lrange(byte[] key, int start, int end);
+
+    JedisFuture<String> ltrim(byte[] key, int start, int end);
+
+    JedisFuture<byte[]> lindex(byte[] key, int index);
+
+    JedisFuture<String> lset(byte[] key, int index, byte[] value);
+
+    JedisFuture<Long> lrem(byte[] key, int count, byte[] value);
+
+    JedisFuture<byte[]> lpop(byte[] key);
+
+    JedisFuture<byte[]> rpop(byte[] key);
+
+    JedisFuture<Long> sadd(byte[] key, byte[]... member);
+
+    JedisFuture<Set<byte[]>> smembers(byte[] key);
+
+    JedisFuture<Long> srem(byte[] key, byte[]... member);
+
+    JedisFuture<byte[]> spop(byte[] key);
+
+    JedisFuture<Long> scard(byte[] key);
+
+    JedisFuture<Boolean> sismember(byte[] key, byte[] member);
+
+    JedisFuture<byte[]> srandmember(byte[] key);
+
+    JedisFuture<Long> zadd(byte[] key, double score, byte[] member);
+
+    JedisFuture<Long> zadd(byte[] key, Map<Double, byte[]> scoreMembers);
+
+    JedisFuture<Set<byte[]>> zrange(byte[] key, int start, int end);
+
+    JedisFuture<Long> zrem(byte[] key, byte[]... member);
+
+    JedisFuture<Double> zincrby(byte[] key, double score, byte[] member);
+
+    JedisFuture<Long> zrank(byte[] key, byte[] member);
+
+    JedisFuture<Long> zrevrank(byte[] key, byte[] member);
+
+    JedisFuture<Set<byte[]>> zrevrange(byte[] key, int start, int end);
+
+    JedisFuture<Set<Tuple>> zrangeWithScores(byte[] key, int start, int end);
+
+    JedisFuture<Set<Tuple>> zrevrangeWithScores(byte[] key, int start, int end);
+
+    JedisFuture<Long> zcard(byte[] key);
+
+    JedisFuture<Double> zscore(byte[] key, byte[] member);
+
+    JedisFuture<List<byte[]>> sort(byte[] key);
+
+    JedisFuture<List<byte[]>> sort(byte[] key, SortingParams sortingParameters);
+
+    JedisFuture<Long> zcount(byte[] key, double min, double max);
+
+    JedisFuture<Long> zcount(byte[] key, byte[] min, byte[] max);
+
+    JedisFuture<Set<byte[]>> zrangeByScore(byte[] key, double min, double max);
+
+    JedisFuture<Set<byte[]>> zrangeByScore(byte[] key, double min, double max,
+            int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key, double min,
+            double max);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key, double min,
+            double max, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key, byte[] min,
+            byte[] max);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key, byte[] min,
+            byte[] max, int offset, int count);
+
+    JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, double max,
+            double min);
+
+    JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, double max,
+            double min, int offset, int count);
+
+    JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, byte[] max,
+            byte[] min);
+
+    JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, byte[] max,
+            byte[] min, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key, double max,
+            double min);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key, double max,
+            double min, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key, byte[] max,
+            byte[] min);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key, byte[] max,
+            byte[] min, int offset, int count);
+
+    JedisFuture<Long> zremrangeByRank(byte[] key, int start, int end);
+
+    JedisFuture<Long> zremrangeByScore(byte[] key, double start, double end);
+
+    JedisFuture<Long> zremrangeByScore(byte[] key, byte[] start, byte[] end);
+
+    JedisFuture<Long> linsert(byte[] key, LIST_POSITION where, byte[] pivot,
+            byte[] value);
+
+    JedisFuture<Long> objectRefcount(byte[] key);
+
+    JedisFuture<Long> objectIdletime(byte[] key);
+
+    JedisFuture<byte[]> objectEncoding(byte[] key);
+
+    JedisFuture<Long> lpushx(byte[] key, byte[] string);
+
+    JedisFuture<Long> rpushx(byte[] key, byte[] string);
+}
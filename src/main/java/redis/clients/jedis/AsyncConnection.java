@@ -0,0 +1,223 @@
+package redis.clients.jedis;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.LinkedList;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * A non-blocking connection that keeps any number of commands in flight.
+ * Commands can be sent from any thread; they are written by the transport's
+ * I/O thread in the order they were sent, and since Redis answers in order
+ * each reply completes the oldest pending future.
+ */
+public class AsyncConnection {
+    private static final int READ_BUFFER_SIZE = 16384;
+
+    private final AsyncTransport.IoThread thread;
+    private final String host;
+    private final int port;
+    private SocketChannel channel;
+    private volatile SelectionKey key;
+    private ByteBuffer readBuffer = ByteBuffer.allocate(READ_BUFFER_SIZE);
+    private final ReplyDecoder decoder = new ReplyDecoder();
+
+    private final Queue<JedisFuture<?>> pending = new ConcurrentLinkedQueue<JedisFuture<?>>();
+    // guarded by this
+    private final LinkedList<ByteBuffer> writeQueue = new LinkedList<ByteBuffer>();
+    private boolean writeScheduled = false;
+    private boolean closed = false;
+
+    AsyncConnection(final AsyncTransport.IoThread thread, final String host,
+            final int port) {
+        this.thread = thread;
+        this.host = host;
+        this.port = port;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public synchronized boolean isConnected() {
+        return !closed;
+    }
+
+    /**
+     * @return the number of commands sent that haven't been answered yet
+     */
+    public int getPendingCommands() {
+        return pending.size();
+    }
+
+    void connect(final int timeout) {
+        try {
+            channel = SocketChannel.open();
+            final Socket socket = channel.socket();
+            socket.setKeepAlive(true);
+            socket.setTcpNoDelay(true);
+            socket.connect(new InetSocketAddress(host, port), timeout);
+            channel.configureBlocking(false);
+        } catch (IOException e) {
+            closeWithError(new JedisConnectionException(e));
+            throw new JedisConnectionException(e);
+        }
+        thread.register(this);
+    }
+
+    /**
+     * Queues an encoded command. The returned future is completed with the
+     * command's reply, or failed if the connection breaks first.
+     */
+    <T> JedisFuture<T> send(final ByteBuffer command, final Builder<T> builder) {
+        final JedisFuture<T> future = new JedisFuture<T>(builder);
+        final boolean schedule;
+        synchronized (this) {
+            if (closed) {
+                future.fail(new JedisConnectionException(
+                        "Connection is closed"));
+                return future;
+            }
+            pending.add(future);
+            writeQueue.add(command);
+            schedule = !writeScheduled;
+            writeScheduled = true;
+        }
+        if (schedule) {
+            thread.scheduleWrite(this);
+        }
+        return future;
+    }
+
+    /**
+     * Closes the connection. Commands still waiting for a reply fail with a
+     * JedisConnectionException.
+     */
+    public void close() {
+        closeWithError(new JedisConnectionException("Connection is closed"));
+    }
+
+    // the methods below run in the I/O thread
+
+    void register(final Selector selector) {
+        try {
+            key = channel.register(selector, SelectionKey.OP_READ, this);
+        } catch (IOException e) {
+            closeWithError(new JedisConnectionException(e));
+            return;
+        }
+        write();
+    }
+
+    void write() {
+        if (key == null || !key.isValid()) {
+            return;
+        }
+        final ByteBuffer[] buffers;
+        synchronized (this) {
+            buffers = writeQueue.toArray(new ByteBuffer[writeQueue.size()]);
+        }
+        try {
+            channel.write(buffers);
+        } catch (IOException e) {
+            closeWithError(new JedisConnectionException(e));
+            return;
+        }
+        synchronized (this) {
+            while (!writeQueue.isEmpty() && !writeQueue.getFirst().hasRemaining()) {
+                writeQueue.removeFirst();
+            }
+            if (!key.isValid()) {
+                return;
+            }
+            if (writeQueue.isEmpty()) {
+                writeScheduled = false;
+                key.interestOps(SelectionKey.OP_READ);
+            } else {
+                // the socket buffer is full, go on once it's writable again
+                key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            }
+        }
+    }
+
+    void read() {
+        final int read;
+        try {
+            read = channel.read(readBuffer);
+        } catch (IOException e) {
+            closeWithError(new JedisConnectionException(e));
+            return;
+        }
+        if (read == -1) {
+            closeWithError(new JedisConnectionException(
+                    "It seems like server has closed the connection."));
+            return;
+        }
+        readBuffer.flip();
+        try {
+            Object reply;
+            while ((reply = decoder.decode(readBuffer)) != ReplyDecoder.INCOMPLETE) {
+                final JedisFuture<?> future = pending.poll();
+                if (future == null) {
+                    throw new JedisConnectionException(
+                            "Got a reply without a pending command");
+                }
+                future.set(reply);
+            }
+        } catch (JedisConnectionException e) {
+            closeWithError(e);
+            return;
+        }
+        readBuffer.compact();
+        if (!readBuffer.hasRemaining()) {
+            // a single line is larger than the buffer, bulk values are
+            // decoded a part at a time
+            resizeReadBuffer(readBuffer.capacity() * 2);
+        } else if (readBuffer.capacity() > READ_BUFFER_SIZE
+                && readBuffer.position() < READ_BUFFER_SIZE) {
+            // the line that made it grow has been decoded
+            resizeReadBuffer(READ_BUFFER_SIZE);
+        }
+    }
+
+    private void resizeReadBuffer(final int capacity) {
+        final ByteBuffer resized = ByteBuffer.allocate(capacity);
+        readBuffer.flip();
+        resized.put(readBuffer);
+        readBuffer = resized;
+    }
+
+    void closeWithError(final JedisException exception) {
+        synchronized (this) {
+            closed = true;
+            writeQueue.clear();
+        }
+        if (key != null) {
+            key.cancel();
+        }
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // closing anyway
+            }
+        }
+        JedisFuture<?> future;
+        while ((future = pending.poll()) != null) {
+            future.fail(exception);
+        }
+    }
+}
@@ -0,0 +1,1048 @@
+package redis.clients.jedis;
+
+import static redis.clients.jedis.Protocol.toByteArray;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+
+import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Sends the commands of {@link JedisCommands} and {@link BinaryJedisCommands}
+ * over non-blocking connections without waiting for their replies, as
+ * declared by {@link AsyncJedisCommands} and
+ * {@link AsyncBinaryJedisCommands}. Every
+ * command returns a {@link JedisFuture} right away, and many commands can be
+ * in flight on the same connection at once.
+ * <p>
+ * An AsyncJedis is thread safe. Commands sent from the same thread always go
+ * to the same connection, so they are executed by Redis in the order they
+ * were sent.
+ */
+public class AsyncJedis implements AsyncJedisCommands,
+        AsyncBinaryJedisCommands {
+    private final AsyncTransport transport;
+    private final boolean ownsTransport;
+    private final AsyncConnection[] connections;
+
+    public AsyncJedis(final String host) {
+        this(host, Protocol.DEFAULT_PORT);
+    }
+
+    public AsyncJedis(final String host, final int port) {
+        this(new JedisShardInfo(host, port));
+    }
+
+    /**
+     * Opens a single connection served by a transport with one I/O thread
+     * of its own, which is stopped by {@link #close()}.
+     */
+    public AsyncJedis(final JedisShardInfo shardInfo) {
+        this(new AsyncTransport(), true, shardInfo, 1);
+    }
+
+    /**
+     * Opens the given number of connections on a shared transport. The
+     * transport is left running by {@link #close()}.
+     */
+    public AsyncJedis(final AsyncTransport transport,
+            final JedisShardInfo shardInfo, final int connections) {
+        this(transport, false, shardInfo, connections);
+    }
+
+    private AsyncJedis(final AsyncTransport transport,
+            final boolean ownsTransport, final JedisShardInfo shardInfo,
+            final int connections) {
+        if (connections <= 0) {
+            throw new IllegalArgumentException("connections <= 0");
+        }
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.connections = new AsyncConnection[connections];
+        try {
+            for (int i = 0; i < connections; i++) {
+                this.connections[i] = transport.connect(shardInfo.getHost(),
+                        shardInfo.getPort(), shardInfo.getTimeout());
+            }
+            if (shardInfo.getPassword() != null) {
+                authenticate(shardInfo.getPassword());
+            }
+        } catch (JedisException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private void authenticate(final String password) {
+        final JedisFuture<?>[] replies = new JedisFuture<?>[connections.length];
+        for (int i = 0; i < connections.length; i++) {
+            encoder().auth(password);
+            replies[i] = connections[i].send(
+                    ByteBuffer.wrap(CommandEncoder.takeCommand()),
+                    BuilderFactory.STRING);
+        }
+        for (final JedisFuture<?> reply : replies) {
+            try {
+                reply.get();
+            } catch (InterruptedException e) {
+                throw new JedisConnectionException(e);
+            } catch (ExecutionException e) {
+                throw (JedisException) e.getCause();
+            }
+        }
+    }
+
+    /**
+     * Closes the connections. Commands still waiting for a reply fail with a
+     * JedisConnectionException.
+     */
+    public void close() {
+        for (final AsyncConnection connection : connections) {
+            if (connection != null) {
+                connection.close();
+            }
+        }
+        if (ownsTransport) {
+            transport.close();
+        }
+    }
+
+    /**
+     * @return the number of commands sent that haven't been answered yet
+     */
+    public int getPendingCommands() {
+        int pending = 0;
+        for (final AsyncConnection connection : connections) {
+            if (connection != null) {
+                pending += connection.getPendingCommands();
+            }
+        }
+        return pending;
+    }
+
+    private static CommandEncoder encoder() {
+        return CommandEncoder.get();
+    }
+
+    private <T> JedisFuture<T> send(final Builder<T> builder) {
+        final ByteBuffer command = ByteBuffer.wrap(CommandEncoder
+                .takeCommand());
+        final long thread = Thread.currentThread().getId();
+        final int index = (int) (thread % connections.length);
+        return connections[index].send(command, builder);
+    }
+
+    public JedisFuture<String> set(String key, String value) {
+        encoder().set(key, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<String> get(String key) {
+        encoder().sendCommand(Protocol.Command.GET, key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Boolean> exists(String key) {
+        encoder().exists(key);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<String> type(String key) {
+        encoder().type(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> expire(String key, int seconds) {
+        encoder().expire(key, seconds);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> expireAt(String key, long unixTime) {
+        encoder().expireAt(key, unixTime);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> ttl(String key) {
+        encoder().ttl(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Boolean> setbit(String key, long offset, boolean value) {
+        encoder().setbit(key, offset, value);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<Boolean> getbit(String key, long offset) {
+        encoder().getbit(key, offset);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<Long> setrange(String key, long offset, String value) {
+        encoder().setrange(key, offset, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> getrange(String key, long startOffset,
+            long endOffset) {
+        encoder().getrange(key, startOffset, endOffset);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<String> getSet(String key, String value) {
+        encoder().getSet(key, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> setnx(String key, String value) {
+        encoder().setnx(key, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> setex(String key, int seconds, String value) {
+        encoder().setex(key, seconds, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> decrBy(String key, long integer) {
+        encoder().decrBy(key, integer);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> decr(String key) {
+        encoder().decr(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> incrBy(String key, long integer) {
+        encoder().incrBy(key, integer);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> incr(String key) {
+        encoder().incr(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> append(String key, String value) {
+        encoder().append(key, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> substr(String key, int start, int end) {
+        encoder().substr(key, start, end);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> hset(String key, String field, String value) {
+        encoder().hset(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> hget(String key, String field) {
+        encoder().hget(key, field);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> hsetnx(String key, String field, String value) {
+        encoder().hsetnx(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> hmset(String key, Map<String, String> hash) {
+        encoder().hmset(key, hash);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<List<String>> hmget(String key, String... fields) {
+        encoder().hmget(key, fields);
+        return send(BuilderFactory.STRING_LIST);
+    }
+
+    public JedisFuture<Long> hincrBy(String key, String field, long value) {
+        encoder().hincrBy(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Boolean> hexists(String key, String field) {
+        encoder().hexists(key, field);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<Long> hdel(String key, String... fields) {
+        encoder().hdel(key, fields);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> hlen(String key) {
+        encoder().hlen(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<String>> hkeys(String key) {
+        encoder().hkeys(key);
+        return send(BuilderFactory.STRING_SET);
+    }
+
+    public JedisFuture<List<String>> hvals(String key) {
+        encoder().hvals(key);
+        return send(BuilderFactory.STRING_LIST);
+    }
+
+    public JedisFuture<Map<String, String>> hgetAll(String key) {
+        encoder().hgetAll(key);
+        return send(BuilderFactory.STRING_MAP);
+    }
+
+    public JedisFuture<Long> rpush(String key, String... strings) {
+        encoder().rpush(key, strings);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> lpush(String key, String... strings) {
+        encoder().lpush(key, strings);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> llen(String key) {
+        encoder().llen(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<List<String>> lrange(String key, long start, long end) {
+        encoder().lrange(key, start, end);
+        return send(BuilderFactory.STRING_LIST);
+    }
+
+    public JedisFuture<String> ltrim(String key, long start, long end) {
+        encoder().ltrim(key, start, end);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<String> lindex(String key, long index) {
+        encoder().lindex(key, index);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<String> lset(String key, long index, String value) {
+        encoder().lset(key, index, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> lrem(String key, long count, String value) {
+        encoder().lrem(key, count, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> lpop(String key) {
+        encoder().lpop(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<String> rpop(String key) {
+        encoder().rpop(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> sadd(String key, String... members) {
+        encoder().sadd(key, members);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<String>> smembers(String key) {
+        encoder().smembers(key);
+        return send(BuilderFactory.STRING_SET);
+    }
+
+    public JedisFuture<Long> srem(String key, String... members) {
+        encoder().srem(key, members);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> spop(String key) {
+        encoder().spop(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> scard(String key) {
+        encoder().scard(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Boolean> sismember(String key, String member) {
+        encoder().sismember(key, member);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<String> srandmember(String key) {
+        encoder().srandmember(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> zadd(String key, double score, String member) {
+        encoder().zadd(key, score, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zadd(String key, Map<Double,
+            String> scoreMembers) {
+        encoder().zadd(key, scoreMembers);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<String>> zrange(String key, long start, long end) {
+        encoder().zrange(key, start, end);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Long> zrem(String key, String... members) {
+        encoder().zrem(key, members);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Double> zincrby(String key, double score,
+            String member) {
+        encoder().zincrby(key, score, member);
+        return send(BuilderFactory.DOUBLE);
+    }
+
+    public JedisFuture<Long> zrank(String key, String member) {
+        encoder().zrank(key, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zrevrank(String key, String member) {
+        encoder().zrevrank(key, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<String>> zrevrange(String key, long start,
+            long end) {
+        encoder().zrevrange(key, start, end);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeWithScores(String key, long start,
+            long end) {
+        encoder().zrangeWithScores(key, start, end);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeWithScores(String key, long start,
+            long end) {
+        encoder().zrevrangeWithScores(key, start, end);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Long> zcard(String key) {
+        encoder().zcard(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Double> zscore(String key, String member) {
+        encoder().zscore(key, member);
+        return send(BuilderFactory.DOUBLE);
+    }
+
+    public JedisFuture<List<String>> sort(String key) {
+        encoder().sort(key);
+        return send(BuilderFactory.STRING_LIST);
+    }
+
+    public JedisFuture<List<String>> sort(String key,
+            SortingParams sortingParameters) {
+        encoder().sort(key, sortingParameters);
+        return send(BuilderFactory.STRING_LIST);
+    }
+
+    public JedisFuture<Long> zcount(String key, double min, double max) {
+        encoder().zcount(key, min, max);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zcount(String key, String min, String max) {
+        encoder().zcount(key, min, max);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<String>> zrangeByScore(String key, double min,
+            double max) {
+        encoder().zrangeByScore(key, min, max);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrangeByScore(String key, String min,
+            String max) {
+        encoder().zrangeByScore(key, min, max);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrevrangeByScore(String key, double max,
+            double min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrangeByScore(String key, double min,
+            double max, int offset, int count) {
+        encoder().zrangeByScore(key, min, max, offset, count);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrevrangeByScore(String key, String max,
+            String min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrangeByScore(String key, String min,
+            String max, int offset, int count) {
+        encoder().zrangeByScore(key, min, max, offset, count);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrevrangeByScore(String key, double max,
+            double min, int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key,
+            double min, double max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key,
+            double max, double min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key,
+            double min, double max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<String>> zrevrangeByScore(String key, String max,
+            String min, int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return send(BuilderFactory.STRING_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key,
+            String min, String max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key,
+            String max, String min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key,
+            String min, String max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key,
+            double max, double min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key,
+            String max, String min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public JedisFuture<Long> zremrangeByRank(String key, long start, long end) {
+        encoder().zremrangeByRank(key, start, end);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zremrangeByScore(String key, double start,
+            double end) {
+        encoder().zremrangeByScore(key, start, end);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zremrangeByScore(String key, String start,
+            String end) {
+        encoder().zremrangeByScore(key, start, end);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> linsert(String key, LIST_POSITION where,
+            String pivot, String value) {
+        encoder().linsert(key, where, pivot, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> lpushx(String key, String string) {
+        encoder().lpushx(key, string);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> rpushx(String key, String string) {
+        encoder().rpushx(key, string);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> set(byte[] key, byte[] value) {
+        encoder().set(key, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<byte[]> get(byte[] key) {
+        encoder().get(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Boolean> exists(byte[] key) {
+        encoder().exists(key);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<String> type(byte[] key) {
+        encoder().type(key);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> expire(byte[] key, int seconds) {
+        encoder().expire(key, seconds);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> expireAt(byte[] key, long unixTime) {
+        encoder().expireAt(key, unixTime);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> ttl(byte[] key) {
+        encoder().ttl(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> getSet(byte[] key, byte[] value) {
+        encoder().getSet(key, value);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> setnx(byte[] key, byte[] value) {
+        encoder().setnx(key, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> setex(byte[] key, int seconds, byte[] value) {
+        encoder().setex(key, seconds, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> decrBy(byte[] key, long integer) {
+        encoder().decrBy(key, integer);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> decr(byte[] key) {
+        encoder().decr(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> incrBy(byte[] key, long integer) {
+        encoder().incrBy(key, integer);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> incr(byte[] key) {
+        encoder().incr(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> append(byte[] key, byte[] value) {
+        encoder().append(key, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> substr(byte[] key, int start, int end) {
+        encoder().substr(key, start, end);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> hset(byte[] key, byte[] field, byte[] value) {
+        encoder().hset(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> hget(byte[] key, byte[] field) {
+        encoder().hget(key, field);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> hsetnx(byte[] key, byte[] field, byte[] value) {
+        encoder().hsetnx(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<String> hmset(byte[] key, Map<byte[], byte[]> hash) {
+        encoder().hmset(key, hash);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<List<byte[]>> hmget(byte[] key, byte[]... fields) {
+        encoder().hmget(key, fields);
+        return send(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public JedisFuture<Long> hincrBy(byte[] key, byte[] field, long value) {
+        encoder().hincrBy(key, field, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Boolean> hexists(byte[] key, byte[] field) {
+        encoder().hexists(key, field);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<Long> hdel(byte[] key, byte[]... fields) {
+        encoder().hdel(key, fields);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> hlen(byte[] key) {
+        encoder().hlen(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<byte[]>> hkeys(byte[] key) {
+        encoder().hkeys(key);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<List<byte[]>> hvals(byte[] key) {
+        encoder().hvals(key);
+        return send(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public JedisFuture<Map<byte[], byte[]>> hgetAll(byte[] key) {
+        encoder().hgetAll(key);
+        return send(BuilderFactory.BYTE_ARRAY_MAP);
+    }
+
+    public JedisFuture<Long> rpush(byte[] key, byte[]... strings) {
+        encoder().rpush(key, strings);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> lpush(byte[] key, byte[]... strings) {
+        encoder().lpush(key, strings);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> llen(byte[] key) {
+        encoder().llen(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<List<byte[]>> lrange(byte[] key, int start, int end) {
+        encoder().lrange(key, start, end);
+        return send(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public JedisFuture<String> ltrim(byte[] key, int start, int end) {
+        encoder().ltrim(key, start, end);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<byte[]> lindex(byte[] key, int index) {
+        encoder().lindex(key, index);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<String> lset(byte[] key, int index, byte[] value) {
+        encoder().lset(key, index, value);
+        return send(BuilderFactory.STRING);
+    }
+
+    public JedisFuture<Long> lrem(byte[] key, int count, byte[] value) {
+        encoder().lrem(key, count, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> lpop(byte[] key) {
+        encoder().lpop(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<byte[]> rpop(byte[] key) {
+        encoder().rpop(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> sadd(byte[] key, byte[]... members) {
+        encoder().sadd(key, members);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<byte[]>> smembers(byte[] key) {
+        encoder().smembers(key);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Long> srem(byte[] key, byte[]... member) {
+        encoder().srem(key, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> spop(byte[] key) {
+        encoder().spop(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> scard(byte[] key) {
+        encoder().scard(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Boolean> sismember(byte[] key, byte[] member) {
+        encoder().sismember(key, member);
+        return send(BuilderFactory.BOOLEAN);
+    }
+
+    public JedisFuture<byte[]> srandmember(byte[] key) {
+        encoder().srandmember(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> zadd(byte[] key, double score, byte[] member) {
+        encoder().zadd(key, score, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zadd(byte[] key, Map<Double,
+            byte[]> scoreMembers) {
+        encoder().zaddBinary(key, scoreMembers);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<byte[]>> zrange(byte[] key, int start, int end) {
+        encoder().zrange(key, start, end);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Long> zrem(byte[] key, byte[]... members) {
+        encoder().zrem(key, members);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Double> zincrby(byte[] key, double score,
+            byte[] member) {
+        encoder().zincrby(key, score, member);
+        return send(BuilderFactory.DOUBLE);
+    }
+
+    public JedisFuture<Long> zrank(byte[] key, byte[] member) {
+        encoder().zrank(key, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zrevrank(byte[] key, byte[] member) {
+        encoder().zrevrank(key, member);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<byte[]>> zrevrange(byte[] key, int start, int end) {
+        encoder().zrevrange(key, start, end);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeWithScores(byte[] key, int start,
+            int end) {
+        encoder().zrangeWithScores(key, start, end);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeWithScores(byte[] key, int start,
+            int end) {
+        encoder().zrevrangeWithScores(key, start, end);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Long> zcard(byte[] key) {
+        encoder().zcard(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Double> zscore(byte[] key, byte[] member) {
+        encoder().zscore(key, member);
+        return send(BuilderFactory.DOUBLE);
+    }
+
+    public JedisFuture<List<byte[]>> sort(byte[] key) {
+        encoder().sort(key);
+        return send(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public JedisFuture<List<byte[]>> sort(byte[] key,
+            SortingParams sortingParameters) {
+        encoder().sort(key, sortingParameters);
+        return send(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public JedisFuture<Long> zcount(byte[] key, double min, double max) {
+        encoder().zcount(key, toByteArray(min), toByteArray(max));
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zcount(byte[] key, byte[] min, byte[] max) {
+        encoder().zcount(key, min, max);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Set<byte[]>> zrangeByScore(byte[] key, double min,
+            double max) {
+        encoder().zrangeByScore(key, toByteArray(min), toByteArray(max));
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<byte[]>> zrangeByScore(byte[] key, double min,
+            double max, int offset, int count) {
+        encoder().zrangeByScore(key, toByteArray(min), toByteArray(max),
+                offset, count);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key,
+            double min, double max) {
+        encoder().zrangeByScoreWithScores(key, toByteArray(min),
+                toByteArray(max));
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key,
+            double min, double max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, toByteArray(min),
+                toByteArray(max), offset, count);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key,
+            byte[] min, byte[] max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrangeByScoreWithScores(byte[] key,
+            byte[] min, byte[] max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, double max,
+            double min) {
+        encoder().zrevrangeByScore(key, toByteArray(max), toByteArray(min));
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, double max,
+            double min, int offset, int count) {
+        encoder().zrevrangeByScore(key, toByteArray(max), toByteArray(min),
+                offset, count);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, byte[] max,
+            byte[] min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<byte[]>> zrevrangeByScore(byte[] key, byte[] max,
+            byte[] min, int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return send(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key,
+            double max, double min) {
+        encoder().zrevrangeByScoreWithScores(key, toByteArray(max),
+                toByteArray(min));
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key,
+            double max, double min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, toByteArray(max),
+                toByteArray(min), offset, count);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key,
+            byte[] max, byte[] min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(byte[] key,
+            byte[] max, byte[] min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return send(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public JedisFuture<Long> zremrangeByRank(byte[] key, int start, int end) {
+        encoder().zremrangeByRank(key, start, end);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zremrangeByScore(byte[] key, double start,
+            double end) {
+        encoder().zremrangeByScore(key, toByteArray(start), toByteArray(end));
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> zremrangeByScore(byte[] key, byte[] start,
+            byte[] end) {
+        encoder().zremrangeByScore(key, start, end);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> linsert(byte[] key, LIST_POSITION where,
+            byte[] pivot, byte[] value) {
+        encoder().linsert(key, where, pivot, value);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> objectRefcount(byte[] key) {
+        encoder().objectRefcount(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> objectIdletime(byte[] key) {
+        encoder().objectIdletime(key);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<byte[]> objectEncoding(byte[] key) {
+        encoder().objectEncoding(key);
+        return send(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public JedisFuture<Long> lpushx(byte[] key, byte[] string) {
+        encoder().lpushx(key, string);
+        return send(BuilderFactory.LONG);
+    }
+
+    public JedisFuture<Long> rpushx(byte[] key, byte[] string) {
+        encoder().rpushx(key, string);
+        return send(BuilderFactory.LONG);
+    }
+}
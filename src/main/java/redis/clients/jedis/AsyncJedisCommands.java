@@ -0,0 +1,202 @@
+package redis.clients.jedis;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The commands of {@link JedisCommands}, sent without waiting for their
+ * replies: each method returns a {@link JedisFuture} of what the
+ * synchronous command returns.
+ */
+public interface AsyncJedisCommands {
+    JedisFuture<String> set(String key, String value);
+
+    JedisFuture<String> get(String key);
+
+    JedisFuture<Boolean> exists(String key);
+
+    JedisFuture<String> type(String key);
+
+    JedisFuture<Long> expire(String key, int seconds);
+
+    JedisFuture<Long> expireAt(String key, long unixTime);
+
+    JedisFuture<Long> ttl(String key);
+
+    JedisFuture<Boolean> setbit(String key, long offset, boolean value);
+
+    JedisFuture<Boolean> getbit(String key, long offset);
+
+    JedisFuture<Long> setrange(String key, long offset, String value);
+
+    JedisFuture<String> getrange(String key, long startOffset, long endOffset);
+
+    JedisFuture<String> getSet(String key, String value);
+
+    JedisFuture<Long> setnx(String key, String value);
+
+    JedisFuture<String> setex(String key, int seconds, String value);
+
+    JedisFuture<Long> decrBy(String key, long integer);
+
+    JedisFuture<Long> decr(String key);
+
+    JedisFuture<Long> incrBy(String key, long integer);
+
+    JedisFuture<Long> incr(String key);
+
+    JedisFuture<Long> append(String key, String value);
+
+    JedisFuture<String> substr(String key, int start, int end);
+
+    JedisFuture<Long> hset(String key, String field, String value);
+
+    JedisFuture<String> hget(String key, String field);
+
+    JedisFuture<Long> hsetnx(String key, String field, String value);
+
+    JedisFuture<String> hmset(String key, Map<String, String> hash);
+
+    JedisFuture<List<String>> hmget(String key, String... fields);
+
+    JedisFuture<Long> hincrBy(String key, String field, long value);
+
+    JedisFuture<Boolean> hexists(String key, String field);
+
+    JedisFuture<Long> hdel(String key, String... field);
+
+    JedisFuture<Long> hlen(String key);
+
+    JedisFuture<Set<String>> hkeys(String key);
+
+    JedisFuture<List<String>> hvals(String key);
+
+    JedisFuture<Map<String, String>> hgetAll(String key);
+
+    JedisFuture<Long> rpush(String key, String... string);
+
+    JedisFuture<Long> lpush(String key, String... string);
+
+    JedisFuture<Long> llen(String key);
+
+    JedisFuture<List<String>> lrange(String key, long start, long end);
+
+    JedisFuture<String> ltrim(String key, long start, long end);
+
+    JedisFuture<String> lindex(String key, long index);
+
+    JedisFuture<String> lset(String key, long index, String value);
+
+    JedisFuture<Long> lrem(String key, long count, String value);
+
+    JedisFuture<String> lpop(String key);
+
+    JedisFuture<String> rpop(String key);
+
+    JedisFuture<Long> sadd(String key, String... member);
+
+    JedisFuture<Set<String>> smembers(String key);
+
+    JedisFuture<Long> srem(String key, String... member);
+
+    JedisFuture<String> spop(String key);
+
+    JedisFuture<Long> scard(String key);
+
+    JedisFuture<Boolean> sismember(String key, String member);
+
+    JedisFuture<String> srandmember(String key);
+
+    JedisFuture<Long> zadd(String key, double score, String member);
+
+    JedisFuture<Long> zadd(String key, Map<Double, String> scoreMembers);
+
+    JedisFuture<Set<String>> zrange(String key, long start, long end);
+
+    JedisFuture<Long> zrem(String key, String... member);
+
+    JedisFuture<Double> zincrby(String key, double score, String member);
+
+    JedisFuture<Long> zrank(String key, String member);
+
+    JedisFuture<Long> zrevrank(String key, String member);
+
+    JedisFuture<Set<String>> zrevrange(String key, long start, long end);
+
+    JedisFuture<Set<Tuple>> zrangeWithScores(String key, long start, long end);
+
+    JedisFuture<Set<Tuple>> zrevrangeWithScores(String key, long start,
+            long end);
+
+    JedisFuture<Long> zcard(String key);
+
+    JedisFuture<Double> zscore(String key, String member);
+
+    JedisFuture<List<String>> sort(String key);
+
+    JedisFuture<List<String>> sort(String key, SortingParams sortingParameters);
+
+    JedisFuture<Long> zcount(String key, double min, double max);
+
+    JedisFuture<Long> zcount(String key, String min, String max);
+
+    JedisFuture<Set<String>> zrangeByScore(String key, double min, double max);
+
+    JedisFuture<Set<String>> zrangeByScore(String key, String min, String max);
+
+    JedisFuture<Set<String>> zrevrangeByScore(String key, double max,
+            double min);
+
+    JedisFuture<Set<String>> zrangeByScore(String key, double min, double max,
+            int offset, int count);
+
+    JedisFuture<Set<String>> zrevrangeByScore(String key, String max,
+            String min);
+
+    JedisFuture<Set<String>> zrangeByScore(String key, String min, String max,
+            int offset, int count);
+
+    JedisFuture<Set<String>> zrevrangeByScore(String key, double max,
+            double min, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key, double min,
+            double max);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key, double max,
+            double min);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key, double min,
+            double max, int offset, int count);
+
+    JedisFuture<Set<String>> zrevrangeByScore(String key, String max,
+            String min, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key, String min,
+            String max);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key, String max,
+            String min);
+
+    JedisFuture<Set<Tuple>> zrangeByScoreWithScores(String key, String min,
+            String max, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key, double max,
+            double min, int offset, int count);
+
+    JedisFuture<Set<Tuple>> zrevrangeByScoreWithScores(String key, String max,
+            String min, int offset, int count);
+
+    JedisFuture<Long> zremrangeByRank(String key, long start, long end);
+
+    JedisFuture<Long> zremrangeByScore(String key, double start, double end);
+
+    JedisFuture<Long> zremrangeByScore(String key, String start, String end);
+
+    JedisFuture<Long> linsert(String key, Client.LIST_POSITION where,
+            String pivot, String value);
+
+    JedisFuture<Long> lpushx(String key, String string);
+
+    JedisFuture<Long> rpushx(String key, String string);
+}
@@ -0,0 +1,171 @@
+package redis.clients.jedis;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * A set of I/O threads, each running a selector over any number of
+ * non-blocking {@link AsyncConnection}s. One transport can be shared by many
+ * {@link AsyncJedis} instances; connections are spread over the threads
+ * round robin.
+ */
+public class AsyncTransport {
+    private final IoThread[] threads;
+    private final AtomicInteger next = new AtomicInteger();
+    private volatile boolean closed = false;
+
+    public AsyncTransport() {
+        this(1);
+    }
+
+    public AsyncTransport(final int ioThreads) {
+        if (ioThreads <= 0) {
+            throw new IllegalArgumentException("ioThreads <= 0");
+        }
+        threads = new IoThread[ioThreads];
+        try {
+            for (int i = 0; i < ioThreads; i++) {
+                threads[i] = new IoThread(i);
+            }
+        } catch (IOException e) {
+            close();
+            throw new JedisConnectionException(e);
+        }
+        for (final IoThread thread : threads) {
+            thread.start();
+        }
+    }
+
+    public int getIoThreads() {
+        return threads.length;
+    }
+
+    /**
+     * Opens a new connection served by one of this transport's I/O threads.
+     */
+    public AsyncConnection connect(final String host, final int port,
+            final int timeout) {
+        if (closed) {
+            throw new JedisConnectionException("Transport is closed");
+        }
+        final IoThread thread = threads[(next.getAndIncrement() & Integer.MAX_VALUE)
+                % threads.length];
+        final AsyncConnection connection = new AsyncConnection(thread, host,
+                port);
+        connection.connect(timeout);
+        return connection;
+    }
+
+    /**
+     * Stops the I/O threads. Connections still open are closed and their
+     * pending commands fail.
+     */
+    public void close() {
+        closed = true;
+        for (final IoThread thread : threads) {
+            if (thread != null) {
+                thread.shutdown();
+            }
+        }
+    }
+
+    final class IoThread extends Thread {
+        private final Selector selector;
+        private final Queue<AsyncConnection> registrations = new ConcurrentLinkedQueue<AsyncConnection>();
+        private final Queue<AsyncConnection> writes = new ConcurrentLinkedQueue<AsyncConnection>();
+
+        IoThread(final int index) throws IOException {
+            super("jedis-io-" + index);
+            setDaemon(true);
+            selector = Selector.open();
+        }
+
+        void register(final AsyncConnection connection) {
+            registrations.add(connection);
+            selector.wakeup();
+        }
+
+        /**
+         * Asks the thread to flush the connection's queued commands.
+         */
+        void scheduleWrite(final AsyncConnection connection) {
+            writes.add(connection);
+            selector.wakeup();
+        }
+
+        void shutdown() {
+            try {
+                selector.wakeup();
+            } catch (ClosedSelectorException e) {
+                // already stopped
+            }
+        }
+
+        public void run() {
+            try {
+                while (!closed) {
+                    selector.select();
+                    processRegistrations();
+                    processWrites();
+                    final Iterator<SelectionKey> keys = selector
+                            .selectedKeys().iterator();
+                    while (keys.hasNext()) {
+                        final SelectionKey key = keys.next();
+                        keys.remove();
+                        final AsyncConnection connection = (AsyncConnection) key
+                                .attachment();
+                        if (!key.isValid()) {
+                            continue;
+                        }
+                        if (key.isReadable()) {
+                            connection.read();
+                        }
+                        if (key.isValid() && key.isWritable()) {
+                            connection.write();
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                // the selector itself failed, nothing more can be served
+            } finally {
+                for (final SelectionKey key : selector.keys()) {
+                    ((AsyncConnection) key.attachment())
+                            .closeWithError(new JedisConnectionException(
+                                    "Transport is closed"));
+                }
+                AsyncConnection connection;
+                while ((connection = registrations.poll()) != null) {
+                    connection.closeWithError(new JedisConnectionException(
+                            "Transport is closed"));
+                }
+                try {
+                    selector.close();
+                } catch (IOException e) {
+                    // nothing left to release
+                }
+            }
+        }
+
+        private void processRegistrations() {
+            AsyncConnection connection;
+            while ((connection = registrations.poll()) != null) {
+                connection.register(selector);
+            }
+        }
+
+        private void processWrites() {
+            AsyncConnection connection;
+            while ((connection = writes.poll()) != null) {
+                connection.write();
+            }
+        }
+    }
+}
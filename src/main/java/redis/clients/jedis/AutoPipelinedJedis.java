@@ -0,0 +1,981 @@
+package redis.clients.jedis;
+
+import static redis.clients.jedis.Protocol.toByteArray;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * A thread-safe client whose commands are pipelined automatically: while a
+ * batch of commands is being flushed or its replies read, the commands other
+ * threads issue are queued and go out together in the next flush. Call sites
+ * stay the same as with {@link Jedis}, but many threads sharing one instance
+ * get close to the throughput of a {@link Pipeline}.
+ * <p>
+ * Batches are flushed as soon as the socket is free. Setting a maximum delay
+ * makes the flushing thread wait up to that long for a batch to fill up
+ * before it is written. Blocking commands would hold up every other thread,
+ * so they are not available here.
+ * <p>
+ * If the connection breaks, every waiting command fails with a
+ * JedisConnectionException and so does any later one; create a new instance
+ * to reconnect.
+ */
+public class AutoPipelinedJedis implements JedisCommands, BinaryJedisCommands {
+    public static final int DEFAULT_MAX_BATCH_SIZE = 512;
+
+    private final CoalescingConnection connection;
+
+    public AutoPipelinedJedis(final String host) {
+        this(host, Protocol.DEFAULT_PORT);
+    }
+
+    public AutoPipelinedJedis(final String host, final int port) {
+        this(new JedisShardInfo(host, port));
+    }
+
+    public AutoPipelinedJedis(final JedisShardInfo shardInfo) {
+        this(shardInfo, DEFAULT_MAX_BATCH_SIZE, 0);
+    }
+
+    /**
+     * @param maxBatchSize
+     *            the most commands written with a single flush
+     * @param maxDelayMicros
+     *            how long to wait for a batch to fill up before flushing it,
+     *            0 to flush as soon as possible
+     */
+    public AutoPipelinedJedis(final JedisShardInfo shardInfo,
+            final int maxBatchSize, final long maxDelayMicros) {
+        connection = new CoalescingConnection(shardInfo.getHost(),
+                shardInfo.getPort(), shardInfo.getTimeout(), maxBatchSize,
+                maxDelayMicros * 1000);
+        if (shardInfo.getPassword() != null) {
+            try {
+                auth(shardInfo.getPassword());
+            } catch (JedisException e) {
+                connection.close();
+                throw e;
+            }
+        }
+    }
+
+    private String auth(final String password) {
+        encoder().auth(password);
+        return execute(BuilderFactory.STRING);
+    }
+
+    /**
+     * @return false once the connection has broken or has been closed
+     */
+    public boolean isConnected() {
+        return !connection.isBroken();
+    }
+
+    /**
+     * Closes the connection. Commands still waiting for a reply fail with a
+     * JedisConnectionException.
+     */
+    public void close() {
+        connection.close();
+    }
+
+    private static CommandEncoder encoder() {
+        return CommandEncoder.get();
+    }
+
+    private <T> T execute(final Builder<T> builder) {
+        return connection.execute(CommandEncoder.takeCommand(), builder);
+    }
+
+    public String set(String key, String value) {
+        encoder().set(key, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public String get(String key) {
+        encoder().sendCommand(Protocol.Command.GET, key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Boolean exists(String key) {
+        encoder().exists(key);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public String type(String key) {
+        encoder().type(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long expire(String key, int seconds) {
+        encoder().expire(key, seconds);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long expireAt(String key, long unixTime) {
+        encoder().expireAt(key, unixTime);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long ttl(String key) {
+        encoder().ttl(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Boolean setbit(String key, long offset, boolean value) {
+        encoder().setbit(key, offset, value);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public Boolean getbit(String key, long offset) {
+        encoder().getbit(key, offset);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public Long setrange(String key, long offset, String value) {
+        encoder().setrange(key, offset, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String getrange(String key, long startOffset, long endOffset) {
+        encoder().getrange(key, startOffset, endOffset);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public String getSet(String key, String value) {
+        encoder().getSet(key, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long setnx(String key, String value) {
+        encoder().setnx(key, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String setex(String key, int seconds, String value) {
+        encoder().setex(key, seconds, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long decrBy(String key, long integer) {
+        encoder().decrBy(key, integer);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long decr(String key) {
+        encoder().decr(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long incrBy(String key, long integer) {
+        encoder().incrBy(key, integer);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long incr(String key) {
+        encoder().incr(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long append(String key, String value) {
+        encoder().append(key, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String substr(String key, int start, int end) {
+        encoder().substr(key, start, end);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long hset(String key, String field, String value) {
+        encoder().hset(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String hget(String key, String field) {
+        encoder().hget(key, field);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long hsetnx(String key, String field, String value) {
+        encoder().hsetnx(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String hmset(String key, Map<String, String> hash) {
+        encoder().hmset(key, hash);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public List<String> hmget(String key, String... fields) {
+        encoder().hmget(key, fields);
+        return execute(BuilderFactory.STRING_LIST);
+    }
+
+    public Long hincrBy(String key, String field, long value) {
+        encoder().hincrBy(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Boolean hexists(String key, String field) {
+        encoder().hexists(key, field);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public Long hdel(String key, String... fields) {
+        encoder().hdel(key, fields);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long hlen(String key) {
+        encoder().hlen(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<String> hkeys(String key) {
+        encoder().hkeys(key);
+        return execute(BuilderFactory.STRING_SET);
+    }
+
+    public List<String> hvals(String key) {
+        encoder().hvals(key);
+        return execute(BuilderFactory.STRING_LIST);
+    }
+
+    public Map<String, String> hgetAll(String key) {
+        encoder().hgetAll(key);
+        return execute(BuilderFactory.STRING_MAP);
+    }
+
+    public Long rpush(String key, String... strings) {
+        encoder().rpush(key, strings);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long lpush(String key, String... strings) {
+        encoder().lpush(key, strings);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long llen(String key) {
+        encoder().llen(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public List<String> lrange(String key, long start, long end) {
+        encoder().lrange(key, start, end);
+        return execute(BuilderFactory.STRING_LIST);
+    }
+
+    public String ltrim(String key, long start, long end) {
+        encoder().ltrim(key, start, end);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public String lindex(String key, long index) {
+        encoder().lindex(key, index);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public String lset(String key, long index, String value) {
+        encoder().lset(key, index, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long lrem(String key, long count, String value) {
+        encoder().lrem(key, count, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String lpop(String key) {
+        encoder().lpop(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public String rpop(String key) {
+        encoder().rpop(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long sadd(String key, String... members) {
+        encoder().sadd(key, members);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<String> smembers(String key) {
+        encoder().smembers(key);
+        return execute(BuilderFactory.STRING_SET);
+    }
+
+    public Long srem(String key, String... members) {
+        encoder().srem(key, members);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String spop(String key) {
+        encoder().spop(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long scard(String key) {
+        encoder().scard(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Boolean sismember(String key, String member) {
+        encoder().sismember(key, member);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public String srandmember(String key) {
+        encoder().srandmember(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long zadd(String key, double score, String member) {
+        encoder().zadd(key, score, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zadd(String key, Map<Double, String> scoreMembers) {
+        encoder().zadd(key, scoreMembers);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<String> zrange(String key, long start, long end) {
+        encoder().zrange(key, start, end);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Long zrem(String key, String... members) {
+        encoder().zrem(key, members);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Double zincrby(String key, double score, String member) {
+        encoder().zincrby(key, score, member);
+        return execute(BuilderFactory.DOUBLE);
+    }
+
+    public Long zrank(String key, String member) {
+        encoder().zrank(key, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zrevrank(String key, String member) {
+        encoder().zrevrank(key, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<String> zrevrange(String key, long start, long end) {
+        encoder().zrevrange(key, start, end);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<Tuple> zrangeWithScores(String key, long start, long end) {
+        encoder().zrangeWithScores(key, start, end);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeWithScores(String key, long start, long end) {
+        encoder().zrevrangeWithScores(key, start, end);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Long zcard(String key) {
+        encoder().zcard(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Double zscore(String key, String member) {
+        encoder().zscore(key, member);
+        return execute(BuilderFactory.DOUBLE);
+    }
+
+    public List<String> sort(String key) {
+        encoder().sort(key);
+        return execute(BuilderFactory.STRING_LIST);
+    }
+
+    public List<String> sort(String key, SortingParams sortingParameters) {
+        encoder().sort(key, sortingParameters);
+        return execute(BuilderFactory.STRING_LIST);
+    }
+
+    public Long zcount(String key, double min, double max) {
+        encoder().zcount(key, min, max);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zcount(String key, String min, String max) {
+        encoder().zcount(key, min, max);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<String> zrangeByScore(String key, double min, double max) {
+        encoder().zrangeByScore(key, min, max);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrangeByScore(String key, String min, String max) {
+        encoder().zrangeByScore(key, min, max);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrevrangeByScore(String key, double max, double min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrangeByScore(String key, double min, double max,
+            int offset, int count) {
+        encoder().zrangeByScore(key, min, max, offset, count);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrevrangeByScore(String key, String max, String min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrangeByScore(String key, String min, String max,
+            int offset, int count) {
+        encoder().zrangeByScore(key, min, max, offset, count);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<String> zrevrangeByScore(String key, double max, double min,
+            int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(String key, double min,
+            double max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(String key, double max,
+            double min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(String key, double min,
+            double max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<String> zrevrangeByScore(String key, String max, String min,
+            int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return execute(BuilderFactory.STRING_ZSET);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(String key, String min,
+            String max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(String key, String max,
+            String min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(String key, String min,
+            String max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(String key, double max,
+            double min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(String key, String max,
+            String min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET);
+    }
+
+    public Long zremrangeByRank(String key, long start, long end) {
+        encoder().zremrangeByRank(key, start, end);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zremrangeByScore(String key, double start, double end) {
+        encoder().zremrangeByScore(key, start, end);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zremrangeByScore(String key, String start, String end) {
+        encoder().zremrangeByScore(key, start, end);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long linsert(String key, LIST_POSITION where, String pivot,
+            String value) {
+        encoder().linsert(key, where, pivot, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long lpushx(String key, String string) {
+        encoder().lpushx(key, string);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long rpushx(String key, String string) {
+        encoder().rpushx(key, string);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String set(byte[] key, byte[] value) {
+        encoder().set(key, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public byte[] get(byte[] key) {
+        encoder().get(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Boolean exists(byte[] key) {
+        encoder().exists(key);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public String type(byte[] key) {
+        encoder().type(key);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long expire(byte[] key, int seconds) {
+        encoder().expire(key, seconds);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long expireAt(byte[] key, long unixTime) {
+        encoder().expireAt(key, unixTime);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long ttl(byte[] key) {
+        encoder().ttl(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] getSet(byte[] key, byte[] value) {
+        encoder().getSet(key, value);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long setnx(byte[] key, byte[] value) {
+        encoder().setnx(key, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String setex(byte[] key, int seconds, byte[] value) {
+        encoder().setex(key, seconds, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long decrBy(byte[] key, long integer) {
+        encoder().decrBy(key, integer);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long decr(byte[] key) {
+        encoder().decr(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long incrBy(byte[] key, long integer) {
+        encoder().incrBy(key, integer);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long incr(byte[] key) {
+        encoder().incr(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long append(byte[] key, byte[] value) {
+        encoder().append(key, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] substr(byte[] key, int start, int end) {
+        encoder().substr(key, start, end);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long hset(byte[] key, byte[] field, byte[] value) {
+        encoder().hset(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] hget(byte[] key, byte[] field) {
+        encoder().hget(key, field);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long hsetnx(byte[] key, byte[] field, byte[] value) {
+        encoder().hsetnx(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public String hmset(byte[] key, Map<byte[], byte[]> hash) {
+        encoder().hmset(key, hash);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public List<byte[]> hmget(byte[] key, byte[]... fields) {
+        encoder().hmget(key, fields);
+        return execute(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public Long hincrBy(byte[] key, byte[] field, long value) {
+        encoder().hincrBy(key, field, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Boolean hexists(byte[] key, byte[] field) {
+        encoder().hexists(key, field);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public Long hdel(byte[] key, byte[]... fields) {
+        encoder().hdel(key, fields);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long hlen(byte[] key) {
+        encoder().hlen(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<byte[]> hkeys(byte[] key) {
+        encoder().hkeys(key);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Collection<byte[]> hvals(byte[] key) {
+        encoder().hvals(key);
+        return execute(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public Map<byte[], byte[]> hgetAll(byte[] key) {
+        encoder().hgetAll(key);
+        return execute(BuilderFactory.BYTE_ARRAY_MAP);
+    }
+
+    public Long rpush(byte[] key, byte[]... strings) {
+        encoder().rpush(key, strings);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long lpush(byte[] key, byte[]... strings) {
+        encoder().lpush(key, strings);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long llen(byte[] key) {
+        encoder().llen(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public List<byte[]> lrange(byte[] key, int start, int end) {
+        encoder().lrange(key, start, end);
+        return execute(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public String ltrim(byte[] key, int start, int end) {
+        encoder().ltrim(key, start, end);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public byte[] lindex(byte[] key, int index) {
+        encoder().lindex(key, index);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public String lset(byte[] key, int index, byte[] value) {
+        encoder().lset(key, index, value);
+        return execute(BuilderFactory.STRING);
+    }
+
+    public Long lrem(byte[] key, int count, byte[] value) {
+        encoder().lrem(key, count, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] lpop(byte[] key) {
+        encoder().lpop(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public byte[] rpop(byte[] key) {
+        encoder().rpop(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long sadd(byte[] key, byte[]... members) {
+        encoder().sadd(key, members);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<byte[]> smembers(byte[] key) {
+        encoder().smembers(key);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Long srem(byte[] key, byte[]... member) {
+        encoder().srem(key, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] spop(byte[] key) {
+        encoder().spop(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long scard(byte[] key) {
+        encoder().scard(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Boolean sismember(byte[] key, byte[] member) {
+        encoder().sismember(key, member);
+        return execute(BuilderFactory.BOOLEAN);
+    }
+
+    public byte[] srandmember(byte[] key) {
+        encoder().srandmember(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long zadd(byte[] key, double score, byte[] member) {
+        encoder().zadd(key, score, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zadd(byte[] key, Map<Double, byte[]> scoreMembers) {
+        encoder().zaddBinary(key, scoreMembers);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<byte[]> zrange(byte[] key, int start, int end) {
+        encoder().zrange(key, start, end);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Long zrem(byte[] key, byte[]... members) {
+        encoder().zrem(key, members);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Double zincrby(byte[] key, double score, byte[] member) {
+        encoder().zincrby(key, score, member);
+        return execute(BuilderFactory.DOUBLE);
+    }
+
+    public Long zrank(byte[] key, byte[] member) {
+        encoder().zrank(key, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zrevrank(byte[] key, byte[] member) {
+        encoder().zrevrank(key, member);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<byte[]> zrevrange(byte[] key, int start, int end) {
+        encoder().zrevrange(key, start, end);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<Tuple> zrangeWithScores(byte[] key, int start, int end) {
+        encoder().zrangeWithScores(key, start, end);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrevrangeWithScores(byte[] key, int start, int end) {
+        encoder().zrevrangeWithScores(key, start, end);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Long zcard(byte[] key) {
+        encoder().zcard(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Double zscore(byte[] key, byte[] member) {
+        encoder().zscore(key, member);
+        return execute(BuilderFactory.DOUBLE);
+    }
+
+    public List<byte[]> sort(byte[] key) {
+        encoder().sort(key);
+        return execute(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public List<byte[]> sort(byte[] key, SortingParams sortingParameters) {
+        encoder().sort(key, sortingParameters);
+        return execute(BuilderFactory.BYTE_ARRAY_LIST);
+    }
+
+    public Long zcount(byte[] key, double min, double max) {
+        encoder().zcount(key, toByteArray(min), toByteArray(max));
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zcount(byte[] key, byte[] min, byte[] max) {
+        encoder().zcount(key, min, max);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Set<byte[]> zrangeByScore(byte[] key, double min, double max) {
+        encoder().zrangeByScore(key, toByteArray(min), toByteArray(max));
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<byte[]> zrangeByScore(byte[] key, double min, double max,
+            int offset, int count) {
+        encoder().zrangeByScore(key, toByteArray(min), toByteArray(max),
+                offset, count);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(byte[] key, double min,
+            double max) {
+        encoder().zrangeByScoreWithScores(key, toByteArray(min),
+                toByteArray(max));
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(byte[] key, double min,
+            double max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, toByteArray(min),
+                toByteArray(max), offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(byte[] key, byte[] min,
+            byte[] max) {
+        encoder().zrangeByScoreWithScores(key, min, max);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrangeByScoreWithScores(byte[] key, byte[] min,
+            byte[] max, int offset, int count) {
+        encoder().zrangeByScoreWithScores(key, min, max, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<byte[]> zrevrangeByScore(byte[] key, double max, double min) {
+        encoder().zrevrangeByScore(key, toByteArray(max), toByteArray(min));
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<byte[]> zrevrangeByScore(byte[] key, double max, double min,
+            int offset, int count) {
+        encoder().zrevrangeByScore(key, toByteArray(max), toByteArray(min),
+                offset, count);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<byte[]> zrevrangeByScore(byte[] key, byte[] max, byte[] min) {
+        encoder().zrevrangeByScore(key, max, min);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<byte[]> zrevrangeByScore(byte[] key, byte[] max, byte[] min,
+            int offset, int count) {
+        encoder().zrevrangeByScore(key, max, min, offset, count);
+        return execute(BuilderFactory.BYTE_ARRAY_ZSET);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, double max,
+            double min) {
+        encoder().zrevrangeByScoreWithScores(key, toByteArray(max),
+                toByteArray(min));
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, double max,
+            double min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, toByteArray(max),
+                toByteArray(min), offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, byte[] max,
+            byte[] min) {
+        encoder().zrevrangeByScoreWithScores(key, max, min);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Set<Tuple> zrevrangeByScoreWithScores(byte[] key, byte[] max,
+            byte[] min, int offset, int count) {
+        encoder().zrevrangeByScoreWithScores(key, max, min, offset, count);
+        return execute(BuilderFactory.TUPLE_ZSET_BINARY);
+    }
+
+    public Long zremrangeByRank(byte[] key, int start, int end) {
+        encoder().zremrangeByRank(key, start, end);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zremrangeByScore(byte[] key, double start, double end) {
+        encoder().zremrangeByScore(key, toByteArray(start), toByteArray(end));
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long zremrangeByScore(byte[] key, byte[] start, byte[] end) {
+        encoder().zremrangeByScore(key, start, end);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long linsert(byte[] key, LIST_POSITION where, byte[] pivot,
+            byte[] value) {
+        encoder().linsert(key, where, pivot, value);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long objectRefcount(byte[] key) {
+        encoder().objectRefcount(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long objectIdletime(byte[] key) {
+        encoder().objectIdletime(key);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public byte[] objectEncoding(byte[] key) {
+        encoder().objectEncoding(key);
+        return execute(BuilderFactory.BYTE_ARRAY);
+    }
+
+    public Long lpushx(byte[] key, byte[] string) {
+        encoder().lpushx(key, string);
+        return execute(BuilderFactory.LONG);
+    }
+
+    public Long rpushx(byte[] key, byte[] string) {
+        encoder().rpushx(key, string);
+        return execute(BuilderFactory.LONG);
+    }
+}
@@ -3,6 +3,7 @@ package redis.clients.jedis;
 import static redis.clients.jedis.Protocol.toByteArray;
 import static redis.clients.jedis.Protocol.Command.*;
 import static redis.clients.jedis.Protocol.Keyword.ENCODING;
+import static redis.clients.jedis.Protocol.Keyword.GETNAME;
 import static redis.clients.jedis.Protocol.Keyword.IDLETIME;
 import static redis.clients.jedis.Protocol.Keyword.LEN;
 import static redis.clients.jedis.Protocol.Keyword.LIMIT;
@@ -10,9 +11,12 @@ import static redis.clients.jedis.Protocol.Keyword.NO;
 import static redis.clients.jedis.Protocol.Keyword.ONE;
 import static redis.clients.jedis.Protocol.Keyword.REFCOUNT;
 import static redis.clients.jedis.Protocol.Keyword.RESET;
+import static redis.clients.jedis.Protocol.Keyword.SETNAME;
 import static redis.clients.jedis.Protocol.Keyword.STORE;
 import static redis.clients.jedis.Protocol.Keyword.WITHSCORES;
 
+import java.io.InputStream;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -20,6 +24,8 @@ import java.util.Map.Entry;
 
 import redis.clients.jedis.Protocol.Command;
 import redis.clients.jedis.Protocol.Keyword;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
 
 public class BinaryClient extends Connection {
@@ -38,6 +44,8 @@ public class BinaryClient extends Connection {
 
     private long db;
 
+    private byte[] clientName;
+
     public boolean isInMulti() {
 	return isInMulti;
     }
@@ -50,6 +58,10 @@ public class BinaryClient extends Connection {
 	super(host, port);
     }
 
+    BinaryClient(final RedisOutputStream outputStream) {
+	super(outputStream);
+    }
+
     private byte[][] joinParameters(byte[] first, byte[][] rest) {
 	byte[][] result = new byte[rest.length + 1][];
 	result[0] = first;
@@ -63,17 +75,56 @@ public class BinaryClient extends Connection {
 	this.password = password;
     }
 
+    /**
+     * Sets the database to select when connecting.
+     */
+    public void setDB(final int db) {
+	this.db = db;
+    }
+
+    /**
+     * Sets the name to give the connection with CLIENT SETNAME when
+     * connecting.
+     */
+    public void setClientName(final byte[] clientName) {
+	this.clientName = clientName;
+    }
+
+    /**
+     * Connects and sends AUTH, SELECT and CLIENT SETNAME as needed. The
+     * handshake commands are flushed together and their replies read after,
+     * so it takes a single round trip.
+     */
     @Override
     public void connect() {
 	if (!isConnected()) {
 	    super.connect();
+	    int replies = 0;
 	    if (password != null) {
 		auth(password);
-		getStatusCodeReply();
+		replies++;
 	    }
 	    if (db > 0) {
 		select(Long.valueOf(db).intValue());
-		getStatusCodeReply();
+		replies++;
+	    }
+	    if (clientName != null) {
+		clientSetname(clientName);
+		replies++;
+	    }
+	    JedisDataException error = null;
+	    for (int i = 0; i < replies; i++) {
+		try {
+		    getStatusCodeReply();
+		} catch (JedisDataException e) {
+		    // read the remaining replies anyway, so none is left over
+		    if (error == null) {
+			error = e;
+		    }
+		}
+	    }
+	    if (error != null) {
+		throw error;
 	    }
 	}
     }
@@ -86,6 +137,15 @@ public class BinaryClient extends Connection {
 	sendCommand(Command.SET, key, value);
     }
 
+    public void set(final byte[] key, final int length, final InputStream value) {
+	sendCommand(Command.SET, length, value, key);
+    }
+
+    public void set(final byte[] key, final int length,
+	    final ReadableByteChannel value) {
+	sendCommand(Command.SET, length, value, key);
+    }
+
     public void get(final byte[] key) {
 	sendCommand(Command.GET, key);
     }
@@ -132,11 +192,11 @@ public class BinaryClient extends Connection {
     }
 
     public void expire(final byte[] key, final int seconds) {
-	sendCommand(EXPIRE, key, toByteArray(seconds));
+	beginCommand(EXPIRE, 2).writeArgument(key).writeArgument(seconds);
     }
 
     public void expireAt(final byte[] key, final long unixTime) {
-	sendCommand(EXPIREAT, key, toByteArray(unixTime));
+	beginCommand(EXPIREAT, 2).writeArgument(key).writeArgument(unixTime);
     }
 
     public void ttl(final byte[] key) {
@@ -149,7 +209,7 @@ public class BinaryClient extends Connection {
     }
 
     public void move(final byte[] key, final int dbIndex) {
-	sendCommand(MOVE, key, toByteArray(dbIndex));
+	beginCommand(MOVE, 2).writeArgument(key).writeArgument(dbIndex);
     }
 
     public void flushAll() {
@@ -169,7 +229,18 @@ public class BinaryClient extends Connection {
     }
 
     public void setex(final byte[] key, final int seconds, final byte[] value) {
-	sendCommand(SETEX, key, toByteArray(seconds), value);
+	beginCommand(SETEX, 3).writeArgument(key).writeArgument(seconds)
+		.writeArgument(value);
+    }
+
+    public void setex(final byte[] key, final int seconds, final int length,
+	    final InputStream value) {
+	sendCommand(SETEX, length, value, key, toByteArray(seconds));
+    }
+
+    public void setex(final byte[] key, final int seconds, final int length,
+	    final ReadableByteChannel value) {
+	sendCommand(SETEX, length, value, key, toByteArray(seconds));
     }
 
     public void mset(final byte[]... keysvalues) {
@@ -181,7 +252,7 @@ public class BinaryClient extends Connection {
     }
 
     public void decrBy(final byte[] key, final long integer) {
-	sendCommand(DECRBY, key, toByteArray(integer));
+	beginCommand(DECRBY, 2).writeArgument(key).writeArgument(integer);
     }
 
     public void decr(final byte[] key) {
@@ -189,7 +260,7 @@ public class BinaryClient extends Connection {
     }
 
     public void incrBy(final byte[] key, final long integer) {
-	sendCommand(INCRBY, key, toByteArray(integer));
+	beginCommand(INCRBY, 2).writeArgument(key).writeArgument(integer);
     }
 
     public void incr(final byte[] key) {
@@ -200,14 +271,35 @@ public class BinaryClient extends Connection {
 	sendCommand(APPEND, key, value);
     }
 
+    public void append(final byte[] key, final int length,
+	    final InputStream value) {
+	sendCommand(APPEND, length, value, key);
+    }
+
+    public void append(final byte[] key, final int length,
+	    final ReadableByteChannel value) {
+	sendCommand(APPEND, length, value, key);
+    }
+
     public void substr(final byte[] key, final int start, final int end) {
-	sendCommand(SUBSTR, key, toByteArray(start), toByteArray(end));
+	beginCommand(SUBSTR, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void hset(final byte[] key, final byte[] field, final byte[] value) {
 	sendCommand(HSET, key, field, value);
     }
 
+    public void hset(final byte[] key, final byte[] field, final int length,
+	    final InputStream value) {
+	sendCommand(HSET, length, value, key, field);
+    }
+
+    public void hset(final byte[] key, final byte[] field, final int length,
+	    final ReadableByteChannel value) {
+	sendCommand(HSET, length, value, key, field);
+    }
+
     public void hget(final byte[] key, final byte[] field) {
 	sendCommand(HGET, key, field);
     }
@@ -275,23 +367,27 @@ public class BinaryClient extends Connection {
     }
 
     public void lrange(final byte[] key, final long start, final long end) {
-	sendCommand(LRANGE, key, toByteArray(start), toByteArray(end));
+	beginCommand(LRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void ltrim(final byte[] key, final long start, final long end) {
-	sendCommand(LTRIM, key, toByteArray(start), toByteArray(end));
+	beginCommand(LTRIM, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void lindex(final byte[] key, final long index) {
-	sendCommand(LINDEX, key, toByteArray(index));
+	beginCommand(LINDEX, 2).writeArgument(key).writeArgument(index);
     }
 
     public void lset(final byte[] key, final long index, final byte[] value) {
-	sendCommand(LSET, key, toByteArray(index), value);
+	beginCommand(LSET, 3).writeArgument(key).writeArgument(index)
+		.writeArgument(value);
     }
 
     public void lrem(final byte[] key, long count, final byte[] value) {
-	sendCommand(LREM, key, toByteArray(count), value);
+	beginCommand(LREM, 3).writeArgument(key).writeArgument(count)
+		.writeArgument(value);
     }
 
     public void lpop(final byte[] key) {
@@ -373,7 +469,8 @@ public class BinaryClient extends Connection {
     }
 
     public void zadd(final byte[] key, final double score, final byte[] member) {
-	sendCommand(ZADD, key, toByteArray(score), member);
+	beginCommand(ZADD, 3).writeArgument(key).writeArgument(score)
+		.writeArgument(member);
     }
 
     public void zaddBinary(final byte[] key, Map<Double, byte[]> scoreMembers) {
@@ -394,7 +491,8 @@ public class BinaryClient extends Connection {
     }
 
     public void zrange(final byte[] key, final long start, final long end) {
-	sendCommand(ZRANGE, key, toByteArray(start), toByteArray(end));
+	beginCommand(ZRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void zrem(final byte[] key, final byte[]... members) {
@@ -403,7 +501,8 @@ public class BinaryClient extends Connection {
 
     public void zincrby(final byte[] key, final double score,
 	    final byte[] member) {
-	sendCommand(ZINCRBY, key, toByteArray(score), member);
+	beginCommand(ZINCRBY, 3).writeArgument(key).writeArgument(score)
+		.writeArgument(member);
     }
 
     public void zrank(final byte[] key, final byte[] member) {
@@ -415,7 +514,8 @@ public class BinaryClient extends Connection {
     }
 
     public void zrevrange(final byte[] key, final long start, final long end) {
-	sendCommand(ZREVRANGE, key, toByteArray(start), toByteArray(end));
+	beginCommand(ZREVRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void zrangeWithScores(final byte[] key, final long start,
@@ -577,7 +677,8 @@ public class BinaryClient extends Connection {
 
     public void zremrangeByRank(final byte[] key, final long start,
 	    final long end) {
-	sendCommand(ZREMRANGEBYRANK, key, toByteArray(start), toByteArray(end));
+	beginCommand(ZREMRANGEBYRANK, 3).writeArgument(key)
+		.writeArgument(start).writeArgument(end);
     }
 
     public void zremrangeByScore(final byte[] key, final byte[] start,
@@ -712,20 +813,22 @@ public class BinaryClient extends Connection {
     }
 
     public void setbit(byte[] key, long offset, byte[] value) {
-	sendCommand(SETBIT, key, toByteArray(offset), value);
+	beginCommand(SETBIT, 3).writeArgument(key).writeArgument(offset)
+		.writeArgument(value);
     }
 
     public void getbit(byte[] key, long offset) {
-	sendCommand(GETBIT, key, toByteArray(offset));
+	beginCommand(GETBIT, 2).writeArgument(key).writeArgument(offset);
     }
 
     public void setrange(byte[] key, long offset, byte[] value) {
-	sendCommand(SETRANGE, key, toByteArray(offset), value);
+	beginCommand(SETRANGE, 3).writeArgument(key).writeArgument(offset)
+		.writeArgument(value);
     }
 
     public void getrange(byte[] key, long startOffset, long endOffset) {
-	sendCommand(GETRANGE, key, toByteArray(startOffset),
-		toByteArray(endOffset));
+	beginCommand(GETRANGE, 3).writeArgument(key).writeArgument(startOffset)
+		.writeArgument(endOffset);
     }
 
     public Long getDB() {
@@ -796,6 +899,15 @@ public class BinaryClient extends Connection {
 	sendCommand(SLOWLOG, LEN.raw);
     }
 
+    public void clientSetname(final byte[] name) {
+	clientName = name;
+	sendCommand(CLIENT, SETNAME.raw, name);
+    }
+
+    public void clientGetname() {
+	sendCommand(CLIENT, GETNAME.raw);
+    }
+
     public void objectRefcount(byte[] key) {
 	sendCommand(OBJECT, REFCOUNT.raw, key);
     }
@@ -807,4 +919,34 @@ public class BinaryClient extends Connection {
     public void objectEncoding(byte[] key) {
 	sendCommand(OBJECT, ENCODING.raw, key);
     }
+
+    public void scan(final byte[] cursor, final ScanParams params) {
+	sendCommand(SCAN, scanArgs(null, cursor, params));
+    }
+
+    public void hscan(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	sendCommand(HSCAN, scanArgs(key, cursor, params));
+    }
+
+    public void sscan(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	sendCommand(SSCAN, scanArgs(key, cursor, params));
+    }
+
+    public void zscan(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	sendCommand(ZSCAN, scanArgs(key, cursor, params));
+    }
+
+    static byte[][] scanArgs(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	final List<byte[]> args = new ArrayList<byte[]>();
+	if (key != null) {
+	    args.add(key);
+	}
+	args.add(cursor);
+	args.addAll(params.getParams());
+	return args.toArray(new byte[args.size()][]);
+    }
 }
@@ -2,7 +2,11 @@ package redis.clients.jedis;
 
 import static redis.clients.jedis.Protocol.toByteArray;
 
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -12,6 +16,7 @@ import java.util.Map;
 import java.util.Set;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.Protocol.Command;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.util.JedisByteHashMap;
@@ -78,6 +83,42 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getStatusCodeReply();
     }
 
+    /**
+     * Set the value of the key to exactly length bytes read from the given
+     * stream, which are written to the socket as they are read instead of
+     * being collected into a byte array first. The stream is not closed.
+     * 
+     * @see #set(byte[], byte[])
+     * @param key
+     * @param length
+     * @param value
+     * @return Status code reply
+     */
+    public String set(final byte[] key, final int length,
+	    final InputStream value) {
+	checkIsInMulti();
+	client.set(key, length, value);
+	return client.getStatusCodeReply();
+    }
+
+    /**
+     * Set the value of the key to exactly length bytes read from the given
+     * channel, e.g. a FileChannel positioned at the start of the value. The
+     * channel is not closed.
+     * 
+     * @see #set(byte[], byte[])
+     * @param key
+     * @param length
+     * @param value
+     * @return Status code reply
+     */
+    public String set(final byte[] key, final int length,
+	    final ReadableByteChannel value) {
+	checkIsInMulti();
+	client.set(key, length, value);
+	return client.getStatusCodeReply();
+    }
+
     /**
      * Get the value of the specified key. If the key does not exist the special
      * value 'nil' is returned. If the value stored at key is not a string an
@@ -94,6 +135,54 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryBulkReply();
     }
 
+    /**
+     * Get the value of the specified key as a stream read straight from the
+     * connection, so large values don't have to be held in memory. The stream
+     * must be consumed or closed before this Jedis instance is used again;
+     * issuing another command closes it, skipping any unread bytes.
+     * 
+     * @see #get(byte[])
+     * @param key
+     * @return the value as a stream, or null if the key does not exist
+     */
+    public InputStream getAsStream(final byte[] key) {
+	checkIsInMulti();
+	client.get(key);
+	return client.getBinaryBulkReplyStream();
+    }
+
+    /**
+     * Get the value of the specified key and write it to the given channel,
+     * e.g. a FileChannel, without materializing it as a byte array.
+     * 
+     * @see #get(byte[])
+     * @param key
+     * @param target
+     * @return the number of bytes written, or -1 if the key does not exist
+     */
+    public long get(final byte[] key, final WritableByteChannel target) {
+	checkIsInMulti();
+	client.get(key);
+	return client.getBinaryBulkReply(target);
+    }
+
+    /**
+     * Get the value of the specified key and copy it into the given buffer,
+     * e.g. a MappedByteBuffer, starting at its current position. If the
+     * value doesn't fit in the remaining space a JedisDataException is thrown
+     * and the buffer is left untouched.
+     * 
+     * @see #get(byte[])
+     * @param key
+     * @param target
+     * @return the number of bytes copied, or -1 if the key does not exist
+     */
+    public long get(final byte[] key, final ByteBuffer target) {
+	checkIsInMulti();
+	client.get(key);
+	return client.getBinaryBulkReply(target);
+    }
+
     /**
      * Ask the server to silently close the connection.
      */
@@ -465,6 +554,40 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getStatusCodeReply();
     }
 
+    /**
+     * Streaming version of {@link #setex(byte[], int, byte[]) SETEX}, see
+     * {@link #set(byte[], int, InputStream)}.
+     * 
+     * @param key
+     * @param seconds
+     * @param length
+     * @param value
+     * @return Status code reply
+     */
+    public String setex(final byte[] key, final int seconds, final int length,
+	    final InputStream value) {
+	checkIsInMulti();
+	client.setex(key, seconds, length, value);
+	return client.getStatusCodeReply();
+    }
+
+    /**
+     * Streaming version of {@link #setex(byte[], int, byte[]) SETEX}, see
+     * {@link #set(byte[], int, ReadableByteChannel)}.
+     * 
+     * @param key
+     * @param seconds
+     * @param length
+     * @param value
+     * @return Status code reply
+     */
+    public String setex(final byte[] key, final int seconds, final int length,
+	    final ReadableByteChannel value) {
+	checkIsInMulti();
+	client.setex(key, seconds, length, value);
+	return client.getStatusCodeReply();
+    }
+
     /**
      * Set the the respective keys to the respective values. MSET will replace
      * old values with new values, while {@link #msetnx(String...) MSETNX} will
@@ -652,6 +775,40 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Streaming version of {@link #append(byte[], byte[]) APPEND}, see
+     * {@link #set(byte[], int, InputStream)}.
+     * 
+     * @param key
+     * @param length
+     * @param value
+     * @return Integer reply, specifically the total length of the string after
+     *         the append operation.
+     */
+    public Long append(final byte[] key, final int length,
+	    final InputStream value) {
+	checkIsInMulti();
+	client.append(key, length, value);
+	return client.getIntegerReply();
+    }
+
+    /**
+     * Streaming version of {@link #append(byte[], byte[]) APPEND}, see
+     * {@link #set(byte[], int, ReadableByteChannel)}.
+     * 
+     * @param key
+     * @param length
+     * @param value
+     * @return Integer reply, specifically the total length of the string after
+     *         the append operation.
+     */
+    public Long append(final byte[] key, final int length,
+	    final ReadableByteChannel value) {
+	checkIsInMulti();
+	client.append(key, length, value);
+	return client.getIntegerReply();
+    }
+
     /**
      * Return a subset of the string from offset start to offset end (both
      * offsets are inclusive). Negative offsets can be used in order to provide
@@ -697,6 +854,40 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getIntegerReply();
     }
 
+    /**
+     * Streaming version of {@link #hset(byte[], byte[], byte[]) HSET}, see
+     * {@link #set(byte[], int, InputStream)}.
+     * 
+     * @param key
+     * @param field
+     * @param length
+     * @param value
+     * @return 1 if a new field was created, 0 if an existing one was updated
+     */
+    public Long hset(final byte[] key, final byte[] field, final int length,
+	    final InputStream value) {
+	checkIsInMulti();
+	client.hset(key, field, length, value);
+	return client.getIntegerReply();
+    }
+
+    /**
+     * Streaming version of {@link #hset(byte[], byte[], byte[]) HSET}, see
+     * {@link #set(byte[], int, ReadableByteChannel)}.
+     * 
+     * @param key
+     * @param field
+     * @param length
+     * @param value
+     * @return 1 if a new field was created, 0 if an existing one was updated
+     */
+    public Long hset(final byte[] key, final byte[] field, final int length,
+	    final ReadableByteChannel value) {
+	checkIsInMulti();
+	client.hset(key, field, length, value);
+	return client.getIntegerReply();
+    }
+
     /**
      * If key holds a hash, retrieve the value associated to the specified
      * field.
@@ -893,6 +1084,23 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return hash;
     }
 
+    /**
+     * Like {@link #hgetAll(byte[])} but returns the fields and values one by
+     * one as they are read from the connection, so huge hashes don't need to
+     * be held in memory. The iterator must be consumed or closed before this
+     * Jedis instance is used again.
+     * 
+     * @param key
+     * @return an iterator over the field/value pairs
+     */
+    public MultiBulkIterator<Map.Entry<byte[], byte[]>> hgetAllIterator(
+	    final byte[] key) {
+	checkIsInMulti();
+	client.hgetAll(key);
+	return client.getMultiBulkReplyIterator(2,
+		BuilderFactory.BYTE_ARRAY_ENTRY);
+    }
+
     /**
      * Add the string value to the head (LPUSH) or tail (RPUSH) of the list
      * stored at key. If the key does not exist an empty list is created just
@@ -995,6 +1203,23 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryMultiBulkReply();
     }
 
+    /**
+     * Like {@link #lrange(byte[], int, int)} but returns the elements one by
+     * one as they are read from the connection. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the elements in the specified range
+     */
+    public MultiBulkIterator<byte[]> lrangeIterator(final byte[] key,
+	    final long start, final long end) {
+	checkIsInMulti();
+	client.lrange(key, start, end);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.BYTE_ARRAY);
+    }
+
     /**
      * Trim an existing list so that it will contain only the specified range of
      * elements specified. Start and end are zero-based indexes. 0 is the first
@@ -1208,6 +1433,20 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return new HashSet<byte[]>(members);
     }
 
+    /**
+     * Like {@link #smembers(byte[])} but returns the members one by one as
+     * they are read from the connection. The iterator must be consumed or
+     * closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @return an iterator over the members of the set
+     */
+    public MultiBulkIterator<byte[]> smembersIterator(final byte[] key) {
+	checkIsInMulti();
+	client.smembers(key);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.BYTE_ARRAY);
+    }
+
     /**
      * Remove the specified member from the set value stored at key. If member
      * was not a member of the set no operation is performed. If key does not
@@ -1492,6 +1731,23 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return new LinkedHashSet<byte[]>(members);
     }
 
+    /**
+     * Like {@link #zrange(byte[], int, int)} but returns the members one by
+     * one as they are read from the connection. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the members in the specified range
+     */
+    public MultiBulkIterator<byte[]> zrangeIterator(final byte[] key,
+	    final long start, final long end) {
+	checkIsInMulti();
+	client.zrange(key, start, end);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.BYTE_ARRAY);
+    }
+
     /**
      * Remove the specified member from the sorted set value stored at key. If
      * member was not a member of the set no operation is performed. If key does
@@ -1613,6 +1869,23 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return set;
     }
 
+    /**
+     * Like {@link #zrangeWithScores(byte[], int, int)} but returns the members
+     * one by one as they are read from the connection. The iterator must be
+     * consumed or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the members and scores in the specified range
+     */
+    public MultiBulkIterator<Tuple> zrangeWithScoresIterator(
+	    final byte[] key, final long start, final long end) {
+	checkIsInMulti();
+	client.zrangeWithScores(key, start, end);
+	return client.getMultiBulkReplyIterator(2, BuilderFactory.TUPLE_BINARY);
+    }
+
     public Set<Tuple> zrevrangeWithScores(final byte[] key, final int start,
 	    final int end) {
 	checkIsInMulti();
@@ -2062,6 +2335,18 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return pipeline;
     }
 
+    /**
+     * Starts a pipeline that keeps at most maxInFlight commands waiting for
+     * their replies, reading them as it goes.
+     * 
+     * @see Pipeline#setMaxInFlight(int)
+     */
+    public Pipeline pipelined(final int maxInFlight) {
+	Pipeline pipeline = pipelined();
+	pipeline.setMaxInFlight(maxInFlight);
+	return pipeline;
+    }
+
     public void subscribe(final JedisPubSub jedisPubSub,
 	    final String... channels) {
 	client.setTimeoutInfinite();
@@ -3142,6 +3427,23 @@ public class BinaryJedis implements BinaryJedisCommands {
 	return client.getBinaryMultiBulkReply();
     }
     
+    /**
+     * Names the connection; the name is set again whenever the client
+     * reconnects.
+     * 
+     * @param name
+     * @return Status code reply
+     */
+    public String clientSetname(final byte[] name) {
+	client.clientSetname(name);
+	return client.getStatusCodeReply();
+    }
+
+    public byte[] clientGetnameBinary() {
+	client.clientGetname();
+	return client.getBinaryBulkReply();
+    }
+
     public Long objectRefcount(byte[] key) {
 		client.objectRefcount(key);
 		return client.getIntegerReply();
@@ -3156,4 +3458,108 @@ public class BinaryJedis implements BinaryJedisCommands {
 		client.objectIdletime(key);
 		return client.getIntegerReply();
 	}
+
+    /**
+     * Returns a page of the keys of the database. Start with
+     * {@link ScanParams#SCAN_POINTER_START_BINARY} and call again with the
+     * cursor of each page until the iteration is complete. Unlike KEYS, each
+     * call only looks at a few keys, so the server is never blocked for long.
+     * 
+     * @param cursor
+     * @return the page and the cursor of the next one
+     */
+    public ScanResult<byte[]> scan(final byte[] cursor) {
+	return scan(cursor, new ScanParams());
+    }
+
+    public ScanResult<byte[]> scan(final byte[] cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.scan(cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.single(BuilderFactory.BYTE_ARRAY));
+    }
+
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key,
+	    final byte[] cursor) {
+	return hscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<Map.Entry<byte[], byte[]>> hscan(final byte[] key,
+	    final byte[] cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.hscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.pairs(BuilderFactory.BYTE_ARRAY_ENTRY));
+    }
+
+    public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor) {
+	return sscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<byte[]> sscan(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	checkIsInMulti();
+	client.sscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.single(BuilderFactory.BYTE_ARRAY));
+    }
+
+    public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor) {
+	return zscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<Tuple> zscan(final byte[] key, final byte[] cursor,
+	    final ScanParams params) {
+	checkIsInMulti();
+	client.zscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.pairs(BuilderFactory.TUPLE_BINARY));
+    }
+
+    /**
+     * Iterates over all the keys of the database with SCAN, requesting each
+     * page as soon as the previous one arrives. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param params
+     * @return an iterator over the keys
+     */
+    public ScanIterator<byte[]> binaryScanIterator(final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<byte[]>(client, Command.SCAN, null, params,
+		ItemBuilder.single(BuilderFactory.BYTE_ARRAY));
+    }
+
+    /**
+     * Like {@link #binaryScanIterator(ScanParams)}, over the fields and values
+     * of a hash.
+     */
+    public ScanIterator<Map.Entry<byte[], byte[]>> hscanIterator(
+	    final byte[] key, final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<Map.Entry<byte[], byte[]>>(client,
+		Command.HSCAN, key, params,
+		ItemBuilder.pairs(BuilderFactory.BYTE_ARRAY_ENTRY));
+    }
+
+    /**
+     * Like {@link #binaryScanIterator(ScanParams)}, over the members of a set.
+     */
+    public ScanIterator<byte[]> sscanIterator(final byte[] key,
+	    final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<byte[]>(client, Command.SSCAN, key, params,
+		ItemBuilder.single(BuilderFactory.BYTE_ARRAY));
+    }
+
+    /**
+     * Like {@link #binaryScanIterator(ScanParams)}, over the members and
+     * scores of a sorted set.
+     */
+    public ScanIterator<Tuple> zscanIterator(final byte[] key,
+	    final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<Tuple>(client, Command.ZSCAN, key, params,
+		ItemBuilder.pairs(BuilderFactory.TUPLE_BINARY));
+    }
 }
@@ -1,18 +1,54 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutorService;
 import java.util.regex.Pattern;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.Hashing;
+import redis.clients.util.ShardPlacement;
 import redis.clients.util.Sharded;
 
 public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
 	implements BinaryJedisCommands {
+    private static final ShardScatter<List<byte[]>> MGET = new ShardScatter<List<byte[]>>() {
+	protected void send(Client client, byte[][] args) {
+	    client.mget(args);
+	}
+
+	protected List<byte[]> read(Client client) {
+	    return client.getBinaryMultiBulkReply();
+	}
+    };
+
+    private static final ShardScatter<String> MSET = new ShardScatter<String>() {
+	protected void send(Client client, byte[][] args) {
+	    client.mset(args);
+	}
+
+	protected String read(Client client) {
+	    return client.getStatusCodeReply();
+	}
+    };
+
+    private static final ShardScatter<Long> DEL = new ShardScatter<Long>() {
+	protected void send(Client client, byte[][] args) {
+	    client.del(args);
+	}
+
+	protected Long read(Client client) {
+	    return client.getIntegerReply();
+	}
+    };
+
+    private ExecutorService executor = null;
+
     public BinaryShardedJedis(List<JedisShardInfo> shards) {
 	super(shards);
     }
@@ -30,6 +66,24 @@ public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
 	super(shards, algo, keyTagPattern);
     }
 
+    public BinaryShardedJedis(List<JedisShardInfo> shards, Hashing algo,
+	    Pattern keyTagPattern, ShardPlacement placement) {
+	super(shards, algo, keyTagPattern, placement);
+    }
+
+    /**
+     * Sets the executor that multi-key commands run their shards on, one
+     * task per shard. Without one, which is the default, a multi-key command
+     * is sent to every shard before any reply is read.
+     */
+    public void setExecutor(ExecutorService executor) {
+	this.executor = executor;
+    }
+
+    public ExecutorService getExecutor() {
+	return executor;
+    }
+
     public void disconnect() throws IOException {
 	for (Jedis jedis : getAllShards()) {
 	    jedis.disconnect();
@@ -457,6 +511,68 @@ public class BinaryShardedJedis extends Sharded<Jedis, JedisShardInfo>
 	return j.linsert(key, where, pivot, value);
     }
 
+    /**
+     * Gets the values of keys on any shards, with one MGET per shard.
+     * 
+     * @return the values, in the order of the keys
+     */
+    public List<byte[]> mget(byte[]... keys) {
+	final List<byte[]> values = new ArrayList<byte[]>(keys.length);
+	for (int i = 0; i < keys.length; i++) {
+	    values.add(null);
+	}
+	for (ShardScatter.Shard<List<byte[]>> shard : MGET.run(this, keys, 1,
+		executor)) {
+	    for (int i = 0; i < shard.size(); i++) {
+		values.set(shard.position(i), shard.reply.get(i));
+	    }
+	}
+	return values;
+    }
+
+    /**
+     * Sets keys on any shards, with one MSET per shard. Each shard sets its
+     * keys atomically, but not all the shards at once.
+     */
+    public String mset(byte[]... keysvalues) {
+	if (keysvalues.length == 0 || keysvalues.length % 2 != 0) {
+	    throw new JedisDataException(
+		    "ERR wrong number of arguments for MSET");
+	}
+	String status = null;
+	for (ShardScatter.Shard<String> shard : MSET.run(this, keysvalues, 2,
+		executor)) {
+	    status = shard.reply;
+	}
+	return status;
+    }
+
+    /**
+     * Deletes keys on any shards, with one DEL per shard.
+     * 
+     * @return the number of keys deleted
+     */
+    public Long del(byte[]... keys) {
+	long deleted = 0;
+	for (ShardScatter.Shard<Long> shard : DEL.run(this, keys, 1, executor)) {
+	    deleted += shard.reply;
+	}
+	return deleted;
+    }
+
+    /**
+     * Iterates over the keys of all the shards with SCAN, scanning the shards
+     * at the same time: on the executor if there is one, one task per shard.
+     * The shards can still be used during the iteration.
+     * 
+     * @see ShardedScanIterator
+     */
+    public ShardedScanIterator<byte[]> binaryScanIterator(
+	    final ScanParams params) {
+	return new ShardedScanIterator<byte[]>(this, params,
+		ItemBuilder.single(BuilderFactory.BYTE_ARRAY), executor);
+    }
+
     @Deprecated
     public List<Object> pipelined(ShardedJedisPipeline shardedJedisPipeline) {
 	shardedJedisPipeline.setShardedJedis(this);
@@ -23,16 +23,23 @@ public class BinaryTransaction extends Queable {
 
     public List<Object> exec() {
         client.exec();
-        client.getAll(1); // Discard all but the last reply
+        client.skipAll(1); // Discard the QUEUED acknowledgements
 
-        List<Object> unformatted = client.getObjectMultiBulkReply();
-        if (unformatted == null) {
+        final int length = client.getMultiBulkReplyLength();
+        if (length == -1) {
             return null;
         }
-        List<Object> formatted = new ArrayList<Object>();
-        for (Object o : unformatted) {
+        List<Object> formatted = new ArrayList<Object>(length);
+        for (int i = 0; i < length; i++) {
+        	Object o = readExecReply();
+        	Response<?> response = generateResponse(o);
+        	if(response == null){
+        		// the reply went to a sink
+        		formatted.add(o);
+        		continue;
+        	}
         	try{
-        		formatted.add(generateResponse(o).get());
+        		formatted.add(response.get());
         	}catch(JedisDataException e){
         		formatted.add(e);
         	}
@@ -42,22 +49,35 @@ public class BinaryTransaction extends Queable {
     
     public List<Response<?>> execGetResponse() {
         client.exec();
-        client.getAll(1); // Discard all but the last reply
+        client.skipAll(1); // Discard the QUEUED acknowledgements
 
-        List<Object> unformatted = client.getObjectMultiBulkReply();
-        if (unformatted == null) {
+        final int length = client.getMultiBulkReplyLength();
+        if (length == -1) {
             return null;
         }
-        List<Response<?>> response = new ArrayList<Response<?>>();
-        for (Object o : unformatted) {
-        	response.add(generateResponse(o));
+        List<Response<?>> response = new ArrayList<Response<?>>(length);
+        for (int i = 0; i < length; i++) {
+        	response.add(generateResponse(readExecReply()));
         }
         return response;
     }
 
+    /**
+     * Reads the reply of the next command of the transaction, handing it
+     * over as soon as it is decoded instead of reading the whole EXEC reply
+     * into a list first.
+     */
+    private Object readExecReply() {
+        try {
+            return client.readReply();
+        } catch (JedisDataException e) {
+            return e;
+        }
+    }
+
     public String discard() {
         client.discard();
-        client.getAll(1); // Discard all but the last reply
+        client.skipAll(1); // Discard the QUEUED acknowledgements
         inTransaction = false;
         clean();
         return client.getStatusCodeReply();
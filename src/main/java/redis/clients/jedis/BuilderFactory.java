@@ -1,5 +1,6 @@
 package redis.clients.jedis;
 
+import redis.clients.util.JedisByteHashMap;
 import redis.clients.util.SafeEncoder;
 
 import java.util.*;
@@ -44,17 +45,21 @@ public class BuilderFactory {
         }
 
     };
-    public static final Builder<String> STRING = new Builder<String>() {
+    public static final Builder<String> STRING = new VisitorBuilder<String>() {
         public String build(Object data) {
             return data == null ? null : SafeEncoder.encode((byte[]) data);
         }
 
+        public Visitor<String> visitor() {
+            return new StringVisitor();
+        }
+
         public String toString() {
             return "string";
         }
 
     };
-    public static final Builder<List<String>> STRING_LIST = new Builder<List<String>>() {
+    public static final Builder<List<String>> STRING_LIST = new VisitorBuilder<List<String>>() {
         @SuppressWarnings("unchecked")
         public List<String> build(Object data) {
             if (null == data) {
@@ -72,12 +77,20 @@ public class BuilderFactory {
             return result;
         }
 
+        public Visitor<List<String>> visitor() {
+            return new StringsVisitor<List<String>>() {
+                protected List<String> newCollection(int size) {
+                    return new ArrayList<String>(size);
+                }
+            };
+        }
+
         public String toString() {
             return "List<String>";
         }
 
     };
-    public static final Builder<Map<String, String>> STRING_MAP = new Builder<Map<String, String>>() {
+    public static final Builder<Map<String, String>> STRING_MAP = new VisitorBuilder<Map<String, String>>() {
         @SuppressWarnings("unchecked")
         public Map<String, String> build(Object data) {
             final List<byte[]> flatHash = (List<byte[]>) data;
@@ -91,12 +104,34 @@ public class BuilderFactory {
             return hash;
         }
 
+        public Visitor<Map<String, String>> visitor() {
+            return new StringMapVisitor();
+        }
+
         public String toString() {
             return "Map<String, String>";
         }
 
     };
-    public static final Builder<Set<String>> STRING_SET = new Builder<Set<String>>() {
+    public static final Builder<Map<byte[], byte[]>> BYTE_ARRAY_MAP = new Builder<Map<byte[], byte[]>>() {
+        @SuppressWarnings("unchecked")
+        public Map<byte[], byte[]> build(Object data) {
+            final List<byte[]> flatHash = (List<byte[]>) data;
+            final Map<byte[], byte[]> hash = new JedisByteHashMap();
+            final Iterator<byte[]> iterator = flatHash.iterator();
+            while (iterator.hasNext()) {
+                hash.put(iterator.next(), iterator.next());
+            }
+
+            return hash;
+        }
+
+        public String toString() {
+            return "Map<byte[], byte[]>";
+        }
+
+    };
+    public static final Builder<Set<String>> STRING_SET = new VisitorBuilder<Set<String>>() {
         @SuppressWarnings("unchecked")
         public Set<String> build(Object data) {
             if (null == data) {
@@ -114,6 +149,14 @@ public class BuilderFactory {
             return result;
         }
 
+        public Visitor<Set<String>> visitor() {
+            return new StringsVisitor<Set<String>>() {
+                protected Set<String> newCollection(int size) {
+                    return new HashSet<String>(size);
+                }
+            };
+        }
+
         public String toString() {
             return "Set<String>";
         }
@@ -221,4 +264,176 @@ public class BuilderFactory {
         }
     };
 
+    /*
+     * The following builders take a pair of elements as a byte[][], as
+     * handed out by MultiBulkIterator, and must not keep a reference to it.
+     */
+
+    public static final Builder<Map.Entry<String, String>> STRING_ENTRY = new Builder<Map.Entry<String, String>>() {
+        public Map.Entry<String, String> build(Object data) {
+            final byte[][] pair = (byte[][]) data;
+            return new Entry<String, String>(SafeEncoder.encode(pair[0]),
+                    SafeEncoder.encode(pair[1]));
+        }
+
+        public String toString() {
+            return "Map.Entry<String, String>";
+        }
+    };
+
+    public static final Builder<Map.Entry<byte[], byte[]>> BYTE_ARRAY_ENTRY = new Builder<Map.Entry<byte[], byte[]>>() {
+        public Map.Entry<byte[], byte[]> build(Object data) {
+            final byte[][] pair = (byte[][]) data;
+            return new Entry<byte[], byte[]>(pair[0], pair[1]);
+        }
+
+        public String toString() {
+            return "Map.Entry<byte[], byte[]>";
+        }
+    };
+
+    public static final Builder<Tuple> TUPLE = new Builder<Tuple>() {
+        public Tuple build(Object data) {
+            final byte[][] pair = (byte[][]) data;
+            return new Tuple(SafeEncoder.encode(pair[0]),
+                    Double.valueOf(SafeEncoder.encode(pair[1])));
+        }
+
+        public String toString() {
+            return "Tuple";
+        }
+    };
+
+    public static final Builder<Tuple> TUPLE_BINARY = new Builder<Tuple>() {
+        public Tuple build(Object data) {
+            final byte[][] pair = (byte[][]) data;
+            return new Tuple(pair[0], Double.valueOf(SafeEncoder
+                    .encode(pair[1])));
+        }
+
+        public String toString() {
+            return "Tuple";
+        }
+    };
+
+    /**
+     * Decodes a status or bulk reply straight from the input buffer.
+     */
+    private static final class StringVisitor extends
+            VisitorBuilder.Visitor<String> {
+        private String value = null;
+
+        public void onStatus(byte[] buf, int off, int len) {
+            value = SafeEncoder.encode(buf, off, len);
+        }
+
+        public void onBulk(byte[] buf, int off, int len) {
+            value = SafeEncoder.encode(buf, off, len);
+        }
+
+        public String get() {
+            return value;
+        }
+    }
+
+    /**
+     * Decodes the elements of a multi bulk reply straight from the input
+     * buffer into a collection. A nil multi bulk reply builds null.
+     */
+    private abstract static class StringsVisitor<C extends Collection<String>>
+            extends VisitorBuilder.Visitor<C> {
+        private C strings = null;
+        private int depth = 0;
+
+        protected abstract C newCollection(int size);
+
+        public void onArrayStart(int size) {
+            if (depth++ == 0) {
+                strings = newCollection(size);
+            }
+        }
+
+        public void onArrayEnd() {
+            depth--;
+        }
+
+        public void onBulk(byte[] buf, int off, int len) {
+            if (depth == 1) {
+                strings.add(SafeEncoder.encode(buf, off, len));
+            }
+        }
+
+        public void onNull() {
+            if (depth == 1) {
+                strings.add(null);
+            }
+        }
+
+        public C get() {
+            return strings;
+        }
+    }
+
+    /**
+     * Decodes the fields and values of a multi bulk reply straight from the
+     * input buffer into a map.
+     */
+    private static final class StringMapVisitor extends
+            VisitorBuilder.Visitor<Map<String, String>> {
+        private final Map<String, String> hash = new HashMap<String, String>();
+        private String field = null;
+        private int depth = 0;
+
+        public void onArrayStart(int size) {
+            depth++;
+        }
+
+        public void onArrayEnd() {
+            depth--;
+        }
+
+        public void onBulk(byte[] buf, int off, int len) {
+            if (depth != 1) {
+                return;
+            }
+            final String string = SafeEncoder.encode(buf, off, len);
+            if (field == null) {
+                field = string;
+            } else {
+                hash.put(field, string);
+                field = null;
+            }
+        }
+
+        public Map<String, String> get() {
+            return hash;
+        }
+    }
+
+    private static final class Entry<K, V> implements Map.Entry<K, V> {
+        private final K key;
+        private final V value;
+
+        public Entry(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+
+        public K getKey() {
+            return key;
+        }
+
+        public V getValue() {
+            return value;
+        }
+
+        public V setValue(V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
 }
@@ -0,0 +1,85 @@
+package redis.clients.jedis;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import redis.clients.util.RedisInputStream;
+
+/**
+ * Exposes the value of a single bulk reply, read straight from the
+ * connection's input stream. The connection can't be used for anything else
+ * until this stream is consumed or closed; closing it skips whatever is left
+ * of the value so the next reply can be read.
+ */
+class BulkReplyInputStream extends InputStream {
+    private final RedisInputStream in;
+    private int remaining;
+    private boolean closed = false;
+
+    BulkReplyInputStream(final RedisInputStream in, final int length) {
+        this.in = in;
+        this.remaining = length;
+        if (length == 0) {
+            finish();
+        }
+    }
+
+    public int read() throws IOException {
+        if (remaining == 0) {
+            return -1;
+        }
+        final int b = in.readByte() & 0xff;
+        if (--remaining == 0) {
+            finish();
+        }
+        return b;
+    }
+
+    public int read(final byte[] b, final int off, final int len)
+            throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (remaining == 0) {
+            return -1;
+        }
+        final int read = in.read(b, off, Math.min(len, remaining));
+        if (read > 0) {
+            remaining -= read;
+            if (remaining == 0) {
+                finish();
+            }
+        }
+        return read;
+    }
+
+    public long skip(final long n) throws IOException {
+        final long skipped = in.skip(Math.min(n, remaining));
+        remaining -= skipped;
+        if (remaining == 0) {
+            finish();
+        }
+        return skipped;
+    }
+
+    public int available() throws IOException {
+        return Math.min(in.available(), remaining);
+    }
+
+    public void close() throws IOException {
+        if (remaining > 0) {
+            skip(remaining);
+        }
+    }
+
+    boolean isClosed() {
+        return closed;
+    }
+
+    private void finish() {
+        if (!closed) {
+            Protocol.readBulkReplyEnd(in);
+            closed = true;
+        }
+    }
+}
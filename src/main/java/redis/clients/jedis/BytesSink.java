@@ -0,0 +1,17 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * Receives the replies of pipelined commands as byte arrays, in the order
+ * the commands were sent. Status, bulk and integer replies are passed as
+ * their bytes and a nil reply as null. A multi bulk reply is passed to
+ * {@link #onError}.
+ * 
+ * @see Queable#setReplySink(BytesSink)
+ */
+public interface BytesSink {
+    void onBytes(byte[] value);
+
+    void onError(JedisDataException e);
+}
@@ -1,11 +1,14 @@
 package redis.clients.jedis;
 
 import static redis.clients.jedis.Protocol.toByteArray;
+import static redis.clients.jedis.Protocol.Command.*;
 
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
 
 public class Client extends BinaryClient implements Commands {
@@ -17,130 +20,125 @@ public class Client extends BinaryClient implements Commands {
 	super(host, port);
     }
 
+    Client(final RedisOutputStream outputStream) {
+	super(outputStream);
+    }
+
+    private String[] joinParameters(String first, String[] rest) {
+	String[] result = new String[rest.length + 1];
+	result[0] = first;
+	System.arraycopy(rest, 0, result, 1, rest.length);
+	return result;
+    }
+
     public void set(final String key, final String value) {
-	set(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(Command.SET, key, value);
     }
 
     public void get(final String key) {
-	get(SafeEncoder.encode(key));
+	sendCommand(Command.GET, key);
     }
 
     public void exists(final String key) {
-	exists(SafeEncoder.encode(key));
+	sendCommand(EXISTS, key);
     }
 
     public void del(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < keys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	del(bkeys);
+	sendCommand(DEL, keys);
     }
 
     public void type(final String key) {
-	type(SafeEncoder.encode(key));
+	sendCommand(TYPE, key);
     }
 
     public void keys(final String pattern) {
-	keys(SafeEncoder.encode(pattern));
+	sendCommand(KEYS, pattern);
     }
 
     public void rename(final String oldkey, final String newkey) {
-	rename(SafeEncoder.encode(oldkey), SafeEncoder.encode(newkey));
+	sendCommand(RENAME, oldkey, newkey);
     }
 
     public void renamenx(final String oldkey, final String newkey) {
-	renamenx(SafeEncoder.encode(oldkey), SafeEncoder.encode(newkey));
+	sendCommand(RENAMENX, oldkey, newkey);
     }
 
     public void expire(final String key, final int seconds) {
-	expire(SafeEncoder.encode(key), seconds);
+	beginCommand(EXPIRE, 2).writeArgument(key).writeArgument(seconds);
     }
 
     public void expireAt(final String key, final long unixTime) {
-	expireAt(SafeEncoder.encode(key), unixTime);
+	beginCommand(EXPIREAT, 2).writeArgument(key).writeArgument(unixTime);
     }
 
     public void ttl(final String key) {
-	ttl(SafeEncoder.encode(key));
+	sendCommand(TTL, key);
     }
 
     public void move(final String key, final int dbIndex) {
-	move(SafeEncoder.encode(key), dbIndex);
+	beginCommand(MOVE, 2).writeArgument(key).writeArgument(dbIndex);
     }
 
     public void getSet(final String key, final String value) {
-	getSet(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(GETSET, key, value);
     }
 
     public void mget(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	mget(bkeys);
+	sendCommand(MGET, keys);
     }
 
     public void setnx(final String key, final String value) {
-	setnx(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(SETNX, key, value);
     }
 
     public void setex(final String key, final int seconds, final String value) {
-	setex(SafeEncoder.encode(key), seconds, SafeEncoder.encode(value));
+	beginCommand(SETEX, 3).writeArgument(key).writeArgument(seconds)
+		.writeArgument(value);
     }
 
     public void mset(final String... keysvalues) {
-	final byte[][] bkeysvalues = new byte[keysvalues.length][];
-	for (int i = 0; i < keysvalues.length; i++) {
-	    bkeysvalues[i] = SafeEncoder.encode(keysvalues[i]);
-	}
-	mset(bkeysvalues);
+	sendCommand(MSET, keysvalues);
     }
 
     public void msetnx(final String... keysvalues) {
-	final byte[][] bkeysvalues = new byte[keysvalues.length][];
-	for (int i = 0; i < keysvalues.length; i++) {
-	    bkeysvalues[i] = SafeEncoder.encode(keysvalues[i]);
-	}
-	msetnx(bkeysvalues);
+	sendCommand(MSETNX, keysvalues);
     }
 
     public void decrBy(final String key, final long integer) {
-	decrBy(SafeEncoder.encode(key), integer);
+	beginCommand(DECRBY, 2).writeArgument(key).writeArgument(integer);
     }
 
     public void decr(final String key) {
-	decr(SafeEncoder.encode(key));
+	sendCommand(DECR, key);
     }
 
     public void incrBy(final String key, final long integer) {
-	incrBy(SafeEncoder.encode(key), integer);
+	beginCommand(INCRBY, 2).writeArgument(key).writeArgument(integer);
     }
 
     public void incr(final String key) {
-	incr(SafeEncoder.encode(key));
+	sendCommand(INCR, key);
     }
 
     public void append(final String key, final String value) {
-	append(SafeEncoder.encode(key), SafeEncoder.encode(value));
+	sendCommand(APPEND, key, value);
     }
 
     public void substr(final String key, final int start, final int end) {
-	substr(SafeEncoder.encode(key), start, end);
+	beginCommand(SUBSTR, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void hset(final String key, final String field, final String value) {
-	hset(SafeEncoder.encode(key), SafeEncoder.encode(field),
-		SafeEncoder.encode(value));
+	sendCommand(HSET, key, field, value);
     }
 
     public void hget(final String key, final String field) {
-	hget(SafeEncoder.encode(key), SafeEncoder.encode(field));
+	sendCommand(HGET, key, field);
     }
 
     public void hsetnx(final String key, final String field, final String value) {
-	hsetnx(SafeEncoder.encode(key), SafeEncoder.encode(field),
-		SafeEncoder.encode(value));
+	sendCommand(HSETNX, key, field, value);
     }
 
     public void hmset(final String key, final Map<String, String> hash) {
@@ -154,194 +152,173 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void hmget(final String key, final String... fields) {
-	final byte[][] bfields = new byte[fields.length][];
-	for (int i = 0; i < bfields.length; i++) {
-	    bfields[i] = SafeEncoder.encode(fields[i]);
-	}
-	hmget(SafeEncoder.encode(key), bfields);
+	sendCommand(HMGET, joinParameters(key, fields));
     }
 
     public void hincrBy(final String key, final String field, final long value) {
-	hincrBy(SafeEncoder.encode(key), SafeEncoder.encode(field), value);
+	sendCommand(HINCRBY, key, field, String.valueOf(value));
     }
 
     public void hexists(final String key, final String field) {
-	hexists(SafeEncoder.encode(key), SafeEncoder.encode(field));
+	sendCommand(HEXISTS, key, field);
     }
 
     public void hdel(final String key, final String... fields) {
-	hdel(SafeEncoder.encode(key), SafeEncoder.encodeMany(fields));
+	sendCommand(HDEL, joinParameters(key, fields));
     }
 
     public void hlen(final String key) {
-	hlen(SafeEncoder.encode(key));
+	sendCommand(HLEN, key);
     }
 
     public void hkeys(final String key) {
-	hkeys(SafeEncoder.encode(key));
+	sendCommand(HKEYS, key);
     }
 
     public void hvals(final String key) {
-	hvals(SafeEncoder.encode(key));
+	sendCommand(HVALS, key);
     }
 
     public void hgetAll(final String key) {
-	hgetAll(SafeEncoder.encode(key));
+	sendCommand(HGETALL, key);
     }
 
     public void rpush(final String key, final String... string) {
-	rpush(SafeEncoder.encode(key), SafeEncoder.encodeMany(string));
+	sendCommand(RPUSH, joinParameters(key, string));
     }
 
     public void lpush(final String key, final String... string) {
-	lpush(SafeEncoder.encode(key), SafeEncoder.encodeMany(string));
+	sendCommand(LPUSH, joinParameters(key, string));
     }
 
     public void llen(final String key) {
-	llen(SafeEncoder.encode(key));
+	sendCommand(LLEN, key);
     }
 
     public void lrange(final String key, final long start, final long end) {
-	lrange(SafeEncoder.encode(key), start, end);
+	beginCommand(LRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void ltrim(final String key, final long start, final long end) {
-	ltrim(SafeEncoder.encode(key), start, end);
+	beginCommand(LTRIM, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void lindex(final String key, final long index) {
-	lindex(SafeEncoder.encode(key), index);
+	beginCommand(LINDEX, 2).writeArgument(key).writeArgument(index);
     }
 
     public void lset(final String key, final long index, final String value) {
-	lset(SafeEncoder.encode(key), index, SafeEncoder.encode(value));
+	beginCommand(LSET, 3).writeArgument(key).writeArgument(index)
+		.writeArgument(value);
     }
 
     public void lrem(final String key, long count, final String value) {
-	lrem(SafeEncoder.encode(key), count, SafeEncoder.encode(value));
+	beginCommand(LREM, 3).writeArgument(key).writeArgument(count)
+		.writeArgument(value);
     }
 
     public void lpop(final String key) {
-	lpop(SafeEncoder.encode(key));
+	sendCommand(LPOP, key);
     }
 
     public void rpop(final String key) {
-	rpop(SafeEncoder.encode(key));
+	sendCommand(RPOP, key);
     }
 
     public void rpoplpush(final String srckey, final String dstkey) {
-	rpoplpush(SafeEncoder.encode(srckey), SafeEncoder.encode(dstkey));
+	sendCommand(RPOPLPUSH, srckey, dstkey);
     }
 
     public void sadd(final String key, final String... members) {
-	sadd(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(SADD, joinParameters(key, members));
     }
 
     public void smembers(final String key) {
-	smembers(SafeEncoder.encode(key));
+	sendCommand(SMEMBERS, key);
     }
 
     public void srem(final String key, final String... members) {
-	srem(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(SREM, joinParameters(key, members));
     }
 
     public void spop(final String key) {
-	spop(SafeEncoder.encode(key));
+	sendCommand(SPOP, key);
     }
 
     public void smove(final String srckey, final String dstkey,
 	    final String member) {
-	smove(SafeEncoder.encode(srckey), SafeEncoder.encode(dstkey),
-		SafeEncoder.encode(member));
+	sendCommand(SMOVE, srckey, dstkey, member);
     }
 
     public void scard(final String key) {
-	scard(SafeEncoder.encode(key));
+	sendCommand(SCARD, key);
     }
 
     public void sismember(final String key, final String member) {
-	sismember(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(SISMEMBER, key, member);
     }
 
     public void sinter(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sinter(bkeys);
+	sendCommand(SINTER, keys);
     }
 
     public void sinterstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sinterstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SINTERSTORE, joinParameters(dstkey, keys));
     }
 
     public void sunion(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sunion(bkeys);
+	sendCommand(SUNION, keys);
     }
 
     public void sunionstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sunionstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SUNIONSTORE, joinParameters(dstkey, keys));
     }
 
     public void sdiff(final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sdiff(bkeys);
+	sendCommand(SDIFF, keys);
     }
 
     public void sdiffstore(final String dstkey, final String... keys) {
-	final byte[][] bkeys = new byte[keys.length][];
-	for (int i = 0; i < bkeys.length; i++) {
-	    bkeys[i] = SafeEncoder.encode(keys[i]);
-	}
-	sdiffstore(SafeEncoder.encode(dstkey), bkeys);
+	sendCommand(SDIFFSTORE, joinParameters(dstkey, keys));
     }
 
     public void srandmember(final String key) {
-	srandmember(SafeEncoder.encode(key));
+	sendCommand(SRANDMEMBER, key);
     }
 
     public void zadd(final String key, final double score, final String member) {
-	zadd(SafeEncoder.encode(key), score, SafeEncoder.encode(member));
+	beginCommand(ZADD, 3).writeArgument(key).writeArgument(score)
+		.writeArgument(member);
     }
 
     public void zrange(final String key, final long start, final long end) {
-	zrange(SafeEncoder.encode(key), start, end);
+	beginCommand(ZRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void zrem(final String key, final String... members) {
-	zrem(SafeEncoder.encode(key), SafeEncoder.encodeMany(members));
+	sendCommand(ZREM, joinParameters(key, members));
     }
 
     public void zincrby(final String key, final double score,
 	    final String member) {
-	zincrby(SafeEncoder.encode(key), score, SafeEncoder.encode(member));
+	beginCommand(ZINCRBY, 3).writeArgument(key).writeArgument(score)
+		.writeArgument(member);
     }
 
     public void zrank(final String key, final String member) {
-	zrank(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZRANK, key, member);
     }
 
     public void zrevrank(final String key, final String member) {
-	zrevrank(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZREVRANK, key, member);
     }
 
     public void zrevrange(final String key, final long start, final long end) {
-	zrevrange(SafeEncoder.encode(key), start, end);
+	beginCommand(ZREVRANGE, 3).writeArgument(key).writeArgument(start)
+		.writeArgument(end);
     }
 
     public void zrangeWithScores(final String key, final long start,
@@ -355,11 +332,11 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void zcard(final String key) {
-	zcard(SafeEncoder.encode(key));
+	sendCommand(ZCARD, key);
     }
 
     public void zscore(final String key, final String member) {
-	zscore(SafeEncoder.encode(key), SafeEncoder.encode(member));
+	sendCommand(ZSCORE, key, member);
     }
 
     public void watch(final String... keys) {
@@ -371,7 +348,7 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void sort(final String key) {
-	sort(SafeEncoder.encode(key));
+	sendCommand(SORT, key);
     }
 
     public void sort(final String key, final SortingParams sortingParameters) {
@@ -409,8 +386,7 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void zcount(final String key, final String min, final String max) {
-	zcount(SafeEncoder.encode(key), SafeEncoder.encode(min),
-		SafeEncoder.encode(max));
+	sendCommand(ZCOUNT, key, min, max);
     }
 
     public void zrangeByScore(final String key, final double min,
@@ -421,8 +397,7 @@ public class Client extends BinaryClient implements Commands {
 
     public void zrangeByScore(final String key, final String min,
 	    final String max) {
-	zrangeByScore(SafeEncoder.encode(key), SafeEncoder.encode(min),
-		SafeEncoder.encode(max));
+	sendCommand(ZRANGEBYSCORE, key, min, max);
     }
 
     public void zrangeByScore(final String key, final double min,
@@ -469,8 +444,7 @@ public class Client extends BinaryClient implements Commands {
 
     public void zrevrangeByScore(final String key, final String max,
 	    final String min) {
-	zrevrangeByScore(SafeEncoder.encode(key), SafeEncoder.encode(max),
-		SafeEncoder.encode(min));
+	sendCommand(ZREVRANGEBYSCORE, key, max, min);
     }
 
     public void zrevrangeByScore(final String key, final double max,
@@ -511,7 +485,8 @@ public class Client extends BinaryClient implements Commands {
 
     public void zremrangeByRank(final String key, final long start,
 	    final long end) {
-	zremrangeByRank(SafeEncoder.encode(key), start, end);
+	beginCommand(ZREMRANGEBYRANK, 3).writeArgument(key)
+		.writeArgument(start).writeArgument(end);
     }
 
     public void zremrangeByScore(final String key, final double start,
@@ -522,8 +497,7 @@ public class Client extends BinaryClient implements Commands {
 
     public void zremrangeByScore(final String key, final String start,
 	    final String end) {
-	zremrangeByScore(SafeEncoder.encode(key), SafeEncoder.encode(start),
-		SafeEncoder.encode(end));
+	sendCommand(ZREMRANGEBYSCORE, key, start, end);
     }
 
     public void zunionstore(final String dstkey, final String... sets) {
@@ -561,23 +535,23 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void strlen(final String key) {
-	strlen(SafeEncoder.encode(key));
+	sendCommand(STRLEN, key);
     }
 
     public void lpushx(final String key, final String string) {
-	lpushx(SafeEncoder.encode(key), SafeEncoder.encode(string));
+	sendCommand(LPUSHX, key, string);
     }
 
     public void persist(final String key) {
-	persist(SafeEncoder.encode(key));
+	sendCommand(PERSIST, key);
     }
 
     public void rpushx(final String key, final String string) {
-	rpushx(SafeEncoder.encode(key), SafeEncoder.encode(string));
+	sendCommand(RPUSHX, key, string);
     }
 
     public void echo(final String string) {
-	echo(SafeEncoder.encode(string));
+	sendCommand(ECHO, string);
     }
 
     public void linsert(final String key, final LIST_POSITION where,
@@ -587,8 +561,7 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void brpoplpush(String source, String destination, int timeout) {
-	brpoplpush(SafeEncoder.encode(source), SafeEncoder.encode(destination),
-		timeout);
+	sendCommand(BRPOPLPUSH, source, destination, String.valueOf(timeout));
     }
 
     public void setbit(final String key, final long offset, final boolean value) {
@@ -596,19 +569,21 @@ public class Client extends BinaryClient implements Commands {
     }
 
     public void getbit(String key, long offset) {
-	getbit(SafeEncoder.encode(key), offset);
+	beginCommand(GETBIT, 2).writeArgument(key).writeArgument(offset);
     }
 
     public void setrange(String key, long offset, String value) {
-	setrange(SafeEncoder.encode(key), offset, SafeEncoder.encode(value));
+	beginCommand(SETRANGE, 3).writeArgument(key).writeArgument(offset)
+		.writeArgument(value);
     }
 
     public void getrange(String key, long startOffset, long endOffset) {
-	getrange(SafeEncoder.encode(key), startOffset, endOffset);
+	beginCommand(GETRANGE, 3).writeArgument(key).writeArgument(startOffset)
+		.writeArgument(endOffset);
     }
 
     public void publish(final String channel, final String message) {
-	publish(SafeEncoder.encode(channel), SafeEncoder.encode(message));
+	sendCommand(PUBLISH, channel, message);
     }
 
     public void unsubscribe(final String... channels) {
@@ -692,6 +667,10 @@ public class Client extends BinaryClient implements Commands {
 	zaddBinary(SafeEncoder.encode(key), binaryScoreMembers);
     }
 
+    public void clientSetname(String name) {
+	clientSetname(SafeEncoder.encode(name));
+    }
+
     public void objectRefcount(String key) {
 	objectRefcount(SafeEncoder.encode(key));
     }
@@ -703,4 +682,23 @@ public class Client extends BinaryClient implements Commands {
     public void objectEncoding(String key) {
 	objectEncoding(SafeEncoder.encode(key));
     }
+
+    public void scan(final String cursor, final ScanParams params) {
+	scan(SafeEncoder.encode(cursor), params);
+    }
+
+    public void hscan(final String key, final String cursor,
+	    final ScanParams params) {
+	hscan(SafeEncoder.encode(key), SafeEncoder.encode(cursor), params);
+    }
+
+    public void sscan(final String key, final String cursor,
+	    final ScanParams params) {
+	sscan(SafeEncoder.encode(key), SafeEncoder.encode(cursor), params);
+    }
+
+    public void zscan(final String key, final String cursor,
+	    final ScanParams params) {
+	zscan(SafeEncoder.encode(key), SafeEncoder.encode(cursor), params);
+    }
 }
@@ -0,0 +1,192 @@
+package redis.clients.jedis;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * A blocking connection shared by many threads, which pipelines their
+ * commands automatically. A caller queues its command and then whichever
+ * thread holds the write lock writes every queued command and flushes them
+ * all at once. Likewise the thread holding the read lock reads the replies
+ * in order and hands them to their callers, until its own has arrived.
+ * <p>
+ * The more threads are waiting on the socket the bigger the batches get. A
+ * delay can be set to wait for more commands before a batch that isn't full
+ * is flushed, trading latency for fewer system calls.
+ */
+final class CoalescingConnection {
+    private final Connection connection;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+
+    private final Queue<Request> queue = new ConcurrentLinkedQueue<Request>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final Queue<JedisFuture<?>> inFlight = new ConcurrentLinkedQueue<JedisFuture<?>>();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final ReentrantLock readLock = new ReentrantLock();
+    private volatile Thread waitingWriter;
+    private volatile JedisException broken;
+
+    CoalescingConnection(final String host, final int port,
+            final int timeout, final int maxBatchSize, final long maxDelayNanos) {
+        if (maxBatchSize <= 0) {
+            throw new IllegalArgumentException("maxBatchSize <= 0");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelayNanos;
+        connection = new Connection(host, port);
+        connection.setTimeout(timeout);
+        connection.connect();
+    }
+
+    /**
+     * Sends an encoded command and waits for its reply.
+     */
+    <T> T execute(final byte[] command, final Builder<T> builder) {
+        final JedisFuture<T> reply = new JedisFuture<T>(builder);
+        write(new Request(command, reply));
+        read(reply);
+        try {
+            return reply.get();
+        } catch (InterruptedException e) {
+            // can't happen, the reply is already there
+            throw new JedisConnectionException(e);
+        } catch (ExecutionException e) {
+            throw (JedisException) e.getCause();
+        }
+    }
+
+    private void write(final Request request) {
+        if (broken != null) {
+            request.reply.fail(broken);
+            return;
+        }
+        queue.add(request);
+        if (queued.incrementAndGet() >= maxBatchSize) {
+            final Thread writer = waitingWriter;
+            if (writer != null) {
+                LockSupport.unpark(writer);
+            }
+        }
+        writeLock.lock();
+        try {
+            while (!request.written) {
+                if (broken != null) {
+                    failQueued(broken);
+                    return;
+                }
+                waitForBatch();
+                int batch = 0;
+                Request next;
+                while (batch < maxBatchSize && (next = queue.poll()) != null) {
+                    connection.writeEncoded(next.command);
+                    inFlight.add(next.reply);
+                    next.written = true;
+                    batch++;
+                }
+                queued.addAndGet(-batch);
+                connection.flush();
+            }
+        } catch (JedisConnectionException e) {
+            broken(e);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void waitForBatch() {
+        if (maxDelayNanos <= 0) {
+            return;
+        }
+        final long deadline = System.nanoTime() + maxDelayNanos;
+        waitingWriter = Thread.currentThread();
+        try {
+            long remaining = maxDelayNanos;
+            while (queued.get() < maxBatchSize && remaining > 0) {
+                LockSupport.parkNanos(remaining);
+                remaining = deadline - System.nanoTime();
+            }
+        } finally {
+            waitingWriter = null;
+        }
+    }
+
+    private void read(final JedisFuture<?> reply) {
+        readLock.lock();
+        try {
+            while (!reply.isDone()) {
+                final JedisFuture<?> next = inFlight.poll();
+                if (next == null) {
+                    // the connection broke and our reply is being failed
+                    break;
+                }
+                try {
+                    next.set(connection.readReply());
+                } catch (JedisDataException e) {
+                    next.set(e);
+                } catch (JedisConnectionException e) {
+                    next.fail(e);
+                    broken(e);
+                }
+            }
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    private void broken(final JedisException exception) {
+        if (broken == null) {
+            broken = exception;
+        }
+        try {
+            connection.disconnect();
+        } catch (JedisConnectionException e) {
+            // the socket is closed anyway
+        }
+        failQueued(exception);
+        JedisFuture<?> reply;
+        while ((reply = inFlight.poll()) != null) {
+            reply.fail(exception);
+        }
+    }
+
+    private void failQueued(final JedisException exception) {
+        Request request;
+        while ((request = queue.poll()) != null) {
+            queued.decrementAndGet();
+            request.reply.fail(exception);
+        }
+    }
+
+    boolean isBroken() {
+        return broken != null;
+    }
+
+    /**
+     * Closes the socket. Commands still waiting for a reply fail with a
+     * JedisConnectionException.
+     */
+    void close() {
+        broken(new JedisConnectionException("Connection is closed"));
+    }
+
+    private static final class Request {
+        final byte[] command;
+        final JedisFuture<?> reply;
+        // guarded by writeLock
+        boolean written = false;
+
+        Request(final byte[] command, final JedisFuture<?> reply) {
+            this.command = command;
+            this.reply = reply;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package redis.clients.jedis;
+
+import java.io.OutputStream;
+
+import redis.clients.util.RedisOutputStream;
+
+/**
+ * Encodes commands with the same code as {@link Client} does, into a buffer
+ * instead of a socket, for clients that hand the encoded commands to a
+ * transport of their own. Each thread has its own encoder; call
+ * {@link #get()}, invoke one command method on it and take the bytes with
+ * {@link #takeCommand()}.
+ */
+final class CommandEncoder extends Client {
+    private static final ThreadLocal<CommandEncoder> ENCODER = new ThreadLocal<CommandEncoder>() {
+        protected CommandEncoder initialValue() {
+            return new CommandEncoder();
+        }
+    };
+
+    private final CommandBuffer buffer;
+    private boolean encoding = false;
+
+    private CommandEncoder() {
+        this(new CommandBuffer());
+    }
+
+    private CommandEncoder(final CommandBuffer buffer) {
+        super(new RedisOutputStream(buffer));
+        this.buffer = buffer;
+    }
+
+    /**
+     * @return the calling thread's encoder, ready for a new command
+     */
+    static CommandEncoder get() {
+        CommandEncoder encoder = ENCODER.get();
+        if (encoder.encoding) {
+            // the last command failed half way, drop what it left behind
+            encoder = new CommandEncoder();
+            ENCODER.set(encoder);
+        }
+        encoder.encoding = true;
+        return encoder;
+    }
+
+    public void connect() {
+    }
+
+    /**
+     * @return the command encoded by the calling thread since its last call
+     *         to {@link #get()}
+     */
+    static byte[] takeCommand() {
+        final CommandEncoder encoder = ENCODER.get();
+        encoder.flush();
+        encoder.encoding = false;
+        return encoder.buffer.take();
+    }
+
+    private static final class CommandBuffer extends OutputStream {
+        private byte[] buf = new byte[256];
+        private int count = 0;
+
+        public void write(final int b) {
+            ensureCapacity(1);
+            buf[count++] = (byte) b;
+        }
+
+        public void write(final byte[] b, final int off, final int len) {
+            ensureCapacity(len);
+            System.arraycopy(b, off, buf, count, len);
+            count += len;
+        }
+
+        private void ensureCapacity(final int len) {
+            if (count + len > buf.length) {
+                final byte[] larger = new byte[Math.max(buf.length * 2, count
+                        + len)];
+                System.arraycopy(buf, 0, larger, 0, count);
+                buf = larger;
+            }
+        }
+
+        byte[] take() {
+            final byte[] command = new byte[count];
+            System.arraycopy(buf, 0, command, 0, count);
+            count = 0;
+            return command;
+        }
+    }
+}
@@ -280,9 +280,22 @@ public interface Commands {
 
     public void discard();
 
+    public void clientSetname(String name);
+
     public void objectRefcount(String key);
 
     public void objectIdletime(String key);
 
     public void objectEncoding(String key);
-}
\ No newline at end of file
+
+    public void scan(final String cursor, final ScanParams params);
+
+    public void hscan(final String key, final String cursor,
+            final ScanParams params);
+
+    public void sscan(final String key, final String cursor,
+            final ScanParams params);
+
+    public void zscan(final String key, final String cursor,
+            final ScanParams params);
+}
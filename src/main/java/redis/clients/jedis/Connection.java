@@ -1,9 +1,17 @@
 package redis.clients.jedis;
 
+import java.io.Closeable;
+import java.io.FilterInputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -23,6 +31,9 @@ public class Connection {
     private RedisInputStream inputStream;
     private int pipelinedCommands = 0;
     private int timeout = Protocol.DEFAULT_TIMEOUT;
+    private Closeable unfinishedReply;
+    private long lastReadTime;
+    private boolean broken;
 
     public Socket getSocket() {
         return socket;
@@ -71,22 +82,85 @@ public class Connection {
     }
 
     protected Connection sendCommand(final Command cmd, final String... args) {
-        final byte[][] bargs = new byte[args.length][];
-        for (int i = 0; i < args.length; i++) {
-            bargs[i] = SafeEncoder.encode(args[i]);
-        }
-        return sendCommand(cmd, bargs);
+        connect();
+        closeUnfinishedReply();
+        Protocol.sendCommand(outputStream, cmd, args);
+        pipelinedCommands++;
+        return this;
     }
 
     protected Connection sendCommand(final Command cmd, final byte[]... args) {
         connect();
+        closeUnfinishedReply();
         Protocol.sendCommand(outputStream, cmd, args);
         pipelinedCommands++;
         return this;
     }
     
+    /**
+     * Starts a command of the given number of arguments, which must be
+     * followed by that many calls to the writeArgument methods, so numeric
+     * arguments are written in place instead of as byte[]s.
+     */
+    protected Connection beginCommand(final Command cmd, final int args) {
+        connect();
+        closeUnfinishedReply();
+        Protocol.writeCommand(outputStream, cmd, args);
+        pipelinedCommands++;
+        return this;
+    }
+
+    protected Connection writeArgument(final byte[] arg) {
+        Protocol.writeArgument(outputStream, arg);
+        return this;
+    }
+
+    protected Connection writeArgument(final String arg) {
+        Protocol.writeArgument(outputStream, arg);
+        return this;
+    }
+
+    protected Connection writeArgument(final long arg) {
+        Protocol.writeArgument(outputStream, arg);
+        return this;
+    }
+
+    protected Connection writeArgument(final double arg) {
+        Protocol.writeArgument(outputStream, arg);
+        return this;
+    }
+
+    protected Connection sendCommand(final Command cmd, final int valueLength,
+            final InputStream value, final byte[]... args) {
+        connect();
+        closeUnfinishedReply();
+        try {
+            Protocol.sendCommand(outputStream, cmd, valueLength, value, args);
+        } catch (JedisConnectionException e) {
+            abort();
+            throw e;
+        }
+        pipelinedCommands++;
+        return this;
+    }
+
+    protected Connection sendCommand(final Command cmd, final int valueLength,
+            final ReadableByteChannel value, final byte[]... args) {
+        connect();
+        closeUnfinishedReply();
+        try {
+            Protocol.sendCommand(outputStream, cmd, valueLength, value, args);
+        } catch (JedisConnectionException e) {
+            abort();
+            throw e;
+        }
+        pipelinedCommands++;
+        return this;
+    }
+
     protected Connection sendCommand(final Command cmd) {
         connect();
+        closeUnfinishedReply();
         Protocol.sendCommand(outputStream, cmd, new byte[0][]);
         pipelinedCommands++;
         return this;
@@ -118,6 +192,15 @@ public class Connection {
     	
     }
 
+    /**
+     * Creates a connection that only encodes commands into the given stream,
+     * for transports that do their own I/O. Subclasses must override
+     * {@link #connect()} so no socket is opened.
+     */
+    Connection(final RedisOutputStream outputStream) {
+        this.outputStream = outputStream;
+    }
+
     public void connect() {
         if (!isConnected()) {
             try {
@@ -131,15 +214,37 @@ public class Connection {
 
                 socket.connect(new InetSocketAddress(host, port), timeout);
                 socket.setSoTimeout(timeout);
-                outputStream = new RedisOutputStream(socket.getOutputStream());
-                inputStream = new RedisInputStream(socket.getInputStream());
+                lastReadTime = System.currentTimeMillis();
+                broken = false;
+                outputStream = new RedisOutputStream(new SocketOutput(
+                        socket.getOutputStream()));
+                inputStream = new RedisInputStream(new SocketInput(
+                        socket.getInputStream()));
             } catch (IOException ex) {
                 throw new JedisConnectionException(ex);
             }
         }
     }
 
+    /**
+     * @return when something was last read from the socket, or when it was
+     *         opened if nothing was read yet, in milliseconds
+     */
+    public long getLastReadTime() {
+        return lastReadTime;
+    }
+
+    /**
+     * @return true if reading from or writing to the socket failed since it
+     *         was opened. The connection may be half way through a command
+     *         and should not be reused.
+     */
+    public boolean isBroken() {
+        return broken;
+    }
+
     public void disconnect() {
+        unfinishedReply = null;
         if (isConnected()) {
             try {
                 inputStream.close();
@@ -153,6 +258,18 @@ public class Connection {
         }
     }
 
+    /**
+     * Drops a connection that was left with a partially written command,
+     * e.g. because a streamed value ended early.
+     */
+    private void abort() {
+        try {
+            disconnect();
+        } catch (JedisConnectionException e) {
+            // the socket is closed anyway
+        }
+    }
+
     public boolean isConnected() {
         return socket != null && socket.isBound() && !socket.isClosed()
                 && socket.isConnected() && !socket.isInputShutdown()
@@ -162,12 +279,7 @@ public class Connection {
     protected String getStatusCodeReply() {
         flush();
         pipelinedCommands--;
-        final byte[] resp = (byte[]) Protocol.read(inputStream);
-        if (null == resp) {
-            return null;
-        } else {
-            return SafeEncoder.encode(resp);
-        }
+        return Protocol.readStatusCodeReply(inputStream);
     }
 
     public String getBulkReply() {
@@ -185,6 +297,127 @@ public class Connection {
         return (byte[]) Protocol.read(inputStream);
     }
 
+    /**
+     * Returns the value of a bulk reply as a stream that reads straight from
+     * the socket, or null for a nil reply. The stream should be consumed or
+     * closed before the connection is used again; sending another command
+     * closes it implicitly.
+     */
+    public InputStream getBinaryBulkReplyStream() {
+        flush();
+        pipelinedCommands--;
+        final int length = Protocol.readBulkReplyLength(inputStream);
+        if (length == -1) {
+            return null;
+        }
+        final BulkReplyInputStream stream = new BulkReplyInputStream(
+                inputStream, length);
+        if (!stream.isClosed()) {
+            unfinishedReply = stream;
+        }
+        return stream;
+    }
+
+    /**
+     * Writes the value of a bulk reply to the given channel without copying
+     * it into a byte[] first.
+     * 
+     * @return the length of the value, or -1 for a nil reply
+     */
+    public long getBinaryBulkReply(final WritableByteChannel target) {
+        flush();
+        pipelinedCommands--;
+        final int length = Protocol.readBulkReplyLength(inputStream);
+        if (length == -1) {
+            return -1;
+        }
+        try {
+            inputStream.transferTo(target, length);
+        } catch (IOException e) {
+            // the value is only partially consumed, the connection can't be
+            // reused
+            disconnect();
+            throw new JedisConnectionException(e);
+        }
+        Protocol.readBulkReplyEnd(inputStream);
+        return length;
+    }
+
+    /**
+     * Copies the value of a bulk reply into the given buffer, which may be a
+     * direct or a memory mapped one. If the value doesn't fit it is skipped
+     * and a JedisDataException is thrown.
+     * 
+     * @return the length of the value, or -1 for a nil reply
+     */
+    public long getBinaryBulkReply(final ByteBuffer target) {
+        flush();
+        pipelinedCommands--;
+        final int length = Protocol.readBulkReplyLength(inputStream);
+        if (length == -1) {
+            return -1;
+        }
+        if (target.remaining() < length) {
+            try {
+                inputStream.skip(length);
+            } catch (IOException e) {
+                throw new JedisConnectionException(e);
+            }
+            Protocol.readBulkReplyEnd(inputStream);
+            throw new JedisDataException("Value of " + length
+                    + " bytes doesn't fit in a buffer with "
+                    + target.remaining() + " bytes remaining");
+        }
+        inputStream.readFully(target, length);
+        Protocol.readBulkReplyEnd(inputStream);
+        return length;
+    }
+
+    /**
+     * Returns the elements of a multi bulk reply one item at a time as they
+     * are read from the socket, instead of building a list of all of them.
+     * The iterator should be consumed or closed before the connection is used
+     * again; sending another command closes it implicitly.
+     * 
+     * @param elementsPerItem
+     *            1 to build each item from one element, 2 to build it from a
+     *            pair of elements (passed to the builder as a byte[][])
+     */
+    public <T> MultiBulkIterator<T> getMultiBulkReplyIterator(
+            final int elementsPerItem, final Builder<T> builder) {
+        flush();
+        pipelinedCommands--;
+        final int length = Protocol.readMultiBulkReplyLength(inputStream);
+        final MultiBulkIterator<T> iterator = new MultiBulkIterator<T>(
+                inputStream, Math.max(length, 0),
+                elementsPerItem == 2 ? ItemBuilder.pairs(builder)
+                        : ItemBuilder.single(builder));
+        if (iterator.hasNext()) {
+            unfinishedReply = iterator;
+        }
+        return iterator;
+    }
+
+    /**
+     * Registers a reply that is read later, e.g. by a ScanIterator, to be
+     * closed before the next command is sent.
+     */
+    void setUnfinishedReply(final Closeable reply) {
+        unfinishedReply = reply;
+    }
+
+    private void closeUnfinishedReply() {
+        if (unfinishedReply != null) {
+            try {
+                unfinishedReply.close();
+            } catch (IOException e) {
+                throw new JedisConnectionException(e);
+            } finally {
+                unfinishedReply = null;
+            }
+        }
+    }
+
     public Long getIntegerReply() {
         flush();
         pipelinedCommands--;
@@ -234,9 +467,167 @@ public class Connection {
         return all;
     }
 
+    /**
+     * Pushes the replies of all pipelined commands to the visitor, in the
+     * order the commands were sent, without building a list of them.
+     */
+    public void getAll(final ReplyVisitor visitor) {
+        getAll(0, visitor);
+    }
+
+    public void getAll(int except, final ReplyVisitor visitor) {
+        flush();
+        while (pipelinedCommands > except) {
+            pipelinedCommands--;
+            Protocol.read(inputStream, visitor);
+        }
+    }
+
+    /**
+     * Reads and drops the replies of all pipelined commands but the last
+     * except ones, without building them.
+     */
+    public void skipAll(int except) {
+        getAll(except, SKIP);
+    }
+
+    private static final ReplyVisitor SKIP = new ReplyVisitor() {
+        public void onError(String message) {
+        }
+    };
+
+    /**
+     * Reads the length of a multi bulk reply, leaving its elements to be read
+     * one by one with {@link #readReply()}.
+     */
+    int getMultiBulkReplyLength() {
+        flush();
+        pipelinedCommands--;
+        return Protocol.readMultiBulkReplyLength(inputStream);
+    }
+
+    /**
+     * Buffers an already encoded command, without flushing it.
+     */
+    void writeEncoded(final byte[] command) {
+        try {
+            outputStream.write(command);
+        } catch (IOException e) {
+            throw new JedisConnectionException(e);
+        }
+    }
+
+    /**
+     * Reads one reply without flushing, so another thread may be writing
+     * commands at the same time.
+     */
+    Object readReply() {
+        return Protocol.read(inputStream);
+    }
+
+    /**
+     * Like {@link #readReply()}, reporting the reply to the visitor.
+     */
+    void readReply(final ReplyVisitor visitor) {
+        Protocol.read(inputStream, visitor);
+    }
+
+    /**
+     * Buffers a command without flushing it or counting it as pipelined, so
+     * another thread may be reading replies at the same time.
+     */
+    void writeCommand(final Command cmd, final byte[]... args) {
+        Protocol.sendCommand(outputStream, cmd, args);
+    }
+
+    /**
+     * @see #writeCommand(Command, byte[]...)
+     */
+    void writeCommand(final Command cmd, final String... args) {
+        Protocol.sendCommand(outputStream, cmd, args);
+    }
+
+    /**
+     * @see #writeCommand(Command, byte[]...)
+     */
+    void writeCommand(final byte[][] command) {
+        Protocol.sendCommand(outputStream, command);
+    }
+
     public Object getOne() {
         flush();
         pipelinedCommands--;
         return Protocol.read(inputStream);
     }
+
+    public void getOne(final ReplyVisitor visitor) {
+        flush();
+        pipelinedCommands--;
+        Protocol.read(inputStream, visitor);
+    }
+
+    /**
+     * Keeps track of the last read from the socket and of I/O errors.
+     */
+    private final class SocketInput extends FilterInputStream {
+        SocketInput(final InputStream in) {
+            super(in);
+        }
+
+        public int read() throws IOException {
+            final byte[] b = new byte[1];
+            return read(b, 0, 1) == -1 ? -1 : b[0] & 0xff;
+        }
+
+        public int read(final byte[] b, final int off, final int len)
+                throws IOException {
+            final int read;
+            try {
+                read = in.read(b, off, len);
+            } catch (IOException e) {
+                broken = true;
+                throw e;
+            }
+            if (read == -1) {
+                broken = true;
+            } else {
+                lastReadTime = System.currentTimeMillis();
+            }
+            return read;
+        }
+    }
+
+    private final class SocketOutput extends FilterOutputStream {
+        SocketOutput(final OutputStream out) {
+            super(out);
+        }
+
+        public void write(final int b) throws IOException {
+            try {
+                out.write(b);
+            } catch (IOException e) {
+                broken = true;
+                throw e;
+            }
+        }
+
+        public void write(final byte[] b, final int off, final int len)
+                throws IOException {
+            try {
+                out.write(b, off, len);
+            } catch (IOException e) {
+                broken = true;
+                throw e;
+            }
+        }
+
+        public void flush() throws IOException {
+            try {
+                out.flush();
+            } catch (IOException e) {
+                broken = true;
+                throw e;
+            }
+        }
+    }
 }
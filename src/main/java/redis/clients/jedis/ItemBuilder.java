@@ -0,0 +1,72 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the items of a multi bulk reply from its elements: an item per
+ * element, or an item per pair of elements, such as the field and value of a
+ * hash or the member and score of a sorted set. A pair is passed to the
+ * builder as a byte[][] that is reused for every pair, so the builder must
+ * not keep a reference to it.
+ */
+final class ItemBuilder<T> {
+    private final Builder<T> builder;
+    // null when each item is built from a single element
+    private final byte[][] pair;
+
+    private ItemBuilder(final Builder<T> builder, final boolean pairs) {
+        this.builder = builder;
+        this.pair = pairs ? new byte[2][] : null;
+    }
+
+    static <T> ItemBuilder<T> single(final Builder<T> builder) {
+        return new ItemBuilder<T>(builder, false);
+    }
+
+    static <T> ItemBuilder<T> pairs(final Builder<T> builder) {
+        return new ItemBuilder<T>(builder, true);
+    }
+
+    /**
+     * @return the number of elements an item is built from, 1 or 2
+     */
+    int getElementsPerItem() {
+        return pair == null ? 1 : 2;
+    }
+
+    /**
+     * Builds an item from a single element.
+     */
+    T build(final Object element) {
+        return builder.build(element);
+    }
+
+    /**
+     * Builds an item from a pair of elements.
+     */
+    T build(final Object first, final Object second) {
+        pair[0] = (byte[]) first;
+        pair[1] = (byte[]) second;
+        return builder.build(pair);
+    }
+
+    /**
+     * Builds the item whose elements start at the index.
+     */
+    T build(final List<Object> elements, final int index) {
+        if (pair == null) {
+            return build(elements.get(index));
+        }
+        return build(elements.get(index), elements.get(index + 1));
+    }
+
+    List<T> buildAll(final List<Object> elements) {
+        final int step = getElementsPerItem();
+        final List<T> items = new ArrayList<T>(elements.size() / step);
+        for (int i = 0; i + step <= elements.size(); i += step) {
+            items.add(build(elements, i));
+        }
+        return items;
+    }
+}
@@ -10,6 +10,7 @@ import java.util.Map;
 import java.util.Set;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
+import redis.clients.jedis.Protocol.Command;
 import redis.clients.util.SafeEncoder;
 import redis.clients.util.Slowlog;
 
@@ -857,6 +858,22 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 		.build(client.getBinaryMultiBulkReply());
     }
 
+    /**
+     * Like {@link #hgetAll(String)} but returns the fields and values one by
+     * one as they are read from the connection, so huge hashes don't need to
+     * be held in memory. The iterator must be consumed or closed before this
+     * Jedis instance is used again.
+     * 
+     * @param key
+     * @return an iterator over the field/value pairs
+     */
+    public MultiBulkIterator<Map.Entry<String, String>> hgetAllIterator(
+	    final String key) {
+	checkIsInMulti();
+	client.hgetAll(key);
+	return client.getMultiBulkReplyIterator(2, BuilderFactory.STRING_ENTRY);
+    }
+
     /**
      * Add the string value to the head (LPUSH) or tail (RPUSH) of the list
      * stored at key. If the key does not exist an empty list is created just
@@ -960,6 +977,23 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return client.getMultiBulkReply();
     }
 
+    /**
+     * Like {@link #lrange(String, long, long)} but returns the elements one by
+     * one as they are read from the connection. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the elements in the specified range
+     */
+    public MultiBulkIterator<String> lrangeIterator(final String key,
+	    final long start, final long end) {
+	checkIsInMulti();
+	client.lrange(key, start, end);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.STRING);
+    }
+
     /**
      * Trim an existing list so that it will contain only the specified range of
      * elements specified. Start and end are zero-based indexes. 0 is the first
@@ -1173,6 +1207,20 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return new HashSet<String>(members);
     }
 
+    /**
+     * Like {@link #smembers(String)} but returns the members one by one as
+     * they are read from the connection. The iterator must be consumed or
+     * closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @return an iterator over the members of the set
+     */
+    public MultiBulkIterator<String> smembersIterator(final String key) {
+	checkIsInMulti();
+	client.smembers(key);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.STRING);
+    }
+
     /**
      * Remove the specified member from the set value stored at key. If member
      * was not a member of the set no operation is performed. If key does not
@@ -1457,6 +1505,23 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return new LinkedHashSet<String>(members);
     }
 
+    /**
+     * Like {@link #zrange(String, long, long)} but returns the members one by
+     * one as they are read from the connection. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the members in the specified range
+     */
+    public MultiBulkIterator<String> zrangeIterator(final String key,
+	    final long start, final long end) {
+	checkIsInMulti();
+	client.zrange(key, start, end);
+	return client.getMultiBulkReplyIterator(1, BuilderFactory.STRING);
+    }
+
     /**
      * Remove the specified member from the sorted set value stored at key. If
      * member was not a member of the set no operation is performed. If key does
@@ -1578,6 +1643,23 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return set;
     }
 
+    /**
+     * Like {@link #zrangeWithScores(String, long, long)} but returns the
+     * members one by one as they are read from the connection. The iterator
+     * must be consumed or closed before this Jedis instance is used again.
+     * 
+     * @param key
+     * @param start
+     * @param end
+     * @return an iterator over the members and scores in the specified range
+     */
+    public MultiBulkIterator<Tuple> zrangeWithScoresIterator(
+	    final String key, final long start, final long end) {
+	checkIsInMulti();
+	client.zrangeWithScores(key, start, end);
+	return client.getMultiBulkReplyIterator(2, BuilderFactory.TUPLE);
+    }
+
     public Set<Tuple> zrevrangeWithScores(final String key, final long start,
 	    final long end) {
 	checkIsInMulti();
@@ -2859,6 +2941,23 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	return Slowlog.from(client.getObjectMultiBulkReply());
     }
 
+    /**
+     * Names the connection; the name is set again whenever the client
+     * reconnects.
+     * 
+     * @param name
+     * @return Status code reply
+     */
+    public String clientSetname(final String name) {
+	client.clientSetname(name);
+	return client.getStatusCodeReply();
+    }
+
+    public String clientGetname() {
+	client.clientGetname();
+	return client.getBulkReply();
+    }
+
     public Long objectRefcount(String string) {
 	client.objectRefcount(string);
 	return client.getIntegerReply();
@@ -2873,4 +2972,108 @@ public class Jedis extends BinaryJedis implements JedisCommands {
 	client.objectIdletime(string);
 	return client.getIntegerReply();
     }
+
+    /**
+     * Returns a page of the keys of the database. Start with
+     * {@link ScanParams#SCAN_POINTER_START} and call again with the cursor of
+     * each page until the iteration is complete. Unlike KEYS, each call only
+     * looks at a few keys, so the server is never blocked for long.
+     * 
+     * @param cursor
+     * @return the page and the cursor of the next one
+     */
+    public ScanResult<String> scan(final String cursor) {
+	return scan(cursor, new ScanParams());
+    }
+
+    public ScanResult<String> scan(final String cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.scan(cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.single(BuilderFactory.STRING));
+    }
+
+    public ScanResult<Map.Entry<String, String>> hscan(final String key,
+	    final String cursor) {
+	return hscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<Map.Entry<String, String>> hscan(final String key,
+	    final String cursor, final ScanParams params) {
+	checkIsInMulti();
+	client.hscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.pairs(BuilderFactory.STRING_ENTRY));
+    }
+
+    public ScanResult<String> sscan(final String key, final String cursor) {
+	return sscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<String> sscan(final String key, final String cursor,
+	    final ScanParams params) {
+	checkIsInMulti();
+	client.sscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.single(BuilderFactory.STRING));
+    }
+
+    public ScanResult<Tuple> zscan(final String key, final String cursor) {
+	return zscan(key, cursor, new ScanParams());
+    }
+
+    public ScanResult<Tuple> zscan(final String key, final String cursor,
+	    final ScanParams params) {
+	checkIsInMulti();
+	client.zscan(key, cursor, params);
+	return ScanResult.build(client.getObjectMultiBulkReply(),
+		ItemBuilder.pairs(BuilderFactory.TUPLE));
+    }
+
+    /**
+     * Iterates over all the keys of the database with SCAN, requesting each
+     * page as soon as the previous one arrives. The iterator must be consumed
+     * or closed before this Jedis instance is used again.
+     * 
+     * @param params
+     * @return an iterator over the keys
+     */
+    public ScanIterator<String> scanIterator(final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<String>(client, Command.SCAN, null, params,
+		ItemBuilder.single(BuilderFactory.STRING));
+    }
+
+    /**
+     * Like {@link #scanIterator(ScanParams)}, over the fields and values of a
+     * hash.
+     */
+    public ScanIterator<Map.Entry<String, String>> hscanIterator(
+	    final String key, final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<Map.Entry<String, String>>(client,
+		Command.HSCAN, SafeEncoder.encode(key), params,
+		ItemBuilder.pairs(BuilderFactory.STRING_ENTRY));
+    }
+
+    /**
+     * Like {@link #scanIterator(ScanParams)}, over the members of a set.
+     */
+    public ScanIterator<String> sscanIterator(final String key,
+	    final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<String>(client, Command.SSCAN, SafeEncoder
+		.encode(key), params, ItemBuilder.single(BuilderFactory.STRING));
+    }
+
+    /**
+     * Like {@link #scanIterator(ScanParams)}, over the members and scores of
+     * a sorted set.
+     */
+    public ScanIterator<Tuple> zscanIterator(final String key,
+	    final ScanParams params) {
+	checkIsInMulti();
+	return new ScanIterator<Tuple>(client, Command.ZSCAN, SafeEncoder
+		.encode(key), params, ItemBuilder.pairs(BuilderFactory.TUPLE));
+    }
 }
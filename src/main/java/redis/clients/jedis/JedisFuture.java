@@ -0,0 +1,91 @@
+package redis.clients.jedis;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * The reply of a command sent through {@link AsyncJedis}. Like
+ * {@link Response}, the raw reply is only turned into a T by its builder the
+ * first time it is asked for, in the caller's thread rather than the I/O
+ * thread. A failed command, whether because of an error reply or a broken
+ * connection, makes {@link #get()} throw an ExecutionException whose cause
+ * is the JedisException.
+ * <p>
+ * Commands can't be cancelled once they are queued, so {@link #cancel}
+ * always returns false.
+ */
+public class JedisFuture<T> implements Future<T> {
+    private final Builder<T> builder;
+    private final CountDownLatch done = new CountDownLatch(1);
+    private volatile Object data;
+    private volatile JedisException exception;
+    private T response;
+    private boolean built = false;
+
+    JedisFuture(final Builder<T> builder) {
+        this.builder = builder;
+    }
+
+    void set(final Object data) {
+        if (data instanceof JedisException) {
+            this.exception = (JedisException) data;
+        } else {
+            this.data = data;
+        }
+        done.countDown();
+    }
+
+    void fail(final JedisException exception) {
+        this.exception = exception;
+        done.countDown();
+    }
+
+    public boolean cancel(final boolean mayInterruptIfRunning) {
+        return false;
+    }
+
+    public boolean isCancelled() {
+        return false;
+    }
+
+    public boolean isDone() {
+        return done.getCount() == 0;
+    }
+
+    public T get() throws InterruptedException, ExecutionException {
+        done.await();
+        return build();
+    }
+
+    public T get(final long timeout, final TimeUnit unit)
+            throws InterruptedException, ExecutionException, TimeoutException {
+        if (!done.await(timeout, unit)) {
+            throw new TimeoutException("No reply after " + timeout + " "
+                    + unit.toString().toLowerCase());
+        }
+        return build();
+    }
+
+    private synchronized T build() throws ExecutionException {
+        if (exception != null) {
+            throw new ExecutionException(exception);
+        }
+        if (!built) {
+            if (data != null) {
+                response = builder.build(data);
+            }
+            data = null;
+            built = true;
+        }
+        return response;
+    }
+
+    public String toString() {
+        return "JedisFuture " + builder.toString();
+    }
+}
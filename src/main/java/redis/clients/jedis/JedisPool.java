@@ -6,7 +6,9 @@ import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.commons.pool.impl.GenericObjectPool.Config;
 
+import redis.clients.jedis.exceptions.JedisException;
 import redis.clients.util.Pool;
+import redis.clients.util.SafeEncoder;
 
 public class JedisPool extends Pool<Jedis> {
 
@@ -26,11 +28,11 @@ public class JedisPool extends Pool<Jedis> {
 	    String password = uri.getUserInfo().split(":", 2)[1];
 	    int database = Integer.parseInt(uri.getPath().split("/", 2)[1]);
 	    this.internalPool = new GenericObjectPool(new JedisFactory(h, port,
-		    Protocol.DEFAULT_TIMEOUT, password, database), new Config());
+		    Protocol.DEFAULT_TIMEOUT, password, database, null, -1), new Config());
 	} else {
 	    this.internalPool = new GenericObjectPool(new JedisFactory(host,
 		    Protocol.DEFAULT_PORT, Protocol.DEFAULT_TIMEOUT, null,
-		    Protocol.DEFAULT_DATABASE), new Config());
+		    Protocol.DEFAULT_DATABASE, null, -1), new Config());
 	}
     }
 
@@ -40,7 +42,7 @@ public class JedisPool extends Pool<Jedis> {
 	String password = uri.getUserInfo().split(":", 2)[1];
 	int database = Integer.parseInt(uri.getPath().split("/", 2)[1]);
 	this.internalPool = new GenericObjectPool(new JedisFactory(h, port,
-		Protocol.DEFAULT_TIMEOUT, password, database), new Config());
+		Protocol.DEFAULT_TIMEOUT, password, database, null, -1), new Config());
     }
     
     public JedisPool(final Config poolConfig, final String host, int port,
@@ -58,7 +60,21 @@ public class JedisPool extends Pool<Jedis> {
 
     public JedisPool(final Config poolConfig, final String host, int port, int timeout, final String password,
                      final int database) {
-        super(poolConfig, new JedisFactory(host, port, timeout, password, database));
+        this(poolConfig, host, port, timeout, password, database, null);
+    }
+
+    /**
+     * @param clientName
+     *            name given to every connection with CLIENT SETNAME, or null
+     */
+    public JedisPool(final Config poolConfig, final String host, int port, int timeout, final String password,
+                     final int database, final String clientName) {
+        super(poolConfig, new JedisFactory(host, port, timeout, password, database, clientName,
+                getPingIdleMillis(poolConfig)));
+    }
+
+    protected boolean isBroken(final Object resource) {
+        return ((BinaryJedis) resource).getClient().isBroken();
     }
 
 
@@ -79,28 +95,39 @@ public class JedisPool extends Pool<Jedis> {
         private final int timeout;
         private final String password;
         private final int database;
+        private final String clientName;
+        private final long pingIdleMillis;
 
         public JedisFactory(final String host, final int port,
-                final int timeout, final String password, final int database) {
+                final int timeout, final String password, final int database,
+                final String clientName, final long pingIdleMillis) {
             super();
             this.host = host;
             this.port = port;
             this.timeout = timeout;
             this.password = password;
             this.database = database;
+            this.clientName = clientName;
+            this.pingIdleMillis = pingIdleMillis;
         }
 
         public Object makeObject() throws Exception {
             final Jedis jedis = new Jedis(this.host, this.port, this.timeout);
+            final Client client = jedis.getClient();
 
-            jedis.connect();
-            if (null != this.password) {
-                jedis.auth(this.password);
+            // connect() sends AUTH, SELECT and CLIENT SETNAME in one go
+            client.setPassword(password);
+            client.setDB(database);
+            if (null != clientName) {
+                client.setClientName(SafeEncoder.encode(clientName));
             }
-            if( database != 0 ) {
-                jedis.select(database);
+            try {
+                jedis.connect();
+            } catch (JedisException e) {
+                jedis.disconnect();
+                throw e;
             }
-            
+
             return jedis;
         }
 
@@ -124,8 +151,17 @@ public class JedisPool extends Pool<Jedis> {
         public boolean validateObject(final Object obj) {
             if (obj instanceof Jedis) {
                 final Jedis jedis = (Jedis) obj;
+                final Client client = jedis.getClient();
+                if (!jedis.isConnected() || client.isBroken()) {
+                    return false;
+                }
+                if (pingIdleMillis >= 0
+                        && System.currentTimeMillis() - client.getLastReadTime() < pingIdleMillis) {
+                    // used recently enough, no need for a round trip
+                    return true;
+                }
                 try {
-                    return jedis.isConnected() && jedis.ping().equals("PONG");
+                    return jedis.ping().equals("PONG");
                 } catch (final Exception e) {
                     return false;
                 }
@@ -21,8 +21,16 @@ import org.apache.commons.pool.impl.GenericObjectPool.Config;
  * 
  * http://commons.apache.org/pool/apidocs/org/apache/commons/pool/impl/
  * GenericObjectPool.html
+ * 
+ * Setting lockFree to true makes the pool a
+ * redis.clients.util.LockFreeObjectPool, which honors the same parameters.
  */
 public class JedisPoolConfig extends Config {
+    private boolean lockFree = false;
+    private boolean prefillMinIdle = false;
+    private long pingIdleMillis = -1;
+    private boolean poolPerShard = false;
+
     public JedisPoolConfig() {
         // defaults to make your life with connection pool easier :)
         setTestWhileIdle(true);
@@ -129,4 +137,55 @@ public class JedisPoolConfig extends Config {
         this.softMinEvictableIdleTimeMillis = softMinEvictableIdleTimeMillis;
     }
 
+    public boolean isLockFree() {
+        return lockFree;
+    }
+
+    /**
+     * Uses a pool that borrows and returns connections without locking, for
+     * pools shared by many threads.
+     */
+    public void setLockFree(boolean lockFree) {
+        this.lockFree = lockFree;
+    }
+
+    public boolean isPrefillMinIdle() {
+        return prefillMinIdle;
+    }
+
+    /**
+     * Opens minIdle connections in parallel when the pool is created. See
+     * redis.clients.util.Pool#getPrefill() to wait for them.
+     */
+    public void setPrefillMinIdle(boolean prefillMinIdle) {
+        this.prefillMinIdle = prefillMinIdle;
+    }
+
+    public long getPingIdleMillis() {
+        return pingIdleMillis;
+    }
+
+    /**
+     * When validating a connection, only PING it if nothing was read from it
+     * for pingIdleMillis; connections used more recently pass without a round
+     * trip. Defaults to -1, which pings on every validation.
+     */
+    public void setPingIdleMillis(long pingIdleMillis) {
+        this.pingIdleMillis = pingIdleMillis;
+    }
+
+    public boolean isPoolPerShard() {
+        return poolPerShard;
+    }
+
+    /**
+     * Makes a ShardedJedisPool keep a pool of connections per shard, with
+     * this same config. Its ShardedJedis objects then borrow a connection to
+     * a shard the first time a key routes there, and give it back when they
+     * are returned, instead of holding one socket per shard each.
+     */
+    public void setPoolPerShard(boolean poolPerShard) {
+        this.poolPerShard = poolPerShard;
+    }
+
 }
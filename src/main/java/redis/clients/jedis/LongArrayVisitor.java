@@ -0,0 +1,81 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Collects integer replies into a long[] while they are read, e.g. the
+ * results of a pipeline of INCRs or the elements of an MGET of counters,
+ * without creating a Long for each of them. Bulk replies are parsed as
+ * numbers, the elements of multi bulk replies are collected one by one and
+ * nil replies are collected as 0. Error replies are kept apart.
+ */
+public class LongArrayVisitor extends ReplyVisitor {
+    private long[] values = new long[16];
+    private int size = 0;
+    private final List<JedisDataException> errors = new ArrayList<JedisDataException>();
+
+    public void onInteger(long value) {
+        add(value);
+    }
+
+    public void onBulk(byte[] buf, int off, int len) {
+        final int end = off + len;
+        final boolean isNeg = len > 0 && buf[off] == '-';
+        long value = 0;
+        for (int i = isNeg ? off + 1 : off; i < end; i++) {
+            final int b = buf[i];
+            if (b < '0' || b > '9') {
+                final byte[] copy = new byte[len];
+                System.arraycopy(buf, off, copy, 0, len);
+                errors.add(new JedisDataException(
+                        "Value is not an integer: "
+                                + SafeEncoder.encode(copy)));
+                return;
+            }
+            value = value * 10 + b - '0';
+        }
+        add(isNeg ? -value : value);
+    }
+
+    public void onNull() {
+        add(0);
+    }
+
+    public void onError(String message) {
+        errors.add(new JedisDataException(message));
+    }
+
+    public long[] getValues() {
+        final long[] copy = new long[size];
+        System.arraycopy(values, 0, copy, 0, size);
+        return copy;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public long get(int index) {
+        if (index >= size) {
+            throw new IndexOutOfBoundsException(index + " >= " + size);
+        }
+        return values[index];
+    }
+
+    public List<JedisDataException> getErrors() {
+        return errors;
+    }
+
+    private void add(final long value) {
+        if (size == values.length) {
+            final long[] grown = new long[size * 2];
+            System.arraycopy(values, 0, grown, 0, size);
+            values = grown;
+        }
+        values[size++] = value;
+    }
+}
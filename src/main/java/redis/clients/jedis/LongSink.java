@@ -0,0 +1,17 @@
+package redis.clients.jedis;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * Receives the replies of pipelined commands as primitive longs, in the
+ * order the commands were sent. Integer replies are passed as they are and
+ * bulk replies holding a number are parsed, without allocating anything.
+ * Any other reply, including nil, is passed to {@link #onError}.
+ * 
+ * @see Queable#setReplySink(LongSink)
+ */
+public interface LongSink {
+    void onLong(long value);
+
+    void onError(JedisDataException e);
+}
@@ -0,0 +1,403 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+
+/**
+ * Sends a large number of commands over one connection, like
+ * <code>redis-cli --pipe</code>. Commands are written back to back into the
+ * connection's output buffer, which goes out in full socket writes, while a
+ * reader thread parses the replies as they arrive. Replies are only counted
+ * and checked for errors, never built, and at most a window of commands is
+ * in flight, so memory stays the same however many commands are sent.
+ * <p>
+ * The connection must not be used by anything else during a run, and can be
+ * used as before afterwards.
+ *
+ * <pre>
+ * MassInsertion.Report report = new MassInsertion(jedis)
+ *         .run(new MassInsertion.Producer() {
+ *             public void produce(MassInsertion.Writer writer) {
+ *                 for (...) {
+ *                     writer.send(Command.SET, key, value);
+ *                 }
+ *             }
+ *         });
+ * </pre>
+ */
+public class MassInsertion {
+    public static final int DEFAULT_WINDOW = 10000;
+    public static final int DEFAULT_MAX_FAILURES = 10;
+
+    private static final byte[][] NO_ARGS = new byte[0][];
+
+    private final Connection connection;
+    private int window = DEFAULT_WINDOW;
+    private int maxFailures = DEFAULT_MAX_FAILURES;
+
+    public MassInsertion(BinaryJedis jedis) {
+        this.connection = jedis.getClient();
+    }
+
+    /**
+     * @param window
+     *            the most commands whose replies haven't been read yet. The
+     *            writer waits for replies when there are more.
+     */
+    public MassInsertion setWindow(int window) {
+        if (window < 1) {
+            throw new IllegalArgumentException("window < 1");
+        }
+        this.window = window;
+        return this;
+    }
+
+    public int getWindow() {
+        return window;
+    }
+
+    /**
+     * @param maxFailures
+     *            the number of error replies whose messages are kept for the
+     *            report; the rest are only counted
+     */
+    public MassInsertion setMaxFailures(int maxFailures) {
+        if (maxFailures < 0) {
+            throw new IllegalArgumentException("maxFailures < 0");
+        }
+        this.maxFailures = maxFailures;
+        return this;
+    }
+
+    public int getMaxFailures() {
+        return maxFailures;
+    }
+
+    /**
+     * Sends every command of the iterator, each given as its name followed by
+     * its arguments.
+     */
+    public Report run(final Iterator<byte[][]> commands) {
+        return run(new Producer() {
+            public void produce(Writer writer) {
+                while (commands.hasNext()) {
+                    writer.send(commands.next());
+                }
+            }
+        });
+    }
+
+    /**
+     * Sends every command the producer gives the writer, on the calling
+     * thread, and waits for all their replies.
+     *
+     * @throws JedisConnectionException
+     *             if the connection broke; it is closed then
+     */
+    public Report run(Producer producer) {
+        connection.connect();
+        connection.setTimeoutInfinite();
+        final Writer writer = new Writer();
+        final Thread reader = new Thread(writer.reader, "jedis-mass-insertion");
+        reader.setDaemon(true);
+        reader.start();
+
+        RuntimeException failure = null;
+        try {
+            producer.produce(writer);
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        if (!writer.broken()) {
+            try {
+                writer.finish();
+            } catch (JedisConnectionException e) {
+                writer.writeFailure = e;
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (writer.broken()) {
+            // the reader may be blocked on the socket
+            disconnect();
+        }
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                reader.join();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (writer.broken()) {
+            disconnect();
+            if (failure == null) {
+                // the producer caught it
+                failure = writer.writeFailure != null ? writer.writeFailure
+                        : writer.readerFailure;
+            }
+        } else {
+            connection.rollbackTimeout();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+        return writer.report;
+    }
+
+    private void disconnect() {
+        try {
+            connection.disconnect();
+        } catch (JedisConnectionException e) {
+            // the socket is closed anyway
+        }
+    }
+
+    /**
+     * Gives the commands to send to a {@link Writer}.
+     */
+    public interface Producer {
+        public void produce(Writer writer);
+    }
+
+    /**
+     * Buffers commands for sending, waiting for replies first when the window
+     * is full.
+     */
+    public final class Writer {
+        // a permit per free slot of the window; the writer takes them all
+        // when it runs out and the reader gives them back in batches, so
+        // neither wakes the other up for every command
+        private final Semaphore free = new Semaphore(window);
+        private final int freeBatch = Math.max(1, window / 4);
+        private int credit = 0;
+        private final Report report = new Report();
+        private final Runnable reader = new Runnable() {
+            public void run() {
+                read();
+            }
+        };
+        private long sent = 0;
+        // the number of replies to read, known once the last command is sent
+        private volatile long total = Long.MAX_VALUE;
+        private volatile RuntimeException readerFailure = null;
+        private JedisConnectionException writeFailure = null;
+
+        private Writer() {
+        }
+
+        public void send(Command cmd) {
+            send(cmd, NO_ARGS);
+        }
+
+        public void send(Command cmd, byte[]... args) {
+            acquire();
+            try {
+                connection.writeCommand(cmd, args);
+            } catch (JedisConnectionException e) {
+                throw writeFailed(e);
+            }
+            sent();
+        }
+
+        public void send(Command cmd, String... args) {
+            acquire();
+            try {
+                connection.writeCommand(cmd, args);
+            } catch (JedisConnectionException e) {
+                throw writeFailed(e);
+            }
+            sent();
+        }
+
+        /**
+         * Sends a command given as its name followed by its arguments.
+         * 
+         * @throws IllegalArgumentException
+         *             if the command is empty, as Redis wouldn't reply to it
+         */
+        public void send(byte[]... command) {
+            if (command.length == 0) {
+                throw new IllegalArgumentException("empty command");
+            }
+            acquire();
+            try {
+                connection.writeCommand(command);
+            } catch (JedisConnectionException e) {
+                throw writeFailed(e);
+            }
+            sent();
+        }
+
+        /**
+         * @return the number of commands sent so far
+         */
+        public long getSent() {
+            return sent;
+        }
+
+        private void acquire() {
+            if (broken()) {
+                throw writeFailure != null ? writeFailure : readerFailure;
+            }
+            if (credit == 0) {
+                credit = free.drainPermits();
+            }
+            if (credit == 0) {
+                // let the reader get the replies it's waiting for
+                try {
+                    connection.flush();
+                } catch (JedisConnectionException e) {
+                    throw writeFailed(e);
+                }
+                free.acquireUninterruptibly();
+                if (readerFailure != null) {
+                    throw readerFailure;
+                }
+                credit = 1 + free.drainPermits();
+            }
+            credit--;
+        }
+
+        private void sent() {
+            sent++;
+        }
+
+        private JedisConnectionException writeFailed(JedisConnectionException e) {
+            writeFailure = e;
+            return e;
+        }
+
+        private boolean broken() {
+            return writeFailure != null || readerFailure != null;
+        }
+
+        /**
+         * Sends a last PING, like redis-cli sends a last ECHO, so the reader
+         * knows which reply is the last one and doesn't wait for more.
+         */
+        private void finish() {
+            report.commands = sent;
+            total = sent + 1;
+            connection.writeCommand(Command.PING, NO_ARGS);
+            connection.flush();
+        }
+
+        private void read() {
+            final FailureCounter counter = new FailureCounter(report);
+            long replies = 0;
+            int freed = 0;
+            try {
+                while (replies != total) {
+                    counter.command = replies;
+                    connection.readReply(counter);
+                    replies++;
+                    if (++freed == freeBatch) {
+                        free.release(freed);
+                        freed = 0;
+                    }
+                }
+            } catch (RuntimeException e) {
+                readerFailure = e;
+                // wake the writer up if it waits for a free slot
+                free.release();
+            }
+        }
+    }
+
+    /**
+     * Counts the error replies, keeping the first ones.
+     */
+    private final class FailureCounter extends ReplyVisitor {
+        private final Report report;
+        long command;
+
+        FailureCounter(Report report) {
+            this.report = report;
+        }
+
+        public void onError(String message) {
+            if (report.errors++ < maxFailures) {
+                report.failures.add(new Failure(command, message));
+            }
+        }
+    }
+
+    public static final class Report {
+        private long commands;
+        private long errors = 0;
+        private final List<Failure> failures = new ArrayList<Failure>();
+
+        private Report() {
+        }
+
+        /**
+         * @return the number of commands sent, all of which were replied to
+         */
+        public long getCommands() {
+            return commands;
+        }
+
+        /**
+         * @return the number of error replies, including errors within
+         *         multi bulk replies such as EXEC's
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return the first error replies, as many as the maxFailures of the
+         *         MassInsertion
+         */
+        public List<Failure> getFailures() {
+            return Collections.unmodifiableList(failures);
+        }
+
+        public String toString() {
+            final StringBuilder sb = new StringBuilder();
+            sb.append(commands).append(" commands, ").append(errors).append(
+                    " errors");
+            for (Failure failure : failures) {
+                sb.append("\n  ").append(failure);
+            }
+            return sb.toString();
+        }
+    }
+
+    public static final class Failure {
+        private final long command;
+        private final String message;
+
+        Failure(long command, String message) {
+            this.command = command;
+            this.message = message;
+        }
+
+        /**
+         * @return the position of the failed command among all the commands
+         *         sent, from 0
+         */
+        public long getCommand() {
+            return command;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        public String toString() {
+            return "command " + command + ": " + message;
+        }
+    }
+}
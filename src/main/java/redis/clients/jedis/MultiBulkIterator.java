@@ -0,0 +1,73 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.RedisInputStream;
+
+/**
+ * Iterates over the elements of a multi bulk reply, decoding each one from
+ * the connection's input stream only when it is requested. Memory use stays
+ * flat no matter how many elements the reply has.
+ * <p>
+ * The connection this iterator reads from can't be used for anything else
+ * until all the elements have been read or the iterator is closed; closing it
+ * skips the remaining elements.
+ */
+public class MultiBulkIterator<T> implements Iterator<T>, Closeable {
+    private final RedisInputStream in;
+    private final ItemBuilder<T> items;
+    private int remaining;
+
+    MultiBulkIterator(final RedisInputStream in, final int elements,
+            final ItemBuilder<T> items) {
+        this.in = in;
+        this.remaining = elements;
+        this.items = items;
+    }
+
+    public boolean hasNext() {
+        return remaining > 0;
+    }
+
+    public T next() {
+        if (remaining <= 0) {
+            throw new NoSuchElementException();
+        }
+        if (items.getElementsPerItem() == 1) {
+            return items.build(readElement());
+        }
+        return items.build(readElement(), readElement());
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Skips the elements that haven't been read yet.
+     */
+    public void close() {
+        while (remaining > 0) {
+            try {
+                readElement();
+            } catch (JedisDataException e) {
+                // it's being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * @return the number of items that haven't been read yet
+     */
+    public int remaining() {
+        return remaining / items.getElementsPerItem();
+    }
+
+    private Object readElement() {
+        remaining--;
+        return Protocol.read(in);
+    }
+}
@@ -14,7 +14,8 @@ public class Pipeline extends Queable {
     private MultiResponseBuilder currentMulti;
     
     private class MultiResponseBuilder extends Builder<List<Object>>{
-    	private List<Response<?>> responses = new ArrayList<Response<?>>();
+    	// Response<?>s and reply sinks
+    	private List<Object> responses = new ArrayList<Object>();
 		
 		@Override
 		public List<Object> build(Object data) {
@@ -27,47 +28,102 @@ public class Pipeline extends Queable {
 			}
 			
 			for(int i=0;i<list.size();i++){
-				Response<?> response = responses.get(i);
-				response.set(list.get(i));
-				values.add(response.get());
+				Object response = responses.get(i);
+				if(response instanceof Response){
+					((Response<?>) response).set(list.get(i));
+					values.add(((Response<?>) response).get());
+				}
+				else{
+					deliver(response, list.get(i));
+					values.add(list.get(i));
+				}
 			}
 			return values;
 		}
 
-		public void addResponse(Response<?> response){
+		public void addResponse(Object response){
 			responses.add(response);
 		}
     }
 
     @Override
     protected <T> Response<T> getResponse(Builder<T> builder) {
+    	Response<T> lr;
     	if(currentMulti != null){
-    		super.getResponse(BuilderFactory.STRING); //Expected QUEUED
+    		queue(new Response<String>(BuilderFactory.STRING)); //Expected QUEUED
     		
-    		Response<T> lr = new Response<T>(builder);
-    		currentMulti.addResponse(lr);
-    		return lr;
+    		if(getReplySink() != null){
+    			lr = null;
+    			currentMulti.addResponse(getReplySink());
+    		}
+    		else{
+    			lr = new Response<T>(builder);
+    			currentMulti.addResponse(lr);
+    		}
     	}
     	else{
-    		return super.getResponse(builder);
+    		lr = super.getResponse(builder);
     	}
+    	if (maxInFlight > 0 && getPendingResponses() > maxInFlight) {
+    		// drain half the window so the next commands can be buffered
+    		// and flushed together again
+    		while (getPendingResponses() > maxInFlight / 2) {
+    			readResponse(client);
+    		}
+    	}
+    	return lr;
     }
 	
     private Client client;
+    private int maxInFlight = 0;
     
     public void setClient(Client client) {
         this.client = client;
     }
 
+    /**
+     * Bounds the number of commands whose replies haven't been read yet.
+     * When a command goes over the limit, the pipeline is flushed and replies
+     * are read on the calling thread until half the window is free, setting
+     * their Response<?> objects right away. This keeps both the server's
+     * output buffer and the pending responses small for huge pipelines.
+     * <p>
+     * {@link #syncAndReturnAll()} only returns the replies that haven't been
+     * read yet, so use {@link #sync()} with a bounded window.
+     * 
+     * @param maxInFlight
+     *            the most commands in flight, 0 for no limit
+     */
+    public void setMaxInFlight(int maxInFlight) {
+        if (maxInFlight < 0) {
+            throw new IllegalArgumentException("maxInFlight < 0");
+        }
+        this.maxInFlight = maxInFlight;
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    /**
+     * Reads the replies of the first n commands whose replies haven't been
+     * read yet, leaving the rest in flight. The pipeline can still be used
+     * afterwards.
+     */
+    public void sync(int n) {
+        for (int i = Math.min(n, getPendingResponses()); i > 0; i--) {
+            readResponse(client);
+        }
+    }
+
     /**
      * Syncronize pipeline by reading all responses. This operation close the
      * pipeline. In order to get return values from pipelined commands, capture
      * the different Response<?> of the commands you execute.
      */
     public void sync() {
-        List<Object> unformatted = client.getAll();
-        for (Object o : unformatted) {
-            generateResponse(o);
+        while (getPendingResponses() > 0) {
+            readResponse(client);
         }
     }
 
@@ -81,12 +137,23 @@ public class Pipeline extends Queable {
      * @see sync
      */
     public List<Object> syncAndReturnAll() {
-        List<Object> unformatted = client.getAll();
-        List<Object> formatted = new ArrayList<Object>();
+        List<Object> formatted = new ArrayList<Object>(getPendingResponses());
         
-        for (Object o : unformatted) {
+        while (getPendingResponses() > 0) {
+            Object o;
+            try {
+                o = client.getOne();
+            } catch (JedisDataException e) {
+                o = e;
+            }
+            Response<?> response = generateResponse(o);
+            if (response == null) {
+                // the reply went to a sink
+                formatted.add(o);
+                continue;
+            }
             try {
-            	formatted.add(generateResponse(o).get());
+            	formatted.add(response.get());
             } catch (JedisDataException e) {
                 formatted.add(e);
             }
@@ -94,6 +161,17 @@ public class Pipeline extends Queable {
         return formatted;
     }
 
+    /**
+     * Syncronize pipeline by pushing all the responses to the given visitor,
+     * in the order you executed the commands. The Response<?> objects of the
+     * commands are not set. Use this for large pipelines whose replies can be
+     * consumed without boxing each one of them.
+     */
+    public void sync(ReplyVisitor visitor) {
+        client.getAll(visitor);
+        clean();
+    }
+
     public Response<Long> append(String key, String value) {
         client.append(key, value);
         return getResponse(BuilderFactory.LONG);
@@ -1259,14 +1337,26 @@ public class Pipeline extends Queable {
 
     public Response<List<Object>> exec() {
         client.exec();
-        Response<List<Object>> response = super.getResponse(currentMulti);
+        Response<List<Object>> response = new Response<List<Object>>(currentMulti) {
+            public void set(Object data) {
+                super.set(data);
+                // set the Responses and feed the sinks of the transaction's
+                // commands right away
+                try {
+                    get();
+                } catch (JedisDataException e) {
+                    // thrown again when the caller gets the response
+                }
+            }
+        };
+        queue(response);
         currentMulti = null;
         return response;
     }
 
     public void multi() {
         client.multi();
-        getResponse(BuilderFactory.STRING); //Expecting OK
+        queue(new Response<String>(BuilderFactory.STRING)); //Expecting OK
         currentMulti = new MultiResponseBuilder();
     }
 
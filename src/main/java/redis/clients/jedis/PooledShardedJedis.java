@@ -0,0 +1,110 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+import redis.clients.util.Hashing;
+import redis.clients.util.ShardPlacement;
+
+/**
+ * A ShardedJedis that doesn't keep a connection per shard. The first command
+ * routed to a shard borrows a connection from that shard's pool, and
+ * {@link #release()} gives every borrowed connection back. A
+ * ShardedJedisPool with poolPerShard set hands these out and releases them
+ * when they are returned, so only the shards actually used hold a socket.
+ */
+final class PooledShardedJedis extends ShardedJedis {
+    private final Map<JedisShardInfo, JedisPool> pools;
+    private final Map<JedisShardInfo, Jedis> borrowed = new IdentityHashMap<JedisShardInfo, Jedis>();
+
+    PooledShardedJedis(List<JedisShardInfo> shards, Hashing algo,
+            Pattern keyTagPattern, ShardPlacement placement,
+            Map<JedisShardInfo, JedisPool> pools) {
+        super(shards, algo, keyTagPattern, placement);
+        this.pools = pools;
+    }
+
+    /**
+     * No connection is kept per shard, they are borrowed from the pools.
+     */
+    protected Jedis createResource(JedisShardInfo shardInfo) {
+        return null;
+    }
+
+    public Jedis getShard(byte[] key) {
+        return borrow(getShardInfo(key));
+    }
+
+    public Jedis getShard(String key) {
+        return borrow(getShardInfo(key));
+    }
+
+    /**
+     * Borrows a connection to every shard, e.g. to run a command on all of
+     * them.
+     */
+    public Collection<Jedis> getAllShards() {
+        final List<Jedis> all = new ArrayList<Jedis>(pools.size());
+        for (JedisShardInfo shardInfo : pools.keySet()) {
+            all.add(borrow(shardInfo));
+        }
+        return Collections.unmodifiableCollection(all);
+    }
+
+    /**
+     * @return the connections borrowed since the last {@link #release()}
+     */
+    Collection<Jedis> getBorrowedShards() {
+        return borrowed.values();
+    }
+
+    /**
+     * Gives the borrowed connections back to their pools. The ones whose
+     * connection broke are destroyed by their pool.
+     */
+    void release() {
+        final Iterator<Map.Entry<JedisShardInfo, Jedis>> it = borrowed
+                .entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<JedisShardInfo, Jedis> entry = it.next();
+            final JedisPool pool = pools.get(entry.getKey());
+            final Jedis jedis = entry.getValue();
+            it.remove();
+            pool.returnResource(jedis);
+        }
+    }
+
+    /**
+     * Destroys the borrowed connections instead of giving them back.
+     */
+    void releaseBroken() {
+        final Iterator<Map.Entry<JedisShardInfo, Jedis>> it = borrowed
+                .entrySet().iterator();
+        while (it.hasNext()) {
+            final Map.Entry<JedisShardInfo, Jedis> entry = it.next();
+            final JedisPool pool = pools.get(entry.getKey());
+            final Jedis jedis = entry.getValue();
+            it.remove();
+            pool.returnBrokenResource(jedis);
+        }
+    }
+
+    public void disconnect() {
+        release();
+    }
+
+    private Jedis borrow(final JedisShardInfo shardInfo) {
+        Jedis jedis = borrowed.get(shardInfo);
+        if (jedis == null) {
+            jedis = pools.get(shardInfo).getResource();
+            borrowed.put(shardInfo, jedis);
+        }
+        return jedis;
+    }
+}
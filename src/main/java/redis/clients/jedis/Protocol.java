@@ -1,6 +1,9 @@
 package redis.clients.jedis;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -24,31 +27,161 @@ public final class Protocol {
     public static final byte MINUS_BYTE = '-';
     public static final byte COLON_BYTE = ':';
 
+    private static final String OK = "OK";
+    private static final byte[] OK_BYTES = SafeEncoder.encode(OK);
+
     private Protocol() {
 	// this prevent the class from instantiation
     }
 
     public static void sendCommand(final RedisOutputStream os,
 	    final Command command, final byte[]... args) {
-	sendCommand(os, command.raw, args);
+	writeCommand(os, command, args.length);
+	for (final byte[] arg : args) {
+	    writeArgument(os, arg);
+	}
+    }
+
+    /**
+     * Sends a command with String arguments, encoding them as UTF-8 straight
+     * into the output buffer instead of through an intermediate byte[].
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final String... args) {
+	writeCommand(os, command, args.length);
+	for (final String arg : args) {
+	    writeArgument(os, arg);
+	}
     }
 
-    private static void sendCommand(final RedisOutputStream os,
-	    final byte[] command, final byte[]... args) {
+    /**
+     * Sends a command whose last argument is streamed from the given input
+     * instead of being passed as a byte[].
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final int valueLength,
+	    final InputStream value, final byte[]... args) {
 	try {
-	    os.write(ASTERISK_BYTE);
-	    os.writeIntCrLf(args.length + 1);
+	    writeCommand(os, command, args.length + 1);
+	    for (final byte[] arg : args) {
+		writeArgument(os, arg);
+	    }
 	    os.write(DOLLAR_BYTE);
-	    os.writeIntCrLf(command.length);
-	    os.write(command);
+	    os.writeIntCrLf(valueLength);
+	    os.write(value, valueLength);
 	    os.writeCrLf();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
 
+    /**
+     * Sends a command whose last argument is read from the given channel
+     * instead of being passed as a byte[].
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final Command command, final int valueLength,
+	    final ReadableByteChannel value, final byte[]... args) {
+	try {
+	    writeCommand(os, command, args.length + 1);
 	    for (final byte[] arg : args) {
-		os.write(DOLLAR_BYTE);
-		os.writeIntCrLf(arg.length);
-		os.write(arg);
-		os.writeCrLf();
+		writeArgument(os, arg);
 	    }
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(valueLength);
+	    os.write(value, valueLength);
+	    os.writeCrLf();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    /**
+     * Sends a command given as its name followed by its arguments, the way
+     * redis-cli takes it, so commands Jedis has no constant for can be sent
+     * too.
+     * 
+     * @throws IllegalArgumentException
+     *             if the command is empty, as Redis wouldn't reply to it
+     */
+    public static void sendCommand(final RedisOutputStream os,
+	    final byte[][] command) {
+	if (command.length == 0) {
+	    throw new IllegalArgumentException("empty command");
+	}
+	try {
+	    os.write(ASTERISK_BYTE);
+	    os.writeIntCrLf(command.length);
+	    for (final byte[] arg : command) {
+		writeArgument(os, arg);
+	    }
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    /**
+     * Writes the header of a command of the given number of arguments, which
+     * must be followed by that many calls to the writeArgument methods. This
+     * way numeric arguments are written in place instead of as byte[]s.
+     */
+    public static void writeCommand(final RedisOutputStream os,
+	    final Command command, final int args) {
+	try {
+	    os.write(ASTERISK_BYTE);
+	    os.writeIntCrLf(args + 1);
+	    os.write(command.header);
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    public static void writeArgument(final RedisOutputStream os,
+	    final byte[] arg) {
+	try {
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(arg.length);
+	    os.write(arg);
+	    os.writeCrLf();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    /**
+     * Writes the argument as UTF-8 straight into the output buffer.
+     */
+    public static void writeArgument(final RedisOutputStream os,
+	    final String arg) {
+	try {
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(RedisOutputStream.utf8Length(arg));
+	    os.writeUtf8CrLf(arg);
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    public static void writeArgument(final RedisOutputStream os,
+	    final long arg) {
+	try {
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(RedisOutputStream.longLength(arg));
+	    os.writeLongCrLf(arg);
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
+    /**
+     * @see RedisOutputStream#writeDoubleCrLf(double)
+     */
+    public static void writeArgument(final RedisOutputStream os,
+	    final double arg) {
+	try {
+	    os.write(DOLLAR_BYTE);
+	    os.writeIntCrLf(RedisOutputStream.doubleLength(arg));
+	    os.writeDoubleCrLf(arg);
 	} catch (IOException e) {
 	    throw new JedisConnectionException(e);
 	}
@@ -61,32 +194,35 @@ public final class Protocol {
 
     private static Object process(final RedisInputStream is) {
 	try {
-	    byte b = is.readByte();
-	    if (b == MINUS_BYTE) {
-		processError(is);
-	    } else if (b == ASTERISK_BYTE) {
-		return processMultiBulkReply(is);
-	    } else if (b == COLON_BYTE) {
-		return processInteger(is);
-	    } else if (b == DOLLAR_BYTE) {
-		return processBulkReply(is);
-	    } else if (b == PLUS_BYTE) {
-		return processStatusCodeReply(is);
-	    } else {
-		throw new JedisConnectionException("Unknown reply: " + (char) b);
-	    }
+	    return process(is.readByte(), is);
 	} catch (IOException e) {
 	    throw new JedisConnectionException(e);
 	}
+    }
+
+    private static Object process(final byte b, final RedisInputStream is) {
+	if (b == MINUS_BYTE) {
+	    processError(is);
+	} else if (b == ASTERISK_BYTE) {
+	    return processMultiBulkReply(is);
+	} else if (b == COLON_BYTE) {
+	    return processInteger(is);
+	} else if (b == DOLLAR_BYTE) {
+	    return processBulkReply(is);
+	} else if (b == PLUS_BYTE) {
+	    return processStatusCodeReply(is);
+	} else {
+	    throw new JedisConnectionException("Unknown reply: " + (char) b);
+	}
 	return null;
     }
 
     private static byte[] processStatusCodeReply(final RedisInputStream is) {
-	return SafeEncoder.encode(is.readLine());
+	return is.readLineBytes();
     }
 
     private static byte[] processBulkReply(final RedisInputStream is) {
-	int len = Integer.parseInt(is.readLine());
+	int len = is.readIntCrLf();
 	if (len == -1) {
 	    return null;
 	}
@@ -94,7 +230,12 @@ public final class Protocol {
 	int offset = 0;
 	try {
 	    while (offset < len) {
-		offset += is.read(read, offset, (len - offset));
+		final int size = is.read(read, offset, (len - offset));
+		if (size == -1) {
+		    throw new JedisConnectionException(
+			    "It seems like server has closed the connection.");
+		}
+		offset += size;
 	    }
 	    // read 2 more bytes for the command delimiter
 	    is.readByte();
@@ -107,12 +248,11 @@ public final class Protocol {
     }
 
     private static Long processInteger(final RedisInputStream is) {
-	String num = is.readLine();
-	return Long.valueOf(num);
+	return is.readLongCrLf();
     }
 
     private static List<Object> processMultiBulkReply(final RedisInputStream is) {
-	int num = Integer.parseInt(is.readLine());
+	int num = is.readIntCrLf();
 	if (num == -1) {
 	    return null;
 	}
@@ -131,6 +271,131 @@ public final class Protocol {
 	return process(is);
     }
 
+    /**
+     * Reads one reply and reports it to the visitor while it is parsed,
+     * without building the objects {@link #read(RedisInputStream)} returns.
+     * Bulk values that fit in the input buffer are handed over in place; only
+     * larger ones are copied into a new array first.
+     */
+    public static void read(final RedisInputStream is,
+	    final ReplyVisitor visitor) {
+	final byte b;
+	try {
+	    b = is.readByte();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+	if (b == COLON_BYTE) {
+	    visitor.onInteger(is.readLongCrLf());
+	} else if (b == DOLLAR_BYTE) {
+	    visitBulkReply(is, visitor);
+	} else if (b == PLUS_BYTE) {
+	    if (is.readOkCrLf()) {
+		visitor.onStatus(OK_BYTES, 0, OK_BYTES.length);
+	    } else {
+		final byte[] status = is.readLineBytes();
+		visitor.onStatus(status, 0, status.length);
+	    }
+	} else if (b == ASTERISK_BYTE) {
+	    final int num = is.readIntCrLf();
+	    if (num == -1) {
+		visitor.onNull();
+		return;
+	    }
+	    visitor.onArrayStart(num);
+	    for (int i = 0; i < num; i++) {
+		read(is, visitor);
+	    }
+	    visitor.onArrayEnd();
+	} else if (b == MINUS_BYTE) {
+	    visitor.onError(is.readLine());
+	} else {
+	    throw new JedisConnectionException("Unknown reply: " + (char) b);
+	}
+    }
+
+    private static void visitBulkReply(final RedisInputStream is,
+	    final ReplyVisitor visitor) {
+	final int len = is.readIntCrLf();
+	if (len == -1) {
+	    visitor.onNull();
+	    return;
+	}
+	final int offset = is.consumeInPlace(len);
+	if (offset != -1) {
+	    visitor.onBulk(is.getBuffer(), offset, len);
+	} else {
+	    final byte[] value = new byte[len];
+	    is.readFully(ByteBuffer.wrap(value), len);
+	    visitor.onBulk(value, 0, len);
+	}
+	readBulkReplyEnd(is);
+    }
+
+    /**
+     * Reads a reply that is expected to be a status code. A plain "+OK" is
+     * matched in place in the input buffer and answered with a constant, so
+     * the most frequent reply doesn't allocate at all.
+     */
+    public static String readStatusCodeReply(final RedisInputStream is) {
+	final byte b;
+	try {
+	    b = is.readByte();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+	if (b == PLUS_BYTE && is.readOkCrLf()) {
+	    return OK;
+	}
+	final byte[] resp = (byte[]) process(b, is);
+	return resp == null ? null : SafeEncoder.encode(resp);
+    }
+
+    /**
+     * Reads the header of a bulk reply and returns the length of its value,
+     * or -1 for a nil reply, leaving the value itself in the stream. The
+     * caller must consume exactly that many bytes followed by
+     * {@link #readBulkReplyEnd(RedisInputStream)}.
+     */
+    public static int readBulkReplyLength(final RedisInputStream is) {
+	return readReplyLength(is, DOLLAR_BYTE);
+    }
+
+    /**
+     * Reads the header of a multi bulk reply and returns the number of
+     * elements that follow, or -1 for a nil reply. The elements are left in
+     * the stream to be read one by one with {@link #read(RedisInputStream)}.
+     */
+    public static int readMultiBulkReplyLength(final RedisInputStream is) {
+	return readReplyLength(is, ASTERISK_BYTE);
+    }
+
+    private static int readReplyLength(final RedisInputStream is,
+	    final byte expected) {
+	final byte b;
+	try {
+	    b = is.readByte();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+	if (b == expected) {
+	    return is.readIntCrLf();
+	}
+	// consume whatever came instead, so the connection stays usable
+	process(b, is);
+	throw new JedisDataException("Expected a reply starting with '"
+		+ (char) expected + "' but got: " + (char) b);
+    }
+
+    public static void readBulkReplyEnd(final RedisInputStream is) {
+	try {
+	    is.readByte();
+	    is.readByte();
+	} catch (IOException e) {
+	    throw new JedisConnectionException(e);
+	}
+    }
+
     public static final byte[] toByteArray(final int value) {
 	return SafeEncoder.encode(String.valueOf(value));
     }
@@ -144,17 +409,21 @@ public final class Protocol {
     }
 
     public static enum Command {
-	PING, SET, GET, QUIT, EXISTS, DEL, TYPE, FLUSHDB, KEYS, RANDOMKEY, RENAME, RENAMENX, RENAMEX, DBSIZE, EXPIRE, EXPIREAT, TTL, SELECT, MOVE, FLUSHALL, GETSET, MGET, SETNX, SETEX, MSET, MSETNX, DECRBY, DECR, INCRBY, INCR, APPEND, SUBSTR, HSET, HGET, HSETNX, HMSET, HMGET, HINCRBY, HEXISTS, HDEL, HLEN, HKEYS, HVALS, HGETALL, RPUSH, LPUSH, LLEN, LRANGE, LTRIM, LINDEX, LSET, LREM, LPOP, RPOP, RPOPLPUSH, SADD, SMEMBERS, SREM, SPOP, SMOVE, SCARD, SISMEMBER, SINTER, SINTERSTORE, SUNION, SUNIONSTORE, SDIFF, SDIFFSTORE, SRANDMEMBER, ZADD, ZRANGE, ZREM, ZINCRBY, ZRANK, ZREVRANK, ZREVRANGE, ZCARD, ZSCORE, MULTI, DISCARD, EXEC, WATCH, UNWATCH, SORT, BLPOP, BRPOP, AUTH, SUBSCRIBE, PUBLISH, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, ZCOUNT, ZRANGEBYSCORE, ZREVRANGEBYSCORE, ZREMRANGEBYRANK, ZREMRANGEBYSCORE, ZUNIONSTORE, ZINTERSTORE, SAVE, BGSAVE, BGREWRITEAOF, LASTSAVE, SHUTDOWN, INFO, MONITOR, SLAVEOF, CONFIG, STRLEN, SYNC, LPUSHX, PERSIST, RPUSHX, ECHO, LINSERT, DEBUG, BRPOPLPUSH, SETBIT, GETBIT, SETRANGE, GETRANGE, EVAL, EVALSHA, SCRIPT, SLOWLOG, OBJECT;
+	PING, SET, GET, QUIT, EXISTS, DEL, TYPE, FLUSHDB, KEYS, RANDOMKEY, RENAME, RENAMENX, RENAMEX, DBSIZE, EXPIRE, EXPIREAT, TTL, SELECT, MOVE, FLUSHALL, GETSET, MGET, SETNX, SETEX, MSET, MSETNX, DECRBY, DECR, INCRBY, INCR, APPEND, SUBSTR, HSET, HGET, HSETNX, HMSET, HMGET, HINCRBY, HEXISTS, HDEL, HLEN, HKEYS, HVALS, HGETALL, RPUSH, LPUSH, LLEN, LRANGE, LTRIM, LINDEX, LSET, LREM, LPOP, RPOP, RPOPLPUSH, SADD, SMEMBERS, SREM, SPOP, SMOVE, SCARD, SISMEMBER, SINTER, SINTERSTORE, SUNION, SUNIONSTORE, SDIFF, SDIFFSTORE, SRANDMEMBER, ZADD, ZRANGE, ZREM, ZINCRBY, ZRANK, ZREVRANK, ZREVRANGE, ZCARD, ZSCORE, MULTI, DISCARD, EXEC, WATCH, UNWATCH, SORT, BLPOP, BRPOP, AUTH, SUBSCRIBE, PUBLISH, UNSUBSCRIBE, PSUBSCRIBE, PUNSUBSCRIBE, ZCOUNT, ZRANGEBYSCORE, ZREVRANGEBYSCORE, ZREMRANGEBYRANK, ZREMRANGEBYSCORE, ZUNIONSTORE, ZINTERSTORE, SAVE, BGSAVE, BGREWRITEAOF, LASTSAVE, SHUTDOWN, INFO, MONITOR, SLAVEOF, CONFIG, STRLEN, SYNC, LPUSHX, PERSIST, RPUSHX, ECHO, LINSERT, DEBUG, BRPOPLPUSH, SETBIT, GETBIT, SETRANGE, GETRANGE, EVAL, EVALSHA, SCRIPT, SLOWLOG, OBJECT, CLIENT, SCAN, HSCAN, SSCAN, ZSCAN;
 
 	public final byte[] raw;
+	/** The "$length\r\nNAME\r\n" bulk string every request starts with. */
+	final byte[] header;
 
 	Command() {
 	    raw = SafeEncoder.encode(this.name());
+	    header = SafeEncoder.encode("$" + raw.length + "\r\n" + name()
+		    + "\r\n");
 	}
     }
 
     public static enum Keyword {
-	AGGREGATE, ALPHA, ASC, BY, DESC, GET, LIMIT, MESSAGE, NO, NOSORT, PMESSAGE, PSUBSCRIBE, PUNSUBSCRIBE, OK, ONE, QUEUED, SET, STORE, SUBSCRIBE, UNSUBSCRIBE, WEIGHTS, WITHSCORES, RESETSTAT, RESET, FLUSH, EXISTS, LOAD, KILL, LEN, REFCOUNT, ENCODING, IDLETIME;
+	AGGREGATE, ALPHA, ASC, BY, DESC, GET, LIMIT, MESSAGE, NO, NOSORT, PMESSAGE, PSUBSCRIBE, PUNSUBSCRIBE, OK, ONE, QUEUED, SET, STORE, SUBSCRIBE, UNSUBSCRIBE, WEIGHTS, WITHSCORES, RESETSTAT, RESET, FLUSH, EXISTS, LOAD, KILL, LEN, REFCOUNT, ENCODING, IDLETIME, SETNAME, GETNAME, MATCH, COUNT;
 	public final byte[] raw;
 
 	Keyword() {
@@ -1,27 +1,290 @@
 package redis.clients.jedis;
 
-import java.util.LinkedList;
-import java.util.Queue;
+import java.util.List;
+
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
 
 public class Queable {
-    private Queue<Response<?>> pipelinedResponses = new LinkedList<Response<?>>();
+    private static final int INITIAL_CAPACITY = 64;
+
+    // Response<?>s and reply sinks in the order their commands were sent,
+    // kept in a ring so that queueing a command allocates nothing
+    private Object[] pipelinedResponses = new Object[INITIAL_CAPACITY];
+    private int head = 0;
+    private int size = 0;
+    private Object replySink = null;
+    private SinkVisitor sinkVisitor = null;
 
     protected void clean() {
-        pipelinedResponses.clear();
+        for (int i = 0; i < size; i++) {
+            pipelinedResponses[(head + i) & (pipelinedResponses.length - 1)] = null;
+        }
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Sends the replies of the commands queued from now on to the given sink
+     * instead of to Response objects; those commands return null. This way
+     * a large batch allocates nothing per command. Call
+     * {@link #clearReplySink()} to get Responses again.
+     */
+    public void setReplySink(LongSink sink) {
+        replySink = sink;
+    }
+
+    /**
+     * @see #setReplySink(LongSink)
+     */
+    public void setReplySink(BytesSink sink) {
+        replySink = sink;
+    }
+
+    /**
+     * Like {@link #setReplySink(LongSink)}, but each reply is pushed to the
+     * visitor element by element.
+     */
+    public void setReplySink(ReplyVisitor visitor) {
+        replySink = visitor;
+    }
+
+    public void clearReplySink() {
+        replySink = null;
+    }
+
+    protected Object getReplySink() {
+        return replySink;
+    }
+
+    /**
+     * @return the number of commands sent whose replies haven't been read
+     */
+    protected int getPendingResponses() {
+        return size;
     }
 
     protected Response<?> generateResponse(Object data) {
-        Response<?> response = pipelinedResponses.poll();
-        if (response != null) {
+        final Object next = poll();
+        if (next instanceof Response) {
+            final Response<?> response = (Response<?>) next;
             response.set(data);
+            return response;
         }
-        return response;
+        if (next != null) {
+            deliver(next, data);
+        }
+        return null;
+    }
+
+    /**
+     * Reads the reply of the oldest pending command from the connection and
+     * hands it to its Response or sink. Replies going to a LongSink, a
+     * ReplyVisitor or a Response with a {@link VisitorBuilder} are parsed
+     * without being materialized.
+     *
+     * @return the command's Response, or null if it went to a sink
+     */
+    protected Response<?> readResponse(Connection connection) {
+        final Object next = size == 0 ? null : pipelinedResponses[head];
+        if (next instanceof LongSink || next instanceof ReplyVisitor) {
+            poll();
+            connection.getOne(visitorFor(next));
+            return null;
+        }
+        if (next instanceof Response
+                && ((Response<?>) next).readFrom(connection)) {
+            poll();
+            return (Response<?>) next;
+        }
+        Object data;
+        try {
+            data = connection.getOne();
+        } catch (JedisDataException e) {
+            data = e;
+        }
+        return generateResponse(data);
     }
 
     protected <T> Response<T> getResponse(Builder<T> builder) {
+        if (replySink != null) {
+            queue(replySink);
+            return null;
+        }
         Response<T> lr = new Response<T>(builder);
-        pipelinedResponses.add(lr);
+        queue(lr);
         return lr;
     }
 
+    /**
+     * Queues a Response or a sink for the next reply, ignoring the current
+     * reply sink.
+     */
+    protected void queue(Object response) {
+        if (size == pipelinedResponses.length) {
+            final Object[] grown = new Object[size * 2];
+            final int tail = size - head;
+            System.arraycopy(pipelinedResponses, head, grown, 0, tail);
+            System.arraycopy(pipelinedResponses, 0, grown, tail, head);
+            pipelinedResponses = grown;
+            head = 0;
+        }
+        pipelinedResponses[(head + size) & (pipelinedResponses.length - 1)] = response;
+        size++;
+    }
+
+    private Object poll() {
+        if (size == 0) {
+            return null;
+        }
+        final Object next = pipelinedResponses[head];
+        pipelinedResponses[head] = null;
+        head = (head + 1) & (pipelinedResponses.length - 1);
+        size--;
+        return next;
+    }
+
+    private ReplyVisitor visitorFor(Object sink) {
+        if (sink instanceof ReplyVisitor) {
+            return (ReplyVisitor) sink;
+        }
+        if (sinkVisitor == null) {
+            sinkVisitor = new SinkVisitor();
+        }
+        sinkVisitor.reset((LongSink) sink);
+        return sinkVisitor;
+    }
+
+    /**
+     * Hands an already read reply to a sink.
+     */
+    static void deliver(Object sink, Object data) {
+        if (sink instanceof LongSink) {
+            final LongSink longSink = (LongSink) sink;
+            if (data instanceof Long) {
+                longSink.onLong((Long) data);
+            } else if (data instanceof byte[]) {
+                final byte[] bytes = (byte[]) data;
+                try {
+                    longSink.onLong(parseLong(bytes, 0, bytes.length));
+                } catch (JedisDataException e) {
+                    longSink.onError(e);
+                }
+            } else if (data instanceof JedisDataException) {
+                longSink.onError((JedisDataException) data);
+            } else {
+                longSink.onError(notA("number", data == null));
+            }
+        } else if (sink instanceof BytesSink) {
+            final BytesSink bytesSink = (BytesSink) sink;
+            if (data == null || data instanceof byte[]) {
+                bytesSink.onBytes((byte[]) data);
+            } else if (data instanceof Long) {
+                bytesSink.onBytes(SafeEncoder.encode(String.valueOf(data)));
+            } else if (data instanceof JedisDataException) {
+                bytesSink.onError((JedisDataException) data);
+            } else {
+                bytesSink.onError(notA("single value", false));
+            }
+        } else {
+            visit((ReplyVisitor) sink, data);
+        }
+    }
+
+    private static void visit(ReplyVisitor visitor, Object data) {
+        if (data == null) {
+            visitor.onNull();
+        } else if (data instanceof Long) {
+            visitor.onInteger((Long) data);
+        } else if (data instanceof byte[]) {
+            final byte[] bytes = (byte[]) data;
+            visitor.onBulk(bytes, 0, bytes.length);
+        } else if (data instanceof JedisDataException) {
+            visitor.onError(((JedisDataException) data).getMessage());
+        } else {
+            final List<?> list = (List<?>) data;
+            visitor.onArrayStart(list.size());
+            for (Object element : list) {
+                visit(visitor, element);
+            }
+            visitor.onArrayEnd();
+        }
+    }
+
+    private static JedisDataException notA(String what, boolean nil) {
+        return new JedisDataException("The reply is not a " + what + ": "
+                + (nil ? "nil" : "multi bulk"));
+    }
+
+    private static long parseLong(byte[] buf, int off, int len) {
+        final int end = off + len;
+        final boolean isNeg = len > 0 && buf[off] == '-';
+        long value = 0;
+        for (int i = isNeg ? off + 1 : off; i < end; i++) {
+            final int b = buf[i];
+            if (b < '0' || b > '9') {
+                final byte[] copy = new byte[len];
+                System.arraycopy(buf, off, copy, 0, len);
+                throw new JedisDataException("The reply is not a number: "
+                        + SafeEncoder.encode(copy));
+            }
+            value = value * 10 + b - '0';
+        }
+        return isNeg ? -value : value;
+    }
+
+    /**
+     * Forwards one reply to a LongSink, reused for every reply.
+     */
+    private static final class SinkVisitor extends ReplyVisitor {
+        private LongSink sink;
+        private int depth;
+
+        void reset(LongSink sink) {
+            this.sink = sink;
+            this.depth = 0;
+        }
+
+        public void onInteger(long value) {
+            if (depth == 0) {
+                sink.onLong(value);
+            }
+        }
+
+        public void onStatus(byte[] buf, int off, int len) {
+            onBulk(buf, off, len);
+        }
+
+        public void onBulk(byte[] buf, int off, int len) {
+            if (depth == 0) {
+                try {
+                    sink.onLong(parseLong(buf, off, len));
+                } catch (JedisDataException e) {
+                    sink.onError(e);
+                }
+            }
+        }
+
+        public void onNull() {
+            if (depth == 0) {
+                sink.onError(notA("number", true));
+            }
+        }
+
+        public void onError(String message) {
+            if (depth == 0) {
+                sink.onError(new JedisDataException(message));
+            }
+        }
+
+        public void onArrayStart(int size) {
+            depth++;
+        }
+
+        public void onArrayEnd() {
+            if (--depth == 0) {
+                sink.onError(notA("number", false));
+            }
+        }
+    }
 }
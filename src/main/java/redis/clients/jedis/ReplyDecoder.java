@@ -0,0 +1,200 @@
+package redis.clients.jedis;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Decodes replies from a buffer that may hold only part of them, as needed
+ * by a non-blocking transport. Produces the same objects as
+ * {@link Protocol#read(redis.clients.util.RedisInputStream)}, except that an
+ * error reply is returned as a JedisDataException instead of being thrown.
+ * <p>
+ * The decoder keeps the state of a reply it couldn't finish, the multi bulk
+ * replies it is in and the part of a bulk value read so far, so that every
+ * byte is only decoded once however many reads a reply takes. A decoder is
+ * therefore bound to a single connection.
+ */
+final class ReplyDecoder {
+    /** Returned when the buffer doesn't hold a complete reply yet. */
+    static final Object INCOMPLETE = new Object();
+
+    // the multi bulk replies being decoded, outermost first, and the number
+    // of elements each of them has
+    private List<?>[] arrays = new List<?>[4];
+    private int[] sizes = new int[4];
+    private int depth = 0;
+
+    // the bulk value being read, and how many of its bytes and of the CRLF
+    // after it have been read
+    private byte[] bulk = null;
+    private int bulkRead = 0;
+
+    /**
+     * Decodes from the buffer's position on, moving the position past what
+     * was decoded. Returns {@link #INCOMPLETE} if the reply isn't complete
+     * yet, in which case the next call goes on where this one stopped; a line
+     * that isn't complete is left in the buffer.
+     */
+    Object decode(final ByteBuffer buffer) {
+        for (;;) {
+            Object element;
+            if (bulk != null) {
+                element = readBulk(buffer);
+                if (element == INCOMPLETE) {
+                    return INCOMPLETE;
+                }
+            } else {
+                if (!buffer.hasRemaining()) {
+                    return INCOMPLETE;
+                }
+                final int start = buffer.position();
+                final int lineEnd = findCrLf(buffer, start + 1);
+                if (lineEnd == -1) {
+                    return INCOMPLETE;
+                }
+                final byte b = buffer.get();
+                if (b == Protocol.PLUS_BYTE) {
+                    element = readLine(buffer, lineEnd);
+                } else if (b == Protocol.MINUS_BYTE) {
+                    element = new JedisDataException(SafeEncoder
+                            .encode(readLine(buffer, lineEnd)));
+                } else if (b == Protocol.COLON_BYTE) {
+                    element = readLong(buffer, lineEnd);
+                } else if (b == Protocol.DOLLAR_BYTE) {
+                    final int len = (int) readLong(buffer, lineEnd);
+                    if (len == -1) {
+                        element = null;
+                    } else {
+                        bulk = new byte[len];
+                        bulkRead = 0;
+                        element = readBulk(buffer);
+                        if (element == INCOMPLETE) {
+                            return INCOMPLETE;
+                        }
+                    }
+                } else if (b == Protocol.ASTERISK_BYTE) {
+                    final int num = (int) readLong(buffer, lineEnd);
+                    if (num == -1) {
+                        element = null;
+                    } else if (num == 0) {
+                        element = new ArrayList<Object>(0);
+                    } else {
+                        push(num);
+                        continue;
+                    }
+                } else {
+                    throw new JedisConnectionException("Unknown reply: "
+                            + (char) b);
+                }
+            }
+            element = complete(element);
+            if (element != INCOMPLETE) {
+                return element;
+            }
+        }
+    }
+
+    private void push(final int num) {
+        if (depth == arrays.length) {
+            final List<?>[] grownArrays = new List<?>[depth * 2];
+            System.arraycopy(arrays, 0, grownArrays, 0, depth);
+            arrays = grownArrays;
+            final int[] grownSizes = new int[depth * 2];
+            System.arraycopy(sizes, 0, grownSizes, 0, depth);
+            sizes = grownSizes;
+        }
+        arrays[depth] = new ArrayList<Object>(num);
+        sizes[depth] = num;
+        depth++;
+    }
+
+    /**
+     * Adds a decoded element to the multi bulk reply it belongs to, closing
+     * the multi bulk replies it completes.
+     *
+     * @return the reply if the element completed it, {@link #INCOMPLETE}
+     *         otherwise
+     */
+    @SuppressWarnings("unchecked")
+    private Object complete(Object element) {
+        while (depth > 0) {
+            final List<Object> array = (List<Object>) arrays[depth - 1];
+            array.add(element);
+            if (array.size() < sizes[depth - 1]) {
+                return INCOMPLETE;
+            }
+            depth--;
+            arrays[depth] = null;
+            element = array;
+        }
+        return element;
+    }
+
+    private Object readBulk(final ByteBuffer buffer) {
+        final int len = bulk.length;
+        if (bulkRead < len) {
+            final int n = Math.min(buffer.remaining(), len - bulkRead);
+            buffer.get(bulk, bulkRead, n);
+            bulkRead += n;
+        }
+        final int crLf = Math.min(buffer.remaining(), len + 2 - bulkRead);
+        buffer.position(buffer.position() + crLf);
+        bulkRead += crLf;
+        if (bulkRead < len + 2) {
+            return INCOMPLETE;
+        }
+        final byte[] value = bulk;
+        bulk = null;
+        return value;
+    }
+
+    /**
+     * Returns the index of the '\r' ending the line that starts at from, or
+     * -1 if the line isn't complete.
+     */
+    private static int findCrLf(final ByteBuffer buffer, final int from) {
+        final int limit = buffer.limit() - 1;
+        for (int i = from; i < limit; i++) {
+            if (buffer.get(i) == '\r' && buffer.get(i + 1) == '\n') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static byte[] readLine(final ByteBuffer buffer, final int lineEnd) {
+        final byte[] line = new byte[lineEnd - buffer.position()];
+        buffer.get(line);
+        buffer.position(lineEnd + 2);
+        return line;
+    }
+
+    private static long readLong(final ByteBuffer buffer, final int lineEnd) {
+        int pos = buffer.position();
+        final boolean isNeg = buffer.get(pos) == '-';
+        if (isNeg) {
+            pos++;
+        }
+        if (pos == lineEnd) {
+            throw new JedisConnectionException(
+                    "Empty number while reading a number");
+        }
+        long value = 0;
+        for (; pos < lineEnd; pos++) {
+            final int b = buffer.get(pos);
+            if (b < '0' || b > '9') {
+                throw new JedisConnectionException(
+                        "Unexpected character while reading a number: "
+                                + (char) b);
+            }
+            value = value * 10 + b - '0';
+        }
+        buffer.position(lineEnd + 2);
+        return isNeg ? -value : value;
+    }
+}
@@ -0,0 +1,44 @@
+package redis.clients.jedis;
+
+/**
+ * Receives a reply as it is parsed, one callback per element, instead of as
+ * the nested List&lt;Object&gt; of byte[] and Long that
+ * {@link Protocol#read(redis.clients.util.RedisInputStream)} builds. Integers
+ * arrive as primitives and bulk values as a slice of the connection's input
+ * buffer, so nothing needs to be allocated per element.
+ * <p>
+ * The buffers passed to {@link #onStatus(byte[], int, int)} and
+ * {@link #onBulk(byte[], int, int)} are only valid during the call and must
+ * be copied if they are needed afterwards. A visitor must not throw, or the
+ * rest of the reply is left unread on the connection.
+ * <p>
+ * Every callback but {@link #onError(String)} does nothing by default.
+ */
+public abstract class ReplyVisitor {
+    public void onStatus(byte[] buf, int off, int len) {
+    }
+
+    public abstract void onError(String message);
+
+    public void onInteger(long value) {
+    }
+
+    public void onBulk(byte[] buf, int off, int len) {
+    }
+
+    /**
+     * Called for a nil bulk reply and for a nil multi bulk reply.
+     */
+    public void onNull() {
+    }
+
+    /**
+     * Called before the elements of a multi bulk reply, which are followed by
+     * {@link #onArrayEnd()}.
+     */
+    public void onArrayStart(int size) {
+    }
+
+    public void onArrayEnd() {
+    }
+}
@@ -36,6 +36,30 @@ public class Response<T> {
         return response;
     }
 
+    /**
+     * Reads the reply into this response while it is parsed if the builder
+     * is a {@link VisitorBuilder}.
+     * 
+     * @return false, having read nothing, if the builder needs the reply as
+     *         an Object
+     */
+    boolean readFrom(final Connection connection) {
+        if (!(builder instanceof VisitorBuilder)) {
+            return false;
+        }
+        final VisitorBuilder.Visitor<T> visitor = ((VisitorBuilder<T>) builder)
+                .visitor();
+        connection.getOne(visitor);
+        if (visitor.getError() != null) {
+            set(new JedisDataException(visitor.getError()));
+        } else {
+            response = visitor.get();
+            built = true;
+            set = true;
+        }
+        return true;
+    }
+
     public String toString() {
         return "Response " + builder.toString();
     }
@@ -0,0 +1,167 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.exceptions.JedisDataException;
+
+/**
+ * Iterates over the keys of a database, or the elements of a hash, set or
+ * sorted set, a page of SCAN, HSCAN, SSCAN or ZSCAN at a time. The request
+ * for the next page is sent as soon as a page arrives, before its elements
+ * are handed out, so the server works on the next page while this one is
+ * consumed and the iteration never waits for a full round trip per page.
+ * <p>
+ * As with any SCAN, an element may be returned more than once, and elements
+ * added or removed during the iteration may or may not be returned.
+ * <p>
+ * The connection can still be used during the iteration: sending another
+ * command first reads the page that was requested and keeps it, and the page
+ * after it is only requested once the iteration goes on. {@link #close()}
+ * reads the requested page and ends the iteration.
+ */
+public class ScanIterator<T> implements Iterator<T>, Closeable {
+    private final Client client;
+    private final Command command;
+    private final byte[] key;
+    private final ScanParams params;
+    private final ItemBuilder<T> items;
+    private List<Object> page = Collections.emptyList();
+    private int index = 0;
+    private boolean pending = false;
+    // the reply to the request, read ahead because another command was sent,
+    // or the error it was
+    private List<Object> unread = null;
+    private JedisDataException unreadError = null;
+    // registered with the connection while a page is requested
+    private final Closeable suspender = new Closeable() {
+        public void close() {
+            suspend();
+        }
+    };
+
+    /**
+     * Sends the request for the first page.
+     *
+     * @param key
+     *            the key to scan, null for SCAN
+     */
+    ScanIterator(final Client client, final Command command, final byte[] key,
+            final ScanParams params, final ItemBuilder<T> items) {
+        this.client = client;
+        this.command = command;
+        this.key = key;
+        this.params = params;
+        this.items = items;
+        request(ScanParams.SCAN_POINTER_START_BINARY);
+    }
+
+    public boolean hasNext() {
+        // a page may be empty even though the iteration isn't over
+        while (index == page.size()) {
+            if (!hasNextPage()) {
+                return false;
+            }
+            fetch();
+        }
+        return true;
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T item = items.build(page, index);
+        index += items.getElementsPerItem();
+        return item;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Reads the page that was requested, if any, and ends the iteration.
+     */
+    public void close() {
+        page = Collections.emptyList();
+        index = 0;
+        unread = null;
+        unreadError = null;
+        if (pending) {
+            pending = false;
+            client.setUnfinishedReply(null);
+            try {
+                client.getObjectMultiBulkReply();
+            } catch (JedisDataException e) {
+                // it's being discarded anyway
+            }
+        }
+    }
+
+    /**
+     * Reads the next page, for an iterator whose elements aren't consumed
+     * through {@link #next()}.
+     * 
+     * @return the elements of the page, or null if the iteration is over
+     */
+    List<Object> nextPage() {
+        if (!hasNextPage()) {
+            return null;
+        }
+        fetch();
+        final List<Object> elements = page;
+        page = Collections.emptyList();
+        return elements;
+    }
+
+    private boolean hasNextPage() {
+        return pending || unread != null || unreadError != null;
+    }
+
+    private void request(final byte[] cursor) {
+        client.sendCommand(command, BinaryClient.scanArgs(key, cursor, params));
+        client.flush();
+        pending = true;
+        client.setUnfinishedReply(suspender);
+    }
+
+    /**
+     * Reads the requested page ahead, so another command can be sent.
+     */
+    private void suspend() {
+        pending = false;
+        try {
+            unread = client.getObjectMultiBulkReply();
+        } catch (JedisDataException e) {
+            unreadError = e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void fetch() {
+        final List<Object> reply;
+        if (unreadError != null) {
+            final JedisDataException e = unreadError;
+            unreadError = null;
+            throw e;
+        } else if (unread != null) {
+            reply = unread;
+            unread = null;
+        } else {
+            pending = false;
+            client.setUnfinishedReply(null);
+            reply = client.getObjectMultiBulkReply();
+        }
+        page = (List<Object>) reply.get(1);
+        index = 0;
+        final byte[] cursor = (byte[]) reply.get(0);
+        if (!ScanResult.isStart(cursor)) {
+            request(cursor);
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package redis.clients.jedis;
+
+import static redis.clients.jedis.Protocol.Keyword.COUNT;
+import static redis.clients.jedis.Protocol.Keyword.MATCH;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import redis.clients.util.SafeEncoder;
+
+public class ScanParams {
+    /**
+     * The cursor every iteration starts from, and ends with.
+     */
+    public static final String SCAN_POINTER_START = "0";
+    public static final byte[] SCAN_POINTER_START_BINARY = SafeEncoder
+            .encode(SCAN_POINTER_START);
+
+    private List<byte[]> params = new ArrayList<byte[]>();
+
+    public ScanParams match(final byte[] pattern) {
+        params.add(MATCH.raw);
+        params.add(pattern);
+        return this;
+    }
+
+    public ScanParams match(final String pattern) {
+        return match(SafeEncoder.encode(pattern));
+    }
+
+    /**
+     * @param count
+     *            a hint of how many elements a call should look at, 10 by
+     *            default on the server
+     */
+    public ScanParams count(final int count) {
+        params.add(COUNT.raw);
+        params.add(Protocol.toByteArray(count));
+        return this;
+    }
+
+    public Collection<byte[]> getParams() {
+        return Collections.unmodifiableCollection(params);
+    }
+}
@@ -0,0 +1,54 @@
+package redis.clients.jedis;
+
+import java.util.List;
+
+import redis.clients.util.SafeEncoder;
+
+/**
+ * A page of a SCAN, HSCAN, SSCAN or ZSCAN iteration and the cursor to ask
+ * for the next one with.
+ */
+public class ScanResult<T> {
+    private final byte[] cursor;
+    private final List<T> result;
+
+    public ScanResult(final byte[] cursor, final List<T> result) {
+        this.cursor = cursor;
+        this.result = result;
+    }
+
+    public String getCursor() {
+        return SafeEncoder.encode(cursor);
+    }
+
+    public byte[] getCursorAsBytes() {
+        return cursor;
+    }
+
+    /**
+     * @return true if this is the last page, the cursor being back at
+     *         {@link ScanParams#SCAN_POINTER_START}
+     */
+    public boolean isCompleteIteration() {
+        return isStart(cursor);
+    }
+
+    public List<T> getResult() {
+        return result;
+    }
+
+    /**
+     * Builds a page from the reply of a SCAN command, the cursor followed by
+     * the elements.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> ScanResult<T> build(final List<Object> reply,
+            final ItemBuilder<T> items) {
+        return new ScanResult<T>((byte[]) reply.get(0), items
+                .buildAll((List<Object>) reply.get(1)));
+    }
+
+    static boolean isStart(final byte[] cursor) {
+        return cursor.length == 1 && cursor[0] == '0';
+    }
+}
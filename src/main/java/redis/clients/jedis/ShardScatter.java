@@ -0,0 +1,183 @@
+package redis.clients.jedis;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import redis.clients.jedis.exceptions.JedisException;
+
+/**
+ * Runs a multi-key command on a BinaryShardedJedis: the keys are grouped by
+ * shard and each shard gets a single command with its keys. With an executor,
+ * each shard runs as a task; without one, the command is sent to every shard
+ * before any reply is read. Either way the shards work at the same time.
+ */
+abstract class ShardScatter<T> {
+    /**
+     * Sends the command with the arguments of one shard.
+     */
+    protected abstract void send(Client client, byte[][] args);
+
+    /**
+     * Reads the reply of the command.
+     */
+    protected abstract T read(Client client);
+
+    /**
+     * @param stride
+     *            the number of arguments per key, the first being the key:
+     *            2 for keys and values
+     * @return the reply of every shard that had keys, with the positions of
+     *         its keys in args, divided by stride
+     */
+    Collection<Shard<T>> run(final BinaryShardedJedis jedis,
+            final byte[][] args, final int stride,
+            final ExecutorService executor) {
+        final Map<JedisShardInfo, Shard<T>> shards = new LinkedHashMap<JedisShardInfo, Shard<T>>();
+        for (int i = 0; i < args.length; i += stride) {
+            final JedisShardInfo shardInfo = jedis.getShardInfo(args[i]);
+            Shard<T> shard = shards.get(shardInfo);
+            if (shard == null) {
+                shard = new Shard<T>(jedis.getShard(args[i]));
+                shards.put(shardInfo, shard);
+            }
+            shard.add(i / stride, args, i, stride);
+        }
+
+        if (executor == null || shards.size() == 1) {
+            runAll(shards.values());
+        } else {
+            submitAll(shards.values(), executor);
+        }
+        return shards.values();
+    }
+
+    private void runAll(final Collection<Shard<T>> shards) {
+        RuntimeException failure = null;
+        for (Shard<T> shard : shards) {
+            try {
+                final Client client = shard.jedis.getClient();
+                send(client, shard.getArgs());
+                client.flush();
+            } catch (RuntimeException e) {
+                shard.failed = true;
+                failure = failure == null ? e : failure;
+            }
+        }
+        // read every reply, so no connection is left with one pending
+        for (Shard<T> shard : shards) {
+            if (shard.failed) {
+                continue;
+            }
+            try {
+                shard.reply = read(shard.jedis.getClient());
+            } catch (RuntimeException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void submitAll(final Collection<Shard<T>> shards,
+            final ExecutorService executor) {
+        final List<Future<?>> futures = new ArrayList<Future<?>>(shards
+                .size());
+        for (final Shard<T> shard : shards) {
+            futures.add(executor.submit(new Runnable() {
+                public void run() {
+                    final Client client = shard.jedis.getClient();
+                    send(client, shard.getArgs());
+                    shard.reply = read(client);
+                }
+            }));
+        }
+        awaitAll(futures);
+    }
+
+    /**
+     * Waits for every task, so no connection is still in use, and then
+     * rethrows the first failure. An interrupt is kept for later rather than
+     * given up on.
+     */
+    static void awaitAll(final List<Future<?>> futures) {
+        RuntimeException failure = null;
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            for (;;) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                    continue;
+                } catch (ExecutionException e) {
+                    final Throwable cause = e.getCause();
+                    if (failure == null) {
+                        failure = cause instanceof RuntimeException ? (RuntimeException) cause
+                                : new JedisException(cause);
+                    }
+                }
+                break;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    /**
+     * The keys of one shard and the reply it gave.
+     */
+    static final class Shard<T> {
+        final Jedis jedis;
+        private final List<byte[]> args = new ArrayList<byte[]>();
+        private int[] positions = new int[8];
+        private int keys = 0;
+        private boolean failed = false;
+        T reply;
+
+        Shard(final Jedis jedis) {
+            this.jedis = jedis;
+        }
+
+        void add(final int position, final byte[][] all, final int from,
+                final int stride) {
+            if (keys == positions.length) {
+                final int[] grown = new int[keys * 2];
+                System.arraycopy(positions, 0, grown, 0, keys);
+                positions = grown;
+            }
+            positions[keys++] = position;
+            for (int i = from; i < from + stride; i++) {
+                args.add(all[i]);
+            }
+        }
+
+        byte[][] getArgs() {
+            return args.toArray(new byte[args.size()][]);
+        }
+
+        /**
+         * @return the number of keys of this shard
+         */
+        int size() {
+            return keys;
+        }
+
+        /**
+         * @return the position of a key of this shard among all the keys
+         */
+        int position(final int key) {
+            return positions[key];
+        }
+    }
+}
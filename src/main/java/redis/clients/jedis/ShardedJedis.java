@@ -7,6 +7,8 @@ import java.util.regex.Pattern;
 
 import redis.clients.jedis.BinaryClient.LIST_POSITION;
 import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardPlacement;
 
 public class ShardedJedis extends BinaryShardedJedis implements JedisCommands {
     public ShardedJedis(List<JedisShardInfo> shards) {
@@ -26,6 +28,11 @@ public class ShardedJedis extends BinaryShardedJedis implements JedisCommands {
 	super(shards, algo, keyTagPattern);
     }
 
+    public ShardedJedis(List<JedisShardInfo> shards, Hashing algo,
+	    Pattern keyTagPattern, ShardPlacement placement) {
+	super(shards, algo, keyTagPattern, placement);
+    }
+
     public void disconnect() {
 	for (Jedis jedis : getAllShards()) {
 	    jedis.quit();
@@ -173,6 +180,36 @@ public class ShardedJedis extends BinaryShardedJedis implements JedisCommands {
 	return j.del(key);
     }
 
+    /**
+     * @see BinaryShardedJedis#del(byte[]...)
+     */
+    public Long del(String... keys) {
+	return del(SafeEncoder.encodeMany(keys));
+    }
+
+    /**
+     * @see BinaryShardedJedis#mget(byte[]...)
+     */
+    public List<String> mget(String... keys) {
+	return BuilderFactory.STRING_LIST.build(mget(SafeEncoder
+		.encodeMany(keys)));
+    }
+
+    /**
+     * @see BinaryShardedJedis#mset(byte[]...)
+     */
+    public String mset(String... keysvalues) {
+	return mset(SafeEncoder.encodeMany(keysvalues));
+    }
+
+    /**
+     * @see BinaryShardedJedis#binaryScanIterator(ScanParams)
+     */
+    public ShardedScanIterator<String> scanIterator(final ScanParams params) {
+	return new ShardedScanIterator<String>(this, params,
+		ItemBuilder.single(BuilderFactory.STRING), getExecutor());
+    }
+
     public Long hdel(String key, String... fields) {
 	Jedis j = getShard(key);
 	return j.hdel(key, fields);
@@ -1,15 +1,22 @@
 package redis.clients.jedis;
 
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Pattern;
 
 import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 
+import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.util.Hashing;
 import redis.clients.util.Pool;
+import redis.clients.util.ShardPlacement;
 
 public class ShardedJedisPool extends Pool<ShardedJedis> {
+    // one pool per shard when poolPerShard is set, null otherwise
+    private final Map<JedisShardInfo, JedisPool> shardPools;
+
     public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
             List<JedisShardInfo> shards) {
         this(poolConfig, shards, Hashing.MURMUR_HASH);
@@ -27,7 +34,59 @@ public class ShardedJedisPool extends Pool<ShardedJedis> {
 
     public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
             List<JedisShardInfo> shards, Hashing algo, Pattern keyTagPattern) {
-        super(poolConfig, new ShardedJedisFactory(shards, algo, keyTagPattern));
+        this(poolConfig, shards, algo, keyTagPattern, ShardPlacement.RING);
+    }
+
+    public ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            List<JedisShardInfo> shards, Hashing algo, Pattern keyTagPattern,
+            ShardPlacement placement) {
+        this(poolConfig, shards, algo, keyTagPattern, placement,
+                createShardPools(poolConfig, shards));
+    }
+
+    private ShardedJedisPool(final GenericObjectPool.Config poolConfig,
+            List<JedisShardInfo> shards, Hashing algo, Pattern keyTagPattern,
+            ShardPlacement placement, Map<JedisShardInfo, JedisPool> shardPools) {
+        super(poolConfig, new ShardedJedisFactory(shards, algo, keyTagPattern,
+                placement, getPingIdleMillis(poolConfig), shardPools));
+        this.shardPools = shardPools;
+    }
+
+    private static Map<JedisShardInfo, JedisPool> createShardPools(
+            final GenericObjectPool.Config poolConfig,
+            final List<JedisShardInfo> shards) {
+        if (!(poolConfig instanceof JedisPoolConfig)
+                || !((JedisPoolConfig) poolConfig).isPoolPerShard()) {
+            return null;
+        }
+        final Map<JedisShardInfo, JedisPool> pools = new LinkedHashMap<JedisShardInfo, JedisPool>();
+        for (JedisShardInfo shard : shards) {
+            pools.put(shard, new JedisPool(poolConfig, shard.getHost(), shard
+                    .getPort(), shard.getTimeout(), shard.getPassword()));
+        }
+        return pools;
+    }
+
+    public void destroy() {
+        super.destroy();
+        if (shardPools != null) {
+            for (JedisPool pool : shardPools.values()) {
+                pool.destroy();
+            }
+        }
+    }
+
+    protected boolean isBroken(final Object resource) {
+        if (resource instanceof PooledShardedJedis) {
+            // its connections are checked by their own pools
+            return false;
+        }
+        for (Jedis shard : ((ShardedJedis) resource).getAllShards()) {
+            if (shard.getClient().isBroken()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
@@ -37,21 +96,53 @@ public class ShardedJedisPool extends Pool<ShardedJedis> {
         private List<JedisShardInfo> shards;
         private Hashing algo;
         private Pattern keyTagPattern;
+        private ShardPlacement placement;
+        private long pingIdleMillis;
+        private Map<JedisShardInfo, JedisPool> shardPools;
 
         public ShardedJedisFactory(List<JedisShardInfo> shards, Hashing algo,
-                Pattern keyTagPattern) {
+                Pattern keyTagPattern, ShardPlacement placement,
+                long pingIdleMillis, Map<JedisShardInfo, JedisPool> shardPools) {
             this.shards = shards;
             this.algo = algo;
             this.keyTagPattern = keyTagPattern;
+            this.placement = placement;
+            this.pingIdleMillis = pingIdleMillis;
+            this.shardPools = shardPools;
         }
 
         public Object makeObject() throws Exception {
-            ShardedJedis jedis = new ShardedJedis(shards, algo, keyTagPattern);
+            if (shardPools != null) {
+                return new PooledShardedJedis(shards, algo, keyTagPattern,
+                        placement, shardPools);
+            }
+            ShardedJedis jedis = new ShardedJedis(shards, algo, keyTagPattern,
+                    placement);
+            if (isPrefilling()) {
+                // the prefill is there to open the connections; otherwise
+                // each shard connects on its first command
+                try {
+                    for (Jedis shard : jedis.getAllShards()) {
+                        shard.connect();
+                    }
+                } catch (JedisConnectionException e) {
+                    jedis.disconnect();
+                    throw e;
+                }
+            }
             return jedis;
         }
 
+        public void passivateObject(final Object obj) throws Exception {
+            if (obj instanceof PooledShardedJedis) {
+                ((PooledShardedJedis) obj).release();
+            }
+        }
+
         public void destroyObject(final Object obj) throws Exception {
-            if ((obj != null) && (obj instanceof ShardedJedis)) {
+            if (obj instanceof PooledShardedJedis) {
+                ((PooledShardedJedis) obj).releaseBroken();
+            } else if ((obj != null) && (obj instanceof ShardedJedis)) {
                 ShardedJedis shardedJedis = (ShardedJedis) obj;
                 for (Jedis jedis : shardedJedis.getAllShards()) {
                     try {
@@ -69,9 +160,26 @@ public class ShardedJedisPool extends Pool<ShardedJedis> {
         }
 
         public boolean validateObject(final Object obj) {
+            if (obj instanceof PooledShardedJedis) {
+                // holds no connection while idle
+                return true;
+            }
         	try {
                 ShardedJedis jedis = (ShardedJedis) obj;
+                final long now = System.currentTimeMillis();
                 for (Jedis shard : jedis.getAllShards()) {
+                    if (pingIdleMillis >= 0) {
+                        final Client client = shard.getClient();
+                        if (client.isBroken()) {
+                            return false;
+                        }
+                        if (!client.isConnected()
+                                || now - client.getLastReadTime() < pingIdleMillis) {
+                            // connects on its first command, or was used
+                            // recently enough
+                            continue;
+                        }
+                    }
                     if (!shard.ping().equals("PONG")) {
                         return false;
                     }
@@ -0,0 +1,263 @@
+package redis.clients.jedis;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+
+import redis.clients.jedis.Protocol.Command;
+
+/**
+ * Iterates over the keys of every shard of a BinaryShardedJedis with SCAN,
+ * scanning all the shards at the same time and merging their pages. Each
+ * shard only ever has a page in flight, so none of them is loaded more than
+ * by a single SCAN loop, and the whole scan takes about as long as the
+ * largest shard's.
+ * <p>
+ * Without an executor the pages are taken from the shards in turn, each
+ * shard working on its next page while the others' are consumed. With one,
+ * each shard is scanned by a task of its own and the pages are handed out in
+ * the order they arrive, so a slow shard doesn't hold up the others.
+ * <p>
+ * The shards can still be used during the iteration. Without an executor, a
+ * command sent to a shard first reads the page requested from it, see
+ * {@link ScanIterator}. With one, the tasks scan on connections of their
+ * own, opened from the shards' JedisShardInfo and closed when they are done.
+ */
+public class ShardedScanIterator<T> implements Iterator<T>, Closeable {
+    // the page a task puts when its shard is done
+    private static final List<Object> END = Collections.emptyList();
+
+    private final ItemBuilder<T> items;
+    private List<Object> page = Collections.emptyList();
+    private int index = 0;
+
+    // without an executor
+    private final List<ScanIterator<T>> shards;
+    private int current = 0;
+    private boolean taken = false;
+
+    // with an executor
+    private final BlockingQueue<List<Object>> pages;
+    private int running = 0;
+    private volatile boolean closed = false;
+
+    ShardedScanIterator(final BinaryShardedJedis sharded,
+            final ScanParams params, final ItemBuilder<T> items,
+            final ExecutorService executor) {
+        this.items = items;
+        final Collection<JedisShardInfo> shardInfos = sharded
+                .getAllShardInfo();
+        if (executor == null || shardInfos.size() == 1) {
+            // sends the first request to every shard before reading any
+            final Collection<Jedis> jedises = sharded.getAllShards();
+            shards = new ArrayList<ScanIterator<T>>(jedises.size());
+            pages = null;
+            try {
+                for (Jedis jedis : jedises) {
+                    shards.add(scan(jedis, params));
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        } else {
+            shards = null;
+            pages = new ArrayBlockingQueue<List<Object>>(2 * shardInfos.size());
+            try {
+                for (final JedisShardInfo shardInfo : shardInfos) {
+                    executor.submit(new Runnable() {
+                        public void run() {
+                            scanShard(shardInfo, params);
+                        }
+                    });
+                    running++;
+                }
+            } catch (RuntimeException e) {
+                close();
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * @return an iterator whose pages are taken with nextPage(), so that the
+     *         items are built here
+     */
+    private ScanIterator<T> scan(final Jedis jedis, final ScanParams params) {
+        return new ScanIterator<T>(jedis.getClient(), Command.SCAN, null,
+                params, items);
+    }
+
+    /**
+     * Scans a shard on a connection of its own, as the shard's may be used
+     * by the caller at the same time.
+     */
+    private void scanShard(final JedisShardInfo shardInfo,
+            final ScanParams params) {
+        List<Object> end = END;
+        final Jedis jedis = shardInfo.createResource();
+        try {
+            final ScanIterator<T> shard = scan(jedis, params);
+            try {
+                List<Object> elements;
+                while (!closed && (elements = shard.nextPage()) != null) {
+                    put(elements);
+                }
+            } finally {
+                shard.close();
+            }
+        } catch (RuntimeException e) {
+            end = new Failure(e);
+        } finally {
+            try {
+                jedis.disconnect();
+            } catch (RuntimeException e) {
+                // the pages were read already
+            }
+            put(end);
+        }
+    }
+
+    private void put(final List<Object> elements) {
+        boolean interrupted = false;
+        for (;;) {
+            try {
+                pages.put(elements);
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<Object> take() {
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                try {
+                    return pages.take();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public boolean hasNext() {
+        while (index == page.size()) {
+            final List<Object> next = pages == null ? nextInTurn()
+                    : nextArrived();
+            if (next == null) {
+                return false;
+            }
+            page = next;
+            index = 0;
+        }
+        return true;
+    }
+
+    /**
+     * @return the next page of the shard whose turn it is, or null if all
+     *         the shards are done
+     */
+    private List<Object> nextInTurn() {
+        while (!shards.isEmpty()) {
+            if (current >= shards.size()) {
+                current = 0;
+            }
+            if (taken) {
+                taken = false;
+                current++;
+                continue;
+            }
+            final List<Object> elements = shards.get(current).nextPage();
+            if (elements != null) {
+                taken = true;
+                return elements;
+            }
+            shards.remove(current);
+        }
+        return null;
+    }
+
+    /**
+     * @return the next page any task put, or null if all the tasks are done
+     */
+    private List<Object> nextArrived() {
+        while (running > 0) {
+            final List<Object> elements = take();
+            if (elements == END) {
+                running--;
+            } else if (elements instanceof Failure) {
+                running--;
+                close();
+                throw ((Failure) elements).cause;
+            } else {
+                return elements;
+            }
+        }
+        return null;
+    }
+
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        final T item = items.build(page, index);
+        index += items.getElementsPerItem();
+        return item;
+    }
+
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    /**
+     * Stops scanning and reads the pages that were requested, waiting for
+     * the tasks if there is an executor.
+     */
+    public void close() {
+        page = Collections.emptyList();
+        index = 0;
+        if (pages == null) {
+            for (ScanIterator<T> shard : shards) {
+                shard.close();
+            }
+            shards.clear();
+            return;
+        }
+        closed = true;
+        while (running > 0) {
+            final List<Object> elements = take();
+            if (elements == END || elements instanceof Failure) {
+                running--;
+            }
+        }
+    }
+
+    /**
+     * Ends the pages of a task that failed.
+     */
+    @SuppressWarnings("serial")
+    private static final class Failure extends ArrayList<Object> {
+        final RuntimeException cause;
+
+        Failure(final RuntimeException cause) {
+            this.cause = cause;
+        }
+    }
+}
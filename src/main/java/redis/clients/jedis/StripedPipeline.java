@@ -0,0 +1,98 @@
+package redis.clients.jedis;
+
+import java.util.concurrent.ExecutorService;
+
+/**
+ * A pipeline striped over several connections borrowed from a JedisPool, so
+ * a large batch goes over several TCP streams instead of one. Commands on
+ * the same key always go to the same connection, so they run in the order
+ * they were sent; commands on different keys may not.
+ * <p>
+ * Like {@link ShardedJedisPipeline}, every connection is flushed once when
+ * the pipeline is synced and the Responses are handed out in the order the
+ * commands were sent. With an executor, each connection's replies are read
+ * by a task of their own. The pipeline can be synced and used again, and
+ * must be closed to give the connections back:
+ *
+ * <pre>
+ * StripedPipeline p = new StripedPipeline(pool, 4);
+ * try {
+ *     for (...) {
+ *         p.set(key, value);
+ *         if (++n % 10000 == 0) {
+ *             p.sync();
+ *         }
+ *     }
+ *     p.sync();
+ * } finally {
+ *     p.close();
+ * }
+ * </pre>
+ */
+public class StripedPipeline extends ShardedJedisPipeline {
+    private final JedisPool pool;
+    private final Jedis[] stripes;
+    private ExecutorService executor = null;
+
+    /**
+     * @param connections
+     *            the number of connections to borrow from the pool
+     */
+    public StripedPipeline(JedisPool pool, int connections) {
+        if (connections < 1) {
+            throw new IllegalArgumentException("connections < 1");
+        }
+        this.pool = pool;
+        this.stripes = new Jedis[connections];
+        try {
+            for (int i = 0; i < connections; i++) {
+                stripes[i] = pool.getResource();
+            }
+        } catch (RuntimeException e) {
+            for (Jedis jedis : stripes) {
+                if (jedis != null) {
+                    pool.returnResource(jedis);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Sets the executor that the replies of each connection are read on. By
+     * default they are all read on the thread that syncs the pipeline.
+     */
+    public void setExecutor(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    ExecutorService getExecutor() {
+        return executor;
+    }
+
+    Client clientFor(String key) {
+        // spread the bits of String.hashCode(), whose low bits barely change
+        // between keys that differ in their last character
+        int h = key.hashCode();
+        h ^= (h >>> 20) ^ (h >>> 12);
+        h ^= (h >>> 7) ^ (h >>> 4);
+        return stripes[(h & Integer.MAX_VALUE) % stripes.length].getClient();
+    }
+
+    /**
+     * Gives the connections back to the pool. Connections with replies that
+     * haven't been read, because the pipeline wasn't synced or a sync
+     * failed, are given back as broken.
+     */
+    public void close() {
+        final boolean pending = getPendingResponses() > 0;
+        for (Jedis jedis : stripes) {
+            if (pending) {
+                pool.returnBrokenResource(jedis);
+            } else {
+                pool.returnResource(jedis);
+            }
+        }
+        clean();
+    }
+}
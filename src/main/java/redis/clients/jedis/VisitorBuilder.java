@@ -0,0 +1,42 @@
+package redis.clients.jedis;
+
+/**
+ * A Builder that can also build its value while the reply is parsed, from
+ * the callbacks of a {@link ReplyVisitor}. Pipelined replies read into a
+ * {@link Response} whose builder is a VisitorBuilder skip the byte[]s and
+ * List&lt;Object&gt;s that {@link Protocol#read} would build for them.
+ * {@link #build(Object)} is still used for replies that were already read,
+ * such as the replies of a transaction.
+ */
+public abstract class VisitorBuilder<T> extends Builder<T> {
+    /**
+     * @return a new visitor for a single reply
+     */
+    public abstract Visitor<T> visitor();
+
+    /**
+     * Builds the value of a single reply. An error reply is kept and thrown
+     * by {@link Response#get()} instead.
+     */
+    public abstract static class Visitor<T> extends ReplyVisitor {
+        private String error = null;
+
+        public void onError(String message) {
+            if (error == null) {
+                error = message;
+            }
+        }
+
+        /**
+         * @return the message of the first error reply, or null
+         */
+        public String getError() {
+            return error;
+        }
+
+        /**
+         * @return the value built from the reply
+         */
+        public abstract T get();
+    }
+}
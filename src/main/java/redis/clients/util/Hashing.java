@@ -5,6 +5,8 @@ import java.security.NoSuchAlgorithmException;
 
 public interface Hashing {
     public static final Hashing MURMUR_HASH = new MurmurHash();
+    public static final Hashing XXHASH = new XXHash64();
+    public static final Hashing MURMUR3_HASH = new MurmurHash3();
     public ThreadLocal<MessageDigest> md5Holder = new ThreadLocal<MessageDigest>();
 
     public static final Hashing MD5 = new Hashing() {
@@ -0,0 +1,443 @@
+package redis.clients.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.commons.pool.ObjectPool;
+import org.apache.commons.pool.PoolableObjectFactory;
+import org.apache.commons.pool.impl.GenericObjectPool;
+
+/**
+ * An ObjectPool that takes no lock to borrow or return an object, for pools
+ * shared by many threads. It is configured by the same
+ * GenericObjectPool.Config as GenericObjectPool is.
+ * <p>
+ * Idle objects are kept on a lock-free stack. Each thread also remembers the
+ * last object it returned and tries to take it back first, so a thread that
+ * borrows and returns in a loop mostly does a single compare-and-set. The
+ * number of objects in use is bounded by maxActive; idle ones are trimmed to
+ * maxIdle when returned.
+ * <p>
+ * Idle objects are evicted and validated by a background task that claims
+ * them one at a time, so borrowers never wait on it.
+ */
+public class LockFreeObjectPool implements ObjectPool {
+    private static final Timer EVICTOR = new Timer("jedis-pool-evictor", true);
+
+    private static final int IDLE = 0;
+    private static final int IN_USE = 1;
+    // claimed by the evictor or by a thread returning it
+    private static final int CHECKING = 2;
+    private static final int INVALID = 3;
+
+    private final PoolableObjectFactory factory;
+    private final int maxActive;
+    private final int maxIdle;
+    private final int minIdle;
+    private final byte whenExhaustedAction;
+    private final long maxWait;
+    private final boolean testOnBorrow;
+    private final boolean testOnReturn;
+    private final boolean testWhileIdle;
+    private final int numTestsPerEvictionRun;
+    private final long minEvictableIdleTimeMillis;
+    private final long softMinEvictableIdleTimeMillis;
+
+    // null when the number of objects in use isn't bounded
+    private final Semaphore permits;
+    private final AtomicReference<Node> idle = new AtomicReference<Node>();
+    private final AtomicInteger numIdle = new AtomicInteger();
+    private final AtomicInteger numActive = new AtomicInteger();
+    private final ConcurrentHashMap<Object, Entry> entries = new ConcurrentHashMap<Object, Entry>();
+    // weak, as the slots of other threads can't be cleared when the entry
+    // they hold is destroyed
+    private final ThreadLocal<WeakReference<Entry>> lastReturned = new ThreadLocal<WeakReference<Entry>>();
+    private final TimerTask evictor;
+    // where the next eviction run starts
+    private Iterator<Entry> evictionCursor = null;
+    private volatile boolean closed = false;
+
+    public LockFreeObjectPool(final PoolableObjectFactory factory,
+            final GenericObjectPool.Config config) {
+        this.factory = factory;
+        this.maxActive = config.maxActive;
+        this.maxIdle = config.maxIdle;
+        this.minIdle = config.minIdle;
+        this.whenExhaustedAction = config.whenExhaustedAction;
+        this.maxWait = config.maxWait;
+        this.testOnBorrow = config.testOnBorrow;
+        this.testOnReturn = config.testOnReturn;
+        this.testWhileIdle = config.testWhileIdle;
+        this.numTestsPerEvictionRun = config.numTestsPerEvictionRun;
+        this.minEvictableIdleTimeMillis = config.minEvictableIdleTimeMillis;
+        this.softMinEvictableIdleTimeMillis = config.softMinEvictableIdleTimeMillis;
+
+        if (maxActive > 0
+                && whenExhaustedAction != GenericObjectPool.WHEN_EXHAUSTED_GROW) {
+            permits = new Semaphore(maxActive);
+        } else {
+            permits = null;
+        }
+        if (config.timeBetweenEvictionRunsMillis > 0) {
+            evictor = new TimerTask() {
+                public void run() {
+                    try {
+                        evict();
+                    } catch (Exception e) {
+                        // try again on the next run
+                    }
+                }
+            };
+            EVICTOR.schedule(evictor, config.timeBetweenEvictionRunsMillis,
+                    config.timeBetweenEvictionRunsMillis);
+        } else {
+            evictor = null;
+        }
+    }
+
+    public Object borrowObject() throws Exception {
+        assertOpen();
+        acquirePermit();
+        try {
+            Entry entry;
+            while ((entry = claimIdle()) != null) {
+                if (activate(entry, testOnBorrow)) {
+                    numActive.incrementAndGet();
+                    return entry.object;
+                }
+                destroy(entry);
+            }
+            entry = create(IN_USE);
+            if (!activate(entry, testOnBorrow)) {
+                destroy(entry);
+                throw new NoSuchElementException("Could not create a valid object");
+            }
+            numActive.incrementAndGet();
+            return entry.object;
+        } catch (Exception e) {
+            releasePermit();
+            throw e;
+        } catch (Error e) {
+            releasePermit();
+            throw e;
+        }
+    }
+
+    public void returnObject(final Object obj) throws Exception {
+        final Entry entry = entryFor(obj);
+        if (!entry.compareAndSet(IN_USE, CHECKING)) {
+            throw new IllegalStateException(
+                    "Object has already been returned to this pool");
+        }
+        numActive.decrementAndGet();
+        try {
+            if (closed || (maxIdle >= 0 && numIdle.get() >= maxIdle)
+                    || !passivate(entry, testOnReturn)) {
+                destroy(entry);
+            } else {
+                final WeakReference<Entry> last = lastReturned.get();
+                if (last == null || last.get() != entry) {
+                    lastReturned.set(new WeakReference<Entry>(entry));
+                }
+                makeIdle(entry, true);
+            }
+        } finally {
+            releasePermit();
+        }
+    }
+
+    public void invalidateObject(final Object obj) throws Exception {
+        final Entry entry = entryFor(obj);
+        if (!entry.compareAndSet(IN_USE, CHECKING)) {
+            throw new IllegalStateException(
+                    "Object has already been returned to this pool");
+        }
+        numActive.decrementAndGet();
+        try {
+            destroy(entry);
+        } finally {
+            releasePermit();
+        }
+    }
+
+    public void addObject() throws Exception {
+        assertOpen();
+        final Entry entry = create(CHECKING);
+        if (!passivate(entry, false)) {
+            destroy(entry);
+            return;
+        }
+        makeIdle(entry, true);
+    }
+
+    public int getNumIdle() {
+        return numIdle.get();
+    }
+
+    public int getNumActive() {
+        return numActive.get();
+    }
+
+    /**
+     * Destroys the idle objects. Objects in use are not affected.
+     */
+    public void clear() {
+        final Iterator<Entry> it = entries.values().iterator();
+        while (it.hasNext()) {
+            final Entry entry = it.next();
+            if (entry.compareAndSet(IDLE, CHECKING)) {
+                numIdle.decrementAndGet();
+                destroy(entry);
+            }
+        }
+    }
+
+    /**
+     * Closes the pool and destroys the idle objects. Objects in use are
+     * destroyed when they are returned.
+     */
+    public void close() throws Exception {
+        closed = true;
+        if (evictor != null) {
+            evictor.cancel();
+        }
+        lastReturned.remove();
+        clear();
+    }
+
+    /**
+     * @deprecated the factory is given to the constructor and can't be
+     *             changed
+     */
+    @Deprecated
+    public void setFactory(final PoolableObjectFactory factory) {
+        throw new IllegalStateException("Cannot change factory");
+    }
+
+    /**
+     * Runs one eviction pass: destroys objects idle for too long, validates
+     * the others if testWhileIdle is set, and creates objects to get back to
+     * minIdle. Normally called by the evictor task.
+     */
+    public synchronized void evict() throws Exception {
+        int tests = numTestsPerEvictionRun >= 0 ? numTestsPerEvictionRun
+                : (int) Math.ceil(numIdle.get()
+                        / Math.abs((double) numTestsPerEvictionRun));
+        final long now = System.currentTimeMillis();
+        // go on from where the last run stopped, looking at each object at
+        // most once per run
+        for (int left = entries.size(); tests > 0 && left > 0 && !closed; left--) {
+            if (evictionCursor == null || !evictionCursor.hasNext()) {
+                evictionCursor = entries.values().iterator();
+                if (!evictionCursor.hasNext()) {
+                    break;
+                }
+            }
+            final Entry entry = evictionCursor.next();
+            if (!entry.compareAndSet(IDLE, CHECKING)) {
+                continue;
+            }
+            tests--;
+            numIdle.decrementAndGet();
+            final long idleTime = now - entry.idleSince;
+            if ((minEvictableIdleTimeMillis > 0 && idleTime > minEvictableIdleTimeMillis)
+                    || (softMinEvictableIdleTimeMillis > 0
+                            && idleTime > softMinEvictableIdleTimeMillis && numIdle
+                            .get() >= minIdle)) {
+                destroy(entry);
+            } else if (testWhileIdle
+                    && (!activate(entry, true) || !passivate(entry, false))) {
+                destroy(entry);
+            } else {
+                makeIdle(entry, false);
+            }
+        }
+        while (!closed && numIdle.get() < minIdle
+                && (maxActive <= 0 || numIdle.get() + numActive.get() < maxActive)) {
+            addObject();
+        }
+    }
+
+    private void assertOpen() {
+        if (closed) {
+            throw new IllegalStateException("Pool not open");
+        }
+    }
+
+    private void acquirePermit() throws InterruptedException {
+        if (permits == null) {
+            return;
+        }
+        if (whenExhaustedAction == GenericObjectPool.WHEN_EXHAUSTED_FAIL) {
+            if (!permits.tryAcquire()) {
+                throw new NoSuchElementException("Pool exhausted");
+            }
+        } else if (maxWait <= 0) {
+            permits.acquire();
+        } else if (!permits.tryAcquire(maxWait, TimeUnit.MILLISECONDS)) {
+            throw new NoSuchElementException("Timeout waiting for idle object");
+        }
+    }
+
+    private void releasePermit() {
+        if (permits != null) {
+            permits.release();
+        }
+    }
+
+    /**
+     * @return an idle object switched to IN_USE, or null if there is none
+     */
+    private Entry claimIdle() {
+        final Entry last = lastReturned();
+        if (last != null && last.compareAndSet(IDLE, IN_USE)) {
+            numIdle.decrementAndGet();
+            return last;
+        }
+        for (;;) {
+            final Node top = idle.get();
+            if (top == null) {
+                return null;
+            }
+            if (!idle.compareAndSet(top, top.next)) {
+                continue;
+            }
+            final Entry entry = top.entry;
+            // clear the flag before claiming: if the claim fails because
+            // someone else holds the object, they push it back on return
+            entry.stacked = 0;
+            if (entry.compareAndSet(IDLE, IN_USE)) {
+                numIdle.decrementAndGet();
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Makes an entry claimed by the caller idle again, pushing it on the
+     * stack unless it is still there.
+     */
+    private void makeIdle(final Entry entry, final boolean touch) {
+        if (touch) {
+            entry.idleSince = System.currentTimeMillis();
+        }
+        numIdle.incrementAndGet();
+        entry.set(IDLE);
+        if (STACKED.compareAndSet(entry, 0, 1)) {
+            final Node node = new Node(entry);
+            Node top;
+            do {
+                top = idle.get();
+                node.next = top;
+            } while (!idle.compareAndSet(top, node));
+        }
+    }
+
+    private Entry create(final int state) throws Exception {
+        final Entry entry = new Entry(factory.makeObject(), state);
+        entries.put(entry.object, entry);
+        return entry;
+    }
+
+    private boolean activate(final Entry entry, final boolean validate) {
+        try {
+            factory.activateObject(entry.object);
+            return !validate || factory.validateObject(entry.object);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private boolean passivate(final Entry entry, final boolean validate) {
+        try {
+            if (validate && !factory.validateObject(entry.object)) {
+                return false;
+            }
+            factory.passivateObject(entry.object);
+            return true;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    private void destroy(final Entry entry) {
+        entry.set(INVALID);
+        entries.remove(entry.object);
+        final WeakReference<Entry> last = lastReturned.get();
+        if (last != null && last.get() == entry) {
+            lastReturned.remove();
+        }
+        try {
+            factory.destroyObject(entry.object);
+        } catch (Exception e) {
+            // it's gone anyway
+        }
+    }
+
+    /**
+     * @return the entry the calling thread returned last, or null if it has
+     *         been destroyed since. A destroyed entry's slot is cleared.
+     */
+    private Entry lastReturned() {
+        final WeakReference<Entry> ref = lastReturned.get();
+        if (ref == null) {
+            return null;
+        }
+        final Entry last = ref.get();
+        if (last == null || last.get() == INVALID) {
+            lastReturned.remove();
+            return null;
+        }
+        return last;
+    }
+
+    private Entry entryFor(final Object obj) {
+        final Entry last = lastReturned();
+        if (last != null && last.object == obj) {
+            return last;
+        }
+        final Entry entry = entries.get(obj);
+        if (entry == null) {
+            throw new IllegalStateException(
+                    "Returned object not currently part of this pool");
+        }
+        return entry;
+    }
+
+    private static final AtomicIntegerFieldUpdater<Entry> STACKED = AtomicIntegerFieldUpdater
+            .newUpdater(Entry.class, "stacked");
+
+    /**
+     * A pooled object and its state.
+     */
+    @SuppressWarnings("serial")
+    private static final class Entry extends AtomicInteger {
+        final Object object;
+        volatile long idleSince;
+        // 1 while a node for this entry is on the idle stack
+        volatile int stacked = 0;
+
+        Entry(final Object object, final int state) {
+            super(state);
+            this.object = object;
+        }
+    }
+
+    private static final class Node {
+        final Entry entry;
+        Node next;
+
+        Node(final Entry entry) {
+            this.entry = entry;
+        }
+    }
+}
@@ -29,7 +29,7 @@ import java.nio.ByteOrder;
  * Andrzej Bialecki (ab at getopt org).
  * </p>
  */
-public class MurmurHash implements Hashing {
+public class MurmurHash implements RangeHashing {
     /**
      * Hashes bytes in an array.
      * 
@@ -110,11 +110,114 @@ public class MurmurHash implements Hashing {
     }
 
     public static long hash64A(byte[] data, int seed) {
-        return hash64A(ByteBuffer.wrap(data), seed);
+        return hash64A(data, 0, data.length, seed);
     }
 
+    /**
+     * Same as {@link #hash64A(ByteBuffer, int)}, reading the array directly
+     * so that nothing is allocated.
+     */
     public static long hash64A(byte[] data, int offset, int length, int seed) {
-        return hash64A(ByteBuffer.wrap(data, offset, length), seed);
+        long m = 0xc6a4a7935bd1e995L;
+        int r = 47;
+
+        long h = seed ^ (length * m);
+
+        final int end = offset + length;
+        int i = offset;
+        long k;
+        for (; end - i >= 8; i += 8) {
+            k = (data[i] & 0xffL) | (data[i + 1] & 0xffL) << 8
+                    | (data[i + 2] & 0xffL) << 16 | (data[i + 3] & 0xffL) << 24
+                    | (data[i + 4] & 0xffL) << 32 | (data[i + 5] & 0xffL) << 40
+                    | (data[i + 6] & 0xffL) << 48 | (data[i + 7] & 0xffL) << 56;
+
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+
+            h ^= k;
+            h *= m;
+        }
+
+        if (i < end) {
+            long finish = 0;
+            for (int shift = 0; i < end; i++, shift += 8) {
+                finish |= (data[i] & 0xffL) << shift;
+            }
+            h ^= finish;
+            h *= m;
+        }
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+
+        return h;
+    }
+
+    /**
+     * Same as {@link #hash64A(byte[], int)} of the UTF-8 encoding of a
+     * string, as encoded by {@link SafeEncoder#encode(String)}, without
+     * encoding it.
+     */
+    public static long hash64A(CharSequence data, int seed) {
+        long m = 0xc6a4a7935bd1e995L;
+        int r = 47;
+
+        long h = seed ^ (Utf8.length(data) * m);
+
+        // the bytes of the next word
+        long word = 0;
+        int bytes = 0;
+        final int n = data.length();
+        // chars before this index are encoded one by one
+        int slow = 0;
+        for (int i = 0; i < n;) {
+            long b = -1;
+            int count = 8;
+            if (i >= slow && n - i >= 8) {
+                b = Utf8.ascii8(data, i);
+                if (b == -1) {
+                    slow = i + 8;
+                }
+            }
+            if (b == -1) {
+                final long encoded = Utf8.encode(data, i);
+                count = Utf8.length(encoded);
+                b = encoded & 0xffffffffL;
+                i += Utf8.chars(encoded);
+            } else {
+                i += 8;
+            }
+            word |= b << (bytes << 3);
+            bytes += count;
+            if (bytes < 8) {
+                continue;
+            }
+            long k = word;
+
+            k *= m;
+            k ^= k >>> r;
+            k *= m;
+
+            h ^= k;
+            h *= m;
+
+            bytes -= 8;
+            word = bytes == 0 ? 0 : b >>> ((count - bytes) << 3);
+        }
+
+        if (bytes > 0) {
+            h ^= word;
+            h *= m;
+        }
+
+        h ^= h >>> r;
+        h *= m;
+        h ^= h >>> r;
+
+        return h;
     }
 
     public static long hash64A(ByteBuffer buf, int seed) {
@@ -160,7 +263,22 @@ public class MurmurHash implements Hashing {
         return hash64A(key, 0x1234ABCD);
     }
 
+    /**
+     * Hashes part of an array the way {@link #hash(byte[])} hashes a whole
+     * one.
+     */
+    public long hash(byte[] key, int offset, int length) {
+        return hash64A(key, offset, length, 0x1234ABCD);
+    }
+
     public long hash(String key) {
-        return hash(SafeEncoder.encode(key));
+        if (key.length() > Utf8.STREAMED_CHARS) {
+            return hash(SafeEncoder.encode(key));
+        }
+        return hash64A(key, 0x1234ABCD);
+    }
+
+    public long hash(CharSequence key) {
+        return hash64A(key, 0x1234ABCD);
     }
 }
\ No newline at end of file
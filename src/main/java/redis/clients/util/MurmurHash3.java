@@ -0,0 +1,175 @@
+package redis.clients.util;
+
+/**
+ * The x64 128 bit variant of MurmurHash3, of which the first 64 bits are
+ * used. See https://github.com/aappleby/smhasher for details.
+ * <p>
+ * Arrays are read in place and strings are hashed as their UTF-8 encoding,
+ * one character at a time, so hashing a key allocates nothing.
+ */
+public class MurmurHash3 implements RangeHashing {
+    private static final long C1 = 0x87c37b91114253d5L;
+    private static final long C2 = 0x4cf5ad432745937fL;
+
+    /**
+     * Hashes bytes in part of an array.
+     * 
+     * @return the first 64 bits of the 128 bit hash of the bytes
+     */
+    public static long hash64(byte[] data, int offset, int length, long seed) {
+        final int end = offset + length;
+        long h1 = seed;
+        long h2 = seed;
+        int i = offset;
+        for (; end - i >= 16; i += 16) {
+            h1 = mix1(h1, h2, XXHash64.getLong(data, i));
+            h2 = mix2(h2, h1, XXHash64.getLong(data, i + 8));
+        }
+
+        long k1 = 0;
+        long k2 = 0;
+        final int tail = end - i;
+        for (int j = Math.min(tail, 8) - 1; j >= 0; j--) {
+            k1 = k1 << 8 | (data[i + j] & 0xffL);
+        }
+        for (int j = tail - 1; j >= 8; j--) {
+            k2 = k2 << 8 | (data[i + j] & 0xffL);
+        }
+        return finish(h1, h2, k1, k2, tail, length);
+    }
+
+    /**
+     * Hashes the UTF-8 encoding of a string, as encoded by
+     * {@link SafeEncoder#encode(String)}, without encoding it.
+     * 
+     * @return the first 64 bits of the 128 bit hash of the encoded string
+     */
+    public static long hash64(CharSequence data, long seed) {
+        long h1 = seed;
+        long h2 = seed;
+        // the first word of a block, waiting for the second one
+        long w0 = 0;
+        boolean half = false;
+        // the bytes of the next word
+        long word = 0;
+        int bytes = 0;
+        long length = 0;
+
+        final int n = data.length();
+        // chars before this index are encoded one by one
+        int slow = 0;
+        for (int i = 0; i < n;) {
+            long b = -1;
+            int count = 8;
+            if (i >= slow && n - i >= 8) {
+                b = Utf8.ascii8(data, i);
+                if (b == -1) {
+                    slow = i + 8;
+                }
+            }
+            if (b == -1) {
+                final long encoded = Utf8.encode(data, i);
+                count = Utf8.length(encoded);
+                b = encoded & 0xffffffffL;
+                i += Utf8.chars(encoded);
+            } else {
+                i += 8;
+            }
+            length += count;
+            word |= b << (bytes << 3);
+            bytes += count;
+            if (bytes < 8) {
+                continue;
+            }
+            if (half) {
+                h1 = mix1(h1, h2, w0);
+                h2 = mix2(h2, h1, word);
+            } else {
+                w0 = word;
+            }
+            half = !half;
+            bytes -= 8;
+            word = bytes == 0 ? 0 : b >>> ((count - bytes) << 3);
+        }
+
+        if (half) {
+            return finish(h1, h2, w0, word, 8 + bytes, length);
+        }
+        return finish(h1, h2, word, 0, bytes, length);
+    }
+
+    public long hash(byte[] key) {
+        return hash64(key, 0, key.length, 0);
+    }
+
+    public long hash(byte[] key, int offset, int length) {
+        return hash64(key, offset, length, 0);
+    }
+
+    public long hash(String key) {
+        if (key.length() > Utf8.STREAMED_CHARS) {
+            return hash(SafeEncoder.encode(key));
+        }
+        return hash64(key, 0);
+    }
+
+    public long hash(CharSequence key) {
+        return hash64(key, 0);
+    }
+
+    private static long mix1(long h1, long h2, long k1) {
+        k1 *= C1;
+        k1 = Long.rotateLeft(k1, 31);
+        k1 *= C2;
+        h1 ^= k1;
+        h1 = Long.rotateLeft(h1, 27);
+        h1 += h2;
+        return h1 * 5 + 0x52dce729;
+    }
+
+    private static long mix2(long h2, long h1, long k2) {
+        k2 *= C2;
+        k2 = Long.rotateLeft(k2, 33);
+        k2 *= C1;
+        h2 ^= k2;
+        h2 = Long.rotateLeft(h2, 31);
+        h2 += h1;
+        return h2 * 5 + 0x38495ab5;
+    }
+
+    /**
+     * Mixes in the last, partial block and finalizes the hash.
+     */
+    private static long finish(long h1, long h2, long k1, long k2, int tail,
+            long length) {
+        if (tail > 8) {
+            k2 *= C2;
+            k2 = Long.rotateLeft(k2, 33);
+            k2 *= C1;
+            h2 ^= k2;
+        }
+        if (tail > 0) {
+            k1 *= C1;
+            k1 = Long.rotateLeft(k1, 31);
+            k1 *= C2;
+            h1 ^= k1;
+        }
+
+        h1 ^= length;
+        h2 ^= length;
+        h1 += h2;
+        h2 += h1;
+        h1 = fmix(h1);
+        h2 = fmix(h2);
+        return h1 + h2;
+    }
+
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,175 @@
+package redis.clients.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Places simulated keys on a list of shards to show how a
+ * {@link ShardPlacement} would spread them, and how many would move if a
+ * shard were added or removed. Only the names and weights of the shards are
+ * used, so nothing is connected.
+ */
+public class PlacementSimulator {
+    private final Hashing algo;
+    private final long[] hashes;
+
+    /**
+     * @param keys
+     *            the number of keys to simulate, "key:0", "key:1"...
+     */
+    public PlacementSimulator(Hashing algo, int keys) {
+        this.algo = algo;
+        this.hashes = new long[keys];
+        for (int n = 0; n < keys; n++) {
+            hashes[n] = algo.hash("key:" + n);
+        }
+    }
+
+    public Report simulate(List<? extends ShardInfo<?>> shards,
+            ShardPlacement placement) {
+        final List<SimulatedShard> current = new ArrayList<SimulatedShard>();
+        for (ShardInfo<?> shard : shards) {
+            current.add(new SimulatedShard(shard.getName(), shard.getWeight()));
+        }
+        final int[] placed = place(current, placement);
+        final Report report = new Report();
+
+        final int[] keys = new int[current.size()];
+        for (int shard : placed) {
+            keys[shard]++;
+        }
+        final double mean = (double) hashes.length / totalWeight(current);
+        report.maxLoad = 0;
+        report.minLoad = Double.MAX_VALUE;
+        for (int i = 0; i < keys.length; i++) {
+            final double load = keys[i] / (mean * current.get(i).getWeight());
+            report.maxLoad = Math.max(report.maxLoad, load);
+            report.minLoad = Math.min(report.minLoad, load);
+        }
+
+        // one more shard of average weight, named like the others
+        final List<SimulatedShard> added = new ArrayList<SimulatedShard>(
+                current);
+        added.add(new SimulatedShard(current.isEmpty()
+                || current.get(0).getName() == null ? null : "simulated-"
+                + current.size(), Math.max(1, totalWeight(current)
+                / Math.max(1, current.size()))));
+        report.movedOnAdd = moved(current, placed, added, place(added,
+                placement));
+
+        report.movedOnRemove = new double[current.size()];
+        if (current.size() > 1) {
+            for (int i = 0; i < current.size(); i++) {
+                final List<SimulatedShard> removed = new ArrayList<SimulatedShard>(
+                        current);
+                removed.remove(i);
+                report.movedOnRemove[i] = moved(current, placed, removed,
+                        place(removed, placement));
+            }
+        }
+        return report;
+    }
+
+    /**
+     * @return the shard of every key
+     */
+    private int[] place(List<SimulatedShard> shards, ShardPlacement placement) {
+        final ShardPlacement.Locator locator = placement.place(shards, algo);
+        final int[] placed = new int[hashes.length];
+        for (int n = 0; n < hashes.length; n++) {
+            placed[n] = locator.getShard(hashes[n]);
+        }
+        return placed;
+    }
+
+    /**
+     * @return the fraction of the keys that are on another shard after
+     */
+    private double moved(List<SimulatedShard> before, int[] placedBefore,
+            List<SimulatedShard> after, int[] placedAfter) {
+        int moved = 0;
+        for (int n = 0; n < hashes.length; n++) {
+            if (before.get(placedBefore[n]) != after.get(placedAfter[n])) {
+                moved++;
+            }
+        }
+        return (double) moved / hashes.length;
+    }
+
+    private static int totalWeight(List<SimulatedShard> shards) {
+        int total = 0;
+        for (SimulatedShard shard : shards) {
+            total += shard.getWeight();
+        }
+        return total;
+    }
+
+    public static class Report {
+        private double maxLoad;
+        private double minLoad;
+        private double movedOnAdd;
+        private double[] movedOnRemove;
+
+        /**
+         * @return the keys of the busiest shard over its fair share, which is
+         *         proportional to its weight
+         */
+        public double getMaxLoad() {
+            return maxLoad;
+        }
+
+        /**
+         * @return the keys of the idlest shard over its fair share
+         */
+        public double getMinLoad() {
+            return minLoad;
+        }
+
+        /**
+         * @return the fraction of the keys that move when a shard of average
+         *         weight is added at the end of the list
+         */
+        public double getMovedOnAdd() {
+            return movedOnAdd;
+        }
+
+        /**
+         * @return for each shard, the fraction of the keys that move when it
+         *         is removed from the list
+         */
+        public double[] getMovedOnRemove() {
+            return movedOnRemove;
+        }
+
+        public String toString() {
+            double worst = 0;
+            double sum = 0;
+            for (double moved : movedOnRemove) {
+                worst = Math.max(worst, moved);
+                sum += moved;
+            }
+            return String.format("max/mean %.3f, min/mean %.3f, "
+                    + "moved on add %.1f%%, on remove %.1f%% (worst %.1f%%)",
+                    maxLoad, minLoad, movedOnAdd * 100,
+                    movedOnRemove.length == 0 ? 0 : sum * 100
+                            / movedOnRemove.length, worst * 100);
+        }
+    }
+
+    private static class SimulatedShard extends ShardInfo<Object> {
+        private final String name;
+
+        SimulatedShard(String name, int weight) {
+            super(weight);
+            this.name = name;
+        }
+
+        protected Object createResource() {
+            return null;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
+}
@@ -1,13 +1,36 @@
 package redis.clients.util;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ThreadFactory;
+
+import org.apache.commons.pool.ObjectPool;
 import org.apache.commons.pool.PoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 
+import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisException;
 
 public abstract class Pool<T> {
+    private static final int MAX_PREFILL_THREADS = 16;
+    // set while a prefill creates a resource
+    private static final ThreadLocal<Boolean> PREFILLING = new ThreadLocal<Boolean>();
+
+    /**
+     * The pool resources come from. When the config is a JedisPoolConfig
+     * asking for a lock-free pool, this is a view of the LockFreeObjectPool
+     * that forwards the ObjectPool operations to it and throws
+     * UnsupportedOperationException if asked to change its configuration.
+     */
     protected GenericObjectPool internalPool;
+    private Future<Integer> prefill = null;
 
     protected Pool() {
 	this.internalPool = null;
@@ -15,7 +38,124 @@ public abstract class Pool<T> {
     
     public Pool(final GenericObjectPool.Config poolConfig,
             PoolableObjectFactory factory) {
-        this.internalPool = new GenericObjectPool(factory, poolConfig);
+        if (poolConfig instanceof JedisPoolConfig
+                && ((JedisPoolConfig) poolConfig).isLockFree()) {
+            this.internalPool = new LockFreePoolView(new LockFreeObjectPool(
+                    factory, poolConfig), poolConfig);
+        } else {
+            this.internalPool = new GenericObjectPool(factory, poolConfig);
+        }
+        if (poolConfig instanceof JedisPoolConfig
+                && ((JedisPoolConfig) poolConfig).isPrefillMinIdle()) {
+            prefill = prefill(poolConfig.minIdle);
+        }
+    }
+
+    /**
+     * @return the JedisPoolConfig's pingIdleMillis, or -1 for other configs
+     */
+    protected static long getPingIdleMillis(
+            final GenericObjectPool.Config poolConfig) {
+        if (poolConfig instanceof JedisPoolConfig) {
+            return ((JedisPoolConfig) poolConfig).getPingIdleMillis();
+        }
+        return -1;
+    }
+
+    /**
+     * @return true if the resource can't be reused, e.g. because its
+     *         connection failed half way through a command. Such resources
+     *         are destroyed when returned.
+     */
+    protected boolean isBroken(final Object resource) {
+        return false;
+    }
+
+    /**
+     * @return the prefill started when the pool was created, if its
+     *         JedisPoolConfig asked for one, or null
+     */
+    public Future<Integer> getPrefill() {
+        return prefill;
+    }
+
+    /**
+     * Creates resources in parallel and adds them to the idle ones, so they
+     * don't have to be connected one by one as the pool gets used.
+     * 
+     * @return a future completed with the number of resources added once
+     *         all of them are. It fails with a JedisConnectionException if
+     *         some couldn't be created; the others are still added.
+     */
+    public Future<Integer> prefill(final int resources) {
+        final ObjectPool pool = internalPool;
+        final FutureTask<Integer> task = new FutureTask<Integer>(
+                new Callable<Integer>() {
+                    public Integer call() throws Exception {
+                        return addObjects(pool, resources);
+                    }
+                });
+        final Thread thread = new Thread(task, "jedis-pool-prefill");
+        thread.setDaemon(true);
+        thread.start();
+        return task;
+    }
+
+    private static int addObjects(final ObjectPool pool, final int count)
+            throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(
+                Math.max(1, Math.min(count, MAX_PREFILL_THREADS)),
+                new ThreadFactory() {
+                    public Thread newThread(final Runnable r) {
+                        final Thread thread = new Thread(r, "jedis-pool-prefill");
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+        try {
+            final List<Callable<Object>> adds = new ArrayList<Callable<Object>>(
+                    count);
+            for (int i = 0; i < count; i++) {
+                adds.add(new Callable<Object>() {
+                    public Object call() throws Exception {
+                        PREFILLING.set(Boolean.TRUE);
+                        try {
+                            pool.addObject();
+                        } finally {
+                            PREFILLING.remove();
+                        }
+                        return null;
+                    }
+                });
+            }
+            int added = 0;
+            Throwable error = null;
+            for (Future<Object> add : executor.invokeAll(adds)) {
+                try {
+                    add.get();
+                    added++;
+                } catch (ExecutionException e) {
+                    if (error == null) {
+                        error = e.getCause();
+                    }
+                }
+            }
+            if (error != null) {
+                throw new JedisConnectionException("Could only create "
+                        + added + " of " + count + " resources", error);
+            }
+            return added;
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return true if the calling thread is creating a resource for a
+     *         prefill, so factories that connect lazily can connect up front
+     */
+    protected static boolean isPrefilling() {
+        return PREFILLING.get() != null;
     }
 
     @SuppressWarnings("unchecked")
@@ -29,6 +169,10 @@ public abstract class Pool<T> {
     }
         
     public void returnResourceObject(final Object resource) {
+        if (isBroken(resource)) {
+            returnBrokenResourceObject(resource);
+            return;
+        }
         try {
             internalPool.returnObject(resource);
         } catch (Exception e) {
@@ -61,4 +205,151 @@ public abstract class Pool<T> {
             throw new JedisException("Could not destroy the pool", e);
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Lets a LockFreeObjectPool stand where a GenericObjectPool is expected.
+     * The getters report the config the pool was created with.
+     */
+    private static final class LockFreePoolView extends GenericObjectPool {
+        private final LockFreeObjectPool pool;
+
+        LockFreePoolView(final LockFreeObjectPool pool,
+                final GenericObjectPool.Config poolConfig) {
+            super(null, poolConfig);
+            this.pool = pool;
+        }
+
+        @Override
+        protected synchronized void startEvictor(final long delay) {
+            // the lock-free pool runs its own evictor
+        }
+
+        @Override
+        public Object borrowObject() throws Exception {
+            return pool.borrowObject();
+        }
+
+        @Override
+        public void returnObject(final Object obj) throws Exception {
+            pool.returnObject(obj);
+        }
+
+        @Override
+        public void invalidateObject(final Object obj) throws Exception {
+            pool.invalidateObject(obj);
+        }
+
+        @Override
+        public void addObject() throws Exception {
+            pool.addObject();
+        }
+
+        @Override
+        public int getNumActive() {
+            return pool.getNumActive();
+        }
+
+        @Override
+        public int getNumIdle() {
+            return pool.getNumIdle();
+        }
+
+        @Override
+        public void clear() {
+            pool.clear();
+        }
+
+        @Override
+        public void close() throws Exception {
+            pool.close();
+        }
+
+        @Override
+        public void evict() throws Exception {
+            pool.evict();
+        }
+
+        @Override
+        public void setFactory(final PoolableObjectFactory factory) {
+            throw new IllegalStateException("Cannot change factory");
+        }
+
+        @Override
+        public void setConfig(final GenericObjectPool.Config conf) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setMaxActive(final int maxActive) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setWhenExhaustedAction(final byte whenExhaustedAction) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setMaxWait(final long maxWait) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setMaxIdle(final int maxIdle) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setMinIdle(final int minIdle) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setTestOnBorrow(final boolean testOnBorrow) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setTestOnReturn(final boolean testOnReturn) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setTimeBetweenEvictionRunsMillis(
+                final long timeBetweenEvictionRunsMillis) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setNumTestsPerEvictionRun(final int numTestsPerEvictionRun) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setMinEvictableIdleTimeMillis(
+                final long minEvictableIdleTimeMillis) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setSoftMinEvictableIdleTimeMillis(
+                final long softMinEvictableIdleTimeMillis) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setTestWhileIdle(final boolean testWhileIdle) {
+            throw unsupported();
+        }
+
+        @Override
+        public void setLifo(final boolean lifo) {
+            throw unsupported();
+        }
+
+        private static UnsupportedOperationException unsupported() {
+            return new UnsupportedOperationException(
+                    "A lock-free pool can't be reconfigured once created");
+        }
+    }
+}
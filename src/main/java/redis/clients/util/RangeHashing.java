@@ -0,0 +1,12 @@
+package redis.clients.util;
+
+/**
+ * A Hashing that can hash part of an array in place, so that a key tag can be
+ * hashed without being copied out of its key.
+ */
+public interface RangeHashing extends Hashing {
+    /**
+     * @return the same as {@link #hash(byte[])} of a copy of the range
+     */
+    public long hash(byte[] key, int offset, int length);
+}
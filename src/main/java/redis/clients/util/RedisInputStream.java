@@ -16,9 +16,13 @@
 
 package redis.clients.util;
 
+import java.io.ByteArrayOutputStream;
 import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
 
 import redis.clients.jedis.exceptions.JedisConnectionException;
 
@@ -41,11 +45,136 @@ public class RedisInputStream extends FilterInputStream {
     }
 
     public byte readByte() throws IOException {
-        if (count == limit) {
-            fill();
+        ensureFill();
+        return buf[count++];
+    }
+
+    /**
+     * Returns true and consumes the bytes if the buffered input continues with
+     * "OK\r\n", so the most common status reply can be recognized in place.
+     * Nothing is consumed otherwise.
+     */
+    public boolean readOkCrLf() {
+        ensureFill();
+        if (limit - count >= 4 && buf[count] == 'O' && buf[count + 1] == 'K'
+                && buf[count + 2] == '\r' && buf[count + 3] == '\n') {
+            count += 4;
+            return true;
         }
+        return false;
+    }
 
-        return buf[count++];
+    /**
+     * Reads a line up to the CRLF delimiter as raw bytes, without going
+     * through a StringBuilder and a String.
+     */
+    public byte[] readLineBytes() {
+        ensureFill();
+
+        int pos = count;
+        while (pos < limit - 1) {
+            if (buf[pos] == '\r' && buf[pos + 1] == '\n') {
+                final int n = pos - count;
+                final byte[] line = new byte[n];
+                System.arraycopy(buf, count, line, 0, n);
+                count = pos + 2;
+                return line;
+            }
+            pos++;
+        }
+        return readLineBytesSlowly();
+    }
+
+    private byte[] readLineBytesSlowly() {
+        ByteArrayOutputStream bout = null;
+        while (true) {
+            ensureFill();
+
+            byte b = buf[count++];
+            if (b == '\r') {
+                ensureFill();
+                byte c = buf[count++];
+                if (c == '\n') {
+                    break;
+                }
+                if (bout == null) {
+                    bout = new ByteArrayOutputStream(16);
+                }
+                bout.write(b);
+                bout.write(c);
+            } else {
+                if (bout == null) {
+                    bout = new ByteArrayOutputStream(16);
+                }
+                bout.write(b);
+            }
+        }
+        return bout == null ? new byte[0] : bout.toByteArray();
+    }
+
+    /**
+     * Parses a CRLF terminated decimal integer straight from the buffer, as
+     * found after the ':', '$' and '*' reply markers.
+     */
+    public int readIntCrLf() {
+        final long value = readLongCrLf();
+        if (value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) {
+            throw new JedisConnectionException("Number out of range: " + value);
+        }
+        return (int) value;
+    }
+
+    public long readLongCrLf() {
+        final byte[] buf = this.buf;
+
+        ensureFill();
+
+        final boolean isNeg = buf[count] == '-';
+        if (isNeg) {
+            ++count;
+        }
+
+        // accumulated negatively so that Long.MIN_VALUE can be read too
+        long value = 0;
+        int digits = 0;
+        while (true) {
+            ensureFill();
+
+            final int b = buf[count++];
+            if (b == '\r') {
+                ensureFill();
+
+                if (buf[count++] != '\n') {
+                    throw new JedisConnectionException(
+                            "Unexpected character while reading a number");
+                }
+                break;
+            } else if (b < '0' || b > '9') {
+                throw new JedisConnectionException(
+                        "Unexpected character while reading a number: "
+                                + (char) b);
+            } else {
+                final int digit = b - '0';
+                if (value < (Long.MIN_VALUE + digit) / 10) {
+                    throw new JedisConnectionException(
+                            "Number out of range while reading a number");
+                }
+                value = value * 10 - digit;
+                digits++;
+            }
+        }
+        if (digits == 0) {
+            throw new JedisConnectionException(
+                    "Empty number while reading a number");
+        }
+        if (!isNeg) {
+            if (value == Long.MIN_VALUE) {
+                throw new JedisConnectionException(
+                        "Number out of range while reading a number");
+            }
+            return -value;
+        }
+        return value;
     }
 
     public String readLine() {
@@ -94,7 +223,7 @@ public class RedisInputStream extends FilterInputStream {
     }
 
     public int read(byte[] b, int off, int len) throws IOException {
-        if (count == limit) {
+        if (count >= limit) {
             fill();
             if (limit == -1)
                 return -1;
@@ -105,8 +234,123 @@ public class RedisInputStream extends FilterInputStream {
         return length;
     }
 
+    /**
+     * Skips bytes from the internal buffer first and only then from the
+     * underlying stream, so buffered data is never lost.
+     */
+    public long skip(final long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n) {
+            ensureFill();
+            final int length = (int) Math.min(limit - count, n - skipped);
+            count += length;
+            skipped += length;
+        }
+        return skipped;
+    }
+
+    public int available() throws IOException {
+        return Math.max(limit - count, 0) + in.available();
+    }
+
+    /**
+     * Writes exactly len bytes of the stream to the given channel, handing it
+     * slices of the internal buffer so no intermediate array is allocated.
+     */
+    public void transferTo(final WritableByteChannel target, final long len)
+            throws IOException {
+        long remaining = len;
+        while (remaining > 0) {
+            ensureFill();
+            final int length = (int) Math.min(limit - count, remaining);
+            final ByteBuffer slice = ByteBuffer.wrap(buf, count, length);
+            while (slice.hasRemaining()) {
+                target.write(slice);
+            }
+            count += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Copies exactly len bytes of the stream into the given buffer, which may
+     * be a direct or memory mapped one.
+     */
+    public void readFully(final ByteBuffer target, final int len) {
+        if (target.remaining() < len) {
+            throw new BufferOverflowException();
+        }
+        int remaining = len;
+        while (remaining > 0) {
+            ensureFill();
+            final int length = Math.min(limit - count, remaining);
+            target.put(buf, count, length);
+            count += length;
+            remaining -= length;
+        }
+    }
+
+    /**
+     * Consumes the next len bytes and returns their offset in
+     * {@link #getBuffer()}, first moving the unread bytes to the start of the
+     * buffer if the len bytes aren't already contiguous in it. Returns -1 and
+     * consumes nothing if len is larger than the buffer.
+     */
+    public int consumeInPlace(final int len) {
+        if (len > buf.length) {
+            return -1;
+        }
+        int available = Math.max(limit - count, 0);
+        if (available < len) {
+            System.arraycopy(buf, count, buf, 0, available);
+            count = 0;
+            limit = available;
+            try {
+                while (limit < len) {
+                    final int read = in.read(buf, limit, buf.length - limit);
+                    if (read == -1) {
+                        throw new JedisConnectionException(
+                                "It seems like server has closed the connection.");
+                    }
+                    limit += read;
+                }
+            } catch (IOException e) {
+                throw new JedisConnectionException(e);
+            }
+        }
+        final int offset = count;
+        count += len;
+        return offset;
+    }
+
+    /**
+     * Returns the internal buffer. Only the range handed out by
+     * {@link #consumeInPlace(int)} is meaningful, and only until the next read.
+     */
+    public byte[] getBuffer() {
+        return buf;
+    }
+
     private void fill() throws IOException {
         limit = in.read(buf);
         count = 0;
     }
+
+    /**
+     * Makes sure there is at least one unread byte in the buffer, reading from
+     * the underlying stream if needed.
+     */
+    private void ensureFill() {
+        if (count >= limit) {
+            try {
+                fill();
+            } catch (IOException e) {
+                throw new JedisConnectionException(e);
+            }
+            if (limit == -1) {
+                throw new JedisConnectionException(
+                        "It seems like server has closed the connection.");
+            }
+        }
+    }
 }
@@ -1,6 +1,8 @@
 package redis.clients.util;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
 
 /**
  * The class implements a buffered output stream without synchronization
@@ -56,6 +58,50 @@ public final class RedisOutputStream extends FilterOutputStream {
         }
     }
 
+    /**
+     * Copies exactly len bytes from the given stream, reading them directly
+     * into the internal buffer.
+     */
+    public void write(final InputStream in, final long len) throws IOException {
+        long remaining = len;
+        while (remaining > 0) {
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            final int read = in.read(buf, count,
+                    (int) Math.min(buf.length - count, remaining));
+            if (read == -1) {
+                throw new EOFException("Stream ended " + remaining
+                        + " bytes before the declared length");
+            }
+            count += read;
+            remaining -= read;
+        }
+    }
+
+    /**
+     * Copies exactly len bytes from the given channel, reading them directly
+     * into the internal buffer. For a FileChannel this is a single copy from
+     * the file to the buffer.
+     */
+    public void write(final ReadableByteChannel in, final long len)
+            throws IOException {
+        long remaining = len;
+        while (remaining > 0) {
+            if (count == buf.length) {
+                flushBuffer();
+            }
+            final int read = in.read(ByteBuffer.wrap(buf, count,
+                    (int) Math.min(buf.length - count, remaining)));
+            if (read == -1) {
+                throw new EOFException("Channel ended " + remaining
+                        + " bytes before the declared length");
+            }
+            count += read;
+            remaining -= read;
+        }
+    }
+
     public void writeAsciiCrLf(final String in) throws IOException {
         final int size = in.length();
 
@@ -73,17 +119,32 @@ public final class RedisOutputStream extends FilterOutputStream {
         return ch >= Character.MIN_SURROGATE && ch <= Character.MAX_SURROGATE;
     }
 
-    public static int utf8Length (final String str) {
-        int strLen = str.length(), utfLen = 0;
-        for(int i = 0; i != strLen; ++i) {
+    /**
+     * Returns the length of the UTF-8 encoding of the given string, matching
+     * what String.getBytes("UTF-8") produces: unpaired surrogates count as the
+     * single '?' they are replaced with.
+     */
+    public static int utf8Length(final String str) {
+        final int strLen = str.length();
+        int i = 0;
+        while (i < strLen && str.charAt(i) < 0x80) {
+            i++;
+        }
+        int utfLen = i;
+        for (; i < strLen; i++) {
             char c = str.charAt(i);
             if (c < 0x80) {
                 utfLen++;
             } else if (c < 0x800) {
                 utfLen += 2;
             } else if (isSurrogate(c)) {
-                i++;
-                utfLen += 4;
+                if (Character.isHighSurrogate(c) && i + 1 < strLen
+                        && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    i++;
+                    utfLen += 4;
+                } else {
+                    utfLen++;
+                }
             } else {
                 utfLen += 3;
             }
@@ -130,11 +191,17 @@ public final class RedisOutputStream extends FilterOutputStream {
                 if(4 >= buf.length - count) {
                     flushBuffer();
                 }
-                int uc = Character.toCodePoint(c, str.charAt(i++));
-                buf[count++] = ((byte)(0xf0 | ((uc >> 18))));
-                buf[count++] = ((byte)(0x80 | ((uc >> 12) & 0x3f)));
-                buf[count++] = ((byte)(0x80 | ((uc >> 6) & 0x3f)));
-                buf[count++] = ((byte)(0x80 | (uc & 0x3f)));
+                if (Character.isHighSurrogate(c) && i + 1 < strLen
+                        && Character.isLowSurrogate(str.charAt(i + 1))) {
+                    int uc = Character.toCodePoint(c, str.charAt(++i));
+                    buf[count++] = ((byte)(0xf0 | ((uc >> 18))));
+                    buf[count++] = ((byte)(0x80 | ((uc >> 12) & 0x3f)));
+                    buf[count++] = ((byte)(0x80 | ((uc >> 6) & 0x3f)));
+                    buf[count++] = ((byte)(0x80 | (uc & 0x3f)));
+                } else {
+                    // unpaired surrogate, replaced like String.getBytes does
+                    buf[count++] = '?';
+                }
             } else {
                 if(3 >= buf.length - count) {
                     flushBuffer();
@@ -187,7 +254,7 @@ public final class RedisOutputStream extends FilterOutputStream {
 
     public void writeIntCrLf(int value) throws IOException {
         if (value < 0) {
-            write('-');
+            write((byte) '-');
             value = -value;
         }
 
@@ -223,6 +290,153 @@ public final class RedisOutputStream extends FilterOutputStream {
         writeCrLf();
     }
 
+    /**
+     * Returns the number of characters of the decimal representation of the
+     * given value, sign included.
+     */
+    public static int longLength(final long value) {
+        if (value == Long.MIN_VALUE) {
+            return 20;
+        }
+        final long abs = value < 0 ? -value : value;
+        int digits = 1;
+        long p = 10;
+        while (digits < 19 && abs >= p) {
+            digits++;
+            p *= 10;
+        }
+        return value < 0 ? digits + 1 : digits;
+    }
+
+    public void writeLongCrLf(long value) throws IOException {
+        if (value > Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
+            writeIntCrLf((int) value);
+            return;
+        }
+        if (value == Long.MIN_VALUE) {
+            writeAsciiCrLf(String.valueOf(value));
+            return;
+        }
+
+        final int size = longLength(value);
+        if (size >= buf.length - count) {
+            flushBuffer();
+        }
+
+        int charPos = count + size;
+        final boolean isNeg = value < 0;
+        if (isNeg) {
+            value = -value;
+        }
+        do {
+            final long q = value / 10;
+            buf[--charPos] = digits[(int) (value - q * 10)];
+            value = q;
+        } while (value != 0);
+        if (isNeg) {
+            buf[--charPos] = '-';
+        }
+        count += size;
+
+        writeCrLf();
+    }
+
+    // exactly representable, so m / 10^k is the correctly rounded m * 10^-k
+    private final static double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4,
+            1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+            1e17 };
+    // the longs below this are exactly representable as doubles
+    private final static double MAX_EXACT_LONG = 9007199254740992d;
+
+    private static boolean isIntegral(final double value) {
+        return value == (long) value && Math.abs(value) < 1e18;
+    }
+
+    /**
+     * Returns the fewest decimals k for which value is the double nearest to
+     * some m * 10^-k with |m| < 2^53, or -1 if there is none.
+     */
+    private static int decimalScale(final double value) {
+        for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+            final double scaled = value * POWERS_OF_TEN[scale];
+            if (!(Math.abs(scaled) < MAX_EXACT_LONG)) {
+                return -1;
+            }
+            if (Math.round(scaled) / POWERS_OF_TEN[scale] == value) {
+                return scale;
+            }
+        }
+        return -1;
+    }
+
+    private static int decimalLength(final long unscaled, final int scale) {
+        final int digits = longLength(Math.abs(unscaled));
+        final int length = Math.max(digits - scale, 1) + 1 + scale;
+        return unscaled < 0 ? length + 1 : length;
+    }
+
+    /**
+     * Returns the number of characters {@link #writeDoubleCrLf(double)} writes
+     * for the given value, CRLF excluded.
+     */
+    public static int doubleLength(final double value) {
+        if (isIntegral(value)) {
+            return longLength((long) value);
+        }
+        final int scale = decimalScale(value);
+        if (scale < 0) {
+            return String.valueOf(value).length();
+        }
+        return decimalLength(Math.round(value * POWERS_OF_TEN[scale]), scale);
+    }
+
+    /**
+     * Writes the value as the plain decimal with the fewest decimals that
+     * reads back as the same double, e.g. 2 or 0.1, straight into the buffer.
+     * Values with no such decimal of at most 17 decimals and 16 digits, such
+     * as 1e-20, NaN and the infinities, are written as
+     * {@link Double#toString(double)}, which allocates.
+     */
+    public void writeDoubleCrLf(final double value) throws IOException {
+        if (isIntegral(value)) {
+            writeLongCrLf((long) value);
+            return;
+        }
+        final int scale = decimalScale(value);
+        if (scale < 0) {
+            writeAsciiCrLf(String.valueOf(value));
+            return;
+        }
+        long unscaled = Math.round(value * POWERS_OF_TEN[scale]);
+        final int size = decimalLength(unscaled, scale);
+        if (size >= buf.length - count) {
+            flushBuffer();
+        }
+
+        int charPos = count + size;
+        final boolean isNeg = unscaled < 0;
+        if (isNeg) {
+            unscaled = -unscaled;
+        }
+        for (int i = 0; i < scale; i++) {
+            final long q = unscaled / 10;
+            buf[--charPos] = digits[(int) (unscaled - q * 10)];
+            unscaled = q;
+        }
+        buf[--charPos] = '.';
+        do {
+            final long q = unscaled / 10;
+            buf[--charPos] = digits[(int) (unscaled - q * 10)];
+            unscaled = q;
+        } while (unscaled != 0);
+        if (isNeg) {
+            buf[--charPos] = '-';
+        }
+        count += size;
+
+        writeCrLf();
+    }
+
     public void flush() throws IOException {
         flushBuffer();
         out.flush();
@@ -40,4 +40,13 @@ public class SafeEncoder {
             throw new JedisException(e);
         }
     }
+
+    public static String encode(final byte[] data, final int off,
+            final int len) {
+        try {
+            return new String(data, off, len, Protocol.CHARSET);
+        } catch (UnsupportedEncodingException e) {
+            throw new JedisException(e);
+        }
+    }
 }
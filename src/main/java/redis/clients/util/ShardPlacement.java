@@ -0,0 +1,368 @@
+package redis.clients.util;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * How {@link Sharded} maps key hashes to shards. A placement builds a
+ * {@link Locator} for a list of shards once, and the locator is asked for the
+ * shard of every key.
+ * <p>
+ * Every placement gives each shard a share of the keys proportional to its
+ * weight, and moves few keys when a shard is added or removed. They differ in
+ * how even the shares are, what a lookup costs, and which changes to the
+ * list of shards they handle well:
+ * <ul>
+ * <li>{@link #RING}, the default: 160 points per weight unit on a ring. A
+ * lookup is a binary search. With many shards, the busiest one gets 20%
+ * more than its share.</li>
+ * <li>{@link #JUMP}: jump consistent hash. Nearly even shares and a lookup in
+ * a few multiplications, but shards can only be added or removed at the end
+ * of the list without moving most keys.</li>
+ * <li>{@link #RENDEZVOUS}: weighted highest random weight hashing. Nearly even
+ * shares and any shard can come or go, but a lookup scores every shard.</li>
+ * <li>{@link #BOUNDED_LOAD}: the ring, with no shard taking more than 1.05
+ * times its share of the hash space; the rest goes on to the next points of
+ * the ring. A lookup is a binary search.</li>
+ * </ul>
+ */
+public abstract class ShardPlacement {
+    public static final ShardPlacement RING = new ShardPlacement() {
+        public Locator place(List<? extends ShardInfo<?>> shards, Hashing algo) {
+            return new RingLocator(shards, algo);
+        }
+    };
+
+    public static final ShardPlacement JUMP = new ShardPlacement() {
+        public Locator place(List<? extends ShardInfo<?>> shards, Hashing algo) {
+            return new JumpLocator(shards);
+        }
+    };
+
+    public static final ShardPlacement RENDEZVOUS = new ShardPlacement() {
+        public Locator place(List<? extends ShardInfo<?>> shards, Hashing algo) {
+            return new RendezvousLocator(shards, algo);
+        }
+    };
+
+    public static final ShardPlacement BOUNDED_LOAD = boundedLoad(1.05);
+
+    /**
+     * Consistent hashing with bounded loads: the arcs of the ring go to the
+     * shards of their points as long as these have less than maxLoad times
+     * their share of the hash space, and on to the next points otherwise.
+     *
+     * @param maxLoad
+     *            at least 1. The lower, the more even the shares, and the
+     *            more keys move when a shard is added or removed.
+     */
+    public static ShardPlacement boundedLoad(final double maxLoad) {
+        if (maxLoad < 1) {
+            throw new IllegalArgumentException("maxLoad must be at least 1");
+        }
+        return new ShardPlacement() {
+            public Locator place(List<? extends ShardInfo<?>> shards,
+                    Hashing algo) {
+                return new BoundedLoadLocator(new RingLocator(shards, algo),
+                        shards, maxLoad);
+            }
+        };
+    }
+
+    /**
+     * Builds the locator for a list of shards.
+     *
+     * @param algo
+     *            the hashing keys are hashed with, for placements that need
+     *            to hash shards too
+     */
+    public abstract Locator place(List<? extends ShardInfo<?>> shards,
+            Hashing algo);
+
+    public interface Locator {
+        /**
+         * @return the index in the list of shards of the shard that keys
+         *         with this hash belong to
+         */
+        public int getShard(long hash);
+
+        /**
+         * @return the number of nodes: the points or segments of a ring, or
+         *         the shards themselves
+         */
+        public int getNodeCount();
+
+        /**
+         * @return the index of the shard owning a node
+         */
+        public int getNodeShard(int node);
+    }
+
+    /**
+     * @return the total weight of the shards
+     */
+    private static int totalWeight(List<? extends ShardInfo<?>> shards) {
+        int total = 0;
+        for (ShardInfo<?> shard : shards) {
+            total += shard.getWeight();
+        }
+        return total;
+    }
+
+    /**
+     * The final mix of MurmurHash3, which spreads any change of its input over
+     * all of its output bits.
+     */
+    private static long mix(long k) {
+        k ^= k >>> 33;
+        k *= 0xff51afd7ed558ccdL;
+        k ^= k >>> 33;
+        k *= 0xc4ceb9fe1a85ec53L;
+        k ^= k >>> 33;
+        return k;
+    }
+
+    private static final class RingLocator implements Locator {
+        // node hashes in ascending order, and the shard of each node
+        private final long[] nodeHashes;
+        private final int[] nodeShards;
+
+        RingLocator(List<? extends ShardInfo<?>> shards, Hashing algo) {
+            // a node whose hash collides with an earlier one replaces it
+            final TreeMap<Long, Integer> nodes = new TreeMap<Long, Integer>();
+            for (int i = 0; i != shards.size(); ++i) {
+                final ShardInfo<?> shardInfo = shards.get(i);
+                if (shardInfo.getName() == null) {
+                    for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
+                        nodes.put(algo.hash("SHARD-" + i + "-NODE-" + n), i);
+                    }
+                } else {
+                    for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
+                        nodes.put(algo.hash(shardInfo.getName() + "*"
+                                + shardInfo.getWeight() + n), i);
+                    }
+                }
+            }
+
+            nodeHashes = new long[nodes.size()];
+            nodeShards = new int[nodes.size()];
+            int node = 0;
+            for (Map.Entry<Long, Integer> entry : nodes.entrySet()) {
+                nodeHashes[node] = entry.getKey();
+                nodeShards[node] = entry.getValue();
+                node++;
+            }
+        }
+
+        public int getShard(long hash) {
+            return nodeShards[getNode(hash)];
+        }
+
+        /**
+         * @return the first node at or after the hash, wrapping around
+         */
+        int getNode(long hash) {
+            int node = Arrays.binarySearch(nodeHashes, hash);
+            if (node < 0) {
+                node = -node - 1;
+                if (node == nodeHashes.length) {
+                    node = 0;
+                }
+            }
+            return node;
+        }
+
+        public int getNodeCount() {
+            return nodeShards.length;
+        }
+
+        public int getNodeShard(int node) {
+            return nodeShards[node];
+        }
+    }
+
+    /**
+     * Jump consistent hash, by Lamping and Veach. A shard of weight w takes w
+     * consecutive slots.
+     */
+    private static final class JumpLocator implements Locator {
+        private final int[] slotShards;
+
+        JumpLocator(List<? extends ShardInfo<?>> shards) {
+            slotShards = new int[totalWeight(shards)];
+            int slot = 0;
+            for (int i = 0; i < shards.size(); i++) {
+                for (int n = 0; n < shards.get(i).getWeight(); n++) {
+                    slotShards[slot++] = i;
+                }
+            }
+        }
+
+        public int getShard(long hash) {
+            long key = hash;
+            long b = -1;
+            long j = 0;
+            while (j < slotShards.length) {
+                b = j;
+                key = key * 2862933555777941757L + 1;
+                j = (long) ((b + 1) * ((double) (1L << 31) / (double) ((key >>> 33) + 1)));
+            }
+            return slotShards[(int) b];
+        }
+
+        public int getNodeCount() {
+            return slotShards.length;
+        }
+
+        public int getNodeShard(int node) {
+            return slotShards[node];
+        }
+    }
+
+    /**
+     * Weighted rendezvous hashing: each shard scores the key, from the hash of
+     * the key and of the shard's name, and the highest score wins. Scores are
+     * weight / -ln(u) for a uniform u, which gives each shard its share.
+     */
+    private static final class RendezvousLocator implements Locator {
+        private final long[] seeds;
+        private final double[] weights;
+        // with equal weights, the highest u wins
+        private final boolean sameWeights;
+
+        RendezvousLocator(List<? extends ShardInfo<?>> shards, Hashing algo) {
+            seeds = new long[shards.size()];
+            weights = new double[shards.size()];
+            boolean same = true;
+            for (int i = 0; i < shards.size(); i++) {
+                final ShardInfo<?> shardInfo = shards.get(i);
+                seeds[i] = algo.hash(shardInfo.getName() == null ? "SHARD-"
+                        + i : shardInfo.getName());
+                weights[i] = shardInfo.getWeight();
+                same &= weights[i] == weights[0];
+            }
+            sameWeights = same;
+        }
+
+        public int getShard(long hash) {
+            int best = 0;
+            if (sameWeights) {
+                long bestScore = Long.MIN_VALUE;
+                for (int i = 0; i < seeds.length; i++) {
+                    final long score = mix(hash ^ seeds[i]) ^ Long.MIN_VALUE;
+                    if (score > bestScore) {
+                        bestScore = score;
+                        best = i;
+                    }
+                }
+                return best;
+            }
+            double bestScore = -1;
+            for (int i = 0; i < seeds.length; i++) {
+                // uniform in (0, 1)
+                final double u = ((mix(hash ^ seeds[i]) >>> 11) + 0.5)
+                        / (1L << 53);
+                final double score = weights[i] / -Math.log(u);
+                if (score > bestScore) {
+                    bestScore = score;
+                    best = i;
+                }
+            }
+            return best;
+        }
+
+        public int getNodeCount() {
+            return seeds.length;
+        }
+
+        public int getNodeShard(int node) {
+            return node;
+        }
+    }
+
+    /**
+     * The ring, with its arcs handed out in ring order: each arc goes to its
+     * node's shard as long as the shard has room left, and the rest of it to
+     * the next nodes whose shards do, splitting arcs where a shard fills up.
+     * The result is a ring of segments, looked up like the ring itself.
+     */
+    private static final class BoundedLoadLocator implements Locator {
+        // 2^64, the size of the hash space
+        private static final double SPACE = 18446744073709551616.0;
+
+        // segment ends in ascending order, and the shard of each segment
+        private final long[] segmentEnds;
+        private final int[] segmentShards;
+
+        BoundedLoadLocator(RingLocator ring, List<? extends ShardInfo<?>> shards,
+                double maxLoad) {
+            final int totalWeight = totalWeight(shards);
+            // the share of the hash space each shard can still take
+            final double[] room = new double[shards.size()];
+            for (int i = 0; i < room.length; i++) {
+                room[i] = maxLoad * shards.get(i).getWeight() / totalWeight;
+            }
+
+            final int nodes = ring.getNodeCount();
+            final TreeMap<Long, Integer> segments = new TreeMap<Long, Integer>();
+            for (int node = 0; node < nodes; node++) {
+                long start = ring.nodeHashes[node == 0 ? nodes - 1 : node - 1];
+                final long end = ring.nodeHashes[node];
+                double remaining = nodes == 1 ? 1 : toUnsignedDouble(end
+                        - start)
+                        / SPACE;
+                // shards are only full up to rounding errors, so give up on
+                // room after a full turn
+                for (int next = node, turn = 0; remaining > 0; turn++) {
+                    final int shard = ring.getNodeShard(next);
+                    if (room[shard] >= remaining || turn >= nodes) {
+                        room[shard] -= remaining;
+                        segments.put(end, shard);
+                        remaining = 0;
+                    } else if (room[shard] > 0) {
+                        start += (long) (room[shard] * SPACE);
+                        segments.put(start, shard);
+                        remaining -= room[shard];
+                        room[shard] = 0;
+                    }
+                    next = next + 1 == nodes ? 0 : next + 1;
+                }
+            }
+
+            segmentEnds = new long[segments.size()];
+            segmentShards = new int[segments.size()];
+            int segment = 0;
+            for (Map.Entry<Long, Integer> entry : segments.entrySet()) {
+                segmentEnds[segment] = entry.getKey();
+                segmentShards[segment] = entry.getValue();
+                segment++;
+            }
+        }
+
+        private static double toUnsignedDouble(long value) {
+            final double d = (double) (value >>> 1) * 2;
+            return d + (value & 1);
+        }
+
+        public int getShard(long hash) {
+            int segment = Arrays.binarySearch(segmentEnds, hash);
+            if (segment < 0) {
+                segment = -segment - 1;
+                if (segment == segmentEnds.length) {
+                    segment = 0;
+                }
+            }
+            return segmentShards[segment];
+        }
+
+        public int getNodeCount() {
+            return segmentShards.length;
+        }
+
+        public int getNodeShard(int node) {
+            return segmentShards[node];
+        }
+    }
+}
@@ -1,20 +1,23 @@
 package redis.clients.util;
 
+import java.util.AbstractList;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.SortedMap;
-import java.util.TreeMap;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 public class Sharded<R, S extends ShardInfo<R>> {
 
     public static final int DEFAULT_WEIGHT = 1;
-    private TreeMap<Long, S> nodes;
+    private List<S> shardInfos;
+    // gives the index in shardInfos of the shard of a key's hash
+    private ShardPlacement.Locator locator;
     private final Hashing algo;
+    private final ShardPlacement placement;
     private final Map<ShardInfo<R>, R> resources = new LinkedHashMap<ShardInfo<R>, R>();
 
     /**
@@ -24,6 +27,9 @@ public class Sharded<R, S extends ShardInfo<R>> {
      * improving performance a little bit is key tags aren't being used.
      */
     private Pattern tagPattern = null;
+    // true if tagPattern works like the default one, so keys can be scanned
+    // for tags by hand
+    private boolean defaultTagPattern = false;
     // the tag is anything between {}
     public static final Pattern DEFAULT_KEY_TAG_PATTERN = Pattern
             .compile("\\{(.+?)\\}");
@@ -34,8 +40,7 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public Sharded(List<S> shards, Hashing algo) {
-        this.algo = algo;
-        initialize(shards);
+        this(shards, algo, null, ShardPlacement.RING);
     }
 
     public Sharded(List<S> shards, Pattern tagPattern) {
@@ -45,26 +50,43 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public Sharded(List<S> shards, Hashing algo, Pattern tagPattern) {
+        this(shards, algo, tagPattern, ShardPlacement.RING);
+    }
+
+    /**
+     * @param placement
+     *            how keys are spread over the shards
+     *            ({@link ShardPlacement#RING} by default)
+     */
+    public Sharded(List<S> shards, Hashing algo, Pattern tagPattern,
+            ShardPlacement placement) {
         this.algo = algo;
+        this.placement = placement;
         this.tagPattern = tagPattern;
+        this.defaultTagPattern = tagPattern != null
+                && tagPattern.flags() == DEFAULT_KEY_TAG_PATTERN.flags()
+                && tagPattern.pattern().equals(
+                        DEFAULT_KEY_TAG_PATTERN.pattern());
         initialize(shards);
     }
 
     private void initialize(List<S> shards) {
-        nodes = new TreeMap<Long, S>();
-
-        for (int i = 0; i != shards.size(); ++i) {
-            final S shardInfo = shards.get(i);
-            if (shardInfo.getName() == null)
-            	for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
-            		nodes.put(this.algo.hash("SHARD-" + i + "-NODE-" + n), shardInfo);
-            	}
-            else
-            	for (int n = 0; n < 160 * shardInfo.getWeight(); n++) {
-            		nodes.put(this.algo.hash(shardInfo.getName() + "*" + shardInfo.getWeight() + n), shardInfo);
-            	}
-            resources.put(shardInfo, shardInfo.createResource());
+        for (S shardInfo : shards) {
+            resources.put(shardInfo, createResource(shardInfo));
         }
+        shardInfos = new ArrayList<S>(shards);
+        locator = placement.place(shardInfos, algo);
+    }
+
+    /**
+     * Creates the resource kept for a shard. Called by the constructor, so
+     * subclasses that get their resources elsewhere can return null instead
+     * of having one created for nothing; they must then override
+     * {@link #getShard(byte[])}, {@link #getShard(String)} and
+     * {@link #getAllShards()}.
+     */
+    protected R createResource(S shardInfo) {
+        return shardInfo.createResource();
     }
 
     public R getShard(byte[] key) {
@@ -76,15 +98,44 @@ public class Sharded<R, S extends ShardInfo<R>> {
     }
 
     public S getShardInfo(byte[] key) {
-        SortedMap<Long, S> tail = nodes.tailMap(algo.hash(key));
-        if (tail.isEmpty()) {
-            return nodes.get(nodes.firstKey());
+        if (tagPattern == null) {
+            return getShardInfo(algo.hash(key));
         }
-        return tail.get(tail.firstKey());
+        if (!defaultTagPattern) {
+            return getShardInfo(algo.hash(SafeEncoder.encode(getKeyTag(SafeEncoder
+                    .encode(key)))));
+        }
+        final long tag = findTag(key);
+        if (tag == -1) {
+            return getShardInfo(algo.hash(key));
+        }
+        final int start = (int) (tag >>> 32);
+        return getShardInfo(hash(key, start, (int) tag - start));
     }
 
     public S getShardInfo(String key) {
-        return getShardInfo(SafeEncoder.encode(getKeyTag(key)));
+        if (tagPattern == null) {
+            // hashes the key as its encoding would be, without encoding it
+            return getShardInfo(algo.hash(key));
+        }
+        if (defaultTagPattern) {
+            // the tag is found in the encoded key, as for binary keys
+            return getShardInfo(SafeEncoder.encode(key));
+        }
+        return getShardInfo(algo.hash(SafeEncoder.encode(getKeyTag(key))));
+    }
+
+    private S getShardInfo(long hash) {
+        return shardInfos.get(locator.getShard(hash));
+    }
+
+    private long hash(byte[] key, int offset, int length) {
+        if (algo instanceof RangeHashing) {
+            return ((RangeHashing) algo).hash(key, offset, length);
+        }
+        final byte[] part = new byte[length];
+        System.arraycopy(key, offset, part, 0, length);
+        return algo.hash(part);
     }
 
     /**
@@ -97,16 +148,161 @@ public class Sharded<R, S extends ShardInfo<R>> {
      * @return The tag if it exists, or the original key
      */
     public String getKeyTag(String key) {
-        if (tagPattern != null) {
-            Matcher m = tagPattern.matcher(key);
-            if (m.find())
-                return m.group(1);
+        if (tagPattern == null) {
+            return key;
+        }
+        if (defaultTagPattern) {
+            final long tag = findTag(key);
+            return tag == -1 ? key : key.substring((int) (tag >>> 32),
+                    (int) tag);
         }
+        Matcher m = tagPattern.matcher(key);
+        if (m.find())
+            return m.group(1);
         return key;
     }
 
+    /**
+     * Finds what {@link #DEFAULT_KEY_TAG_PATTERN} would match, without a
+     * regular expression: the text after the first '{' that is followed by
+     * at least one character and then a '}', none of them a line terminator.
+     * 
+     * @return the start of the tag in the high 32 bits and its end in the
+     *         low ones, or -1 if there is no tag
+     */
+    static long findTag(String key) {
+        final int length = key.length();
+        int i = key.indexOf('{');
+        while (i != -1 && i + 1 < length) {
+            // the first character of the tag may be anything, even a '}'
+            int j = i + 1;
+            char c = key.charAt(j);
+            if (isLineTerminator(c)) {
+                i = key.indexOf('{', j + 1);
+                continue;
+            }
+            j += Character.isHighSurrogate(c) && j + 1 < length
+                    && Character.isLowSurrogate(key.charAt(j + 1)) ? 2 : 1;
+            for (; j < length; j++) {
+                c = key.charAt(j);
+                if (c == '}') {
+                    return ((long) (i + 1) << 32) | j;
+                }
+                if (isLineTerminator(c)) {
+                    break;
+                }
+            }
+            if (j == length) {
+                return -1;
+            }
+            // no '{' before the line terminator can start a tag either
+            i = key.indexOf('{', j + 1);
+        }
+        return -1;
+    }
+
+    private static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028'
+                || c == '\u2029';
+    }
+
+    /**
+     * Same as {@link #findTag(String)} on the UTF-8 encoding of a key.
+     */
+    static long findTag(byte[] key) {
+        final int length = key.length;
+        int i = indexOfBrace(key, 0);
+        while (i != -1 && i + 1 < length) {
+            int j = i + 1;
+            int terminator = lineTerminatorLength(key, j);
+            if (terminator > 0) {
+                i = indexOfBrace(key, j + terminator);
+                continue;
+            }
+            j += charLength(key, j);
+            for (; j < length; j++) {
+                if (key[j] == '}') {
+                    return ((long) (i + 1) << 32) | j;
+                }
+                terminator = lineTerminatorLength(key, j);
+                if (terminator > 0) {
+                    break;
+                }
+            }
+            if (j >= length) {
+                return -1;
+            }
+            i = indexOfBrace(key, j + terminator);
+        }
+        return -1;
+    }
+
+    private static int indexOfBrace(byte[] key, int from) {
+        for (int i = from; i < key.length; i++) {
+            if (key[i] == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return the length of the UTF-8 encoded line terminator at the given
+     *         index, or 0 if there is none
+     */
+    private static int lineTerminatorLength(byte[] key, int i) {
+        final int b = key[i] & 0xff;
+        if (b == '\n' || b == '\r') {
+            return 1;
+        }
+        if (b == 0xc2 && i + 1 < key.length && (key[i + 1] & 0xff) == 0x85) {
+            return 2;
+        }
+        if (b == 0xe2 && i + 2 < key.length && (key[i + 1] & 0xff) == 0x80
+                && ((key[i + 2] & 0xff) == 0xa8 || (key[i + 2] & 0xff) == 0xa9)) {
+            return 3;
+        }
+        return 0;
+    }
+
+    /**
+     * @return the length of the UTF-8 encoded character at the given index
+     */
+    private static int charLength(byte[] key, int i) {
+        final int b = key[i] & 0xff;
+        final int length;
+        if (b < 0x80) {
+            length = 1;
+        } else if ((b & 0xe0) == 0xc0) {
+            length = 2;
+        } else if ((b & 0xf0) == 0xe0) {
+            length = 3;
+        } else if ((b & 0xf8) == 0xf0) {
+            length = 4;
+        } else {
+            length = 1;
+        }
+        return Math.min(length, key.length - i);
+    }
+
+    /**
+     * @return the shard of every node of the placement, in order: every point
+     *         of the ring by default
+     */
     public Collection<S> getAllShardInfo() {
-        return Collections.unmodifiableCollection(nodes.values());
+        return new AbstractList<S>() {
+            public S get(int index) {
+                return shardInfos.get(locator.getNodeShard(index));
+            }
+
+            public int size() {
+                return locator.getNodeCount();
+            }
+        };
+    }
+
+    public ShardPlacement getPlacement() {
+        return placement;
     }
 
     public Collection<R> getAllShards() {
@@ -0,0 +1,114 @@
+package redis.clients.util;
+
+/**
+ * Encodes characters to UTF-8 one at a time, the same way
+ * {@link SafeEncoder#encode(String)} does, so that strings can be hashed
+ * without being encoded to an array first.
+ */
+final class Utf8 {
+    /**
+     * Strings longer than this are encoded by String.getBytes faster than
+     * they can be hashed char by char, so hashes encode them first.
+     */
+    static final int STREAMED_CHARS = 24;
+
+    private Utf8() {
+    }
+
+    /**
+     * Packs the 8 chars at the given index into a word, the first one lowest,
+     * if they are all ASCII, which is how they would be encoded.
+     * 
+     * @return the word, or -1 if one of the chars isn't ASCII
+     */
+    static long ascii8(final CharSequence s, final int i) {
+        final char c0 = s.charAt(i);
+        final char c1 = s.charAt(i + 1);
+        final char c2 = s.charAt(i + 2);
+        final char c3 = s.charAt(i + 3);
+        final char c4 = s.charAt(i + 4);
+        final char c5 = s.charAt(i + 5);
+        final char c6 = s.charAt(i + 6);
+        final char c7 = s.charAt(i + 7);
+        if ((c0 | c1 | c2 | c3 | c4 | c5 | c6 | c7) >= 0x80) {
+            return -1;
+        }
+        return c0 | c1 << 8 | c2 << 16 | (long) c3 << 24 | (long) c4 << 32
+                | (long) c5 << 40 | (long) c6 << 48 | (long) c7 << 56;
+    }
+
+    /**
+     * Encodes the character at the given index, or the surrogate pair
+     * starting there. A surrogate that isn't part of a pair is encoded as
+     * '?'.
+     * 
+     * @return the bytes in the low 32 bits, the first one lowest, and their
+     *         number above them. Four bytes means two chars were encoded.
+     */
+    static long encode(final CharSequence s, final int i) {
+        final char c = s.charAt(i);
+        if (c < 0x80) {
+            return (1L << 32) | c;
+        }
+        if (c < 0x800) {
+            return (2L << 32) | (0x80 | (c & 0x3f)) << 8 | (0xc0 | (c >> 6));
+        }
+        if (isSurrogate(c)) {
+            final char low;
+            if (Character.isHighSurrogate(c) && i + 1 < s.length()
+                    && Character.isLowSurrogate(low = s.charAt(i + 1))) {
+                final int cp = Character.toCodePoint(c, low);
+                return (4L << 32) | (0x80L | (cp & 0x3f)) << 24
+                        | (0x80 | ((cp >> 6) & 0x3f)) << 16
+                        | (0x80 | ((cp >> 12) & 0x3f)) << 8
+                        | (0xf0 | (cp >> 18));
+            }
+            return (1L << 32) | '?';
+        }
+        return (3L << 32) | (0x80 | (c & 0x3f)) << 16
+                | (0x80 | ((c >> 6) & 0x3f)) << 8 | (0xe0 | (c >> 12));
+    }
+
+    private static boolean isSurrogate(final char c) {
+        return c >= Character.MIN_SURROGATE && c <= Character.MAX_SURROGATE;
+    }
+
+    /**
+     * @return the number of bytes of the encoded character
+     */
+    static int length(final long encoded) {
+        return (int) (encoded >>> 32);
+    }
+
+    /**
+     * @return the number of chars encoded
+     */
+    static int chars(final long encoded) {
+        return encoded >>> 32 == 4 ? 2 : 1;
+    }
+
+    /**
+     * @return the length of the UTF-8 encoding of a string
+     */
+    static int length(final CharSequence s) {
+        final int n = s.length();
+        int length = 0;
+        for (int i = 0; i < n; i++) {
+            final char c = s.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < n
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -0,0 +1,213 @@
+package redis.clients.util;
+
+/**
+ * The 64 bit xxHash, a fast non-cryptographic hash with very good
+ * distribution. See https://github.com/Cyan4973/xxHash for details.
+ * <p>
+ * Arrays are read in place and strings are hashed as their UTF-8 encoding,
+ * one character at a time, so hashing a key allocates nothing.
+ */
+public class XXHash64 implements RangeHashing {
+    private static final long PRIME1 = 0x9E3779B185EBCA87L;
+    private static final long PRIME2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long PRIME3 = 0x165667B19E3779F9L;
+    private static final long PRIME4 = 0x85EBCA77C2B2AE63L;
+    private static final long PRIME5 = 0x27D4EB2F165667C5L;
+
+    /**
+     * Hashes bytes in part of an array.
+     * 
+     * @return the 64 bit hash of the bytes
+     */
+    public static long hash64(byte[] data, int offset, int length, long seed) {
+        final int end = offset + length;
+        int i = offset;
+        long h;
+        if (length >= 32) {
+            long v1 = seed + PRIME1 + PRIME2;
+            long v2 = seed + PRIME2;
+            long v3 = seed;
+            long v4 = seed - PRIME1;
+            for (; end - i >= 32; i += 32) {
+                v1 = round(v1, getLong(data, i));
+                v2 = round(v2, getLong(data, i + 8));
+                v3 = round(v3, getLong(data, i + 16));
+                v4 = round(v4, getLong(data, i + 24));
+            }
+            h = merge(v1, v2, v3, v4);
+        } else {
+            h = seed + PRIME5;
+        }
+        h += length;
+
+        for (; end - i >= 8; i += 8) {
+            h = tail8(h, getLong(data, i));
+        }
+        if (end - i >= 4) {
+            h = tail4(h, getInt(data, i));
+            i += 4;
+        }
+        for (; i < end; i++) {
+            h = tail1(h, data[i] & 0xff);
+        }
+        return avalanche(h);
+    }
+
+    /**
+     * Hashes the UTF-8 encoding of a string, as encoded by
+     * {@link SafeEncoder#encode(String)}, without encoding it.
+     * 
+     * @return the 64 bit hash of the encoded string
+     */
+    public static long hash64(CharSequence data, long seed) {
+        long v1 = seed + PRIME1 + PRIME2;
+        long v2 = seed + PRIME2;
+        long v3 = seed;
+        long v4 = seed - PRIME1;
+        // full words waiting for the rest of their stripe
+        long w0 = 0, w1 = 0, w2 = 0;
+        int words = 0;
+        // the bytes of the next word
+        long word = 0;
+        int bytes = 0;
+        long length = 0;
+
+        final int n = data.length();
+        // chars before this index are encoded one by one
+        int slow = 0;
+        for (int i = 0; i < n;) {
+            long b = -1;
+            int count = 8;
+            if (i >= slow && n - i >= 8) {
+                b = Utf8.ascii8(data, i);
+                if (b == -1) {
+                    slow = i + 8;
+                }
+            }
+            if (b == -1) {
+                final long encoded = Utf8.encode(data, i);
+                count = Utf8.length(encoded);
+                b = encoded & 0xffffffffL;
+                i += Utf8.chars(encoded);
+            } else {
+                i += 8;
+            }
+            length += count;
+            word |= b << (bytes << 3);
+            bytes += count;
+            if (bytes < 8) {
+                continue;
+            }
+            switch (words) {
+            case 0:
+                w0 = word;
+                break;
+            case 1:
+                w1 = word;
+                break;
+            case 2:
+                w2 = word;
+                break;
+            default:
+                v1 = round(v1, w0);
+                v2 = round(v2, w1);
+                v3 = round(v3, w2);
+                v4 = round(v4, word);
+            }
+            words = (words + 1) & 3;
+            bytes -= 8;
+            word = bytes == 0 ? 0 : b >>> ((count - bytes) << 3);
+        }
+
+        long h = length >= 32 ? merge(v1, v2, v3, v4) : seed + PRIME5;
+        h += length;
+        if (words > 0) {
+            h = tail8(h, w0);
+        }
+        if (words > 1) {
+            h = tail8(h, w1);
+        }
+        if (words > 2) {
+            h = tail8(h, w2);
+        }
+        if (bytes >= 4) {
+            h = tail4(h, word & 0xffffffffL);
+            word >>>= 32;
+            bytes -= 4;
+        }
+        for (; bytes > 0; bytes--, word >>>= 8) {
+            h = tail1(h, (int) word & 0xff);
+        }
+        return avalanche(h);
+    }
+
+    public long hash(byte[] key) {
+        return hash64(key, 0, key.length, 0);
+    }
+
+    public long hash(byte[] key, int offset, int length) {
+        return hash64(key, offset, length, 0);
+    }
+
+    public long hash(String key) {
+        if (key.length() > Utf8.STREAMED_CHARS) {
+            return hash(SafeEncoder.encode(key));
+        }
+        return hash64(key, 0);
+    }
+
+    public long hash(CharSequence key) {
+        return hash64(key, 0);
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * PRIME2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * PRIME1;
+    }
+
+    private static long merge(long v1, long v2, long v3, long v4) {
+        long h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7)
+                + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+        h = (h ^ round(0, v1)) * PRIME1 + PRIME4;
+        h = (h ^ round(0, v2)) * PRIME1 + PRIME4;
+        h = (h ^ round(0, v3)) * PRIME1 + PRIME4;
+        return (h ^ round(0, v4)) * PRIME1 + PRIME4;
+    }
+
+    private static long tail8(long h, long k) {
+        h ^= round(0, k);
+        return Long.rotateLeft(h, 27) * PRIME1 + PRIME4;
+    }
+
+    private static long tail4(long h, long k) {
+        h ^= k * PRIME1;
+        return Long.rotateLeft(h, 23) * PRIME2 + PRIME3;
+    }
+
+    private static long tail1(long h, int b) {
+        h ^= b * PRIME5;
+        return Long.rotateLeft(h, 11) * PRIME1;
+    }
+
+    private static long avalanche(long h) {
+        h ^= h >>> 33;
+        h *= PRIME2;
+        h ^= h >>> 29;
+        h *= PRIME3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    static long getLong(byte[] data, int i) {
+        return (data[i] & 0xffL) | (data[i + 1] & 0xffL) << 8
+                | (data[i + 2] & 0xffL) << 16 | (data[i + 3] & 0xffL) << 24
+                | (data[i + 4] & 0xffL) << 32 | (data[i + 5] & 0xffL) << 40
+                | (data[i + 6] & 0xffL) << 48 | (data[i + 7] & 0xffL) << 56;
+    }
+
+    private static long getInt(byte[] data, int i) {
+        return (data[i] & 0xffL) | (data[i + 1] & 0xffL) << 8
+                | (data[i + 2] & 0xffL) << 16 | (data[i + 3] & 0xffL) << 24;
+    }
+}
@@ -0,0 +1,184 @@
+package redis.clients.jedis.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.AsyncJedis;
+import redis.clients.jedis.AsyncTransport;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisFuture;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
+
+public class AsyncJedisTest extends Assert {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    private JedisShardInfo shardInfo;
+    private AsyncJedis jedis;
+
+    @Before
+    public void setUp() throws Exception {
+        Jedis j = new Jedis(hnp.host, hnp.port, 500);
+        j.connect();
+        j.auth("foobared");
+        j.flushAll();
+        j.disconnect();
+
+        shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        jedis = new AsyncJedis(shardInfo);
+    }
+
+    @After
+    public void tearDown() {
+        jedis.close();
+    }
+
+    @Test
+    public void setAndGet() throws Exception {
+        JedisFuture<String> set = jedis.set("foo", "bar");
+        JedisFuture<String> get = jedis.get("foo");
+        JedisFuture<byte[]> binaryGet = jedis.get(SafeEncoder.encode("foo"));
+
+        assertEquals("OK", set.get());
+        assertEquals("bar", get.get());
+        assertArrayEquals(SafeEncoder.encode("bar"), binaryGet.get());
+        assertTrue(get.isDone());
+        assertEquals(0, jedis.getPendingCommands());
+    }
+
+    @Test
+    public void repliesAreMatchedInOrder() throws Exception {
+        List<JedisFuture<Long>> replies = new ArrayList<JedisFuture<Long>>();
+        for (int i = 0; i < 10000; i++) {
+            replies.add(jedis.incr("counter"));
+        }
+        for (int i = 0; i < replies.size(); i++) {
+            assertEquals(Long.valueOf(i + 1), replies.get(i).get());
+        }
+    }
+
+    @Test
+    public void multiBulkReplies() throws Exception {
+        jedis.hset("hash", "a", "1");
+        jedis.hset("hash", "b", "2");
+        Map<String, String> hash = jedis.hgetAll("hash").get();
+        assertEquals(2, hash.size());
+        assertEquals("1", hash.get("a"));
+
+        Map<byte[], byte[]> binaryHash = jedis.hgetAll(
+                SafeEncoder.encode("hash")).get();
+        assertArrayEquals(SafeEncoder.encode("2"),
+                binaryHash.get(SafeEncoder.encode("b")));
+
+        jedis.rpush("list", "a");
+        jedis.rpush("list", "b");
+        assertEquals(2, jedis.lrange("list", 0, -1).get().size());
+        assertNull(jedis.get("missing").get());
+    }
+
+    @Test
+    public void largeValue() throws Exception {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append((char) ('a' + i % 26));
+        }
+        String value = sb.toString();
+        jedis.set("large", value);
+        assertEquals(value, jedis.get("large").get());
+    }
+
+    @Test
+    public void largeMultiBulkReply() throws Exception {
+        String[] elements = new String[20000];
+        for (int i = 0; i < elements.length; i++) {
+            elements[i] = "element:" + i;
+        }
+        jedis.rpush("list", elements);
+        JedisFuture<List<String>> lrange = jedis.lrange("list", 0, -1);
+        JedisFuture<String> after = jedis.get("missing");
+
+        List<String> list = lrange.get();
+        assertEquals(elements.length, list.size());
+        for (int i = 0; i < elements.length; i++) {
+            assertEquals(elements[i], list.get(i));
+        }
+        assertNull(after.get());
+    }
+
+    @Test
+    public void errorReply() throws Exception {
+        jedis.set("foo", "bar");
+        JedisFuture<Long> error = jedis.incr("foo");
+        JedisFuture<String> after = jedis.get("foo");
+        try {
+            error.get();
+            fail("An ExecutionException should have been thrown");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof JedisDataException);
+        }
+        assertEquals("bar", after.get());
+    }
+
+    @Test
+    public void manyThreadsShareConnections() throws Exception {
+        AsyncTransport transport = new AsyncTransport(2);
+        final AsyncJedis shared = new AsyncJedis(transport, shardInfo, 4);
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            threads.add(new Thread() {
+                public void run() {
+                    try {
+                        JedisFuture<Long> last = null;
+                        for (int i = 0; i < 1000; i++) {
+                            last = shared.incr("counter");
+                        }
+                        last.get();
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals("8000", shared.get("counter").get());
+        shared.close();
+        transport.close();
+    }
+
+    @Test
+    public void commandsFailAfterClose() throws Exception {
+        jedis.close();
+        try {
+            jedis.get("foo").get();
+            fail("An ExecutionException should have been thrown");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof JedisConnectionException);
+        }
+    }
+
+    @Test(expected = JedisDataException.class)
+    public void wrongPassword() {
+        JedisShardInfo wrong = new JedisShardInfo(hnp.host, hnp.port);
+        wrong.setPassword("wrong");
+        new AsyncJedis(wrong);
+    }
+}
@@ -0,0 +1,119 @@
+package redis.clients.jedis.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.AutoPipelinedJedis;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.exceptions.JedisConnectionException;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
+
+public class AutoPipelinedJedisTest extends Assert {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    private JedisShardInfo shardInfo;
+    private AutoPipelinedJedis jedis;
+
+    @Before
+    public void setUp() throws Exception {
+        Jedis j = new Jedis(hnp.host, hnp.port, 500);
+        j.connect();
+        j.auth("foobared");
+        j.flushAll();
+        j.disconnect();
+
+        shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        jedis = new AutoPipelinedJedis(shardInfo);
+    }
+
+    @After
+    public void tearDown() {
+        jedis.close();
+    }
+
+    @Test
+    public void setAndGet() {
+        assertEquals("OK", jedis.set("foo", "bar"));
+        assertEquals("bar", jedis.get("foo"));
+        assertArrayEquals(SafeEncoder.encode("bar"),
+                jedis.get(SafeEncoder.encode("foo")));
+        assertNull(jedis.get("missing"));
+        assertEquals(Long.valueOf(1), jedis.rpush("list", "a"));
+        assertEquals(1, jedis.lrange("list", 0, -1).size());
+    }
+
+    @Test
+    public void errorReply() {
+        jedis.set("foo", "bar");
+        try {
+            jedis.incr("foo");
+            fail("A JedisDataException should have been thrown");
+        } catch (JedisDataException e) {
+        }
+        assertEquals("bar", jedis.get("foo"));
+    }
+
+    @Test
+    public void manyThreadsShareTheConnection() throws Exception {
+        runThreads(jedis);
+    }
+
+    @Test
+    public void manyThreadsWithDelay() throws Exception {
+        AutoPipelinedJedis delayed = new AutoPipelinedJedis(shardInfo, 16,
+                200);
+        runThreads(delayed);
+        delayed.close();
+    }
+
+    private void runThreads(final AutoPipelinedJedis shared)
+            throws InterruptedException {
+        final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int t = 0; t < 8; t++) {
+            final String key = "key" + t;
+            threads.add(new Thread() {
+                public void run() {
+                    try {
+                        for (int i = 0; i < 300; i++) {
+                            shared.incr("counter");
+                            shared.set(key, String.valueOf(i));
+                            assertEquals(String.valueOf(i), shared.get(key));
+                        }
+                    } catch (Throwable e) {
+                        failure.set(e);
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertNull(failure.get());
+        assertEquals("2400", shared.get("counter"));
+    }
+
+    @Test
+    public void commandsFailAfterClose() {
+        jedis.close();
+        assertFalse(jedis.isConnected());
+        try {
+            jedis.get("foo");
+            fail("A JedisConnectionException should have been thrown");
+        } catch (JedisConnectionException e) {
+        }
+    }
+}
@@ -1,9 +1,20 @@
 package redis.clients.jedis.tests;
 
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
 import org.junit.Assert;
 import org.junit.Test;
 
+import redis.clients.jedis.Builder;
 import redis.clients.jedis.BuilderFactory;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.VisitorBuilder;
+import redis.clients.util.RedisInputStream;
 
 public class BuilderFactoryTest extends Assert {
     @Test
@@ -11,4 +22,53 @@ public class BuilderFactoryTest extends Assert {
         Double build = BuilderFactory.DOUBLE.build("1.0".getBytes());
         assertEquals(new Double(1.0), build);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void visitString() {
+        assertEquals("OK", visit(BuilderFactory.STRING, "+OK\r\n"));
+        assertEquals("bar", visit(BuilderFactory.STRING, "$3\r\nbar\r\n"));
+        assertNull(visit(BuilderFactory.STRING, "$-1\r\n"));
+    }
+
+    @Test
+    public void visitStringList() {
+        assertEquals(Arrays.asList("a", null, "c"), visit(
+                BuilderFactory.STRING_LIST,
+                "*3\r\n$1\r\na\r\n$-1\r\n$1\r\nc\r\n"));
+        assertNull(visit(BuilderFactory.STRING_LIST, "*-1\r\n"));
+    }
+
+    @Test
+    public void visitStringSet() {
+        Set<String> expected = new HashSet<String>(Arrays.asList("a", "b"));
+        assertEquals(expected, visit(BuilderFactory.STRING_SET,
+                "*2\r\n$1\r\na\r\n$1\r\nb\r\n"));
+    }
+
+    @Test
+    public void visitStringMap() {
+        Map<String, String> expected = new HashMap<String, String>();
+        expected.put("f1", "v1");
+        expected.put("f2", "v2");
+        assertEquals(expected, visit(BuilderFactory.STRING_MAP,
+                "*4\r\n$2\r\nf1\r\n$2\r\nv1\r\n$2\r\nf2\r\n$2\r\nv2\r\n"));
+    }
+
+    @Test
+    public void visitError() {
+        VisitorBuilder.Visitor<String> visitor = ((VisitorBuilder<String>) BuilderFactory.STRING)
+                .visitor();
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(
+                "-ERR wrong\r\n".getBytes())), visitor);
+        assertEquals("ERR wrong", visitor.getError());
+    }
+
+    private static <T> T visit(Builder<T> builder, String reply) {
+        VisitorBuilder.Visitor<T> visitor = ((VisitorBuilder<T>) builder)
+                .visitor();
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(reply
+                .getBytes())), visitor);
+        assertNull(visitor.getError());
+        return visitor.get();
+    }
+}
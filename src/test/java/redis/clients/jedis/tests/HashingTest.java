@@ -0,0 +1,157 @@
+package redis.clients.jedis.tests;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import redis.clients.util.Hashing;
+import redis.clients.util.MurmurHash;
+import redis.clients.util.MurmurHash3;
+import redis.clients.util.RangeHashing;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.XXHash64;
+
+public class HashingTest extends Assert {
+    private static final Hashing[] ALGOS = { Hashing.MURMUR_HASH,
+            Hashing.XXHASH, Hashing.MURMUR3_HASH };
+
+    @Test
+    public void xxHashKnownAnswers() {
+        assertEquals(0xEF46DB3751D8E999L, Hashing.XXHASH.hash(""));
+        assertEquals(0xD24EC4F1A98C6E5BL, Hashing.XXHASH.hash("a"));
+        assertEquals(0x44BC2CF5AD770999L, Hashing.XXHASH.hash("abc"));
+        assertEquals(0xFBCEA83C8A378BF1L, Hashing.XXHASH
+                .hash("Nobody inspects the spammish repetition"));
+    }
+
+    @Test
+    public void murmur3KnownAnswers() {
+        assertEquals(0L, Hashing.MURMUR3_HASH.hash(""));
+        assertEquals(0x629942693e10f867L, Hashing.MURMUR3_HASH.hash("hell"));
+        assertEquals(0xe34bbc7bbc071b6cL, Hashing.MURMUR3_HASH
+                .hash("The quick brown fox jumps over the lazy dog"));
+        assertEquals(0x658ca970ff85269aL, Hashing.MURMUR3_HASH
+                .hash("The quick brown fox jumps over the lazy cog"));
+    }
+
+    @Test
+    public void stringsHashLikeTheirEncoding() {
+        Random random = new Random(42);
+        for (int n = 0; n < 2000; n++) {
+            // mostly ASCII keys every other time
+            String key = randomString(random, random.nextInt(80),
+                    n % 2 == 0 ? 6 : 60);
+            byte[] encoded = SafeEncoder.encode(key);
+            for (Hashing algo : ALGOS) {
+                assertEquals(key, algo.hash(encoded), algo.hash(key));
+            }
+            // long strings are encoded by hash(String), but not here
+            assertEquals(XXHash64.hash64(encoded, 0, encoded.length, 0),
+                    XXHash64.hash64(key, 0));
+            assertEquals(MurmurHash3.hash64(encoded, 0, encoded.length, 0),
+                    MurmurHash3.hash64(key, 0));
+            assertEquals(MurmurHash.hash64A(encoded, 7),
+                    MurmurHash.hash64A(key, 7));
+            // the ring placement of MurmurHash must not change
+            assertEquals(MurmurHash.hash64A(ByteBuffer.wrap(encoded),
+                    0x1234ABCD), Hashing.MURMUR_HASH.hash(key));
+        }
+    }
+
+    @Test
+    public void rangesHashLikeTheirCopy() {
+        Random random = new Random(42);
+        byte[] data = new byte[256];
+        random.nextBytes(data);
+        for (int n = 0; n < 2000; n++) {
+            int offset = random.nextInt(data.length);
+            int length = random.nextInt(data.length - offset + 1);
+            byte[] copy = new byte[length];
+            System.arraycopy(data, offset, copy, 0, length);
+            for (Hashing algo : ALGOS) {
+                assertEquals(algo.hash(copy),
+                        ((RangeHashing) algo).hash(data, offset, length));
+            }
+        }
+    }
+
+    @Test
+    public void keysSpreadEvenly() {
+        final int buckets = 1024;
+        final int keys = 100 * buckets;
+        for (Hashing algo : new Hashing[] { new XXHash64(), new MurmurHash3() }) {
+            int[] high = new int[buckets];
+            int[] low = new int[buckets];
+            for (int n = 0; n < keys; n++) {
+                long hash = algo.hash("foo" + n);
+                high[(int) (hash >>> 54)]++;
+                low[(int) hash & (buckets - 1)]++;
+            }
+            // 1023 degrees of freedom: mean 1023, standard deviation 45
+            assertTrue(chiSquare(high, keys) < 1300);
+            assertTrue(chiSquare(low, keys) < 1300);
+        }
+    }
+
+    @Test
+    public void everyInputBitFlipsHalfTheOutputBits() {
+        final int samples = 1000;
+        Random random = new Random(42);
+        byte[] key = new byte[16];
+        for (Hashing algo : new Hashing[] { new XXHash64(), new MurmurHash3() }) {
+            int[][] flips = new int[key.length * 8][64];
+            for (int n = 0; n < samples; n++) {
+                random.nextBytes(key);
+                long hash = algo.hash(key);
+                for (int bit = 0; bit < key.length * 8; bit++) {
+                    key[bit >> 3] ^= 1 << (bit & 7);
+                    long diff = hash ^ algo.hash(key);
+                    key[bit >> 3] ^= 1 << (bit & 7);
+                    for (int out = 0; out < 64; out++) {
+                        flips[bit][out] += (int) (diff >>> out) & 1;
+                    }
+                }
+            }
+            for (int[] bit : flips) {
+                for (int count : bit) {
+                    assertTrue(count > samples * 0.4 && count < samples * 0.6);
+                }
+            }
+        }
+    }
+
+    private static double chiSquare(int[] counts, int total) {
+        double expected = (double) total / counts.length;
+        double chi = 0;
+        for (int count : counts) {
+            chi += (count - expected) * (count - expected) / expected;
+        }
+        return chi;
+    }
+
+    private static String randomString(Random random, int length, int kinds) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            switch (random.nextInt(kinds)) {
+            case 0:
+                sb.append((char) (0x80 + random.nextInt(0x780)));
+                break;
+            case 1:
+                sb.append((char) (0x800 + random.nextInt(0xd000)));
+                break;
+            case 2:
+                sb.appendCodePoint(0x10000 + random.nextInt(0x100000));
+                break;
+            case 3:
+                // a surrogate on its own
+                sb.append((char) (0xd800 + random.nextInt(0x800)));
+                break;
+            default:
+                sb.append((char) random.nextInt(0x80));
+            }
+        }
+        return sb.toString();
+    }
+}
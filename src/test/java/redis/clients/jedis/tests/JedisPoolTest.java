@@ -2,7 +2,13 @@ package redis.clients.jedis.tests;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.apache.commons.pool.BasePoolableObjectFactory;
 import org.apache.commons.pool.impl.GenericObjectPool;
 import org.apache.commons.pool.impl.GenericObjectPool.Config;
 import org.junit.Assert;
@@ -14,6 +20,7 @@ import redis.clients.jedis.JedisPool;
 import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.LockFreeObjectPool;
 
 public class JedisPoolTest extends Assert {
 	private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
@@ -153,4 +160,212 @@ public class JedisPoolTest extends Assert {
 		assertEquals("PONG", jedis.ping());
 		assertEquals("bar", jedis.get("foo"));
 	}
-}
\ No newline at end of file
+
+	@Test
+	public void lockFreePool() {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setLockFree(true);
+		config.setTestOnBorrow(true);
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared");
+		Jedis jedis = pool.getResource();
+		jedis.set("foo", "0");
+		pool.returnResource(jedis);
+
+		Jedis again = pool.getResource();
+		assertSame(jedis, again);
+		again.incr("foo");
+		again.quit();
+		pool.returnBrokenResource(again);
+
+		jedis = pool.getResource();
+		assertNotSame(again, jedis);
+		assertEquals("1", jedis.get("foo"));
+		pool.returnResource(jedis);
+		pool.destroy();
+	}
+
+	@Test
+	public void lockFreePoolSeenBySubclasses() {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setLockFree(true);
+		config.setMaxActive(3);
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared") {
+			{
+				Jedis jedis = getResource();
+				assertEquals(1, internalPool.getNumActive());
+				assertEquals(3, internalPool.getMaxActive());
+				returnResource(jedis);
+				assertEquals(0, internalPool.getNumActive());
+				assertEquals(1, internalPool.getNumIdle());
+				try {
+					internalPool.setMaxActive(4);
+					fail("An UnsupportedOperationException should have been thrown");
+				} catch (UnsupportedOperationException e) {
+				}
+			}
+		};
+		pool.destroy();
+	}
+
+	@Test(expected = JedisConnectionException.class)
+	public void lockFreePoolOverflow() {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setLockFree(true);
+		config.setMaxActive(1);
+		config.setMaxWait(10);
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared");
+		pool.getResource();
+		pool.getResource();
+	}
+
+	@Test
+	public void lockFreePoolFromManyThreads() throws InterruptedException {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setLockFree(true);
+		config.setMaxActive(4);
+		final JedisPool pool = new JedisPool(config, hnp.host, hnp.port,
+				2000, "foobared");
+		Jedis jedis = pool.getResource();
+		jedis.del("counter");
+		pool.returnResource(jedis);
+
+		final AtomicInteger errors = new AtomicInteger();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int i = 0; i < 16; i++) {
+			Thread t = new Thread(new Runnable() {
+				public void run() {
+					for (int j = 0; j < 50; j++) {
+						Jedis jedis = pool.getResource();
+						try {
+							jedis.incr("counter");
+						} catch (Exception e) {
+							errors.incrementAndGet();
+						}
+						pool.returnResource(jedis);
+					}
+				}
+			});
+			threads.add(t);
+			t.start();
+		}
+		for (Thread t : threads) {
+			t.join();
+		}
+		assertEquals(0, errors.get());
+
+		jedis = pool.getResource();
+		assertEquals("800", jedis.get("counter"));
+		pool.returnResource(jedis);
+		pool.destroy();
+	}
+
+	@Test
+	public void handshake() {
+		JedisPool pool = new JedisPool(new JedisPoolConfig(), hnp.host,
+				hnp.port, 2000, "foobared", 1, "pooled");
+		Jedis jedis = pool.getResource();
+		assertEquals(1, jedis.getClient().getDB().intValue());
+		assertEquals("pooled", jedis.clientGetname());
+		pool.returnResource(jedis);
+		pool.destroy();
+	}
+
+	@Test(expected = JedisConnectionException.class)
+	public void handshakeWithWrongPassword() {
+		JedisPool pool = new JedisPool(new JedisPoolConfig(), hnp.host,
+				hnp.port, 2000, "wrong", 1, "pooled");
+		pool.getResource();
+	}
+
+	@Test
+	public void prefillMinIdle() throws Exception {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setMinIdle(4);
+		config.setPrefillMinIdle(true);
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared");
+		assertEquals(4, pool.getPrefill().get().intValue());
+
+		Jedis jedis = pool.getResource();
+		assertTrue(jedis.isConnected());
+		pool.returnResource(jedis);
+		pool.destroy();
+	}
+
+	@Test
+	public void pingOnlyIdleConnections() throws Exception {
+		JedisPoolConfig config = new JedisPoolConfig();
+		config.setTestOnBorrow(true);
+		config.setPingIdleMillis(60000);
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared");
+		Jedis jedis = pool.getResource();
+		jedis.set("foo", "bar");
+		long lastRead = jedis.getClient().getLastReadTime();
+		pool.returnResource(jedis);
+
+		Thread.sleep(10);
+		jedis = pool.getResource();
+		// validated without a PING
+		assertEquals(lastRead, jedis.getClient().getLastReadTime());
+		pool.returnResource(jedis);
+		pool.destroy();
+	}
+
+	@Test
+	public void brokenConnectionIsNotReused() throws Exception {
+		Config config = new Config();
+		config.maxActive = 1;
+		JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+				"foobared");
+		Jedis jedis = pool.getResource();
+		// the server closes the connection, the client doesn't know yet
+		jedis.quit();
+		try {
+			jedis.get("foo");
+			fail("We expect exception here!");
+		} catch (JedisConnectionException e) {
+			// that is fine we should be here
+		}
+		assertTrue(jedis.getClient().isBroken());
+		pool.returnResource(jedis);
+
+		Jedis other = pool.getResource();
+		assertNotSame(jedis, other);
+		other.set("foo", "bar");
+		pool.returnResource(other);
+		pool.destroy();
+	}
+
+	@Test
+	public void lockFreePoolEvictionVisitsEveryIdleObject() throws Exception {
+		final Set<Object> validated = new HashSet<Object>();
+		Config config = new Config();
+		config.testWhileIdle = true;
+		config.numTestsPerEvictionRun = 1;
+		config.timeBetweenEvictionRunsMillis = -1;
+		LockFreeObjectPool pool = new LockFreeObjectPool(
+				new BasePoolableObjectFactory() {
+					public Object makeObject() {
+						return new Object();
+					}
+
+					public boolean validateObject(Object obj) {
+						validated.add(obj);
+						return true;
+					}
+				}, config);
+		for (int i = 0; i < 4; i++) {
+			pool.addObject();
+		}
+		for (int i = 0; i < 4; i++) {
+			pool.evict();
+		}
+		assertEquals(4, validated.size());
+		assertEquals(4, pool.getNumIdle());
+		pool.close();
+	}
+}
@@ -0,0 +1,119 @@
+package redis.clients.jedis.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.MassInsertion;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
+
+public class MassInsertionTest extends Assert {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    private Jedis jedis;
+
+    @Before
+    public void setUp() throws Exception {
+        jedis = new Jedis(hnp.host, hnp.port, 500);
+        jedis.connect();
+        jedis.auth("foobared");
+        jedis.flushAll();
+    }
+
+    @After
+    public void tearDown() {
+        jedis.disconnect();
+    }
+
+    @Test
+    public void massInsertion() {
+        MassInsertion.Report report = new MassInsertion(jedis).setWindow(100)
+                .run(new MassInsertion.Producer() {
+                    public void produce(MassInsertion.Writer writer) {
+                        for (int n = 0; n < 5000; n++) {
+                            writer.send(Command.SET, "key" + n, "value" + n);
+                        }
+                        writer.send(Command.INCRBY, SafeEncoder
+                                .encode("counter"), SafeEncoder.encode("2"));
+                        writer.send(Command.PING);
+                        assertEquals(5002, writer.getSent());
+                    }
+                });
+
+        assertEquals(5002, report.getCommands());
+        assertEquals(0, report.getErrors());
+        assertEquals(0, report.getFailures().size());
+
+        // the connection can be used as before
+        assertEquals("value0", jedis.get("key0"));
+        assertEquals("value4999", jedis.get("key4999"));
+        assertEquals("2", jedis.get("counter"));
+    }
+
+    @Test
+    public void reportsFailures() {
+        List<byte[][]> commands = new ArrayList<byte[][]>();
+        commands.add(command("SET", "foo", "bar"));
+        commands.add(command("INCR", "foo"));
+        commands.add(command("SET", "foo", "baz"));
+        commands.add(command("NOSUCHCOMMAND"));
+        commands.add(command("INCR", "foo"));
+        commands.add(command("GET", "foo"));
+
+        MassInsertion.Report report = new MassInsertion(jedis)
+                .setWindow(2).setMaxFailures(2).run(commands.iterator());
+
+        assertEquals(6, report.getCommands());
+        assertEquals(3, report.getErrors());
+        assertEquals(2, report.getFailures().size());
+        assertEquals(1, report.getFailures().get(0).getCommand());
+        assertTrue(report.getFailures().get(0).getMessage().startsWith("ERR"));
+        assertEquals(3, report.getFailures().get(1).getCommand());
+        assertEquals("baz", jedis.get("foo"));
+    }
+
+    @Test
+    public void producerFailure() {
+        try {
+            new MassInsertion(jedis).run(new MassInsertion.Producer() {
+                public void produce(MassInsertion.Writer writer) {
+                    writer.send(Command.SET, "foo", "bar");
+                    throw new IllegalStateException("no more commands");
+                }
+            });
+            fail("the producer's exception is rethrown");
+        } catch (IllegalStateException e) {
+        }
+
+        // the commands sent before were still read
+        assertEquals("bar", jedis.get("foo"));
+    }
+
+    @Test
+    public void emptyCommand() {
+        try {
+            new MassInsertion(jedis).run(new MassInsertion.Producer() {
+                public void produce(MassInsertion.Writer writer) {
+                    writer.send(Command.SET, "foo", "bar");
+                    writer.send(new byte[0][]);
+                }
+            });
+            fail("An IllegalArgumentException should have been thrown");
+        } catch (IllegalArgumentException e) {
+        }
+
+        // nothing was sent for the empty command, so no reply was waited for
+        assertEquals("bar", jedis.get("foo"));
+    }
+
+    private static byte[][] command(String... args) {
+        return SafeEncoder.encodeMany(args);
+    }
+}
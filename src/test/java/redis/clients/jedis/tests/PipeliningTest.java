@@ -6,8 +6,10 @@ import org.junit.Test;
 import redis.clients.jedis.*;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
 
 import java.io.UnsupportedEncodingException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -193,4 +195,150 @@ public class PipeliningTest extends Assert {
         assertEquals(new Long(-3), r3.get().get(1));
         
     }
+
+    @Test
+    public void syncWithVisitor() {
+        jedis.set("foo", "10");
+
+        Pipeline p = jedis.pipelined();
+        for (int n = 0; n < 100; n++) {
+            p.incr("foo");
+        }
+        p.get("foo");
+        LongArrayVisitor visitor = new LongArrayVisitor();
+        p.sync(visitor);
+
+        assertEquals(101, visitor.size());
+        assertEquals(11, visitor.get(0));
+        assertEquals(110, visitor.get(99));
+        assertEquals(110, visitor.get(100));
+        assertTrue(visitor.getErrors().isEmpty());
+        assertEquals("110", jedis.get("foo"));
+    }
+
+    @Test
+    public void pipelineWithMaxInFlight() {
+        Pipeline p = jedis.pipelined(10);
+        List<Response<Long>> responses = new ArrayList<Response<Long>>();
+        for (int n = 0; n < 1000; n++) {
+            responses.add(p.incr("foo"));
+        }
+        // the replies of the first commands were read to keep the window
+        assertEquals(Long.valueOf(1), responses.get(0).get());
+        assertEquals(Long.valueOf(990), responses.get(989).get());
+        p.sync();
+
+        for (int n = 0; n < 1000; n++) {
+            assertEquals(Long.valueOf(n + 1), responses.get(n).get());
+        }
+        assertEquals("1000", jedis.get("foo"));
+    }
+
+    @Test
+    public void pipelineWithMaxInFlightAndError() {
+        jedis.set("string", "foo");
+        Pipeline p = jedis.pipelined(2);
+        Response<Long> error = p.incr("string");
+        Response<Long> r1 = p.incr("counter");
+        Response<Long> r2 = p.incr("counter");
+        Response<String> r3 = p.get("string");
+        p.sync();
+
+        try {
+            error.get();
+            fail();
+        } catch (JedisDataException e) {
+        }
+        assertEquals(Long.valueOf(1), r1.get());
+        assertEquals(Long.valueOf(2), r2.get());
+        assertEquals("foo", r3.get());
+    }
+
+    @Test
+    public void syncFirst() {
+        Pipeline p = jedis.pipelined();
+        Response<String> set = p.set("foo", "bar");
+        Response<String> get = p.get("foo");
+        Response<Long> incr = p.incr("counter");
+        p.sync(2);
+
+        assertEquals("OK", set.get());
+        assertEquals("bar", get.get());
+        try {
+            incr.get();
+            fail();
+        } catch (JedisDataException e) {
+        }
+
+        Response<String> more = p.get("foo");
+        p.sync();
+        assertEquals(Long.valueOf(1), incr.get());
+        assertEquals("bar", more.get());
+    }
+
+    @Test
+    public void replySinks() {
+        jedis.set("string", "foo");
+        final List<Long> longs = new ArrayList<Long>();
+        final List<byte[]> bytes = new ArrayList<byte[]>();
+        final List<JedisDataException> errors = new ArrayList<JedisDataException>();
+
+        Pipeline p = jedis.pipelined();
+        p.setReplySink(new LongSink() {
+            public void onLong(long value) {
+                longs.add(value);
+            }
+
+            public void onError(JedisDataException e) {
+                errors.add(e);
+            }
+        });
+        for (int n = 0; n < 100; n++) {
+            assertNull(p.incr("counter"));
+        }
+        p.incr("string");
+        p.setReplySink(new BytesSink() {
+            public void onBytes(byte[] value) {
+                bytes.add(value);
+            }
+
+            public void onError(JedisDataException e) {
+                errors.add(e);
+            }
+        });
+        p.get("string");
+        p.get("missing");
+        p.clearReplySink();
+        Response<String> get = p.get("counter");
+        p.sync();
+
+        assertEquals(100, longs.size());
+        assertEquals(Long.valueOf(1), longs.get(0));
+        assertEquals(Long.valueOf(100), longs.get(99));
+        assertEquals(1, errors.size());
+        assertEquals(2, bytes.size());
+        assertEquals("foo", SafeEncoder.encode(bytes.get(0)));
+        assertNull(bytes.get(1));
+        assertEquals("100", get.get());
+    }
+
+    @Test
+    public void replySinkInMulti() {
+        LongArrayVisitor visitor = new LongArrayVisitor();
+        Pipeline p = jedis.pipelined();
+        p.multi();
+        p.setReplySink(visitor);
+        p.incr("counter");
+        p.incrBy("counter", 10);
+        p.clearReplySink();
+        Response<String> get = p.get("counter");
+        Response<List<Object>> exec = p.exec();
+        p.sync();
+
+        assertEquals(2, visitor.size());
+        assertEquals(1, visitor.get(0));
+        assertEquals(11, visitor.get(1));
+        assertEquals("11", get.get());
+        assertEquals(3, exec.get().size());
+    }
 }
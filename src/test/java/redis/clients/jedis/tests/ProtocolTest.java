@@ -2,16 +2,23 @@ package redis.clients.jedis.tests;
 
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.nio.channels.Channels;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.Test;
 
+import redis.clients.jedis.LongArrayVisitor;
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.ReplyVisitor;
+import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.util.RedisInputStream;
 import redis.clients.util.RedisOutputStream;
 import redis.clients.util.SafeEncoder;
@@ -39,6 +46,114 @@ public class ProtocolTest extends JedisTestBase {
         assertEquals(expectedCommand, sb.toString());
     }
 
+    @Test
+    public void buildACommandWithStreamedValue() throws IOException {
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(bos, 4);
+
+        Protocol.sendCommand(ros, Protocol.Command.SET, 6,
+                new ByteArrayInputStream("foobar".getBytes()),
+                "SOMEKEY".getBytes(Protocol.CHARSET));
+        ros.flush();
+
+        assertEquals("*3\r\n$3\r\nSET\r\n$7\r\nSOMEKEY\r\n$6\r\nfoobar\r\n",
+                bos.toString());
+    }
+
+    @Test
+    public void buildACommandFromStrings() throws IOException {
+        StringBuilder longValue = new StringBuilder();
+        for (int n = 0; n < 3000; n++) {
+            longValue.append("k\u00e9y");
+        }
+        String[] args = { "key", "\u00e9t\u00e9", "\u20ac\ud83d\ude00",
+                "lone\ud83d", "\ude00lone", "", longValue.toString() };
+
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(expected);
+        Protocol.sendCommand(ros, Protocol.Command.MSET, SafeEncoder
+                .encodeMany(args));
+        ros.flush();
+
+        ByteArrayOutputStream actual = new ByteArrayOutputStream();
+        ros = new RedisOutputStream(actual);
+        Protocol.sendCommand(ros, Protocol.Command.MSET, args);
+        ros.flush();
+
+        assertArrayEquals(expected.toByteArray(), actual.toByteArray());
+    }
+
+    @Test
+    public void buildACommandWithNumbers() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(out);
+        byte[] key = SafeEncoder.encode("key");
+
+        Protocol.writeCommand(ros, Protocol.Command.LRANGE, 3);
+        Protocol.writeArgument(ros, key);
+        Protocol.writeArgument(ros, 0);
+        Protocol.writeArgument(ros, -1);
+        Protocol.writeCommand(ros, Protocol.Command.ZADD, 3);
+        Protocol.writeArgument(ros, "key");
+        Protocol.writeArgument(ros, 2d);
+        Protocol.writeArgument(ros, "a");
+        Protocol.writeCommand(ros, Protocol.Command.ZADD, 3);
+        Protocol.writeArgument(ros, key);
+        Protocol.writeArgument(ros, -0.5d);
+        Protocol.writeArgument(ros, key);
+        Protocol.writeCommand(ros, Protocol.Command.SETEX, 3);
+        Protocol.writeArgument(ros, "key");
+        Protocol.writeArgument(ros, 100);
+        Protocol.writeArgument(ros, "v");
+        Protocol.writeCommand(ros, Protocol.Command.INCRBY, 2);
+        Protocol.writeArgument(ros, key);
+        Protocol.writeArgument(ros, Long.MIN_VALUE);
+        Protocol.writeCommand(ros, Protocol.Command.INCRBY, 2);
+        Protocol.writeArgument(ros, "key");
+        Protocol.writeArgument(ros, -12345678901L);
+        ros.flush();
+
+        String expected = "*4\r\n$6\r\nLRANGE\r\n$3\r\nkey\r\n$1\r\n0\r\n$2\r\n-1\r\n"
+                + "*4\r\n$4\r\nZADD\r\n$3\r\nkey\r\n$1\r\n2\r\n$1\r\na\r\n"
+                + "*4\r\n$4\r\nZADD\r\n$3\r\nkey\r\n$4\r\n-0.5\r\n$3\r\nkey\r\n"
+                + "*4\r\n$5\r\nSETEX\r\n$3\r\nkey\r\n$3\r\n100\r\n$1\r\nv\r\n"
+                + "*3\r\n$6\r\nINCRBY\r\n$3\r\nkey\r\n$20\r\n-9223372036854775808\r\n"
+                + "*3\r\n$6\r\nINCRBY\r\n$3\r\nkey\r\n$12\r\n-12345678901\r\n";
+        assertEquals(expected, out.toString());
+    }
+
+    @Test
+    public void writeDoubles() throws IOException {
+        assertEquals("0.1", writeDouble(0.1));
+        assertEquals("-0.05", writeDouble(-0.05));
+        assertEquals("3.14159", writeDouble(3.14159));
+        assertEquals("123456.75", writeDouble(123456.75));
+        assertEquals("0.30000000000000004", writeDouble(0.1 + 0.2));
+        assertEquals("1.0E-20", writeDouble(1e-20));
+        assertEquals("1.5E300", writeDouble(1.5e300));
+        assertEquals("Infinity", writeDouble(Double.POSITIVE_INFINITY));
+
+        Random random = new Random(42);
+        for (int n = 0; n < 100000; n++) {
+            double value = n % 2 == 0 ? random.nextDouble() * 1000
+                    : random.nextInt(1000000) / 1000d;
+            String written = writeDouble(value);
+            assertEquals(value, Double.parseDouble(written), 0d);
+            assertEquals(written.length(), RedisOutputStream
+                    .doubleLength(value));
+        }
+    }
+
+    private String writeDouble(double value) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        RedisOutputStream ros = new RedisOutputStream(out);
+        ros.writeDoubleCrLf(value);
+        ros.flush();
+        String written = out.toString();
+        assertTrue(written.endsWith("\r\n"));
+        return written.substring(0, written.length() - 2);
+    }
+
     @Test
     public void bulkReply() {
         InputStream is = new ByteArrayInputStream("$6\r\nfoobar\r\n".getBytes());
@@ -55,6 +170,22 @@ public class ProtocolTest extends JedisTestBase {
                 response);
     }
 
+    @Test
+    public void bulkReplyIntoChannel() throws IOException {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "$30\r\n012345678901234567890123456789\r\n:1\r\n".getBytes());
+        RedisInputStream ris = new RedisInputStream(fis, 8);
+        int length = Protocol.readBulkReplyLength(ris);
+        assertEquals(30, length);
+
+        ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        ris.transferTo(Channels.newChannel(bos), length);
+        Protocol.readBulkReplyEnd(ris);
+        assertArrayEquals(SafeEncoder.encode("012345678901234567890123456789"),
+                bos.toByteArray());
+        assertEquals(1L, ((Long) Protocol.read(ris)).longValue());
+    }
+
     @Test
     public void nullBulkReply() {
         InputStream is = new ByteArrayInputStream("$-1\r\n".getBytes());
@@ -76,6 +207,72 @@ public class ProtocolTest extends JedisTestBase {
         assertEquals(123, response);
     }
 
+    @Test
+    public void statusCodeReply() {
+        InputStream is = new ByteArrayInputStream("+OK\r\n+PONG\r\n"
+                .getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        assertEquals("OK", Protocol.readStatusCodeReply(ris));
+        assertEquals("PONG", Protocol.readStatusCodeReply(ris));
+    }
+
+    @Test
+    public void fragmentedSingleLineReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                "+QUEUED\r\n".getBytes());
+        byte[] response = (byte[]) Protocol.read(new RedisInputStream(fis, 3));
+        assertArrayEquals(SafeEncoder.encode("QUEUED"), response);
+    }
+
+    @Test
+    public void negativeAndLongIntegerReply() {
+        InputStream is = new ByteArrayInputStream(
+                ":-42\r\n:9223372036854775807\r\n".getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        assertEquals(-42L, ((Long) Protocol.read(ris)).longValue());
+        assertEquals(Long.MAX_VALUE, ((Long) Protocol.read(ris)).longValue());
+    }
+
+    @Test
+    public void longMinValueIntegerReply() {
+        InputStream is = new ByteArrayInputStream(
+                ":-9223372036854775808\r\n".getBytes());
+        assertEquals(Long.MIN_VALUE,
+                ((Long) Protocol.read(new RedisInputStream(is))).longValue());
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void emptyIntegerReply() {
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(
+                ":\r\n".getBytes())));
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void emptyNegativeBulkLength() {
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(
+                "$-\r\n".getBytes())));
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void overflowingIntegerReply() {
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(
+                ":9223372036854775808\r\n".getBytes())));
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void overflowingBulkLength() {
+        Protocol.read(new RedisInputStream(new ByteArrayInputStream(
+                "$4294967299\r\nfoo\r\n".getBytes())));
+    }
+
+    @Test
+    public void fragmentedIntegerReply() {
+        FragmentedByteArrayInputStream fis = new FragmentedByteArrayInputStream(
+                ":1234567890\r\n".getBytes());
+        long response = (Long) Protocol.read(new RedisInputStream(fis, 4));
+        assertEquals(1234567890L, response);
+    }
+
     @SuppressWarnings("unchecked")
     @Test
     public void multiBulkReply() {
@@ -101,4 +298,58 @@ public class ProtocolTest extends JedisTestBase {
                 .read(new RedisInputStream(is));
         assertNull(response);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void visitReply() {
+        InputStream is = new FragmentedByteArrayInputStream(
+                "*5\r\n:12\r\n$5\r\nHello\r\n$-1\r\n*1\r\n+OK\r\n-ERR bad\r\n"
+                        .getBytes());
+        final StringBuilder events = new StringBuilder();
+        Protocol.read(new RedisInputStream(is, 4), new ReplyVisitor() {
+            public void onStatus(byte[] buf, int off, int len) {
+                events.append("status:" + new String(buf, off, len) + " ");
+            }
+
+            public void onError(String message) {
+                events.append("error:" + message + " ");
+            }
+
+            public void onInteger(long value) {
+                events.append("int:" + value + " ");
+            }
+
+            public void onBulk(byte[] buf, int off, int len) {
+                events.append("bulk:" + new String(buf, off, len) + " ");
+            }
+
+            public void onNull() {
+                events.append("null ");
+            }
+
+            public void onArrayStart(int size) {
+                events.append("[" + size + " ");
+            }
+
+            public void onArrayEnd() {
+                events.append("] ");
+            }
+        });
+        assertEquals("[5 int:12 bulk:Hello null [1 status:OK ] error:ERR bad ] ",
+                events.toString());
+    }
+
+    @Test
+    public void visitIntegerReplies() {
+        InputStream is = new ByteArrayInputStream(
+                ":-3\r\n$2\r\n42\r\n*2\r\n:7\r\n$-1\r\n-ERR wrong type\r\n"
+                        .getBytes());
+        RedisInputStream ris = new RedisInputStream(is);
+        LongArrayVisitor visitor = new LongArrayVisitor();
+        for (int n = 0; n < 4; n++) {
+            Protocol.read(ris, visitor);
+        }
+        assertTrue(Arrays.equals(new long[] { -3, 42, 7, 0 }, visitor
+                .getValues()));
+        assertEquals(1, visitor.getErrors().size());
+    }
+}
@@ -4,6 +4,8 @@ import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
@@ -11,12 +13,16 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.LongSink;
 import redis.clients.jedis.Response;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.ShardedJedisPipeline;
@@ -30,6 +36,7 @@ public class ShardedJedisPipelineTest {
             .getRedisServers().get(1);
 
     private ShardedJedis jedis;
+    private ExecutorService executor;
 
     @Before
     public void setUp() throws Exception {
@@ -52,6 +59,13 @@ public class ShardedJedisPipelineTest {
         this.jedis = new ShardedJedis(shards);
     }
 
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
     @Test
     public void pipeline() throws UnsupportedEncodingException {
         ShardedJedisPipeline p = jedis.pipelined();
@@ -121,4 +135,145 @@ public class ShardedJedisPipelineTest {
         p.sync();
         assertNull(shouldNotExist.get());
     }
+
+    @Test
+    public void replySink() {
+        final List<Long> values = new ArrayList<Long>();
+        ShardedJedisPipeline p = jedis.pipelined();
+        p.setReplySink(new LongSink() {
+            public void onLong(long value) {
+                values.add(value);
+            }
+
+            public void onError(JedisDataException e) {
+                throw e;
+            }
+        });
+        for (int n = 0; n < 10; n++) {
+            p.incr("counter" + n);
+        }
+        p.clearReplySink();
+        Response<Long> last = p.incr("counter0");
+        p.sync();
+
+        assertEquals(10, values.size());
+        for (Long value : values) {
+            assertEquals(Long.valueOf(1), value);
+        }
+        assertEquals(Long.valueOf(2), last.get());
+    }
+
+    @Test
+    public void pipelineKeepsOrderAcrossShards() {
+        keepsOrderAcrossShards();
+    }
+
+    @Test
+    public void pipelineKeepsOrderAcrossShardsOnExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+        jedis.setExecutor(executor);
+        keepsOrderAcrossShards();
+    }
+
+    private void keepsOrderAcrossShards() {
+        ShardedJedisPipeline p = jedis.pipelined();
+        for (int n = 0; n < 100; n++) {
+            p.set("key" + n, "value" + n);
+            p.get("key" + n);
+        }
+        List<Object> results = p.syncAndReturnAll();
+
+        assertEquals(200, results.size());
+        for (int n = 0; n < 100; n++) {
+            assertEquals("OK", results.get(2 * n));
+            assertEquals("value" + n, results.get(2 * n + 1));
+        }
+
+        p = jedis.pipelined();
+        List<Response<Long>> counters = new ArrayList<Response<Long>>();
+        for (int n = 0; n < 100; n++) {
+            counters.add(p.incrBy("counter" + (n % 10), n));
+        }
+        p.sync();
+        for (int n = 0; n < 100; n++) {
+            long expected = 0;
+            for (int i = n % 10; i <= n; i += 10) {
+                expected += i;
+            }
+            assertEquals(Long.valueOf(expected), counters.get(n).get());
+        }
+    }
+
+    @Test
+    public void pipelineOnExecutorDeliversErrorsAndSinks() {
+        executor = Executors.newFixedThreadPool(2);
+        jedis.setExecutor(executor);
+        jedis.set("string", "foo");
+
+        final List<Long> values = new ArrayList<Long>();
+        ShardedJedisPipeline p = jedis.pipelined();
+        Response<Long> error = p.incr("string");
+        p.setReplySink(new LongSink() {
+            public void onLong(long value) {
+                values.add(value);
+            }
+
+            public void onError(JedisDataException e) {
+                values.add(null);
+            }
+        });
+        for (int n = 0; n < 20; n++) {
+            p.incr("counter" + n);
+        }
+        p.incr("string");
+        p.clearReplySink();
+        Response<String> string = p.get("string");
+        p.sync();
+
+        try {
+            error.get();
+            fail("the reply of incr on a string is an error");
+        } catch (JedisDataException e) {
+        }
+        assertEquals(21, values.size());
+        for (int n = 0; n < 20; n++) {
+            assertEquals(Long.valueOf(1), values.get(n));
+        }
+        assertNull(values.get(20));
+        assertEquals("foo", string.get());
+    }
+
+    @Test
+    public void syncAndReturnAllDeliversErrors() {
+        jedis.set("string", "foo");
+
+        ShardedJedisPipeline p = jedis.pipelined();
+        p.incr("string");
+        p.get("string");
+        p.set("other", "bar");
+        List<Object> results = p.syncAndReturnAll();
+
+        assertEquals(3, results.size());
+        assertTrue(results.get(0) instanceof JedisDataException);
+        assertEquals("foo", results.get(1));
+        assertEquals("OK", results.get(2));
+
+        // every Response was handed its reply, so the pipeline can be reused
+        Response<String> other = p.get("other");
+        p.sync();
+        assertEquals("bar", other.get());
+    }
+
+    @Test
+    public void getResultsLeavesNothingPending() {
+        ShardedJedisPipeline p = jedis.pipelined();
+        p.set("string", "foo");
+        p.get("string");
+        List<Object> results = p.getResults();
+        assertEquals(2, results.size());
+
+        Response<String> string = p.get("string");
+        p.sync();
+        assertEquals("foo", string.get());
+    }
 }
@@ -12,6 +12,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.ShardedJedisPool;
@@ -53,6 +54,34 @@ public class ShardedJedisPoolTest extends Assert {
         pool.destroy();
     }
 
+    @Test
+    public void shardsConnectOnFirstCommand() {
+        ShardedJedisPool pool = new ShardedJedisPool(new Config(), shards);
+        ShardedJedis jedis = pool.getResource();
+        for (Jedis shard : jedis.getAllShards()) {
+            assertFalse(shard.isConnected());
+        }
+        jedis.set("foo", "bar");
+        assertTrue(jedis.getShard("foo").isConnected());
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
+    @Test
+    public void prefillConnectsShards() throws Exception {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMinIdle(2);
+        config.setPrefillMinIdle(true);
+        ShardedJedisPool pool = new ShardedJedisPool(config, shards);
+        assertEquals(2, pool.getPrefill().get().intValue());
+        ShardedJedis jedis = pool.getResource();
+        for (Jedis shard : jedis.getAllShards()) {
+            assertTrue(shard.isConnected());
+        }
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
     @Test
     public void checkConnectionWithDefaultPort() {
         ShardedJedisPool pool = new ShardedJedisPool(new Config(), shards);
@@ -225,4 +254,45 @@ public class ShardedJedisPoolTest extends Assert {
 	assertEquals("PONG", jedis.ping());
 	assertEquals("bar", jedis.get("foo"));
     }
+
+    @Test
+    public void poolPerShard() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setPoolPerShard(true);
+        config.setMaxActive(1);
+        config.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_FAIL);
+        ShardedJedisPool pool = new ShardedJedisPool(config, shards);
+
+        ShardedJedis jedis = pool.getResource();
+        for (int i = 0; i < 100; i++) {
+            jedis.set("a-test-" + i, String.valueOf(i));
+        }
+        pool.returnResource(jedis);
+
+        // each shard allows a single connection, so the ones borrowed
+        // above must have been given back
+        jedis = pool.getResource();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(String.valueOf(i), jedis.get("a-test-" + i));
+        }
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
+
+    @Test
+    public void poolPerShardRepairedWhenJedisIsBroken() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setPoolPerShard(true);
+        ShardedJedisPool pool = new ShardedJedisPool(config, shards);
+        ShardedJedis jedis = pool.getResource();
+        Jedis shard = jedis.getShard("foo");
+        shard.quit();
+        pool.returnBrokenResource(jedis);
+
+        jedis = pool.getResource();
+        assertNotSame(shard, jedis.getShard("foo"));
+        assertEquals(Long.valueOf(1), jedis.incr("foo"));
+        pool.returnResource(jedis);
+        pool.destroy();
+    }
 }
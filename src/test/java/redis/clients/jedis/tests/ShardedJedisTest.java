@@ -1,19 +1,32 @@
 package redis.clients.jedis.tests;
 
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+import org.junit.After;
 import org.junit.Assert;
 import org.junit.Test;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.Protocol;
+import redis.clients.jedis.ScanParams;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.ShardedJedisPipeline;
+import redis.clients.jedis.ShardedScanIterator;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
 import redis.clients.util.Hashing;
+import redis.clients.util.PlacementSimulator;
+import redis.clients.util.PlacementSimulator.Report;
 import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardPlacement;
 import redis.clients.util.Sharded;
 
 public class ShardedJedisTest extends Assert {
@@ -22,6 +35,15 @@ public class ShardedJedisTest extends Assert {
     private static HostAndPort redis2 = HostAndPortUtil.getRedisServers()
             .get(1);
 
+    private ExecutorService executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
     private List<String> getKeysDifferentShard(ShardedJedis jedis) {
         List<String> ret = new ArrayList<String>();
         JedisShardInfo first = jedis.getShardInfo("a0");
@@ -140,6 +162,207 @@ public class ShardedJedisTest extends Assert {
         assertNotSame(s5, s6);
     }
 
+    @Test
+    public void keyTagScannerMatchesPattern() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        ShardedJedis jedis = new ShardedJedis(shards,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+        // the same pattern, but not recognized as the default one
+        ShardedJedis regex = new ShardedJedis(shards, Pattern.compile(
+                "\\{(.+?)\\}", Pattern.UNICODE_CASE));
+
+        String[] keys = { "", "{", "}", "{}", "{}}", "{}x}", "}{a}", "{{a}}",
+                "a{b\nc}d{e}", "{\n}{x}", "{\r\n}", "{\u2028}{y}z",
+                "{\u00e9}", "x{\u00e9\u00fc}y", "{\ud83d\ude00}",
+                "{\ud83d\ude00\n}", "{\u0085}{a\u0085}{b}", "{a" };
+        for (String key : keys) {
+            assertEquals(regex.getKeyTag(key), jedis.getKeyTag(key));
+            assertSame(regex.getShardInfo(key), jedis.getShardInfo(key));
+            assertSame(jedis.getShardInfo(key),
+                    jedis.getShardInfo(SafeEncoder.encode(key)));
+        }
+    }
+
+    @Test
+    public void stringAndBinaryKeysShareShards() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (int i = 0; i < 10; i++) {
+            shards.add(new JedisShardInfo(redis1.host, redis1.port, "shard-"
+                    + i));
+        }
+        StringBuilder longKey = new StringBuilder();
+        for (int i = 0; i < 1000; i++) {
+            longKey.append(i % 2 == 0 ? "key\u00e9" : "\ud83d\ude00");
+        }
+        String[] keys = { "", "a", "foo:bar:1", "\u00e9\u00fc", "\u2028x",
+                "\ud83d\ude00", longKey.toString() };
+        Hashing[] algos = { Hashing.MURMUR_HASH, Hashing.MURMUR3_HASH,
+                Hashing.XXHASH, Hashing.MD5 };
+        for (Hashing algo : algos) {
+            ShardedJedis jedis = new ShardedJedis(shards, algo);
+            for (String key : keys) {
+                assertSame(jedis.getShardInfo(SafeEncoder.encode(key)),
+                        jedis.getShardInfo(key));
+            }
+        }
+    }
+
+    @Test
+    public void binaryKeyTags() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        ShardedJedis jedis = new ShardedJedis(shards,
+                ShardedJedis.DEFAULT_KEY_TAG_PATTERN);
+
+        List<String> keys = getKeysDifferentShard(jedis);
+        byte[] k1 = SafeEncoder.encode(keys.get(0) + "{bar}");
+        byte[] k2 = SafeEncoder.encode(keys.get(1) + "{bar}");
+        assertSame(jedis.getShardInfo(k1), jedis.getShardInfo(k2));
+        assertSame(jedis.getShardInfo("bar"), jedis.getShardInfo(k1));
+
+        // keys that aren't valid UTF-8 can have tags too
+        byte[] k3 = { (byte) 0xff, '{', 'b', 'a', 'r', '}' };
+        assertSame(jedis.getShardInfo("bar"), jedis.getShardInfo(k3));
+
+        jedis.set(k1, SafeEncoder.encode("a"));
+        jedis.set(k2, SafeEncoder.encode("b"));
+        assertEquals("a", jedis.getShard("bar").get(keys.get(0) + "{bar}"));
+        assertEquals("b", jedis.getShard("bar").get(keys.get(1) + "{bar}"));
+        jedis.del(keys.get(0) + "{bar}");
+        jedis.del(keys.get(1) + "{bar}");
+        jedis.disconnect();
+    }
+
+    @Test
+    public void multiKeyCommands() {
+        ShardedJedis jedis = new ShardedJedis(authenticatedShards());
+        multiKeyCommands(jedis);
+        jedis.disconnect();
+    }
+
+    @Test
+    public void multiKeyCommandsOnExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+        ShardedJedis jedis = new ShardedJedis(authenticatedShards());
+        jedis.setExecutor(executor);
+        multiKeyCommands(jedis);
+        jedis.disconnect();
+    }
+
+    private void multiKeyCommands(ShardedJedis jedis) {
+        String[] keys = new String[50];
+        String[] keysvalues = new String[keys.length * 2];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = "multi" + i;
+            keysvalues[2 * i] = keys[i];
+            keysvalues[2 * i + 1] = "value" + i;
+        }
+        List<String> different = getKeysDifferentShard(jedis);
+        assertNotSame(jedis.getShardInfo(different.get(0)), jedis
+                .getShardInfo(different.get(1)));
+        jedis.del(different.get(0), different.get(1));
+
+        assertEquals("OK", jedis.mset(keysvalues));
+        for (int i = 0; i < keys.length; i++) {
+            assertEquals("value" + i, jedis.getShard(keys[i]).get(keys[i]));
+        }
+
+        List<String> values = jedis.mget(different.get(0), "multi3",
+                different.get(1), "multi4", "multi3");
+        assertEquals(5, values.size());
+        assertNull(values.get(0));
+        assertEquals("value3", values.get(1));
+        assertNull(values.get(2));
+        assertEquals("value4", values.get(3));
+        assertEquals("value3", values.get(4));
+
+        List<byte[]> binaryValues = jedis.mget(SafeEncoder.encode("multi7"),
+                SafeEncoder.encode("multi8"));
+        assertEquals("value7", SafeEncoder.encode(binaryValues.get(0)));
+        assertEquals("value8", SafeEncoder.encode(binaryValues.get(1)));
+
+        assertEquals(Long.valueOf(keys.length), jedis.del(keys));
+        assertEquals(Long.valueOf(0), jedis.del(keys));
+        for (String value : jedis.mget(keys)) {
+            assertNull(value);
+        }
+        assertEquals(0, jedis.mget(new String[0]).size());
+    }
+
+    @Test
+    public void scanIterator() {
+        ShardedJedis jedis = new ShardedJedis(authenticatedShards());
+        scanIterator(jedis);
+        jedis.disconnect();
+    }
+
+    @Test
+    public void scanIteratorOnExecutor() {
+        executor = Executors.newFixedThreadPool(2);
+        ShardedJedis jedis = new ShardedJedis(authenticatedShards());
+        jedis.setExecutor(executor);
+        scanIterator(jedis);
+        jedis.disconnect();
+    }
+
+    private void scanIterator(ShardedJedis jedis) {
+        Set<String> keys = new HashSet<String>();
+        for (int i = 0; i < 40; i++) {
+            jedis.set("scan" + i, "value" + i);
+            keys.add("scan" + i);
+        }
+        ScanParams params = new ScanParams().match("scan*").count(5);
+
+        Set<String> scanned = new HashSet<String>();
+        ShardedScanIterator<String> it = jedis.scanIterator(params);
+        while (it.hasNext()) {
+            scanned.add(it.next());
+        }
+        assertEquals(keys, scanned);
+
+        // the shards can be used during the iteration
+        scanned.clear();
+        it = jedis.scanIterator(params);
+        while (it.hasNext()) {
+            String key = it.next();
+            assertEquals("value" + key.substring(4), jedis.get(key));
+            jedis.set("other", key);
+            scanned.add(key);
+        }
+        assertEquals(keys, scanned);
+
+        // closing half way leaves every shard usable
+        it = jedis.scanIterator(params);
+        it.next();
+        it.close();
+        assertFalse(it.hasNext());
+        for (int i = 0; i < 40; i++) {
+            assertEquals("value" + i, jedis.get("scan" + i));
+        }
+
+        Set<String> binaryScanned = new HashSet<String>();
+        ShardedScanIterator<byte[]> bit = jedis.binaryScanIterator(params);
+        while (bit.hasNext()) {
+            binaryScanned.add(SafeEncoder.encode(bit.next()));
+        }
+        assertEquals(keys, binaryScanned);
+
+        jedis.del(keys.toArray(new String[keys.size()]));
+    }
+
+    private List<JedisShardInfo> authenticatedShards() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo(redis1.host, redis1.port));
+        shards.add(new JedisShardInfo(redis2.host, redis2.port));
+        for (JedisShardInfo shard : shards) {
+            shard.setPassword("foobared");
+        }
+        return shards;
+    }
+
     @Test
     public void shardedPipeline() {
         List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
@@ -300,4 +523,94 @@ public class ShardedJedisTest extends Assert {
             assertEquals(jedisShardInfo.getName(), jedisShardInfo2.getName());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void placementsSpreadKeysEvenly() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (int i = 0; i < 10; i++) {
+            shards.add(new JedisShardInfo("localhost", 6379 + i, "shard-" + i));
+        }
+        PlacementSimulator simulator = new PlacementSimulator(
+                Hashing.MURMUR_HASH, 100000);
+
+        Report ring = simulator.simulate(shards, ShardPlacement.RING);
+        for (ShardPlacement placement : new ShardPlacement[] {
+                ShardPlacement.JUMP, ShardPlacement.RENDEZVOUS,
+                ShardPlacement.BOUNDED_LOAD }) {
+            Report report = simulator.simulate(shards, placement);
+            assertTrue(report.toString(), report.getMaxLoad() < 1.1);
+            assertTrue(report.getMaxLoad() < ring.getMaxLoad());
+            // a new shard should take about 1/11th of the keys
+            assertTrue(report.toString(), report.getMovedOnAdd() < 0.12);
+        }
+
+        // removing a shard only moves its own keys
+        double[] moved = simulator.simulate(shards, ShardPlacement.RENDEZVOUS)
+                .getMovedOnRemove();
+        for (double fraction : moved) {
+            assertTrue(fraction < 0.12);
+        }
+    }
+
+    @Test
+    public void placementsRouteConsistently() {
+        List<JedisShardInfo> shards = authenticatedShards();
+        for (ShardPlacement placement : new ShardPlacement[] {
+                ShardPlacement.RING, ShardPlacement.JUMP,
+                ShardPlacement.RENDEZVOUS, ShardPlacement.BOUNDED_LOAD }) {
+            ShardedJedis writer = new ShardedJedis(shards,
+                    Hashing.MURMUR_HASH, null, placement);
+            ShardedJedis reader = new ShardedJedis(shards,
+                    Hashing.MURMUR_HASH, null, placement);
+            int onFirst = 0;
+            for (int i = 0; i < 100; i++) {
+                String key = "placed" + i;
+                assertSame(writer.getShardInfo(key), writer
+                        .getShardInfo(SafeEncoder.encode(key)));
+                writer.set(key, Integer.toString(i));
+                if (writer.getShardInfo(key) == shards.get(0)) {
+                    onFirst++;
+                }
+            }
+            assertTrue(onFirst > 25 && onFirst < 75);
+            for (int i = 0; i < 100; i++) {
+                assertEquals(Integer.toString(i), reader.get("placed" + i));
+                reader.del("placed" + i);
+            }
+            writer.disconnect();
+            reader.disconnect();
+        }
+    }
+
+    @Test
+    public void ringLookupMatchesTreeMap() {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        shards.add(new JedisShardInfo("localhost", 6379));
+        shards.add(new JedisShardInfo("localhost", 6380, 2000, 3));
+        shards.add(new JedisShardInfo("localhost", 6381, "named"));
+        Sharded<Jedis, JedisShardInfo> sharded = new Sharded<Jedis, JedisShardInfo>(
+                shards, Hashing.MURMUR_HASH);
+
+        // the ring as it used to be built
+        TreeMap<Long, JedisShardInfo> nodes = new TreeMap<Long, JedisShardInfo>();
+        for (int i = 0; i < shards.size(); i++) {
+            JedisShardInfo shard = shards.get(i);
+            for (int n = 0; n < 160 * shard.getWeight(); n++) {
+                String node = shard.getName() == null ? "SHARD-" + i
+                        + "-NODE-" + n : shard.getName() + "*"
+                        + shard.getWeight() + n;
+                nodes.put(Hashing.MURMUR_HASH.hash(node), shard);
+            }
+        }
+
+        for (int i = 0; i < 10000; i++) {
+            byte[] key = SafeEncoder.encode("key" + i);
+            SortedMap<Long, JedisShardInfo> tail = nodes
+                    .tailMap(Hashing.MURMUR_HASH.hash(key));
+            JedisShardInfo expected = tail.isEmpty() ? nodes.get(nodes
+                    .firstKey()) : tail.get(tail.firstKey());
+            assertSame(expected, sharded.getShardInfo(key));
+        }
+        assertEquals(nodes.size(), sharded.getAllShardInfo().size());
+    }
+}
@@ -0,0 +1,142 @@
+package redis.clients.jedis.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.apache.commons.pool.impl.GenericObjectPool;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Response;
+import redis.clients.jedis.StripedPipeline;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+public class StripedPipelineTest extends Assert {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+
+    private JedisPool pool;
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() throws Exception {
+        pool = new JedisPool(new JedisPoolConfig(), hnp.host, hnp.port,
+                Protocol.DEFAULT_TIMEOUT, "foobared");
+        Jedis jedis = pool.getResource();
+        jedis.flushAll();
+        pool.returnResource(jedis);
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdown();
+        pool.destroy();
+    }
+
+    @Test
+    public void commandsOnOneKeyRunInOrder() {
+        StripedPipeline p = new StripedPipeline(pool, 4);
+        p.setExecutor(executor);
+        // the keys take turns, so every connection gets commands on several
+        // of them and each connection's replies are read by its own task
+        for (int n = 0; n < 10; n++) {
+            for (int k = 0; k < 20; k++) {
+                p.rpush("list" + k, String.valueOf(n));
+            }
+        }
+        List<Response<List<String>>> lists = new ArrayList<Response<List<String>>>();
+        for (int k = 0; k < 20; k++) {
+            lists.add(p.lrange("list" + k, 0, -1));
+        }
+        Response<Long> error = p.incr("list0");
+        p.sync();
+        p.close();
+
+        List<String> expected = new ArrayList<String>();
+        for (int n = 0; n < 10; n++) {
+            expected.add(String.valueOf(n));
+        }
+        for (int k = 0; k < 20; k++) {
+            assertEquals(expected, lists.get(k).get());
+        }
+        try {
+            error.get();
+            fail("the reply of incr on a list is an error");
+        } catch (JedisDataException e) {
+        }
+    }
+
+    @Test
+    public void reusedAfterGetResults() {
+        // the idle connections the pipeline will borrow
+        List<Jedis> idle = new ArrayList<Jedis>();
+        for (int i = 0; i < 4; i++) {
+            idle.add(pool.getResource());
+        }
+        for (Jedis jedis : idle) {
+            pool.returnResource(jedis);
+        }
+
+        StripedPipeline p = new StripedPipeline(pool, 4);
+        for (int n = 0; n < 20; n++) {
+            p.set("key" + n, "value" + n);
+        }
+        assertEquals(20, p.getResults().size());
+
+        List<Response<String>> values = new ArrayList<Response<String>>();
+        for (int n = 0; n < 20; n++) {
+            values.add(p.get("key" + n));
+        }
+        p.sync();
+        for (int n = 0; n < 20; n++) {
+            assertEquals("value" + n, values.get(n).get());
+        }
+        p.close();
+
+        // nothing was left unread, so the same connections are lent again
+        for (int i = 0; i < 4; i++) {
+            Jedis jedis = pool.getResource();
+            assertTrue(idle.contains(jedis));
+        }
+    }
+
+    @Test
+    public void closeGivesConnectionsBack() {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setMaxActive(3);
+        config.setWhenExhaustedAction(GenericObjectPool.WHEN_EXHAUSTED_FAIL);
+        JedisPool pool = new JedisPool(config, hnp.host, hnp.port,
+                Protocol.DEFAULT_TIMEOUT, "foobared");
+
+        StripedPipeline p = new StripedPipeline(pool, 3);
+        p.set("foo", "bar");
+        p.sync();
+        p.close();
+
+        // connections with unread replies are not lent again
+        p = new StripedPipeline(pool, 3);
+        p.set("foo", "baz");
+        p.close();
+
+        List<Jedis> borrowed = new ArrayList<Jedis>();
+        for (int i = 0; i < 3; i++) {
+            Jedis jedis = pool.getResource();
+            // the reply of the unsynced set would come first otherwise
+            assertEquals(Long.valueOf(i + 1), jedis.incr("counter"));
+            borrowed.add(jedis);
+        }
+        for (Jedis jedis : borrowed) {
+            pool.returnResource(jedis);
+        }
+        pool.destroy();
+    }
+}
@@ -0,0 +1,47 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Method;
+
+/**
+ * Measures the bytes allocated by the current thread, for the benchmarks
+ * that report allocation per operation. The HotSpot extension of
+ * ThreadMXBean is looked up reflectively, so the benchmarks still compile
+ * and run on JVMs without it, only without the allocation figures.
+ */
+public final class Allocations {
+    private static final ThreadMXBean BEAN = ManagementFactory
+            .getThreadMXBean();
+    private static final Method THREAD_ALLOCATED_BYTES = lookup();
+
+    private Allocations() {
+    }
+
+    private static Method lookup() {
+        try {
+            final Method method = Class.forName(
+                    "com.sun.management.ThreadMXBean").getMethod(
+                    "getThreadAllocatedBytes", long.class);
+            return method.getDeclaringClass().isInstance(BEAN) ? method : null;
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /**
+     * @return the bytes allocated by the current thread so far, or -1 if the
+     *         JVM can't tell
+     */
+    public static long allocatedBytes() {
+        if (THREAD_ALLOCATED_BYTES == null) {
+            return -1;
+        }
+        try {
+            return (Long) THREAD_ALLOCATED_BYTES.invoke(BEAN, Thread
+                    .currentThread().getId());
+        } catch (Exception e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.concurrent.ExecutionException;
+
+import redis.clients.jedis.AsyncJedis;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisFuture;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+public class AsyncGetSetBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 200000;
+
+    public static void main(String[] args) throws InterruptedException,
+            ExecutionException {
+        Jedis j = new Jedis(hnp.host, hnp.port);
+        j.connect();
+        j.auth("foobared");
+        j.flushAll();
+        j.disconnect();
+
+        JedisShardInfo shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        AsyncJedis jedis = new AsyncJedis(shardInfo);
+
+        long begin = System.currentTimeMillis();
+
+        JedisFuture<String> last = null;
+        for (int n = 0; n <= TOTAL_OPERATIONS; n++) {
+            String key = "foo" + n;
+            jedis.set(key, "bar" + n);
+            last = jedis.get(key);
+        }
+        last.get();
+
+        long elapsed = System.currentTimeMillis() - begin;
+
+        jedis.close();
+
+        System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+    }
+}
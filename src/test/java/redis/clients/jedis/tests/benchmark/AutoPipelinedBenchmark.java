@@ -0,0 +1,61 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import redis.clients.jedis.AutoPipelinedJedis;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Many threads doing single GETs and SETs through one shared
+ * AutoPipelinedJedis.
+ */
+public class AutoPipelinedBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 100000;
+    private static final int THREADS = 16;
+
+    public static void main(String[] args) throws Exception {
+        Jedis j = new Jedis(hnp.host, hnp.port);
+        j.connect();
+        j.auth("foobared");
+        j.flushAll();
+        j.disconnect();
+
+        JedisShardInfo shardInfo = new JedisShardInfo(hnp.host, hnp.port);
+        shardInfo.setPassword("foobared");
+        final AutoPipelinedJedis jedis = new AutoPipelinedJedis(shardInfo);
+
+        final AtomicInteger ind = new AtomicInteger();
+        List<Thread> tds = new ArrayList<Thread>();
+        for (int i = 0; i < THREADS; i++) {
+            Thread hj = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; (i = ind.getAndIncrement()) < TOTAL_OPERATIONS;) {
+                        final String key = "foo" + i;
+                        jedis.set(key, key);
+                        jedis.get(key);
+                    }
+                }
+            });
+            tds.add(hj);
+        }
+
+        long t = System.currentTimeMillis();
+        for (Thread thread : tds) {
+            thread.start();
+        }
+        for (Thread thread : tds) {
+            thread.join();
+        }
+        long elapsed = System.currentTimeMillis() - t;
+
+        jedis.close();
+
+        System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+    }
+}
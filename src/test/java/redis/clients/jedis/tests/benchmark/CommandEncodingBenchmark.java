@@ -0,0 +1,107 @@
+package redis.clients.jedis.tests.benchmark;
+
+import static redis.clients.jedis.Protocol.toByteArray;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.util.RedisOutputStream;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Compares encoding a ZADD/LRANGE/SETEX heavy workload with the numeric
+ * arguments, including fractional scores, converted through toByteArray()
+ * against writing them straight into the output buffer. Nothing is sent anywhere, so this only measures
+ * the encoding. Reports throughput and, when the JVM supports it, the number
+ * of bytes allocated per command.
+ */
+public class CommandEncodingBenchmark {
+    private static final int TOTAL_OPERATIONS = 3000000;
+
+    private static final byte[] KEY = SafeEncoder.encode("foo:bar:12345");
+    private static final byte[] VALUE = SafeEncoder.encode("some value");
+
+    public static void main(String[] args) throws IOException {
+        RedisOutputStream os = new RedisOutputStream(new OutputStream() {
+            public void write(int b) {
+            }
+
+            public void write(byte[] b, int off, int len) {
+            }
+        });
+
+        // warm up both paths before measuring
+        for (int n = 0; n < TOTAL_OPERATIONS / 10; n++) {
+            writeWithByteArrays(os, n);
+            writeDirectly(os, n);
+        }
+
+        long allocated = Allocations.allocatedBytes();
+        long begin = System.nanoTime();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            writeWithByteArrays(os, n);
+        }
+        os.flush();
+        report("toByteArray()", begin, allocated);
+
+        allocated = Allocations.allocatedBytes();
+        begin = System.nanoTime();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            writeDirectly(os, n);
+        }
+        os.flush();
+        report("direct", begin, allocated);
+    }
+
+    private static void writeWithByteArrays(RedisOutputStream os, int n) {
+        switch (n % 3) {
+        case 0:
+            Protocol.sendCommand(os, Command.ZADD, KEY, toByteArray(n + 0.25),
+                    VALUE);
+            break;
+        case 1:
+            Protocol.sendCommand(os, Command.LRANGE, KEY, toByteArray(n),
+                    toByteArray(n + 100));
+            break;
+        default:
+            Protocol.sendCommand(os, Command.SETEX, KEY, toByteArray(3600),
+                    VALUE);
+        }
+    }
+
+    private static void writeDirectly(RedisOutputStream os, int n) {
+        switch (n % 3) {
+        case 0:
+            Protocol.writeCommand(os, Command.ZADD, 3);
+            Protocol.writeArgument(os, KEY);
+            Protocol.writeArgument(os, n + 0.25);
+            Protocol.writeArgument(os, VALUE);
+            break;
+        case 1:
+            Protocol.writeCommand(os, Command.LRANGE, 3);
+            Protocol.writeArgument(os, KEY);
+            Protocol.writeArgument(os, n);
+            Protocol.writeArgument(os, n + 100);
+            break;
+        default:
+            Protocol.writeCommand(os, Command.SETEX, 3);
+            Protocol.writeArgument(os, KEY);
+            Protocol.writeArgument(os, 3600);
+            Protocol.writeArgument(os, VALUE);
+        }
+    }
+
+    private static void report(String name, long begin, long allocatedBefore) {
+        long elapsed = System.nanoTime() - begin;
+        System.out.print(((TOTAL_OPERATIONS * 1000000000L) / elapsed)
+                + " commands/s " + name);
+        long allocated = Allocations.allocatedBytes();
+        if (allocated >= 0 && allocatedBefore >= 0) {
+            System.out.print(", " + ((allocated - allocatedBefore) / TOTAL_OPERATIONS)
+                    + " bytes allocated per command");
+        }
+        System.out.println();
+    }
+}
@@ -5,21 +5,77 @@ import java.net.UnknownHostException;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisShardInfo;
 import redis.clients.jedis.ShardedJedis;
 import redis.clients.jedis.tests.HostAndPortUtil;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardInfo;
+import redis.clients.util.Sharded;
 
+/**
+ * Measures each Hashing on String and byte[] keys of a few lengths, checks
+ * how evenly each one spreads keys over a ring of shards, then runs SETs and
+ * GETs on a ShardedJedis.
+ */
 public class HashingBenchmark {
     private static HostAndPort hnp1 = HostAndPortUtil.getRedisServers().get(0);
     private static HostAndPort hnp2 = HostAndPortUtil.getRedisServers().get(1);
     private static final int TOTAL_OPERATIONS = 100000;
+    private static final int HASH_OPERATIONS = 10000000;
+    private static final int[] KEY_LENGTHS = { 8, 32, 256 };
+    private static final int KEYS = 1024;
+    private static final int SHARDS = 16;
+    private static final int RING_KEYS = 1000000;
+    private static final Hashing[] ALGOS = { Hashing.MD5,
+            Hashing.MURMUR_HASH, Hashing.XXHASH, Hashing.MURMUR3_HASH };
+    private static final String[] NAMES = { "MD5", "Murmur", "xxHash64",
+            "Murmur3" };
 
     public static void main(String[] args) throws UnknownHostException,
             IOException {
+        for (int length : KEY_LENGTHS) {
+            String[] keys = new String[KEYS];
+            byte[][] binaryKeys = new byte[KEYS][];
+            for (int n = 0; n < KEYS; n++) {
+                keys[n] = key(n, length);
+                binaryKeys[n] = SafeEncoder.encode(keys[n]);
+            }
+            for (int a = 0; a < ALGOS.length; a++) {
+                // warm up before measuring
+                hash(ALGOS[a], keys, HASH_OPERATIONS / 10);
+                hash(ALGOS[a], binaryKeys, HASH_OPERATIONS / 10);
+
+                long allocated = Allocations.allocatedBytes();
+                long start = System.nanoTime();
+                hash(ALGOS[a], keys, HASH_OPERATIONS);
+                long stringNanos = System.nanoTime() - start;
+                long stringAllocated = Allocations.allocatedBytes() - allocated;
+
+                allocated = Allocations.allocatedBytes();
+                start = System.nanoTime();
+                hash(ALGOS[a], binaryKeys, HASH_OPERATIONS);
+                long binaryNanos = System.nanoTime() - start;
+                long binaryAllocated = Allocations.allocatedBytes() - allocated;
+
+                System.out.println(NAMES[a] + ", " + length + " byte keys: "
+                        + (stringNanos / HASH_OPERATIONS) + " ns/String ("
+                        + (stringAllocated / HASH_OPERATIONS) + " B), "
+                        + (binaryNanos / HASH_OPERATIONS) + " ns/byte[] ("
+                        + (binaryAllocated / HASH_OPERATIONS) + " B)");
+            }
+        }
+
+        for (int a = 0; a < ALGOS.length; a++) {
+            distribution(NAMES[a], ALGOS[a]);
+        }
+
         List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
         JedisShardInfo shard = new JedisShardInfo(hnp1.host, hnp1.port);
         shard.setPassword("foobared");
@@ -47,4 +103,88 @@ public class HashingBenchmark {
 
         System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
     }
+
+    /**
+     * Places sequential keys on a ring of shards, and on 1024 buckets by the
+     * hash's high bits, and reports how far from even both are.
+     */
+    private static void distribution(String name, Hashing algo) {
+        List<BenchShardInfo> shards = new ArrayList<BenchShardInfo>();
+        for (int i = 0; i < SHARDS; i++) {
+            shards.add(new BenchShardInfo("shard-" + i));
+        }
+        Sharded<Object, BenchShardInfo> sharded = new Sharded<Object, BenchShardInfo>(
+                shards, algo);
+        Map<BenchShardInfo, Integer> counts = new HashMap<BenchShardInfo, Integer>();
+        int[] buckets = new int[1024];
+        for (int n = 0; n < RING_KEYS; n++) {
+            String key = "foo" + n;
+            BenchShardInfo shard = sharded.getShardInfo(key);
+            Integer count = counts.get(shard);
+            counts.put(shard, count == null ? 1 : count + 1);
+            buckets[(int) (algo.hash(key) >>> 54)]++;
+        }
+
+        int max = 0;
+        int min = RING_KEYS;
+        for (BenchShardInfo shard : shards) {
+            Integer count = counts.get(shard);
+            max = Math.max(max, count == null ? 0 : count);
+            min = Math.min(min, count == null ? 0 : count);
+        }
+        double expected = (double) RING_KEYS / buckets.length;
+        double chiSquare = 0;
+        for (int count : buckets) {
+            chiSquare += (count - expected) * (count - expected) / expected;
+        }
+        System.out.println(name + ": busiest shard " + (max * SHARDS * 100L)
+                / RING_KEYS + "% of its fair share, idlest "
+                + (min * SHARDS * 100L) / RING_KEYS
+                + "%, chi-square over 1024 buckets " + (int) chiSquare
+                + " (1023 expected)");
+    }
+
+    private static String key(int n, int length) {
+        StringBuilder sb = new StringBuilder(length);
+        sb.append("key:").append(n).append(':');
+        while (sb.length() < length) {
+            sb.append((char) ('a' + sb.length() % 26));
+        }
+        sb.setLength(length);
+        return sb.toString();
+    }
+
+    private static long hash(Hashing algo, String[] keys, int operations) {
+        long sum = 0;
+        for (int n = 0; n < operations; n++) {
+            sum += algo.hash(keys[n & (KEYS - 1)]);
+        }
+        return sum;
+    }
+
+    private static long hash(Hashing algo, byte[][] keys, int operations) {
+        long sum = 0;
+        for (int n = 0; n < operations; n++) {
+            sum += algo.hash(keys[n & (KEYS - 1)]);
+        }
+        return sum;
+    }
+
+    private static class BenchShardInfo extends ShardInfo<Object> {
+        private static final Object RESOURCE = new Object();
+        private final String name;
+
+        public BenchShardInfo(String name) {
+            super(Sharded.DEFAULT_WEIGHT);
+            this.name = name;
+        }
+
+        protected Object createResource() {
+            return RESOURCE;
+        }
+
+        public String getName() {
+            return name;
+        }
+    }
 }
\ No newline at end of file
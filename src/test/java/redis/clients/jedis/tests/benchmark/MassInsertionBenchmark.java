@@ -0,0 +1,84 @@
+package redis.clients.jedis.tests.benchmark;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.MassInsertion;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol.Command;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+import redis.clients.util.SafeEncoder;
+
+/**
+ * Sends SETs through a pipeline synced every WINDOW commands and through a
+ * MassInsertion with the same window, and reports the bytes the sending
+ * thread allocates per command besides the commands themselves.
+ */
+public class MassInsertionBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 100000;
+    private static final int WINDOW = 10000;
+    private static final int KEYS = 1024;
+
+    private static final byte[][] KEY_BYTES = new byte[KEYS][];
+    private static final byte[] VALUE = SafeEncoder.encode("value");
+
+    public static void main(String[] args) {
+        for (int n = 0; n < KEYS; n++) {
+            KEY_BYTES[n] = SafeEncoder.encode("key" + n);
+        }
+        Jedis jedis = new Jedis(hnp.host, hnp.port);
+        jedis.connect();
+        jedis.auth("foobared");
+        jedis.flushAll();
+
+        // warm up before measuring
+        pipeline(jedis, TOTAL_OPERATIONS / 10);
+        long allocated = Allocations.allocatedBytes();
+        long start = System.nanoTime();
+        pipeline(jedis, TOTAL_OPERATIONS);
+        report("pipeline", System.nanoTime() - start, Allocations.allocatedBytes()
+                - allocated);
+
+        massInsertion(jedis, TOTAL_OPERATIONS / 10);
+        allocated = Allocations.allocatedBytes();
+        start = System.nanoTime();
+        massInsertion(jedis, TOTAL_OPERATIONS);
+        report("mass insertion", System.nanoTime() - start, Allocations.allocatedBytes()
+                - allocated);
+
+        jedis.disconnect();
+    }
+
+    private static void pipeline(Jedis jedis, int operations) {
+        Pipeline p = jedis.pipelined();
+        for (int n = 0; n < operations; n++) {
+            p.set(KEY_BYTES[n & (KEYS - 1)], VALUE);
+            if ((n + 1) % WINDOW == 0) {
+                p.sync();
+            }
+        }
+        p.sync();
+    }
+
+    private static void massInsertion(Jedis jedis, final int operations) {
+        new MassInsertion(jedis).setWindow(WINDOW).run(
+                new MassInsertion.Producer() {
+                    public void produce(MassInsertion.Writer writer) {
+                        for (int n = 0; n < operations; n++) {
+                            writer.send(Command.SET, KEY_BYTES[n & (KEYS - 1)],
+                                    VALUE);
+                        }
+                    }
+                });
+    }
+
+    private static void report(String name, long nanos, long allocated) {
+        System.out.print(name + ": " + (1000000000L * TOTAL_OPERATIONS / nanos)
+                + " ops");
+        if (allocated >= 0) {
+            System.out.print(", " + (allocated / TOTAL_OPERATIONS)
+                    + " bytes allocated per command");
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,83 @@
+package redis.clients.jedis.tests.benchmark;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.LongSink;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.exceptions.JedisDataException;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Pipelines INCRs collecting their replies through Response objects and
+ * through a LongSink. Reports throughput and, when the JVM supports it, the
+ * number of bytes allocated per command.
+ */
+public class PipelineSinkBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 200000;
+
+    private static long sum = 0;
+
+    public static void main(String[] args) {
+        Jedis jedis = new Jedis(hnp.host, hnp.port);
+        jedis.connect();
+        jedis.auth("foobared");
+        jedis.flushAll();
+
+        LongSink sink = new LongSink() {
+            public void onLong(long value) {
+                sum += value;
+            }
+
+            public void onError(JedisDataException e) {
+                throw e;
+            }
+        };
+
+        // warm up both paths before measuring
+        withResponses(jedis, TOTAL_OPERATIONS / 10);
+        withSink(jedis, sink, TOTAL_OPERATIONS / 10);
+
+        long allocated = Allocations.allocatedBytes();
+        long begin = System.nanoTime();
+        withResponses(jedis, TOTAL_OPERATIONS);
+        report("Response", begin, allocated);
+
+        allocated = Allocations.allocatedBytes();
+        begin = System.nanoTime();
+        withSink(jedis, sink, TOTAL_OPERATIONS);
+        report("LongSink", begin, allocated);
+
+        jedis.disconnect();
+    }
+
+    private static void withResponses(Jedis jedis, int operations) {
+        Pipeline p = jedis.pipelined();
+        for (int n = 0; n < operations; n++) {
+            p.incr("foo");
+        }
+        p.sync();
+    }
+
+    private static void withSink(Jedis jedis, LongSink sink, int operations) {
+        Pipeline p = jedis.pipelined();
+        p.setReplySink(sink);
+        for (int n = 0; n < operations; n++) {
+            p.incr("foo");
+        }
+        p.sync();
+    }
+
+    private static void report(String name, long begin, long allocatedBefore) {
+        long elapsed = System.nanoTime() - begin;
+        System.out.print(((TOTAL_OPERATIONS * 1000000000L) / elapsed)
+                + " ops " + name);
+        long allocated = Allocations.allocatedBytes();
+        if (allocated >= 0 && allocatedBefore >= 0) {
+            System.out.print(", "
+                    + ((allocated - allocatedBefore) / TOTAL_OPERATIONS)
+                    + " bytes allocated per command");
+        }
+        System.out.println();
+    }
+}
@@ -0,0 +1,93 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.util.Hashing;
+import redis.clients.util.PlacementSimulator;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardPlacement;
+import redis.clients.util.Sharded;
+
+/**
+ * Simulates each ShardPlacement on a few lists of shards, reporting the key
+ * load of the busiest and idlest shard and the keys that move when a shard is
+ * added or removed, then measures lookups.
+ */
+public class PlacementBenchmark {
+    private static final int SIMULATED_KEYS = 200000;
+    private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int KEYS = 1024;
+    private static final int[] SHARDS = { 4, 16, 64 };
+    private static final ShardPlacement[] PLACEMENTS = { ShardPlacement.RING,
+            ShardPlacement.JUMP, ShardPlacement.RENDEZVOUS,
+            ShardPlacement.BOUNDED_LOAD };
+    private static final String[] NAMES = { "ring", "jump", "rendezvous",
+            "bounded load" };
+
+    public static void main(String[] args) {
+        PlacementSimulator simulator = new PlacementSimulator(
+                Hashing.MURMUR_HASH, SIMULATED_KEYS);
+        for (int shardCount : SHARDS) {
+            List<JedisShardInfo> named = shards(shardCount, false);
+            List<JedisShardInfo> weighted = shards(shardCount, true);
+            for (int p = 0; p < PLACEMENTS.length; p++) {
+                System.out.println(shardCount + " shards, " + NAMES[p] + ": "
+                        + simulator.simulate(named, PLACEMENTS[p]));
+                System.out.println(shardCount
+                        + " unnamed shards, weights 1 to 3, " + NAMES[p] + ": "
+                        + simulator.simulate(weighted, PLACEMENTS[p]));
+            }
+        }
+
+        byte[][] keys = new byte[KEYS][];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = SafeEncoder.encode("foo" + n);
+        }
+        for (int shardCount : SHARDS) {
+            for (int p = 0; p < PLACEMENTS.length; p++) {
+                Sharded<Jedis, JedisShardInfo> sharded = new Sharded<Jedis, JedisShardInfo>(
+                        shards(shardCount, false), Hashing.MURMUR_HASH,
+                        null, PLACEMENTS[p]);
+                // warm up before measuring
+                lookup(sharded, keys, TOTAL_OPERATIONS / 10);
+
+                long start = System.nanoTime();
+                lookup(sharded, keys, TOTAL_OPERATIONS);
+                long nanos = System.nanoTime() - start;
+                System.out.println(shardCount + " shards, " + NAMES[p] + ": "
+                        + (nanos / TOTAL_OPERATIONS) + " ns/lookup");
+            }
+        }
+    }
+
+    /**
+     * @return named shards of weight 1, or unnamed ones of weights 1 to 3
+     */
+    private static List<JedisShardInfo> shards(int count, boolean weighted) {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (int i = 0; i < count; i++) {
+            if (weighted) {
+                shards.add(new JedisShardInfo("localhost", 6379 + i, 2000,
+                        1 + i % 3));
+            } else {
+                shards.add(new JedisShardInfo("localhost", 6379 + i, "shard-"
+                        + i));
+            }
+        }
+        return shards;
+    }
+
+    private static int lookup(Sharded<Jedis, JedisShardInfo> sharded,
+            byte[][] keys, int operations) {
+        int found = 0;
+        for (int n = 0; n < operations; n++) {
+            if (sharded.getShardInfo(keys[n & (KEYS - 1)]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+}
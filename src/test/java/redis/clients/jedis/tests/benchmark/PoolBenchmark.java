@@ -4,16 +4,27 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
-import org.apache.commons.pool.impl.GenericObjectPool.Config;
-
 import redis.clients.jedis.Jedis;
 import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
 import redis.clients.jedis.tests.HostAndPortUtil;
 import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
 
+/**
+ * Borrows and returns connections from many threads, with the
+ * GenericObjectPool and with the lock-free pool. Each borrow is followed by a
+ * GET every COMMAND_EVERY borrows, so mostly the pool itself is measured.
+ * <p>
+ * Then compares testOnBorrow pinging on every borrow with pinging only
+ * connections idle for more than pingIdleMillis, doing a GET per borrow.
+ */
 public class PoolBenchmark {
     private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
-    private static final int TOTAL_OPERATIONS = 100000;
+    private static final int TOTAL_OPERATIONS = 1000000;
+    private static final int COMMAND_EVERY = 100;
+    private static final int[] THREADS = { 8, 32, 128 };
+    private static final int VALIDATED_OPERATIONS = 100000;
+    private static final int VALIDATED_THREADS = 32;
 
     public static void main(String[] args) throws Exception {
         Jedis j = new Jedis(hnp.host, hnp.port);
@@ -22,28 +33,97 @@ public class PoolBenchmark {
         j.flushAll();
         j.quit();
         j.disconnect();
+
+        for (int threads : THREADS) {
+            // warm up both pools before measuring
+            withPool(false, threads, TOTAL_OPERATIONS / 10);
+            withPool(true, threads, TOTAL_OPERATIONS / 10);
+
+            long t = System.currentTimeMillis();
+            withPool(false, threads, TOTAL_OPERATIONS);
+            long elapsed = System.currentTimeMillis() - t;
+            System.out.println(threads + " threads, GenericObjectPool: "
+                    + ((1000L * TOTAL_OPERATIONS) / elapsed) + " borrows/s");
+
+            t = System.currentTimeMillis();
+            withPool(true, threads, TOTAL_OPERATIONS);
+            elapsed = System.currentTimeMillis() - t;
+            System.out.println(threads + " threads, LockFreeObjectPool: "
+                    + ((1000L * TOTAL_OPERATIONS) / elapsed) + " borrows/s");
+        }
+
+        withValidation(-1, VALIDATED_OPERATIONS / 10);
+        withValidation(1000, VALIDATED_OPERATIONS / 10);
+
         long t = System.currentTimeMillis();
-        // withoutPool();
-        withPool();
+        withValidation(-1, VALIDATED_OPERATIONS);
         long elapsed = System.currentTimeMillis() - t;
-        System.out.println(((1000 * 2 * TOTAL_OPERATIONS) / elapsed) + " ops");
+        System.out.println("PING on every borrow: "
+                + ((1000L * VALIDATED_OPERATIONS) / elapsed) + " ops");
+
+        t = System.currentTimeMillis();
+        withValidation(1000, VALIDATED_OPERATIONS);
+        elapsed = System.currentTimeMillis() - t;
+        System.out.println("PING after 1s idle: "
+                + ((1000L * VALIDATED_OPERATIONS) / elapsed) + " ops");
+    }
+
+    private static void withValidation(long pingIdleMillis,
+            final int operations) throws Exception {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setTestOnBorrow(true);
+        config.setPingIdleMillis(pingIdleMillis);
+        config.setMaxActive(VALIDATED_THREADS);
+        config.setMaxIdle(VALIDATED_THREADS);
+        final JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
+        List<Thread> tds = new ArrayList<Thread>();
+
+        final AtomicInteger ind = new AtomicInteger();
+        for (int i = 0; i < VALIDATED_THREADS; i++) {
+            Thread hj = new Thread(new Runnable() {
+                public void run() {
+                    for (int i = 0; (i = ind.getAndIncrement()) < operations;) {
+                        try {
+                            Jedis j = pool.getResource();
+                            j.get("foo");
+                            pool.returnResource(j);
+                        } catch (Exception e) {
+                            e.printStackTrace();
+                        }
+                    }
+                }
+            });
+            tds.add(hj);
+            hj.start();
+        }
+
+        for (Thread t : tds)
+            t.join();
+
+        pool.destroy();
     }
 
-    private static void withPool() throws Exception {
-        final JedisPool pool = new JedisPool(new Config(), hnp.host, hnp.port,
-                2000, "foobared");
+    private static void withPool(boolean lockFree, int threads,
+            final int operations) throws Exception {
+        JedisPoolConfig config = new JedisPoolConfig();
+        config.setLockFree(lockFree);
+        config.setMaxActive(threads);
+        config.setMaxIdle(threads);
+        final JedisPool pool = new JedisPool(config, hnp.host, hnp.port, 2000,
+                "foobared");
         List<Thread> tds = new ArrayList<Thread>();
 
         final AtomicInteger ind = new AtomicInteger();
-        for (int i = 0; i < 50; i++) {
+        for (int i = 0; i < threads; i++) {
             Thread hj = new Thread(new Runnable() {
                 public void run() {
-                    for (int i = 0; (i = ind.getAndIncrement()) < TOTAL_OPERATIONS;) {
+                    for (int i = 0; (i = ind.getAndIncrement()) < operations;) {
                         try {
                             Jedis j = pool.getResource();
-                            final String key = "foo" + i;
-                            j.set(key, key);
-                            j.get(key);
+                            if (i % COMMAND_EVERY == 0) {
+                                j.get("foo");
+                            }
                             pool.returnResource(j);
                         } catch (Exception e) {
                             e.printStackTrace();
@@ -60,4 +140,4 @@ public class PoolBenchmark {
 
         pool.destroy();
     }
-}
\ No newline at end of file
+}
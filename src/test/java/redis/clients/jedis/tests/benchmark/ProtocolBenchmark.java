@@ -0,0 +1,108 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import redis.clients.jedis.Protocol;
+import redis.clients.util.RedisInputStream;
+
+/**
+ * Compares reading integer, length and status lines through readLine() and
+ * the String based parsers against the in-buffer parsers of
+ * RedisInputStream. Reports throughput and, when the JVM supports it, the
+ * number of bytes allocated per reply.
+ */
+public class ProtocolBenchmark {
+    private static final int REPLIES_PER_BUFFER = 1000;
+    private static final int TOTAL_OPERATIONS = 5000;
+
+    public static void main(String[] args) throws IOException {
+        final byte[] replies = buildReplies();
+
+        // warm up both paths before measuring
+        for (int n = 0; n < TOTAL_OPERATIONS / 10; n++) {
+            readWithStrings(replies);
+            readInPlace(replies);
+        }
+
+        long allocated = Allocations.allocatedBytes();
+        long begin = System.nanoTime();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            readWithStrings(replies);
+        }
+        report("readLine()", begin, allocated);
+
+        allocated = Allocations.allocatedBytes();
+        begin = System.nanoTime();
+        for (int n = 0; n < TOTAL_OPERATIONS; n++) {
+            readInPlace(replies);
+        }
+        report("in place", begin, allocated);
+    }
+
+    private static byte[] buildReplies() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int n = 0; n < REPLIES_PER_BUFFER; n++) {
+            switch (n % 3) {
+            case 0:
+                out.write((":" + (n * 1000) + "\r\n").getBytes());
+                break;
+            case 1:
+                out.write("+OK\r\n".getBytes());
+                break;
+            default:
+                out.write(("*" + n + "\r\n").getBytes());
+            }
+        }
+        return out.toByteArray();
+    }
+
+    private static long readWithStrings(byte[] replies) throws IOException {
+        RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+                replies));
+        long sum = 0;
+        for (int n = 0; n < REPLIES_PER_BUFFER; n++) {
+            byte b = is.readByte();
+            String line = is.readLine();
+            if (b == Protocol.COLON_BYTE) {
+                sum += Long.valueOf(line);
+            } else if (b == Protocol.ASTERISK_BYTE) {
+                sum += Integer.parseInt(line);
+            } else if (line.equals("OK")) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    private static long readInPlace(byte[] replies) throws IOException {
+        RedisInputStream is = new RedisInputStream(new ByteArrayInputStream(
+                replies));
+        long sum = 0;
+        for (int n = 0; n < REPLIES_PER_BUFFER; n++) {
+            byte b = is.readByte();
+            if (b == Protocol.COLON_BYTE) {
+                sum += is.readLongCrLf();
+            } else if (b == Protocol.ASTERISK_BYTE) {
+                sum += is.readIntCrLf();
+            } else if (is.readOkCrLf()) {
+                sum++;
+            }
+        }
+        return sum;
+    }
+
+    private static void report(String name, long begin, long allocatedBefore) {
+        long elapsed = System.nanoTime() - begin;
+        long replies = (long) TOTAL_OPERATIONS * REPLIES_PER_BUFFER;
+        System.out.print(((replies * 1000000000L) / elapsed) + " replies/s "
+                + name);
+        long allocated = Allocations.allocatedBytes();
+        if (allocated >= 0 && allocatedBefore >= 0) {
+            System.out.print(", " + ((allocated - allocatedBefore) / replies)
+                    + " bytes allocated per reply");
+        }
+        System.out.println();
+    }
+}
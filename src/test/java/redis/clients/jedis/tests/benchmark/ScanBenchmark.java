@@ -0,0 +1,131 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Scans every key of two shards: with a SCAN loop on each shard in turn,
+ * with a scanIterator on each shard in turn, which requests the next page
+ * before handing out the current one, and with the sharded scanIterator,
+ * which scans both shards at the same time, from one thread and on an
+ * executor.
+ */
+public class ScanBenchmark {
+    private static final int KEYS = 2000;
+    private static final int SCANS = 20;
+    private static final ScanParams PARAMS = new ScanParams().count(100);
+
+    public static void main(String[] args) throws Exception {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (HostAndPort hnp : HostAndPortUtil.getRedisServers().subList(0, 2)) {
+            JedisShardInfo shard = new JedisShardInfo(hnp.host, hnp.port);
+            shard.setPassword("foobared");
+            shards.add(shard);
+        }
+        ShardedJedis jedis = new ShardedJedis(shards);
+        for (Jedis shard : jedis.getAllShards()) {
+            shard.flushAll();
+        }
+
+        String[] keysvalues = new String[KEYS * 2];
+        for (int n = 0; n < KEYS; n++) {
+            keysvalues[2 * n] = "key:" + n;
+            keysvalues[2 * n + 1] = "value" + n;
+        }
+        jedis.mset(keysvalues);
+
+        // warm up before measuring
+        scanLoop(jedis, SCANS / 10);
+        scanIterator(jedis, SCANS / 10);
+        shardedScanIterator(jedis, SCANS / 10);
+
+        long start = System.nanoTime();
+        scanLoop(jedis, SCANS);
+        report("SCAN loop, shard after shard", start);
+
+        start = System.nanoTime();
+        scanIterator(jedis, SCANS);
+        report("scanIterator, shard after shard", start);
+
+        start = System.nanoTime();
+        shardedScanIterator(jedis, SCANS);
+        report("sharded scanIterator", start);
+
+        ExecutorService executor = Executors.newFixedThreadPool(shards.size());
+        jedis.setExecutor(executor);
+        shardedScanIterator(jedis, SCANS / 10);
+        start = System.nanoTime();
+        shardedScanIterator(jedis, SCANS);
+        report("sharded scanIterator, on an executor", start);
+
+        for (Jedis shard : jedis.getAllShards()) {
+            shard.flushAll();
+        }
+        jedis.disconnect();
+        executor.shutdown();
+    }
+
+    private static void report(String name, long start) {
+        long elapsed = System.nanoTime() - start;
+        System.out.println(name + ": " + (elapsed / SCANS / 1000)
+                + " us/scan of " + KEYS + " keys");
+    }
+
+    private static void scanLoop(ShardedJedis jedis, int scans) {
+        for (int s = 0; s < scans; s++) {
+            int keys = 0;
+            for (Jedis shard : jedis.getAllShards()) {
+                String cursor = ScanParams.SCAN_POINTER_START;
+                ScanResult<String> result;
+                do {
+                    result = shard.scan(cursor, PARAMS);
+                    keys += result.getResult().size();
+                    cursor = result.getCursor();
+                } while (!result.isCompleteIteration());
+            }
+            check(keys);
+        }
+    }
+
+    private static void scanIterator(ShardedJedis jedis, int scans) {
+        for (int s = 0; s < scans; s++) {
+            int keys = 0;
+            for (Jedis shard : jedis.getAllShards()) {
+                keys += count(shard.scanIterator(PARAMS));
+            }
+            check(keys);
+        }
+    }
+
+    private static void shardedScanIterator(ShardedJedis jedis, int scans) {
+        for (int s = 0; s < scans; s++) {
+            check(count(jedis.scanIterator(PARAMS)));
+        }
+    }
+
+    private static int count(Iterator<String> it) {
+        int keys = 0;
+        while (it.hasNext()) {
+            it.next();
+            keys++;
+        }
+        return keys;
+    }
+
+    private static void check(int keys) {
+        if (keys != KEYS) {
+            throw new IllegalStateException(keys + " keys scanned");
+        }
+    }
+}
@@ -2,12 +2,20 @@ package redis.clients.jedis.tests.benchmark;
 
 import java.io.IOException;
 import java.net.UnknownHostException;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
+import java.util.regex.Pattern;
 
 import redis.clients.util.Hashing;
+import redis.clients.util.SafeEncoder;
+import redis.clients.util.ShardInfo;
+import redis.clients.util.Sharded;
 
 public class ShardedBenchmark {
     private static final int TOTAL_OPERATIONS = 10000000;
+    private static final int[] SHARDS = { 10, 100, 1000 };
+    private static final int KEYS = 1024;
 
     public static void main(String[] args) throws UnknownHostException,
             IOException {
@@ -35,5 +43,134 @@ public class ShardedBenchmark {
         System.out.println(((1000 * TOTAL_OPERATIONS) / elapsed)
                 + " Murmur ops");
 
+        lookups();
+        keyTags();
     }
-}
\ No newline at end of file
+
+    /**
+     * Looks up shards for pre-encoded keys, so only the hash and the ring
+     * search are measured, and reports the ring's size on the heap.
+     */
+    private static void lookups() {
+        byte[][] keys = new byte[KEYS][];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = SafeEncoder.encode("foo" + n);
+        }
+
+        for (int shardCount : SHARDS) {
+            List<BenchShardInfo> shards = new ArrayList<BenchShardInfo>();
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new BenchShardInfo());
+            }
+
+            long heap = usedHeap();
+            Sharded<Object, BenchShardInfo> sharded = new Sharded<Object, BenchShardInfo>(
+                    shards, Hashing.MURMUR_HASH);
+            long ringBytes = usedHeap() - heap;
+
+            // warm up before measuring
+            lookup(sharded, keys, TOTAL_OPERATIONS / 10);
+
+            long allocated = Allocations.allocatedBytes();
+            long start = System.nanoTime();
+            lookup(sharded, keys, TOTAL_OPERATIONS);
+            long nanos = System.nanoTime() - start;
+            long allocatedAfter = Allocations.allocatedBytes();
+
+            System.out.print(shardCount + " shards: " + (nanos / TOTAL_OPERATIONS)
+                    + " ns/lookup, ring " + (ringBytes / 1024) + " KB");
+            if (allocated >= 0 && allocatedAfter >= 0) {
+                System.out.print(", "
+                        + ((allocatedAfter - allocated) / TOTAL_OPERATIONS)
+                        + " bytes allocated per lookup");
+            }
+            System.out.println();
+        }
+    }
+
+    /**
+     * Looks up shards for tagged String keys, with the default key tag
+     * pattern, which is scanned for by hand, and with an equivalent pattern
+     * that has to be matched as a regular expression.
+     */
+    private static void keyTags() {
+        String[] keys = new String[KEYS];
+        for (int n = 0; n < KEYS; n++) {
+            keys[n] = "user:{" + n + "}:foo";
+        }
+        List<BenchShardInfo> shards = new ArrayList<BenchShardInfo>();
+        for (int i = 0; i < SHARDS[1]; i++) {
+            shards.add(new BenchShardInfo());
+        }
+        Pattern[] patterns = { Sharded.DEFAULT_KEY_TAG_PATTERN,
+                Pattern.compile("\\{(.+?)\\}", Pattern.UNICODE_CASE) };
+        String[] names = { "scanned", "regex" };
+
+        for (int p = 0; p < patterns.length; p++) {
+            Sharded<Object, BenchShardInfo> sharded = new Sharded<Object, BenchShardInfo>(
+                    shards, Hashing.MURMUR_HASH, patterns[p]);
+            lookup(sharded, keys, TOTAL_OPERATIONS / 10);
+
+            long allocated = Allocations.allocatedBytes();
+            long start = System.nanoTime();
+            lookup(sharded, keys, TOTAL_OPERATIONS);
+            long nanos = System.nanoTime() - start;
+            long allocatedAfter = Allocations.allocatedBytes();
+
+            System.out.print("key tags, " + names[p] + ": "
+                    + (nanos / TOTAL_OPERATIONS) + " ns/lookup");
+            if (allocated >= 0 && allocatedAfter >= 0) {
+                System.out.print(", "
+                        + ((allocatedAfter - allocated) / TOTAL_OPERATIONS)
+                        + " bytes allocated per lookup");
+            }
+            System.out.println();
+        }
+    }
+
+    private static int lookup(Sharded<Object, BenchShardInfo> sharded,
+            String[] keys, int operations) {
+        int found = 0;
+        for (int n = 0; n < operations; n++) {
+            if (sharded.getShardInfo(keys[n & (KEYS - 1)]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static int lookup(Sharded<Object, BenchShardInfo> sharded,
+            byte[][] keys, int operations) {
+        int found = 0;
+        for (int n = 0; n < operations; n++) {
+            if (sharded.getShardInfo(keys[n & (KEYS - 1)]) != null) {
+                found++;
+            }
+        }
+        return found;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 4; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static class BenchShardInfo extends ShardInfo<Object> {
+        private static final Object RESOURCE = new Object();
+
+        public BenchShardInfo() {
+            super(Sharded.DEFAULT_WEIGHT);
+        }
+
+        protected Object createResource() {
+            return RESOURCE;
+        }
+
+        public String getName() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Reads a page of keys spread over two shards: with a GET per key, with an
+ * MGET per shard sent from one thread, and with an MGET per shard on an
+ * executor.
+ */
+public class ShardedMultiKeyBenchmark {
+    private static final int PAGE = 500;
+    private static final int PAGES = 200;
+
+    public static void main(String[] args) throws Exception {
+        List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+        for (HostAndPort hnp : HostAndPortUtil.getRedisServers().subList(0, 2)) {
+            JedisShardInfo shard = new JedisShardInfo(hnp.host, hnp.port);
+            shard.setPassword("foobared");
+            shards.add(shard);
+        }
+        ShardedJedis jedis = new ShardedJedis(shards);
+
+        String[] keys = new String[PAGE];
+        String[] keysvalues = new String[PAGE * 2];
+        for (int n = 0; n < PAGE; n++) {
+            keys[n] = "page:" + n;
+            keysvalues[2 * n] = keys[n];
+            keysvalues[2 * n + 1] = "value" + n;
+        }
+        jedis.mset(keysvalues);
+
+        // warm up before measuring
+        getEach(jedis, keys, PAGES / 10);
+        mget(jedis, keys, PAGES / 10);
+
+        long start = System.nanoTime();
+        getEach(jedis, keys, PAGES);
+        long elapsed = System.nanoTime() - start;
+        System.out.println("GET per key: " + (elapsed / PAGES / 1000)
+                + " us/page");
+
+        start = System.nanoTime();
+        mget(jedis, keys, PAGES);
+        elapsed = System.nanoTime() - start;
+        System.out.println("MGET per shard: " + (elapsed / PAGES / 1000)
+                + " us/page");
+
+        ExecutorService executor = Executors.newFixedThreadPool(shards.size());
+        jedis.setExecutor(executor);
+        mget(jedis, keys, PAGES / 10);
+        start = System.nanoTime();
+        mget(jedis, keys, PAGES);
+        elapsed = System.nanoTime() - start;
+        System.out.println("MGET per shard, on an executor: "
+                + (elapsed / PAGES / 1000) + " us/page");
+
+        jedis.del(keys);
+        jedis.disconnect();
+        executor.shutdown();
+    }
+
+    private static void getEach(ShardedJedis jedis, String[] keys, int pages) {
+        for (int p = 0; p < pages; p++) {
+            for (String key : keys) {
+                jedis.get(key);
+            }
+        }
+    }
+
+    private static void mget(ShardedJedis jedis, String[] keys, int pages) {
+        for (int p = 0; p < pages; p++) {
+            jedis.mget(keys);
+        }
+    }
+}
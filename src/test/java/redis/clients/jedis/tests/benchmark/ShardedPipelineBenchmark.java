@@ -0,0 +1,79 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisShardInfo;
+import redis.clients.jedis.ShardedJedis;
+import redis.clients.jedis.ShardedJedisPipeline;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Pipelines SETs and GETs over 4, 16 and 64 shards, read from one thread and
+ * with a reader per shard on an executor. The shards take turns on the
+ * available servers, each with a connection of its own.
+ */
+public class ShardedPipelineBenchmark {
+    private static final int[] SHARDS = { 4, 16, 64 };
+    private static final int TOTAL_OPERATIONS = 20000;
+    private static final int BATCH = 1000;
+
+    public static void main(String[] args) {
+        List<HostAndPort> servers = HostAndPortUtil.getRedisServers();
+        for (HostAndPort hnp : servers) {
+            Jedis jedis = new Jedis(hnp.host, hnp.port);
+            jedis.auth("foobared");
+            jedis.flushAll();
+            jedis.disconnect();
+        }
+        for (int shardCount : SHARDS) {
+            List<JedisShardInfo> shards = new ArrayList<JedisShardInfo>();
+            for (int i = 0; i < shardCount; i++) {
+                HostAndPort hnp = servers.get(i % servers.size());
+                JedisShardInfo shard = new JedisShardInfo(hnp.host, hnp.port,
+                        "shard-" + i);
+                shard.setPassword("foobared");
+                shards.add(shard);
+            }
+            ShardedJedis jedis = new ShardedJedis(shards);
+
+            // warm up before measuring
+            run(jedis, TOTAL_OPERATIONS / 10);
+            long elapsed = run(jedis, TOTAL_OPERATIONS);
+            System.out.println(shardCount + " shards: "
+                    + (1000000000L * 2 * TOTAL_OPERATIONS / elapsed) + " ops");
+
+            ExecutorService executor = Executors
+                    .newFixedThreadPool(shardCount);
+            jedis.setExecutor(executor);
+            run(jedis, TOTAL_OPERATIONS / 10);
+            elapsed = run(jedis, TOTAL_OPERATIONS);
+            System.out.println(shardCount + " shards, on an executor: "
+                    + (1000000000L * 2 * TOTAL_OPERATIONS / elapsed) + " ops");
+
+            jedis.disconnect();
+            executor.shutdown();
+        }
+    }
+
+    /**
+     * @return the elapsed nanoseconds
+     */
+    private static long run(ShardedJedis jedis, int operations) {
+        long start = System.nanoTime();
+        for (int n = 0; n < operations; n += BATCH) {
+            ShardedJedisPipeline p = jedis.pipelined();
+            for (int i = 0; i < BATCH; i++) {
+                String key = "foo" + i;
+                p.set(key, "bar" + n);
+                p.get(key);
+            }
+            p.sync();
+        }
+        return System.nanoTime() - start;
+    }
+}
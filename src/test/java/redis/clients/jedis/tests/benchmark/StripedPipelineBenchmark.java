@@ -0,0 +1,84 @@
+package redis.clients.jedis.tests.benchmark;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.JedisPool;
+import redis.clients.jedis.JedisPoolConfig;
+import redis.clients.jedis.Pipeline;
+import redis.clients.jedis.Protocol;
+import redis.clients.jedis.StripedPipeline;
+import redis.clients.jedis.tests.HostAndPortUtil;
+import redis.clients.jedis.tests.HostAndPortUtil.HostAndPort;
+
+/**
+ * Loads keys with SET through one pipeline, and through pipelines striped
+ * over 2, 4 and 8 connections, read from one thread and on an executor.
+ */
+public class StripedPipelineBenchmark {
+    private static HostAndPort hnp = HostAndPortUtil.getRedisServers().get(0);
+    private static final int TOTAL_OPERATIONS = 50000;
+    private static final int BATCH = 5000;
+    private static final int[] STRIPES = { 2, 4, 8 };
+
+    public static void main(String[] args) {
+        JedisPool pool = new JedisPool(new JedisPoolConfig(), hnp.host,
+                hnp.port, Protocol.DEFAULT_TIMEOUT, "foobared");
+        Jedis jedis = pool.getResource();
+        jedis.flushAll();
+
+        // warm up before measuring
+        pipeline(jedis, TOTAL_OPERATIONS / 10);
+        long elapsed = pipeline(jedis, TOTAL_OPERATIONS);
+        System.out.println("1 connection: "
+                + (1000000000L * TOTAL_OPERATIONS / elapsed) + " ops");
+        pool.returnResource(jedis);
+
+        for (int stripes : STRIPES) {
+            StripedPipeline p = new StripedPipeline(pool, stripes);
+            striped(p, TOTAL_OPERATIONS / 10);
+            elapsed = striped(p, TOTAL_OPERATIONS);
+            System.out.println(stripes + " connections: "
+                    + (1000000000L * TOTAL_OPERATIONS / elapsed) + " ops");
+
+            ExecutorService executor = Executors.newFixedThreadPool(stripes);
+            p.setExecutor(executor);
+            striped(p, TOTAL_OPERATIONS / 10);
+            elapsed = striped(p, TOTAL_OPERATIONS);
+            System.out.println(stripes + " connections, on an executor: "
+                    + (1000000000L * TOTAL_OPERATIONS / elapsed) + " ops");
+            p.close();
+            executor.shutdown();
+        }
+        pool.destroy();
+    }
+
+    /**
+     * @return the elapsed nanoseconds
+     */
+    private static long pipeline(Jedis jedis, int operations) {
+        long start = System.nanoTime();
+        Pipeline p = jedis.pipelined();
+        for (int n = 0; n < operations; n++) {
+            p.set("key" + (n % BATCH), "value" + n);
+            if ((n + 1) % BATCH == 0) {
+                p.sync();
+            }
+        }
+        p.sync();
+        return System.nanoTime() - start;
+    }
+
+    private static long striped(StripedPipeline p, int operations) {
+        long start = System.nanoTime();
+        for (int n = 0; n < operations; n++) {
+            p.set("key" + (n % BATCH), "value" + n);
+            if ((n + 1) % BATCH == 0) {
+                p.sync();
+            }
+        }
+        p.sync();
+        return System.nanoTime() - start;
+    }
+}
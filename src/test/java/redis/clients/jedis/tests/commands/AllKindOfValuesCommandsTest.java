@@ -6,6 +6,9 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.ScanIterator;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.exceptions.JedisDataException;
 import redis.clients.util.SafeEncoder;
 
@@ -458,4 +461,74 @@ public class AllKindOfValuesCommandsTest extends JedisCommandTestBase {
         assertArrayEquals(SafeEncoder.encode("hello world"), bresult);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void scan() {
+        Set<String> expected = new HashSet<String>();
+        for (int i = 0; i < 25; i++) {
+            jedis.set("scan:" + i, "v");
+            expected.add("scan:" + i);
+        }
+        jedis.set("other", "v");
+
+        Set<String> keys = new HashSet<String>();
+        ScanParams params = new ScanParams().match("scan:*").count(5);
+        String cursor = ScanParams.SCAN_POINTER_START;
+        ScanResult<String> result;
+        do {
+            result = jedis.scan(cursor, params);
+            keys.addAll(result.getResult());
+            cursor = result.getCursor();
+        } while (!result.isCompleteIteration());
+        assertEquals(expected, keys);
+
+        // Binary
+        jedis.set(bfoo, bbar);
+        ScanResult<byte[]> bresult = jedis.scan(
+                ScanParams.SCAN_POINTER_START_BINARY, new ScanParams().match(
+                        bfoo).count(1000));
+        assertTrue(bresult.isCompleteIteration());
+        assertEquals(1, bresult.getResult().size());
+        assertArrayEquals(bfoo, bresult.getResult().get(0));
+    }
+
+    @Test
+    public void scanIterator() {
+        Set<String> expected = new HashSet<String>();
+        for (int i = 0; i < 25; i++) {
+            jedis.set("scan:" + i, "v");
+            expected.add("scan:" + i);
+        }
+
+        Set<String> keys = new HashSet<String>();
+        ScanIterator<String> it = jedis.scanIterator(new ScanParams().match(
+                "scan:*").count(5));
+        while (it.hasNext()) {
+            keys.add(it.next());
+        }
+        assertEquals(expected, keys);
+
+        // other commands can be sent during the iteration, which goes on
+        keys.clear();
+        it = jedis.scanIterator(new ScanParams().match("scan:*").count(5));
+        while (it.hasNext()) {
+            String key = it.next();
+            assertEquals("v", jedis.get(key));
+            keys.add(key);
+        }
+        assertEquals(expected, keys);
+
+        // closing the iterator ends it
+        it = jedis.scanIterator(new ScanParams().match("scan:*").count(5));
+        it.next();
+        it.close();
+        assertFalse(it.hasNext());
+        assertEquals("v", jedis.get("scan:0"));
+
+        // Binary
+        jedis.set(bfoo, bbar);
+        ScanIterator<byte[]> bit = jedis.binaryScanIterator(new ScanParams()
+                .match(bfoo));
+        assertArrayEquals(bfoo, bit.next());
+        assertFalse(bit.hasNext());
+    }
+}
@@ -1,5 +1,15 @@
 package redis.clients.jedis.tests.commands;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -8,6 +18,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import redis.clients.jedis.Protocol.Keyword;
+import redis.clients.jedis.exceptions.JedisConnectionException;
 import redis.clients.jedis.exceptions.JedisDataException;
 
 public class BinaryValuesCommandsTest extends JedisCommandTestBase {
@@ -37,6 +48,117 @@ public class BinaryValuesCommandsTest extends JedisCommandTestBase {
         assertNull(jedis.get(bbar));
     }
 
+    @Test
+    public void getAsStream() throws IOException {
+        jedis.set(bfoo, binaryValue);
+
+        InputStream stream = jedis.getAsStream(bfoo);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] chunk = new byte[100];
+        int read;
+        while ((read = stream.read(chunk)) != -1) {
+            out.write(chunk, 0, read);
+        }
+        stream.close();
+        assertTrue(Arrays.equals(binaryValue, out.toByteArray()));
+
+        assertNull(jedis.getAsStream(bbar));
+    }
+
+    @Test
+    public void getAsStreamPartiallyRead() throws IOException {
+        jedis.set(bfoo, binaryValue);
+        jedis.set(bbar, bfoo);
+
+        InputStream stream = jedis.getAsStream(bfoo);
+        assertEquals('A', stream.read());
+
+        // the unread part of the value must be skipped
+        assertTrue(Arrays.equals(bfoo, jedis.get(bbar)));
+    }
+
+    @Test
+    public void getIntoChannel() {
+        jedis.set(bfoo, binaryValue);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long length = jedis.get(bfoo, Channels.newChannel(out));
+        assertEquals(binaryValue.length, length);
+        assertTrue(Arrays.equals(binaryValue, out.toByteArray()));
+
+        assertEquals(-1, jedis.get(bbar, Channels.newChannel(out)));
+    }
+
+    @Test
+    public void getIntoByteBuffer() {
+        jedis.set(bfoo, binaryValue);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(binaryValue.length);
+        assertEquals(binaryValue.length, jedis.get(bfoo, buffer));
+        assertFalse(buffer.hasRemaining());
+
+        byte[] value = new byte[binaryValue.length];
+        buffer.flip();
+        buffer.get(value);
+        assertTrue(Arrays.equals(binaryValue, value));
+    }
+
+    @Test
+    public void getIntoTooSmallByteBuffer() {
+        jedis.set(bfoo, binaryValue);
+        jedis.set(bbar, bfoo);
+
+        try {
+            jedis.get(bfoo, ByteBuffer.allocate(10));
+            fail();
+        } catch (JedisDataException e) {
+            // the value doesn't fit
+        }
+        assertTrue(Arrays.equals(bfoo, jedis.get(bbar)));
+    }
+
+    @Test
+    public void setFromStream() {
+        String status = jedis.set(bfoo, binaryValue.length,
+                new ByteArrayInputStream(binaryValue));
+        assertTrue(Keyword.OK.name().equalsIgnoreCase(status));
+        assertTrue(Arrays.equals(binaryValue, jedis.get(bfoo)));
+    }
+
+    @Test
+    public void setFromFileChannel() throws IOException {
+        File file = File.createTempFile("jedis", ".bin");
+        file.deleteOnExit();
+        FileOutputStream fos = new FileOutputStream(file);
+        fos.write(binaryValue);
+        fos.close();
+
+        FileInputStream fis = new FileInputStream(file);
+        try {
+            FileChannel channel = fis.getChannel();
+            String status = jedis.setex(bfoo, 100, (int) channel.size(),
+                    channel);
+            assertTrue(Keyword.OK.name().equalsIgnoreCase(status));
+        } finally {
+            fis.close();
+        }
+        assertTrue(Arrays.equals(binaryValue, jedis.get(bfoo)));
+    }
+
+    @Test
+    public void appendFromStream() {
+        jedis.set(bfoo, bbar);
+        long length = jedis.append(bfoo, bfoo.length, Channels
+                .newChannel(new ByteArrayInputStream(bfoo)));
+        assertEquals(bbar.length + bfoo.length, length);
+    }
+
+    @Test(expected = JedisConnectionException.class)
+    public void setFromShortStream() {
+        jedis.set(bfoo, binaryValue.length + 1, new ByteArrayInputStream(
+                binaryValue));
+    }
+
     @Test
     public void getSet() {
         byte[] value = jedis.getSet(bfoo, binaryValue);
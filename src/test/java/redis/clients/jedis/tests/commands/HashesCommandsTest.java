@@ -1,5 +1,6 @@
 package redis.clients.jedis.tests.commands;
 
+import java.io.ByteArrayInputStream;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -10,6 +11,11 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.MultiBulkIterator;
+import redis.clients.jedis.ScanIterator;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
 public class HashesCommandsTest extends JedisCommandTestBase {
     final byte[] bfoo = { 0x01, 0x02, 0x03, 0x04 };
     final byte[] bbar = { 0x05, 0x06, 0x07, 0x08 };
@@ -30,6 +36,14 @@ public class HashesCommandsTest extends JedisCommandTestBase {
 
     }
 
+    @Test
+    public void hsetFromStream() {
+        long status = jedis.hset(bfoo, bbar, bcar.length,
+                new ByteArrayInputStream(bcar));
+        assertEquals(1, status);
+        assertArrayEquals(bcar, jedis.hget(bfoo, bbar));
+    }
+
     @Test
     public void hget() {
         jedis.hset("foo", "bar", "car");
@@ -286,4 +300,94 @@ public class HashesCommandsTest extends JedisCommandTestBase {
         assertArrayEquals(bcar, bhash.get(bbar));
         assertArrayEquals(bbar, bhash.get(bcar));
     }
+
+    @Test
+    public void hgetAllIterator() {
+        Map<String, String> h = new HashMap<String, String>();
+        h.put("bar", "car");
+        h.put("car", "bar");
+        jedis.hmset("foo", h);
+
+        Map<String, String> hash = new HashMap<String, String>();
+        MultiBulkIterator<Map.Entry<String, String>> it = jedis
+                .hgetAllIterator("foo");
+        assertEquals(2, it.remaining());
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            hash.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(h, hash);
+
+        // Binary
+        jedis.hset(bfoo, bbar, bcar);
+
+        MultiBulkIterator<Map.Entry<byte[], byte[]>> bit = jedis
+                .hgetAllIterator(bfoo);
+        Map.Entry<byte[], byte[]> bentry = bit.next();
+        assertArrayEquals(bbar, bentry.getKey());
+        assertArrayEquals(bcar, bentry.getValue());
+        assertFalse(bit.hasNext());
+    }
+
+    @Test
+    public void hscan() {
+        Map<String, String> h = new HashMap<String, String>();
+        for (int i = 0; i < 10; i++) {
+            h.put("field" + i, "value" + i);
+        }
+        jedis.hmset("foo", h);
+
+        Map<String, String> hash = new HashMap<String, String>();
+        String cursor = ScanParams.SCAN_POINTER_START;
+        ScanResult<Map.Entry<String, String>> result;
+        do {
+            result = jedis.hscan("foo", cursor, new ScanParams().count(3));
+            for (Map.Entry<String, String> entry : result.getResult()) {
+                hash.put(entry.getKey(), entry.getValue());
+            }
+            cursor = result.getCursor();
+        } while (!result.isCompleteIteration());
+        assertEquals(h, hash);
+
+        result = jedis.hscan("foo", ScanParams.SCAN_POINTER_START,
+                new ScanParams().match("field1"));
+        assertEquals(1, result.getResult().size());
+        assertEquals("value1", result.getResult().get(0).getValue());
+
+        // Binary
+        jedis.hset(bfoo, bbar, bcar);
+
+        ScanResult<Map.Entry<byte[], byte[]>> bresult = jedis.hscan(bfoo,
+                ScanParams.SCAN_POINTER_START_BINARY);
+        assertArrayEquals(bbar, bresult.getResult().get(0).getKey());
+        assertArrayEquals(bcar, bresult.getResult().get(0).getValue());
+    }
+
+    @Test
+    public void hscanIterator() {
+        Map<String, String> h = new HashMap<String, String>();
+        for (int i = 0; i < 10; i++) {
+            h.put("field" + i, "value" + i);
+        }
+        jedis.hmset("foo", h);
+
+        Map<String, String> hash = new HashMap<String, String>();
+        ScanIterator<Map.Entry<String, String>> it = jedis.hscanIterator(
+                "foo", new ScanParams().count(3));
+        while (it.hasNext()) {
+            Map.Entry<String, String> entry = it.next();
+            hash.put(entry.getKey(), entry.getValue());
+        }
+        assertEquals(h, hash);
+
+        // Binary
+        jedis.hset(bfoo, bbar, bcar);
+
+        ScanIterator<Map.Entry<byte[], byte[]>> bit = jedis.hscanIterator(
+                bfoo, new ScanParams());
+        Map.Entry<byte[], byte[]> bentry = bit.next();
+        assertArrayEquals(bbar, bentry.getKey());
+        assertArrayEquals(bcar, bentry.getValue());
+        assertFalse(bit.hasNext());
+    }
 }
@@ -8,6 +8,7 @@ import org.junit.Test;
 
 import redis.clients.jedis.Client;
 import redis.clients.jedis.Jedis;
+import redis.clients.jedis.MultiBulkIterator;
 import redis.clients.jedis.exceptions.JedisDataException;
 
 public class ListCommandsTest extends JedisCommandTestBase {
@@ -154,6 +155,45 @@ public class ListCommandsTest extends JedisCommandTestBase {
 
     }
 
+    @Test
+    public void lrangeIterator() {
+        jedis.rpush("foo", "a");
+        jedis.rpush("foo", "b");
+        jedis.rpush("foo", "c");
+
+        List<String> range = new ArrayList<String>();
+        MultiBulkIterator<String> it = jedis.lrangeIterator("foo", 0, -1);
+        assertEquals(3, it.remaining());
+        while (it.hasNext()) {
+            range.add(it.next());
+        }
+        assertEquals(Arrays.asList("a", "b", "c"), range);
+
+        assertFalse(jedis.lrangeIterator("bar", 0, -1).hasNext());
+
+        // Binary
+        jedis.rpush(bfoo, bA);
+        jedis.rpush(bfoo, bB);
+
+        MultiBulkIterator<byte[]> bit = jedis.lrangeIterator(bfoo, 0, -1);
+        assertArrayEquals(bA, bit.next());
+        assertArrayEquals(bB, bit.next());
+        assertFalse(bit.hasNext());
+    }
+
+    @Test
+    public void lrangeIteratorPartiallyRead() {
+        jedis.rpush("foo", "a");
+        jedis.rpush("foo", "b");
+        jedis.rpush("foo", "c");
+
+        MultiBulkIterator<String> it = jedis.lrangeIterator("foo", 0, -1);
+        assertEquals("a", it.next());
+
+        // the rest of the reply must be skipped before the next command
+        assertEquals(3, jedis.llen("foo").intValue());
+    }
+
     @Test
     public void ltrim() {
         jedis.lpush("foo", "1");
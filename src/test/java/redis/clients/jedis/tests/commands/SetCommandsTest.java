@@ -6,6 +6,11 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.MultiBulkIterator;
+import redis.clients.jedis.ScanIterator;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
+
 public class SetCommandsTest extends JedisCommandTestBase {
     final byte[] bfoo = { 0x01, 0x02, 0x03, 0x04 };
     final byte[] bbar = { 0x05, 0x06, 0x07, 0x08 };
@@ -57,6 +62,26 @@ public class SetCommandsTest extends JedisCommandTestBase {
 
         assertEquals(bexpected, bmembers);
     }
+
+    @Test
+    public void smembersIterator() {
+        jedis.sadd("foo", "a");
+        jedis.sadd("foo", "b");
+
+        Set<String> members = new HashSet<String>();
+        MultiBulkIterator<String> it = jedis.smembersIterator("foo");
+        while (it.hasNext()) {
+            members.add(it.next());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("a", "b")), members);
+
+        // Binary
+        jedis.sadd(bfoo, ba);
+
+        MultiBulkIterator<byte[]> bit = jedis.smembersIterator(bfoo);
+        assertArrayEquals(ba, bit.next());
+        assertFalse(bit.hasNext());
+    }
     
     @Test
     public void srem() {
@@ -451,4 +476,40 @@ public class SetCommandsTest extends JedisCommandTestBase {
 
     }
 
-}
\ No newline at end of file
+    @Test
+    public void sscan() {
+        Set<String> expected = new HashSet<String>();
+        for (int i = 0; i < 10; i++) {
+            jedis.sadd("foo", "member" + i);
+            expected.add("member" + i);
+        }
+
+        Set<String> members = new HashSet<String>();
+        String cursor = ScanParams.SCAN_POINTER_START;
+        ScanResult<String> result;
+        do {
+            result = jedis.sscan("foo", cursor, new ScanParams().count(3));
+            members.addAll(result.getResult());
+            cursor = result.getCursor();
+        } while (!result.isCompleteIteration());
+        assertEquals(expected, members);
+
+        members.clear();
+        ScanIterator<String> it = jedis.sscanIterator("foo", new ScanParams()
+                .match("member1*"));
+        while (it.hasNext()) {
+            members.add(it.next());
+        }
+        assertEquals(new HashSet<String>(Arrays.asList("member1")), members);
+
+        // Binary
+        jedis.sadd(bfoo, ba);
+
+        ScanResult<byte[]> bresult = jedis.sscan(bfoo,
+                ScanParams.SCAN_POINTER_START_BINARY);
+        assertArrayEquals(ba, bresult.getResult().get(0));
+        ScanIterator<byte[]> bit = jedis.sscanIterator(bfoo, new ScanParams());
+        assertArrayEquals(ba, bit.next());
+        assertFalse(bit.hasNext());
+    }
+}
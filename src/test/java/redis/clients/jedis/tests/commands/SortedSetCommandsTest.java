@@ -5,6 +5,10 @@ import java.util.Set;
 
 import org.junit.Test;
 
+import redis.clients.jedis.MultiBulkIterator;
+import redis.clients.jedis.ScanIterator;
+import redis.clients.jedis.ScanParams;
+import redis.clients.jedis.ScanResult;
 import redis.clients.jedis.Tuple;
 import redis.clients.jedis.ZParams;
 import redis.clients.util.SafeEncoder;
@@ -83,6 +87,27 @@ public class SortedSetCommandsTest extends JedisCommandTestBase {
 
     }
 
+    @Test
+    public void zrangeIterator() {
+        jedis.zadd("foo", 1d, "a");
+        jedis.zadd("foo", 10d, "b");
+        jedis.zadd("foo", 0.1d, "c");
+
+        MultiBulkIterator<String> it = jedis.zrangeIterator("foo", 0, 1);
+        assertEquals("c", it.next());
+        assertEquals("a", it.next());
+        assertFalse(it.hasNext());
+
+        // Binary
+        jedis.zadd(bfoo, 1d, ba);
+        jedis.zadd(bfoo, 0.1d, bc);
+
+        MultiBulkIterator<byte[]> bit = jedis.zrangeIterator(bfoo, 0, -1);
+        assertArrayEquals(bc, bit.next());
+        assertArrayEquals(ba, bit.next());
+        assertFalse(bit.hasNext());
+    }
+
     @Test
     public void zrevrange() {
         jedis.zadd("foo", 1d, "a");
@@ -271,6 +296,29 @@ public class SortedSetCommandsTest extends JedisCommandTestBase {
 
     }
 
+    @Test
+    public void zrangeWithScoresIterator() {
+        jedis.zadd("foo", 1d, "a");
+        jedis.zadd("foo", 10d, "b");
+        jedis.zadd("foo", 0.1d, "c");
+
+        MultiBulkIterator<Tuple> it = jedis.zrangeWithScoresIterator("foo", 0,
+                -1);
+        assertEquals(3, it.remaining());
+        assertEquals(new Tuple("c", 0.1d), it.next());
+        assertEquals(new Tuple("a", 1d), it.next());
+        it.close();
+        assertFalse(it.hasNext());
+
+        // Binary
+        jedis.zadd(bfoo, 2d, ba);
+
+        MultiBulkIterator<Tuple> bit = jedis.zrangeWithScoresIterator(bfoo, 0,
+                -1);
+        assertEquals(new Tuple(ba, 2d), bit.next());
+        assertFalse(bit.hasNext());
+    }
+
     @Test
     public void zrevrangeWithScores() {
         jedis.zadd("foo", 1d, "a");
@@ -885,4 +933,41 @@ public class SortedSetCommandsTest extends JedisCommandTestBase {
         assertEquals(1, t2.compareTo(t1));
         assertEquals(0, t2.compareTo(t2));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void zscan() {
+        Set<Tuple> expected = new LinkedHashSet<Tuple>();
+        for (int i = 0; i < 10; i++) {
+            jedis.zadd("foo", i, "member" + i);
+            expected.add(new Tuple("member" + i, (double) i));
+        }
+
+        Set<Tuple> tuples = new LinkedHashSet<Tuple>();
+        String cursor = ScanParams.SCAN_POINTER_START;
+        ScanResult<Tuple> result;
+        do {
+            result = jedis.zscan("foo", cursor, new ScanParams().count(3));
+            tuples.addAll(result.getResult());
+            cursor = result.getCursor();
+        } while (!result.isCompleteIteration());
+        assertEquals(expected, tuples);
+
+        tuples.clear();
+        ScanIterator<Tuple> it = jedis.zscanIterator("foo", new ScanParams()
+                .count(3));
+        while (it.hasNext()) {
+            tuples.add(it.next());
+        }
+        assertEquals(expected, tuples);
+
+        // Binary
+        jedis.zadd(bfoo, 2d, ba);
+
+        ScanResult<Tuple> bresult = jedis.zscan(bfoo,
+                ScanParams.SCAN_POINTER_START_BINARY);
+        assertEquals(new Tuple(ba, 2d), bresult.getResult().get(0));
+        ScanIterator<Tuple> bit = jedis.zscanIterator(bfoo, new ScanParams());
+        assertEquals(new Tuple(ba, 2d), bit.next());
+        assertFalse(bit.hasNext());
+    }
+}
@@ -278,6 +278,32 @@ public class TransactionCommandsTest extends JedisCommandTestBase {
         assertEquals("bar", lr.get(2).get());
     }
     
+    @Test
+    public void execWithManyReplies() {
+        Transaction t = jedis.multi();
+        List<Response<Long>> responses = new ArrayList<Response<Long>>();
+        for (int i = 0; i < 100; i++) {
+            responses.add(t.incr("counter"));
+        }
+        t.set("foo", "bar");
+        Response<Long> error = t.incr("foo");
+        List<Object> replies = t.exec();
+
+        assertEquals(102, replies.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals(Long.valueOf(i + 1), replies.get(i));
+            assertEquals(Long.valueOf(i + 1), responses.get(i).get());
+        }
+        assertTrue(replies.get(101) instanceof JedisDataException);
+        try {
+            error.get();
+            fail("We expect exception here!");
+        } catch (JedisDataException e) {
+            // that is fine we should be here
+        }
+        assertEquals("bar", jedis.get("foo"));
+    }
+
     @Test
     public void select() {
         jedis.select(1);